@@ -291,6 +291,8 @@ public class CatalogUtil {
       return StoreType.JSON;
     } else if (typeStr.equalsIgnoreCase(StoreType.HBASE.name())) {
       return StoreType.HBASE;
+    } else if (typeStr.equalsIgnoreCase(StoreType.ORC.name())) {
+      return StoreType.ORC;
     } else {
       return null;
     }
@@ -849,6 +851,8 @@ public class CatalogUtil {
       options.set(StorageConstants.TEXT_DELIMITER, StorageConstants.DEFAULT_FIELD_DELIMITER);
     } else if (StoreType.JSON == type) {
       options.set(StorageConstants.TEXT_SERDE_CLASS, "org.apache.tajo.storage.json.JsonLineSerDe");
+    } else if (StoreType.ROWFILE == type) {
+      options.set(StorageConstants.ZONE_MAP_ENABLED, "true");
     } else if (StoreType.RCFILE == type) {
       options.set(StorageConstants.RCFILE_SERDE, StorageConstants.DEFAULT_BINARY_SERDE);
     } else if (StoreType.SEQUENCEFILE == type) {
@@ -860,6 +864,11 @@ public class CatalogUtil {
       options.set(COMPRESSION, StorageConstants.PARQUET_DEFAULT_COMPRESSION_CODEC_NAME);
       options.set(ENABLE_DICTIONARY, StorageConstants.PARQUET_DEFAULT_IS_DICTIONARY_ENABLED);
       options.set(VALIDATION, StorageConstants.PARQUET_DEFAULT_IS_VALIDATION_ENABLED);
+    } else if (type == StoreType.ORC) {
+      options.set(StorageConstants.ORC_STRIPE_SIZE, StorageConstants.ORC_DEFAULT_STRIPE_SIZE);
+      options.set(StorageConstants.ORC_COMPRESSION, StorageConstants.ORC_DEFAULT_COMPRESSION);
+      options.set(StorageConstants.ORC_COMPRESSION_BUFFER_SIZE, StorageConstants.ORC_DEFAULT_COMPRESSION_BUFFER_SIZE);
+      options.set(StorageConstants.ORC_ROW_INDEX_STRIDE, StorageConstants.ORC_DEFAULT_ROW_INDEX_STRIDE);
     }
 
     return options;
@@ -88,6 +88,10 @@ public class StatisticsUtil {
     result.setReadBytes(result.getReadBytes() + stats.getReadBytes());
     result.setNumBlocks(result.getNumBlocks() + stats.getNumBlocks());
     result.setNumShuffleOutputs(result.getNumShuffleOutputs() + stats.getNumShuffleOutputs());
+    result.setNumSpills(result.getNumSpills() + stats.getNumSpills());
+    result.setSpillBytes(result.getSpillBytes() + stats.getSpillBytes());
+    result.setCompressedBytes(result.getCompressedBytes() + stats.getCompressedBytes());
+    result.setNumSkippedBlocks(result.getNumSkippedBlocks() + stats.getNumSkippedBlocks());
   }
 
   public static TableStats aggregateTableStat(List<TableStats> tableStatses) {
@@ -144,6 +148,10 @@ public class StatisticsUtil {
       aggregated.setReadBytes(aggregated.getReadBytes() + ts.getReadBytes());
       aggregated.setNumBlocks(aggregated.getNumBlocks() + ts.getNumBlocks());
       aggregated.setNumShuffleOutputs(aggregated.getNumShuffleOutputs() + ts.getNumShuffleOutputs());
+      aggregated.setNumSpills(aggregated.getNumSpills() + ts.getNumSpills());
+      aggregated.setSpillBytes(aggregated.getSpillBytes() + ts.getSpillBytes());
+      aggregated.setCompressedBytes(aggregated.getCompressedBytes() + ts.getCompressedBytes());
+      aggregated.setNumSkippedBlocks(aggregated.getNumSkippedBlocks() + ts.getNumSkippedBlocks());
     }
 
     //aggregated.setAvgRows(aggregated.getNumRows() / tableStats.size());
@@ -42,6 +42,10 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
   @Expose private Integer numShuffleOutputs = null; // optional
   @Expose private Long avgRows = null; // optional
   @Expose private Long readBytes = null; //optional
+  @Expose private Integer numSpills = null; // optional
+  @Expose private Long spillBytes = null; // optional
+  @Expose private Long compressedBytes = null; // optional
+  @Expose private Integer numSkippedBlocks = null; // optional
   @Expose private List<ColumnStats> columnStatses = null; // repeated
 
   public TableStats() {
@@ -55,6 +59,10 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     numShuffleOutputs = 0;
     avgRows = 0l;
     readBytes = 0l;
+    numSpills = 0;
+    spillBytes = 0l;
+    compressedBytes = 0l;
+    numSkippedBlocks = 0;
     columnStatses = TUtil.newList();
   }
 
@@ -82,6 +90,26 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     } else {
       this.readBytes = 0l;
     }
+    if (proto.hasNumSpills()) {
+      this.numSpills = proto.getNumSpills();
+    } else {
+      this.numSpills = 0;
+    }
+    if (proto.hasSpillBytes()) {
+      this.spillBytes = proto.getSpillBytes();
+    } else {
+      this.spillBytes = 0l;
+    }
+    if (proto.hasCompressedBytes()) {
+      this.compressedBytes = proto.getCompressedBytes();
+    } else {
+      this.compressedBytes = 0l;
+    }
+    if (proto.hasNumSkippedBlocks()) {
+      this.numSkippedBlocks = proto.getNumSkippedBlocks();
+    } else {
+      this.numSkippedBlocks = 0;
+    }
 
     this.columnStatses = TUtil.newList();
     for (CatalogProtos.ColumnStatsProto colProto : proto.getColStatList()) {
@@ -140,6 +168,52 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     this.readBytes = readBytes;
   }
 
+  /**
+   * @return The number of times that operators spilled their in-memory data into local disks
+   */
+  public Integer getNumSpills() {
+    return numSpills;
+  }
+
+  public void setNumSpills(int numSpills) {
+    this.numSpills = numSpills;
+  }
+
+  /**
+   * @return The total bytes which operators spilled into local disks
+   */
+  public Long getSpillBytes() {
+    return spillBytes;
+  }
+
+  public void setSpillBytes(long spillBytes) {
+    this.spillBytes = spillBytes;
+  }
+
+  /**
+   * @return The bytes of compressed data which are actually stored, or 0 if data are not compressed.
+   * {@link #getNumBytes()} are bytes before compression.
+   */
+  public Long getCompressedBytes() {
+    return compressedBytes;
+  }
+
+  public void setCompressedBytes(long compressedBytes) {
+    this.compressedBytes = compressedBytes;
+  }
+
+  /**
+   * @return The number of blocks (e.g., row groups) which scanners skipped by their statistics against
+   * search conditions
+   */
+  public Integer getNumSkippedBlocks() {
+    return numSkippedBlocks;
+  }
+
+  public void setNumSkippedBlocks(int numSkippedBlocks) {
+    this.numSkippedBlocks = numSkippedBlocks;
+  }
+
   public List<ColumnStats> getColumnStats() {
     return this.columnStatses;
   }
@@ -162,6 +236,10 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
       eq = eq && TUtil.checkEquals(this.numShuffleOutputs, other.numShuffleOutputs);
       eq = eq && TUtil.checkEquals(this.avgRows, other.avgRows);
       eq = eq && TUtil.checkEquals(this.readBytes, other.readBytes);
+      eq = eq && TUtil.checkEquals(this.numSpills, other.numSpills);
+      eq = eq && TUtil.checkEquals(this.spillBytes, other.spillBytes);
+      eq = eq && TUtil.checkEquals(this.compressedBytes, other.compressedBytes);
+      eq = eq && TUtil.checkEquals(this.numSkippedBlocks, other.numSkippedBlocks);
       eq = eq && TUtil.checkEquals(this.columnStatses, other.columnStatses);
       return eq;
     } else {
@@ -182,6 +260,10 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     stat.numShuffleOutputs = numShuffleOutputs != null ? numShuffleOutputs : null;
     stat.avgRows = avgRows != null ? avgRows : null;
     stat.readBytes = readBytes != null ? readBytes : null;
+    stat.numSpills = numSpills != null ? numSpills : null;
+    stat.spillBytes = spillBytes != null ? spillBytes : null;
+    stat.compressedBytes = compressedBytes != null ? compressedBytes : null;
+    stat.numSkippedBlocks = numSkippedBlocks != null ? numSkippedBlocks : null;
 
     stat.columnStatses = new ArrayList<ColumnStats>(this.columnStatses);
 
@@ -211,6 +293,18 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     if (stat.readBytes != null) {
       readBytes += stat.readBytes;
     }
+    if (stat.numSpills != null) {
+      numSpills += stat.numSpills;
+    }
+    if (stat.spillBytes != null) {
+      spillBytes += stat.spillBytes;
+    }
+    if (stat.compressedBytes != null) {
+      compressedBytes += stat.compressedBytes;
+    }
+    if (stat.numSkippedBlocks != null) {
+      numSkippedBlocks += stat.numSkippedBlocks;
+    }
   }
 
   public void setValues(TableStats stat) {
@@ -224,6 +318,10 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     numShuffleOutputs = stat.numShuffleOutputs != null ? stat.numShuffleOutputs : 0;
     avgRows = stat.avgRows != null ? stat.avgRows : 0;
     readBytes = stat.readBytes != null ? stat.readBytes : 0;
+    numSpills = stat.numSpills != null ? stat.numSpills : 0;
+    spillBytes = stat.spillBytes != null ? stat.spillBytes : 0;
+    compressedBytes = stat.compressedBytes != null ? stat.compressedBytes : 0;
+    numSkippedBlocks = stat.numSkippedBlocks != null ? stat.numSkippedBlocks : 0;
   }
 
   public String toString() {
@@ -255,6 +353,18 @@ public class TableStats implements ProtoObject<TableStatsProto>, Cloneable, Gson
     if (this.readBytes != null) {
       builder.setReadBytes(this.readBytes);
     }
+    if (this.numSpills != null) {
+      builder.setNumSpills(this.numSpills);
+    }
+    if (this.spillBytes != null) {
+      builder.setSpillBytes(this.spillBytes);
+    }
+    if (this.compressedBytes != null) {
+      builder.setCompressedBytes(this.compressedBytes);
+    }
+    if (this.numSkippedBlocks != null) {
+      builder.setNumSkippedBlocks(this.numSkippedBlocks);
+    }
     if (this.columnStatses != null) {
       for (ColumnStats colStat : columnStatses) {
         builder.addColStat(colStat.getProto());
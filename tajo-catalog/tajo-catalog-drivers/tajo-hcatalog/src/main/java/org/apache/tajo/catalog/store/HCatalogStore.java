@@ -55,6 +55,7 @@ import org.apache.tajo.common.exception.NotImplementedException;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.exception.InternalException;
 import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.storage.StorageUtil;
 import org.apache.tajo.util.KeyValueSet;
 import org.apache.thrift.TException;
 
@@ -199,6 +200,9 @@ public class HCatalogStore extends CatalogConstants implements CatalogStore {
         // set file output format
         String fileOutputformat = properties.getProperty(hive_metastoreConstants.FILE_OUTPUT_FORMAT);
         storeType = CatalogUtil.getStoreType(HCatalogUtil.getStoreType(fileOutputformat));
+        if (storeType.equals(CatalogProtos.StoreType.ORC)) {
+          StorageUtil.checkOrcAvailable(conf);
+        }
 
         if (storeType.equals(CatalogProtos.StoreType.TEXTFILE)) {
           options.set(StorageConstants.TEXT_DELIMITER, StringEscapeUtils.escapeJava(fieldDelimiter));
@@ -560,6 +564,11 @@ public class HCatalogStore extends CatalogConstants implements CatalogStore {
           sd.setInputFormat(parquet.hive.DeprecatedParquetInputFormat.class.getName());
           sd.setOutputFormat(parquet.hive.DeprecatedParquetOutputFormat.class.getName());
           sd.getSerdeInfo().setSerializationLib(parquet.hive.serde.ParquetHiveSerDe.class.getName());
+        } else if (tableDesc.getMeta().getStoreType().equals(CatalogProtos.StoreType.ORC)) {
+          StorageUtil.checkOrcAvailable(conf);
+          sd.setInputFormat(org.apache.hadoop.hive.ql.io.orc.OrcInputFormat.class.getName());
+          sd.setOutputFormat(org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat.class.getName());
+          sd.getSerdeInfo().setSerializationLib(org.apache.hadoop.hive.ql.io.orc.OrcSerde.class.getName());
         } else {
           throw new CatalogException(new NotImplementedException(tableDesc.getMeta().getStoreType
               ().name()));
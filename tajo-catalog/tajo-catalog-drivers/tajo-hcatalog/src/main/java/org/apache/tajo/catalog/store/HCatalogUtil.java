@@ -24,6 +24,7 @@ import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.ql.io.HiveIgnoreKeyTextOutputFormat;
 import org.apache.hadoop.hive.ql.io.HiveSequenceFileOutputFormat;
 import org.apache.hadoop.hive.ql.io.RCFileOutputFormat;
+import org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat;
 import org.apache.hadoop.hive.ql.metadata.Table;
 import org.apache.hadoop.hive.serde.serdeConstants;
 import org.apache.hcatalog.common.HCatException;
@@ -136,6 +137,8 @@ public class HCatalogUtil {
       return CatalogProtos.StoreType.RCFILE.name();
     } else if(outputFormatClass.equals(DeprecatedParquetOutputFormat.class.getSimpleName())) {
       return CatalogProtos.StoreType.PARQUET.name();
+    } else if(outputFormatClass.equals(OrcOutputFormat.class.getSimpleName())) {
+      return CatalogProtos.StoreType.ORC.name();
     } else {
       throw new CatalogException("Not supported file output format. - file output format:" + fileFormat);
     }
@@ -99,29 +99,63 @@ public enum SessionVars implements ConfigKey {
 
   JOIN_PER_SHUFFLE_SIZE(ConfVars.$DIST_QUERY_JOIN_PARTITION_VOLUME, "shuffle output size for join (mb)", DEFAULT,
       Integer.class, Validators.min("1")),
+  JOIN_SKEW_ENABLED(ConfVars.$DIST_QUERY_JOIN_SKEW_ENABLED, "skewed join partitions are split into several tasks",
+      DEFAULT, Boolean.class, Validators.bool()),
+  JOIN_SKEW_FACTOR(ConfVars.$DIST_QUERY_JOIN_SKEW_FACTOR,
+      "a join partition larger than this factor times the median partition volume is skewed", DEFAULT,
+      Integer.class, Validators.min("1")),
   GROUPBY_PER_SHUFFLE_SIZE(ConfVars.$DIST_QUERY_GROUPBY_PARTITION_VOLUME, "shuffle output size for sort (mb)", DEFAULT,
       Integer.class, Validators.min("1")),
   TABLE_PARTITION_PER_SHUFFLE_SIZE(ConfVars.$DIST_QUERY_TABLE_PARTITION_VOLUME,
       "shuffle output size for partition table write (mb)", DEFAULT, Long.class, Validators.min("1")),
 
+  SHUFFLE_COMPRESSION_CODEC(ConfVars.$SHUFFLE_COMPRESSION_CODEC,
+      "compression codec (e.g., snappy, lz4 or a codec class name) of intermediate data", DEFAULT),
+  SHUFFLE_PUSH_ENABLED(ConfVars.$SHUFFLE_PUSH_ENABLED, "push-based hash shuffle enabled", DEFAULT,
+      Boolean.class, Validators.bool()),
+  SHUFFLE_ADAPTIVE_PARTITION_ENABLED(ConfVars.$SHUFFLE_ADAPTIVE_PARTITION_ENABLED,
+      "hash shuffle partitions are coalesced by actual volumes", DEFAULT, Boolean.class, Validators.bool()),
+  SHUFFLE_OVER_PARTITION_FACTOR(ConfVars.$SHUFFLE_OVER_PARTITION_FACTOR,
+      "multiplier of the hash shuffle output number if adaptive partition is enabled", DEFAULT,
+      Integer.class, Validators.min("1")),
+
   GROUPBY_MULTI_LEVEL_ENABLED(ConfVars.$GROUPBY_MULTI_LEVEL_ENABLED, "Multiple level groupby enabled", DEFAULT,
       Boolean.class, Validators.bool()),
 
   // for physical Executors
   EXTSORT_BUFFER_SIZE(ConfVars.$EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE, "sort buffer size for external sort (mb)", DEFAULT,
       Long.class, Validators.min("0")),
+  SORT_NORMALIZED_KEY_ENABLED(ConfVars.$EXECUTOR_SORT_NORMALIZED_KEY_ENABLED,
+      "sort keys are compared as normalized binary keys in sort, merge join and range shuffle", DEFAULT,
+      Boolean.class, Validators.bool()),
   HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash join (mb)", DEFAULT,
       Long.class, Validators.min("0")),
   INNER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD,
       "limited size for hash inner join (mb)", DEFAULT, Long.class, Validators.min("0")),
   OUTER_HASH_JOIN_SIZE_LIMIT(ConfVars.$EXECUTOR_OUTER_HASH_JOIN_SIZE_THRESHOLD, "limited size for hash outer join (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  HYBRID_HASH_JOIN_ENABLED(ConfVars.$EXECUTOR_HYBRID_HASH_JOIN_ENABLED,
+      "hybrid hash join is used instead of merge join for large inner joins", DEFAULT, Boolean.class,
+      Validators.bool()),
+  HYBRID_HASH_JOIN_BUFFER_SIZE(ConfVars.$EXECUTOR_HYBRID_HASH_JOIN_BUFFER_SIZE, "join buffer size for hybrid hash join (mb)",
+      DEFAULT, Long.class, Validators.min("0")),
   HASH_GROUPBY_SIZE_LIMIT(ConfVars.$EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD, "limited size for hash groupby (mb)",
       DEFAULT, Long.class, Validators.min("0")),
+  HASH_GROUPBY_BUFFER_SIZE(ConfVars.$EXECUTOR_GROUPBY_HASH_BUFFER_SIZE,
+      "hash table size for hash groupby, beyond which partial aggregation states are spilled (mb)", DEFAULT,
+      Long.class, Validators.min("0")),
   MAX_OUTPUT_FILE_SIZE(ConfVars.$MAX_OUTPUT_FILE_SIZE, "Maximum per-output file size (mb). 0 means infinite.", DEFAULT,
       Long.class, Validators.min("0")),
   NULL_CHAR(ConfVars.$TEXT_NULL, "null char of text file output", DEFAULT),
-  CODEGEN(ConfVars.$CODEGEN, "Runtime code generation enabled (experiment)", DEFAULT),
+  CODEGEN(ConfVars.$CODEGEN, "Runtime code generation enabled", DEFAULT),
+  CODEGEN_WHOLE_STAGE_ENABLED(ConfVars.$CODEGEN_WHOLE_STAGE_ENABLED,
+      "Fusing scan, filter and projection into a single generated class enabled", DEFAULT, Boolean.class,
+      Validators.bool()),
+  VECTORIZED_EXECUTION_ENABLED(ConfVars.$EXECUTOR_VECTORIZED_ENABLED,
+      "Batch-at-a-time execution of physical executors enabled (experiment)", DEFAULT, Boolean.class,
+      Validators.bool()),
+  VECTORIZED_BATCH_SIZE(ConfVars.$EXECUTOR_VECTORIZED_BATCH_SIZE, "the number of rows in a batch", DEFAULT,
+      Integer.class, Validators.min("1")),
 
   // Behavior Control ---------------------------------------------------------
   ARITHABORT(ConfVars.$BEHAVIOR_ARITHMETIC_ABORT,
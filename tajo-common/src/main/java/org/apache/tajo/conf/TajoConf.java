@@ -51,6 +51,7 @@ public class TajoConf extends Configuration {
     Configuration.addDefaultResource("catalog-default.xml");
     Configuration.addDefaultResource("catalog-site.xml");
     Configuration.addDefaultResource("storage-default.xml");
+    Configuration.addDefaultResource("storage-orc.xml");
     Configuration.addDefaultResource("storage-site.xml");
     Configuration.addDefaultResource("tajo-default.xml");
     Configuration.addDefaultResource("tajo-site.xml");
@@ -207,9 +208,23 @@ public class TajoConf extends Configuration {
     SHUFFLE_FETCHER_CHUNK_MAX_SIZE("tajo.shuffle.fetcher.chunk.max-size",  8192),
     SHUFFLE_FETCHER_READ_TIMEOUT("tajo.shuffle.fetcher.read.timeout-sec", 120),
     SHUFFLE_FETCHER_READ_RETRY_MAX_NUM("tajo.shuffle.fetcher.read.retry.max-num", 20),
+    SHUFFLE_FETCHER_CONNECTION_MAX_NUM("tajo.shuffle.fetcher.connection.max-num-per-host", 2),
+    SHUFFLE_FETCHER_PIPELINE_MAX_NUM("tajo.shuffle.fetcher.pipeline.max-num", 8),
+    // if true, fetched RAW shuffle data are streamed into memory. A streamed fetch is not resumed after a failure.
+    SHUFFLE_FETCHER_STREAMING_ENABLED("tajo.shuffle.fetcher.streaming.enabled", false),
+    SHUFFLE_FETCHER_STREAMING_MEMORY_BUDGET("tajo.shuffle.fetcher.streaming.memory-budget-mb", 256),
     SHUFFLE_HASH_APPENDER_BUFFER_SIZE("tajo.shuffle.hash.appender.buffer.size", 10000),
     SHUFFLE_HASH_APPENDER_PAGE_VOLUME("tajo.shuffle.hash.appender.page.volumn-mb", 30),
     HASH_SHUFFLE_PARENT_DIRS("tajo.hash.shuffle.parent.dirs.count", 10),
+    // if true, range shuffle outputs of tasks on a worker are appended into a shared file.
+    // It costs one more local copy of each output.
+    SHUFFLE_RANGE_CONSOLIDATION_ENABLED("tajo.shuffle.range.consolidation.enabled", false, Validators.bool()),
+    // if true, CRC32 checksums of hash shuffle pages are kept and verified by fetchers
+    SHUFFLE_PAGE_CHECKSUM_ENABLED("tajo.shuffle.page.checksum.enabled", true, Validators.bool()),
+    // pages of a pushed hash shuffle partition are sent in batches, and a batch of whole pages must stay
+    // below the 64MB message limit of protobuf. A page larger than a batch volume is sent alone.
+    SHUFFLE_PUSH_BATCH_VOLUME("tajo.shuffle.push.batch.volume-mb", 32, Validators.min("1")),
+    SHUFFLE_PUSH_INFLIGHT_MAX_NUM("tajo.shuffle.push.inflight.max-num", 2, Validators.min("1")),
 
     // Storage Configuration --------------------------------------------------
     ROWFILE_SYNC_INTERVAL("rowfile.sync.interval", 100),
@@ -266,6 +281,9 @@ public class TajoConf extends Configuration {
     EXECUTOR_EXTERNAL_SORT_FANOUT("tajo.executor.external-sort.fanout-num", 8),
 
     EXECUTOR_INNER_JOIN_INMEMORY_HASH_TABLE_SIZE("tajo.executor.join.inner.in-memory-table-num", (long)1000000),
+    EXECUTOR_HYBRID_HASH_JOIN_PARTITION_NUM("tajo.executor.join.hybrid-hash.partition-num", 32),
+    EXECUTOR_HYBRID_HASH_JOIN_MAX_DEPTH("tajo.executor.join.hybrid-hash.max-recursion-depth", 4),
+    EXECUTOR_GROUPBY_SPILL_PARTITION_NUM("tajo.executor.groupby.spill.partition-num", 32),
 
     // Metrics ----------------------------------------------------------------
     METRICS_PROPERTY_FILENAME("tajo.metrics.property.file", "tajo-metrics.properties"),
@@ -310,23 +328,39 @@ public class TajoConf extends Configuration {
     $DIST_QUERY_GROUPBY_TASK_VOLUME("tajo.dist-query.groupby.task-volume-mb", 128),
 
     $DIST_QUERY_JOIN_PARTITION_VOLUME("tajo.dist-query.join.partition-volume-mb", 128, Validators.min("1")),
+    $DIST_QUERY_JOIN_SKEW_ENABLED("tajo.dist-query.join.skew.enabled", false),
+    $DIST_QUERY_JOIN_SKEW_FACTOR("tajo.dist-query.join.skew.factor", 4, Validators.min("1")),
     $DIST_QUERY_GROUPBY_PARTITION_VOLUME("tajo.dist-query.groupby.partition-volume-mb", 256, Validators.min("1")),
     $DIST_QUERY_TABLE_PARTITION_VOLUME("tajo.dist-query.table-partition.task-volume-mb", 256, Validators.min("1")),
+    // empty means that intermediate data are not compressed
+    $SHUFFLE_COMPRESSION_CODEC("tajo.shuffle.compression.codec", ""),
+    // if true, hash shuffle outputs are pushed to the workers that own partitions
+    $SHUFFLE_PUSH_ENABLED("tajo.shuffle.push.enabled", false),
+    // if true, producers write more hash partitions than needed, and consumers coalesce small adjacent partitions
+    $SHUFFLE_ADAPTIVE_PARTITION_ENABLED("tajo.shuffle.adaptive-partition.enabled", false),
+    $SHUFFLE_OVER_PARTITION_FACTOR("tajo.shuffle.adaptive-partition.over-partition-factor", 4, Validators.min("1")),
 
     $GROUPBY_MULTI_LEVEL_ENABLED("tajo.dist-query.groupby.multi-level-aggr", true),
 
     // for physical Executors
     $EXECUTOR_EXTERNAL_SORT_BUFFER_SIZE("tajo.executor.external-sort.buffer-mb", 200L),
+    $EXECUTOR_SORT_NORMALIZED_KEY_ENABLED("tajo.executor.sort.normalized-key.enabled", true),
     $EXECUTOR_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.common.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
     $EXECUTOR_INNER_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.inner.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
     $EXECUTOR_OUTER_HASH_JOIN_SIZE_THRESHOLD("tajo.executor.join.outer.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    $EXECUTOR_HYBRID_HASH_JOIN_ENABLED("tajo.executor.join.hybrid-hash.enabled", false),
+    $EXECUTOR_HYBRID_HASH_JOIN_BUFFER_SIZE("tajo.executor.join.hybrid-hash.buffer-mb", 200L),
     $EXECUTOR_GROUPBY_INMEMORY_HASH_THRESHOLD("tajo.executor.groupby.in-memory-hash-threshold-bytes",
         (long)256 * 1048576),
+    $EXECUTOR_GROUPBY_HASH_BUFFER_SIZE("tajo.executor.groupby.hash.buffer-mb", 512L),
     $MAX_OUTPUT_FILE_SIZE("tajo.query.max-outfile-size-mb", 0), // zero means infinite
-    $CODEGEN("tajo.executor.codegen.enabled", false), // Runtime code generation (todo this is broken)
+    $CODEGEN("tajo.executor.codegen.enabled", true), // Runtime code generation
+    $CODEGEN_WHOLE_STAGE_ENABLED("tajo.executor.codegen.whole-stage.enabled", false),
+    $EXECUTOR_VECTORIZED_ENABLED("tajo.executor.vectorized.enabled", false),
+    $EXECUTOR_VECTORIZED_BATCH_SIZE("tajo.executor.vectorized.batch-size", 1024),
 
     // Client -----------------------------------------------------------------
     $CLIENT_SESSION_EXPIRY_TIME("tajo.client.session.expiry-time-sec", 3600), // default time is one hour.
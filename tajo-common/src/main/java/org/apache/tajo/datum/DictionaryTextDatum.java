@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.datum;
+
+/**
+ * A text datum which is an entry of a {@link TextDictionary}.
+ *
+ * It is the same as {@link TextDatum} except that its hash code is computed once, and that it is compared by
+ * its dictionary id with another entry of the same dictionary. So, hash aggregation and hash join on
+ * dictionary-encoded columns do not hash and compare the whole bytes for every row.
+ */
+public class DictionaryTextDatum extends TextDatum {
+  private final TextDictionary dictionary;
+  private final int id;
+  private final int hash;
+
+  DictionaryTextDatum(TextDictionary dictionary, int id, byte [] bytes) {
+    super(bytes);
+    this.dictionary = dictionary;
+    this.id = id;
+    this.hash = super.hashCode();
+  }
+
+  public TextDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  @Override
+  public int compareTo(Datum datum) {
+    if (isSameEntry(datum)) {
+      return 0;
+    }
+    return super.compareTo(datum);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (obj instanceof DictionaryTextDatum && ((DictionaryTextDatum) obj).dictionary == dictionary) {
+      return ((DictionaryTextDatum) obj).id == id;
+    }
+    return super.equals(obj);
+  }
+
+  @Override
+  public Datum equalsTo(Datum datum) {
+    if (datum instanceof DictionaryTextDatum && ((DictionaryTextDatum) datum).dictionary == dictionary) {
+      return DatumFactory.createBool(((DictionaryTextDatum) datum).id == id);
+    }
+    return super.equalsTo(datum);
+  }
+
+  private boolean isSameEntry(Datum datum) {
+    return datum instanceof DictionaryTextDatum &&
+        ((DictionaryTextDatum) datum).dictionary == dictionary && ((DictionaryTextDatum) datum).id == id;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+}
@@ -0,0 +1,47 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.datum;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A dictionary of text values, which is read from a dictionary-encoded column of a storage format (e.g., Parquet).
+ *
+ * Each entry is created once as a {@link DictionaryTextDatum}, so a scanner can emit the same datum instance
+ * for every row having the same dictionary id instead of copying bytes and creating a datum per row.
+ */
+public class TextDictionary {
+  private final DictionaryTextDatum [] entries;
+
+  public TextDictionary(byte [][] values) {
+    entries = new DictionaryTextDatum[values.length];
+    for (int i = 0; i < values.length; i++) {
+      entries[i] = new DictionaryTextDatum(this, i, values[i]);
+    }
+  }
+
+  public DictionaryTextDatum get(int id) {
+    Preconditions.checkElementIndex(id, entries.length, "dictionary id");
+    return entries[id];
+  }
+
+  public int size() {
+    return entries.length;
+  }
+}
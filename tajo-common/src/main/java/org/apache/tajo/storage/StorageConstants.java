@@ -68,6 +68,11 @@ public class StorageConstants {
   public static final String RCFILE_NULL = "rcfile.null";
   public static final String RCFILE_SERDE = "rcfile.serde";
 
+  // Zone map properties -------------------------------------------------
+  public static final String ZONE_MAP_ENABLED = "zonemap.enabled";
+  public static final String ZONE_MAP_ZONE_SIZE = "zonemap.zone.size";
+  public static final String ZONE_MAP_DEFAULT_ZONE_SIZE = Integer.toString(1024 * 1024);
+
   public static final String DEFAULT_FIELD_DELIMITER = "|";
   public static final String DEFAULT_BINARY_SERDE = "org.apache.tajo.storage.BinarySerializerDeserializer";
   public static final String DEFAULT_TEXT_SERDE = "org.apache.tajo.storage.TextSerializerDeserializer";
@@ -84,6 +89,23 @@ public class StorageConstants {
   public static final int DEFAULT_PAGE_SIZE = 1 * 1024 * 1024;
 
 
+  // ORC file properties -------------------------------------------------
+  public static final String ORC_STRIPE_SIZE = "orc.stripe.size";
+  public static final String ORC_COMPRESSION = "orc.compress";
+  public static final String ORC_COMPRESSION_BUFFER_SIZE = "orc.compress.size";
+  public static final String ORC_ROW_INDEX_STRIDE = "orc.row.index.stride";
+
+  public static final String ORC_DEFAULT_STRIPE_SIZE = Integer.toString(64 * 1024 * 1024);
+  public static final String ORC_DEFAULT_COMPRESSION = "zlib";
+  public static final String ORC_DEFAULT_COMPRESSION_BUFFER_SIZE = Integer.toString(256 * 1024);
+  public static final String ORC_DEFAULT_ROW_INDEX_STRIDE = "10000";
+
+  // registered in storage-orc.xml, which is packaged only if Tajo is built with -Porc
+  public static final String ORC_SCANNER_HANDLER_KEY = "tajo.storage.scanner-handler.orc.class";
+  public static final String ORC_APPENDER_HANDLER_KEY = "tajo.storage.appender-handler.orc.class";
+  public static final String ORC_HIVE_CLASS = "org.apache.hadoop.hive.ql.io.orc.OrcFile";
+
+
   // Avro file properties -------------------------------------------------
   public static final String AVRO_SCHEMA_LITERAL = "avro.schema.literal";
   public static final String AVRO_SCHEMA_URL = "avro.schema.url";
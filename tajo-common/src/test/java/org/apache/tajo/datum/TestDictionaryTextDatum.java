@@ -0,0 +1,76 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.datum;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestDictionaryTextDatum {
+
+  private static TextDictionary createDictionary(String... values) {
+    byte [][] bytes = new byte[values.length][];
+    for (int i = 0; i < values.length; i++) {
+      bytes[i] = values[i].getBytes(TextDatum.DEFAULT_CHARSET);
+    }
+    return new TextDictionary(bytes);
+  }
+
+  @Test
+  public final void testSameAsTextDatum() {
+    TextDictionary dictionary = createDictionary("apple", "banana", "");
+    assertEquals(3, dictionary.size());
+
+    for (int i = 0; i < dictionary.size(); i++) {
+      DictionaryTextDatum datum = dictionary.get(i);
+      TextDatum text = DatumFactory.createText(datum.asChars());
+      assertEquals(i, datum.getId());
+      assertSame(datum, dictionary.get(i));
+      assertEquals(text.hashCode(), datum.hashCode());
+      assertEquals(text, datum);
+      assertEquals(datum, text);
+      assertEquals(0, datum.compareTo(text));
+      assertTrue(datum.equalsTo(text).asBool());
+    }
+  }
+
+  @Test
+  public final void testCompareWithinDictionary() {
+    TextDictionary dictionary = createDictionary("apple", "banana");
+    DictionaryTextDatum apple = dictionary.get(0);
+    DictionaryTextDatum banana = dictionary.get(1);
+
+    assertFalse(apple.equals(banana));
+    assertFalse(apple.equalsTo(banana).asBool());
+    assertTrue(apple.compareTo(banana) < 0);
+    assertTrue(banana.compareTo(apple) > 0);
+    assertEquals(0, apple.compareTo(apple));
+  }
+
+  @Test
+  public final void testCompareAcrossDictionaries() {
+    // the same value may have different ids in different column chunks
+    TextDictionary dictionary1 = createDictionary("apple", "banana");
+    TextDictionary dictionary2 = createDictionary("banana", "apple");
+
+    assertEquals(dictionary1.get(0), dictionary2.get(1));
+    assertEquals(dictionary1.get(0).hashCode(), dictionary2.get(1).hashCode());
+    assertFalse(dictionary1.get(0).equals(dictionary2.get(0)));
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.EvalNodeVisitor;
+import org.apache.tajo.plan.serder.PlanProto;
+
+import java.util.List;
+
+/**
+ * The super class of all classes generated by {@link EvalCodeGenerator}. A generated class only implements
+ * {@link #eval(org.apache.tajo.storage.Tuple)}, and the other methods are delegated to the source EvalNode.
+ *
+ * Some sub expressions (e.g., IN and LIKE predicates) are evaluated by their interpreted EvalNodes embedded in a
+ * generated class. They are registered by the generated constructor, and they are bound when this eval is bound.
+ */
+public abstract class CompiledEval extends EvalNode {
+  private EvalNode source;
+  private final List<EvalNode> nestedEvals = Lists.newArrayList();
+
+  void setSource(EvalNode source) {
+    this.source = source;
+    this.type = source.getType();
+  }
+
+  public EvalNode getSource() {
+    return source;
+  }
+
+  /**
+   * It is called by the constructor of a generated class.
+   */
+  @SuppressWarnings("unused")
+  protected void addNestedEval(EvalNode evalNode) {
+    nestedEvals.add(evalNode);
+  }
+
+  @Override
+  public void bind(Schema schema) {
+    for (EvalNode nested : nestedEvals) {
+      nested.bind(schema);
+    }
+  }
+
+  @Override
+  public DataType getValueType() {
+    return source.getValueType();
+  }
+
+  @Override
+  public int childNum() {
+    return 0;
+  }
+
+  @Override
+  public EvalNode getChild(int idx) {
+    return null;
+  }
+
+  @Override
+  public String getName() {
+    return source.getName();
+  }
+
+  @Override
+  public String toJson() {
+    return source.toJson();
+  }
+
+  @Override
+  public PlanProto.EvalNodeTree getProto() {
+    return source.getProto();
+  }
+
+  @Override
+  public void preOrder(EvalNodeVisitor visitor) {
+    source.preOrder(visitor);
+  }
+
+  @Override
+  public void postOrder(EvalNodeVisitor visitor) {
+    source.postOrder(visitor);
+  }
+
+  @Override
+  public String toString() {
+    return source.toString();
+  }
+}
@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import com.google.common.collect.Lists;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.Tuple;
+
+import java.util.List;
+
+/**
+ * The super class of all classes generated by {@link PipelineCodeGenerator}. A generated class fuses a search
+ * condition and projection targets into a single method, so a row is filtered and projected without any
+ * virtual call per expression and without intermediate tuples.
+ */
+public abstract class CompiledPipeline {
+  private final List<EvalNode> nestedEvals = Lists.newArrayList();
+
+  /**
+   * It is called by the constructor of a generated class.
+   */
+  @SuppressWarnings("unused")
+  protected void addNestedEval(EvalNode evalNode) {
+    nestedEvals.add(evalNode);
+  }
+
+  public void bind(Schema schema) {
+    for (EvalNode nested : nestedEvals) {
+      nested.bind(schema);
+    }
+  }
+
+  /**
+   * Evaluates the search condition against an input tuple, and then writes the projected values into an output
+   * tuple if the condition is satisfied.
+   *
+   * @param in The input tuple read from a scanner
+   * @param out The output tuple. It is not changed if the condition is not satisfied.
+   * @return True if the input tuple satisfies the condition
+   */
+  public abstract boolean process(Tuple in, Tuple out);
+}
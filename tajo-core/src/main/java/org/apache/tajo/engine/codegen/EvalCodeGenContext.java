@@ -19,6 +19,7 @@
 package org.apache.tajo.engine.codegen;
 
 import com.google.common.collect.Maps;
+import org.apache.tajo.OverridableConf;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.common.TajoDataTypes;
 import org.apache.tajo.datum.Datum;
@@ -35,17 +36,38 @@ import java.util.Stack;
 
 public class EvalCodeGenContext extends TajoGeneratorAdapter {
   final String owner;
+  final Class superClass;
   final Schema schema;
   final ClassWriter classWriter;
-  final EvalNode evalNode;
+  final EvalNode [] evalNodes;
   final Map<EvalNode, String> symbols;
   int seqId = 0;
 
   public EvalCodeGenContext(String className, Schema schema, ClassWriter classWriter, EvalNode evalNode) {
+    this(className, CompiledEval.class, schema, classWriter, new EvalNode[] {evalNode},
+        "eval", Datum.class, new Class[] {Tuple.class});
+  }
+
+  /**
+   * Creates a context which generates a class evaluating several expressions in one method.
+   *
+   * @param className The name of the generated class
+   * @param superClass The super class of the generated class. It must have a no-arg constructor and
+   *                   <code>addNestedEval(EvalNode)</code>.
+   * @param schema The input schema of all expressions
+   * @param classWriter The class writer
+   * @param evalNodes All expressions evaluated by the generated method
+   * @param methodName The name of the generated method
+   * @param returnType The return type of the generated method
+   * @param paramTypes The parameter types of the generated method. The first parameter must be an input tuple.
+   */
+  public EvalCodeGenContext(String className, Class superClass, Schema schema, ClassWriter classWriter,
+                            EvalNode [] evalNodes, String methodName, Class returnType, Class [] paramTypes) {
     this.owner = className;
+    this.superClass = superClass;
     this.classWriter = classWriter;
     this.schema = schema;
-    this.evalNode = evalNode;
+    this.evalNodes = evalNodes;
     this.symbols = Maps.newHashMap();
 
     emitClassDefinition();
@@ -53,8 +75,7 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
     classWriter.visitEnd();
     emitConstructor();
 
-    String methodName = "eval";
-    String methodDesc = TajoGeneratorAdapter.getMethodDescription(Datum.class, new Class[]{Tuple.class});
+    String methodDesc = TajoGeneratorAdapter.getMethodDescription(returnType, paramTypes);
     MethodVisitor evalMethod = classWriter.visitMethod(Opcodes.ACC_PUBLIC, methodName, methodDesc, null, null);
     evalMethod.visitCode();
     this.methodvisitor = evalMethod;
@@ -63,7 +84,7 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
 
   public void emitClassDefinition() {
     classWriter.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC, this.owner, null,
-        TajoGeneratorAdapter.getInternalName(EvalNode.class), null);
+        TajoGeneratorAdapter.getInternalName(superClass), null);
   }
 
   public void emitMemberFields() {
@@ -71,7 +92,9 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
         "L" + TajoGeneratorAdapter.getInternalName(Schema.class) + ";", null, null);
 
     VariablesPreBuilder builder = new VariablesPreBuilder();
-    builder.visit(this, evalNode, new Stack<EvalNode>());
+    for (EvalNode evalNode : evalNodes) {
+      builder.visit(this, evalNode, new Stack<EvalNode>());
+    }
   }
 
   public static void emitCreateSchema(TajoGeneratorAdapter adapter, MethodVisitor mv, Schema schema) {
@@ -100,8 +123,8 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
     MethodVisitor initMethod = classWriter.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
     initMethod.visitCode();
     initMethod.visitVarInsn(Opcodes.ALOAD, 0);
-    initMethod.visitMethodInsn(Opcodes.INVOKESPECIAL, TajoGeneratorAdapter.getInternalName(EvalNode.class), "<init>",
-        "()V");
+    initMethod.visitMethodInsn(Opcodes.INVOKESPECIAL, TajoGeneratorAdapter.getInternalName(superClass),
+        "<init>", "()V");
 
     TajoGeneratorAdapter consAdapter = new TajoGeneratorAdapter(Opcodes.ACC_PUBLIC, initMethod, "<init>", "()V");
 
@@ -113,7 +136,17 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
     }
 
     for (Map.Entry<EvalNode, String> entry : symbols.entrySet()) {
-      if (entry.getKey().getType() == EvalType.CONST) {
+      if (EvalCodeGenerator.isInterpreted(entry.getKey())) {
+        // this.field = createEval(json); addNestedEval(this.field);
+        emitCreateEval(consAdapter, initMethod, entry.getKey());
+        int INTERPRETED_EVAL = consAdapter.astore();
+
+        consAdapter.aload(0);
+        consAdapter.aload(INTERPRETED_EVAL);
+        initMethod.visitFieldInsn(Opcodes.PUTFIELD, this.owner, entry.getValue(), getDescription(EvalNode.class));
+        emitAddNestedEval(consAdapter, INTERPRETED_EVAL);
+
+      } else if (entry.getKey().getType() == EvalType.CONST) {
         ConstEval constEval = (ConstEval) entry.getKey();
 
         if (constEval.getValueType().getType() == TajoDataTypes.Type.INTERVAL) {
@@ -150,6 +183,7 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
         consAdapter.aload(0);
         consAdapter.aload(IN_PREDICATE_EVAL);
         initMethod.visitFieldInsn(Opcodes.PUTFIELD, this.owner, entry.getValue(), getDescription(InEval.class));
+        emitAddNestedEval(consAdapter, IN_PREDICATE_EVAL);
 
       } else if (EvalType.isStringPatternMatchOperator(entry.getKey().getType())) {
         PatternMatchPredicateEval patternPredicate = (PatternMatchPredicateEval) entry.getKey();
@@ -171,6 +205,7 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
         consAdapter.aload(0);
         consAdapter.aload(PatternEval);
         initMethod.visitFieldInsn(Opcodes.PUTFIELD, this.owner, entry.getValue(), getDescription(clazz));
+        emitAddNestedEval(consAdapter, PatternEval);
 
       } else if (entry.getKey().getType() == EvalType.FUNCTION) {
         GeneralFunctionEval function = (GeneralFunctionEval) entry.getKey();
@@ -196,9 +231,12 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
           consAdapter.methodvisitor.visitInsn(Opcodes.AASTORE);
         }
 
+        // function.init(null, paramTypes)
         initMethod.visitVarInsn(Opcodes.ALOAD, FUNCTION);
+        initMethod.visitInsn(Opcodes.ACONST_NULL);
         consAdapter.aload(PARAM_TYPE_ARRAY);
-        consAdapter.invokeVirtual(function.getFuncDesc().getFuncClass(), "init", void.class, new Class[] {FunctionEval.ParamType[].class});
+        consAdapter.invokeVirtual(function.getFuncDesc().getFuncClass(), "init", void.class,
+            new Class[] {OverridableConf.class, FunctionEval.ParamType[].class});
 
         initMethod.visitVarInsn(Opcodes.ALOAD, 0);
         initMethod.visitVarInsn(Opcodes.ALOAD, FUNCTION);
@@ -213,8 +251,18 @@ public class EvalCodeGenContext extends TajoGeneratorAdapter {
     initMethod.visitEnd();
   }
 
+  /**
+   * Emits <code>this.addNestedEval(evalNode)</code> so that a nested eval is bound together with a compiled eval.
+   */
+  private void emitAddNestedEval(TajoGeneratorAdapter consAdapter, int evalVarId) {
+    consAdapter.aload(0);
+    consAdapter.aload(evalVarId);
+    consAdapter.methodvisitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, this.owner, "addNestedEval",
+        TajoGeneratorAdapter.getMethodDescription(void.class, new Class[] {EvalNode.class}));
+  }
+
   public void emitReturn() {
-    convertToDatum(evalNode.getValueType(), true);
+    convertToDatum(evalNodes[0].getValueType(), true);
     methodvisitor.visitInsn(Opcodes.ARETURN);
     methodvisitor.visitMaxs(0, 0);
     methodvisitor.visitEnd();
@@ -25,6 +25,7 @@ import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.IntervalDatum;
 import org.apache.tajo.datum.ProtobufDatum;
 import org.apache.tajo.engine.json.CoreGsonHelper;
+import org.apache.tajo.function.FunctionInvocation;
 import org.apache.tajo.org.objectweb.asm.ClassWriter;
 import org.apache.tajo.org.objectweb.asm.Label;
 import org.apache.tajo.org.objectweb.asm.Opcodes;
@@ -33,7 +34,6 @@ import org.apache.tajo.plan.expr.*;
 import org.apache.tajo.storage.Tuple;
 
 import java.io.PrintStream;
-import java.lang.reflect.Constructor;
 import java.util.Stack;
 
 import static org.apache.tajo.common.TajoDataTypes.DataType;
@@ -78,6 +78,19 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
   }
 
   public EvalNode compile(Schema schema, EvalNode expr) throws CompilationError {
+    return newInstance(compileClass(schema, expr), expr);
+  }
+
+  /**
+   * Generates and loads a class evaluating a given expression. A loaded class can be instantiated many times by
+   * {@link #newInstance(Class, EvalNode)}, and each instance can be used by only one thread at a time.
+   *
+   * @param schema The input schema of the expression
+   * @param expr The expression to be compiled
+   * @return The generated class
+   * @throws CompilationError if the expression cannot be compiled or the generated bytecode is invalid
+   */
+  public Class<? extends CompiledEval> compileClass(Schema schema, EvalNode expr) throws CompilationError {
 
     ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
 
@@ -87,20 +100,54 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
     visit(context, expr, new Stack<EvalNode>());
     context.emitReturn();
 
-    Class aClass = classLoader.defineClass(className, classWriter.toByteArray());
-
-    Constructor constructor;
-    EvalNode compiledEval;
-
+    Class<? extends CompiledEval> aClass;
     try {
-      constructor = aClass.getConstructor();
-      compiledEval = (EvalNode) constructor.newInstance();
+      aClass = classLoader.defineClass(className, classWriter.toByteArray()).asSubclass(CompiledEval.class);
+      // The bytecode is verified when the class is linked. Instantiating it once makes invalid bytecode
+      // be detected at compile time instead of at the first evaluation.
+      aClass.newInstance();
     } catch (Throwable t) {
       throw new CompilationError(expr, t, classWriter.toByteArray());
     }
+    return aClass;
+  }
+
+  /**
+   * Creates a new instance of a class generated by {@link #compileClass(Schema, EvalNode)}.
+   *
+   * @param clazz The generated class
+   * @param source The expression from which the class was generated
+   * @return The new compiled eval. It must be bound before evaluation like other EvalNodes.
+   */
+  public static EvalNode newInstance(Class<? extends CompiledEval> clazz, EvalNode source) throws CompilationError {
+    CompiledEval compiledEval;
+    try {
+      compiledEval = clazz.newInstance();
+    } catch (Throwable t) {
+      throw new CompilationError("Cannot instantiate the compiled class of " + source, t);
+    }
+    compiledEval.setSource(source);
     return compiledEval;
   }
 
+  /**
+   * Returns true if an expression is not translated into bytecode, but is embedded in a generated class and
+   * evaluated by the interpreted EvalNode. Its sub expressions are not compiled.
+   */
+  public static boolean isInterpreted(EvalNode evalNode) {
+    switch (evalNode.getType()) {
+    case BIT_AND:
+    case BIT_OR:
+    case BIT_XOR:
+      return true;
+    case FUNCTION:
+      FunctionInvocation invocation = ((FunctionEval) evalNode).getFuncDesc().getInvocation();
+      return !invocation.hasScalar() && !invocation.hasLegacy();
+    default:
+      return false;
+    }
+  }
+
   private void printOut(EvalCodeGenContext context, String message) {
     context.methodvisitor.visitFieldInsn(Opcodes.GETSTATIC, "java/lang/System", "out", "Ljava/io/PrintStream;");
     context.push(message);
@@ -108,7 +155,9 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
   }
 
   public EvalNode visitBinaryEval(EvalCodeGenContext context, Stack<EvalNode> stack, BinaryEval binaryEval) {
-    if (EvalType.isLogicalOperator(binaryEval.getType())) {
+    if (isInterpreted(binaryEval)) {
+      return visitInterpreted(context, binaryEval, stack);
+    } else if (EvalType.isLogicalOperator(binaryEval.getType())) {
       return visitAndOrEval(context, binaryEval, stack);
     } else if (EvalType.isArithmeticOperator(binaryEval.getType())) {
       return visitArithmeticEval(context, binaryEval, stack);
@@ -122,11 +171,7 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
     } else if (binaryEval.getType() == EvalType.IN) {
       return visitInPredicate(context, binaryEval, stack);
     } else {
-      stack.push(binaryEval);
-      visit(context, binaryEval.getLeftExpr(), stack);
-      visit(context, binaryEval.getRightExpr(), stack);
-      stack.pop();
-      return binaryEval;
+      throw new CompilationError("Unsupported binary expression: " + binaryEval);
     }
   }
 
@@ -138,17 +183,18 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
     } else if (unary.getType() == EvalType.NOT) {
 
       visit(context, unary.getChild(), stack);
-      context.methodvisitor.visitVarInsn(Opcodes.ISTORE, 9);
-      context.methodvisitor.visitVarInsn(Opcodes.ISTORE, 10);
+      // local variables must be allocated by the context; fixed slots can be overwritten by nested expressions
+      final int NULLFLAG = context.istore();
+      final int VALUE = context.istore();
 
       Label ifNull = new Label();
       Label endIf = new Label();
 
-      context.emitNullityCheck(ifNull, 9);
+      context.emitNullityCheck(ifNull, NULLFLAG);
 
       context.methodvisitor.visitFieldInsn(Opcodes.GETSTATIC, Type.getInternalName(EvalCodeGenerator.class),
           "NOT_LOGIC", "[B");
-      context.methodvisitor.visitVarInsn(Opcodes.ILOAD, 10);
+      context.methodvisitor.visitVarInsn(Opcodes.ILOAD, VALUE);
       context.methodvisitor.visitInsn(Opcodes.BALOAD);
       context.pushNullFlag(true);
       emitGotoLabel(context, endIf);
@@ -193,7 +239,7 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
       emitLabel(context, endIf);
 
     } else {
-      super.visit(context, unary, stack);
+      throw new CompilationError("Unsupported unary expression: " + unary);
     }
     stack.pop();
     return unary;
@@ -723,6 +769,14 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
 
   @Override
   public EvalNode visitFuncCall(EvalCodeGenContext context, FunctionEval func, Stack<EvalNode> stack) {
+    // aggregation and window functions are evaluated by their executors, not by compiled evals
+    if (func.getType() != EvalType.FUNCTION) {
+      throw new CompilationError("Unsupported function type: " + func);
+    }
+
+    if (isInterpreted(func)) {
+      return visitInterpreted(context, func, stack);
+    }
 
     if (func.getFuncDesc().getInvocation().hasScalar()) {
       ScalarFunctionBindingEmitter.emit(this, context, func, stack);
@@ -734,7 +788,22 @@ public class EvalCodeGenerator extends SimpleEvalNodeVisitor<EvalCodeGenContext>
       return func;
     }
 
-    return func;
+    throw new CompilationError("No invocation for " + func);
+  }
+
+  /**
+   * Emits the call of an interpreted EvalNode embedded in a generated class.
+   *
+   * @see #isInterpreted(EvalNode)
+   */
+  protected EvalNode visitInterpreted(EvalCodeGenContext context, EvalNode evalNode, Stack<EvalNode> stack) {
+    String fieldName = context.symbols.get(evalNode);
+    emitGetField(context, context.owner, fieldName, EvalNode.class);
+    context.aload(1); // tuple
+    context.invokeVirtual(EvalNode.class, "eval", Datum.class, new Class[]{Tuple.class});
+    context.convertToPrimitive(evalNode.getValueType());
+
+    return evalNode;
   }
 
   public EvalNode visitInPredicate(EvalCodeGenContext context, EvalNode patternEval, Stack<EvalNode> stack) {
@@ -18,6 +18,7 @@
 
 package org.apache.tajo.engine.codegen;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -31,9 +32,13 @@ import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.plan.visitor.BasicLogicalPlanVisitor;
 import org.apache.tajo.util.Pair;
 
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Map;
+import java.util.List;
+import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class ExecutorPreCompiler extends BasicLogicalPlanVisitor<ExecutorPreCompiler.CompilationContext, LogicalNode> {
   private static final Log LOG = LogFactory.getLog(ExecutorPreCompiler.class);
@@ -46,50 +51,143 @@ public class ExecutorPreCompiler extends BasicLogicalPlanVisitor<ExecutorPreComp
 
   public static void compile(CompilationContext context, LogicalNode node) throws PlanningException {
     instance.visit(context, null, null, node, new Stack<LogicalNode>());
-    context.compiledEval = Collections.unmodifiableMap(context.compiledEval);
-  }
-
-  public static Map<Pair<Schema, EvalNode>, EvalNode> compile(TajoClassLoader classLoader, LogicalNode node)
-      throws PlanningException {
-    CompilationContext context = new CompilationContext(classLoader);
-    instance.visit(context, null, null, node, new Stack<LogicalNode>());
-    return context.compiledEval;
   }
 
+  /**
+   * Keeps the classes compiled from expressions, and it is shared by all tasks of an execution block. Each task gets
+   * its own instances of the compiled classes because a compiled eval may have states like interpreted EvalNodes.
+   *
+   * If an expression cannot be compiled, it is remembered and the interpreted expression is used instead.
+   */
   public static class CompilationContext {
     private final EvalCodeGenerator compiler;
-    private Map<Pair<Schema,EvalNode>, EvalNode> compiledEval;
+    private final ConcurrentMap<Pair<Schema, EvalNode>, Class<? extends CompiledEval>> compiledClasses;
+    private final Set<Pair<Schema, EvalNode>> uncompilables;
+
+    private final PipelineCodeGenerator pipelineCompiler;
+    /** a key consists of an input schema, and a qual (nullable) followed by targets */
+    private final ConcurrentMap<Pair<Schema, List<EvalNode>>, Class<? extends CompiledPipeline>> compiledPipelines;
+    private final Set<Pair<Schema, List<EvalNode>>> uncompilablePipelines;
 
     public CompilationContext(TajoClassLoader classLoader) {
       this.compiler = new EvalCodeGenerator(classLoader);
-      this.compiledEval = Maps.newHashMap();
+      this.compiledClasses = Maps.newConcurrentMap();
+      this.uncompilables = Collections.newSetFromMap(new ConcurrentHashMap<Pair<Schema, EvalNode>, Boolean>());
+
+      this.pipelineCompiler = new PipelineCodeGenerator(classLoader);
+      this.compiledPipelines = Maps.newConcurrentMap();
+      this.uncompilablePipelines =
+          Collections.newSetFromMap(new ConcurrentHashMap<Pair<Schema, List<EvalNode>>, Boolean>());
     }
 
     public EvalCodeGenerator getCompiler() {
       return compiler;
     }
 
-    public Map<Pair<Schema, EvalNode>, EvalNode> getPrecompiedEvals() {
-      return compiledEval;
+    public boolean isCompiled(Schema schema, EvalNode eval) {
+      return compiledClasses.containsKey(new Pair<Schema, EvalNode>(schema, eval));
     }
-  }
 
-  private static void compileIfAbsent(CompilationContext context, Schema schema, EvalNode eval) {
-    Pair<Schema, EvalNode> key = new Pair<Schema, EvalNode>(schema, eval);
-    if (!context.compiledEval.containsKey(key)) {
+    /**
+     * Returns a new instance of the compiled eval. If the eval has not been compiled yet, it is compiled at first.
+     *
+     * @return A compiled eval, or the given eval itself if it cannot be compiled
+     */
+    public EvalNode getCompiledEval(Schema schema, EvalNode eval) {
+      Pair<Schema, EvalNode> key = new Pair<Schema, EvalNode>(schema, eval);
+      Class<? extends CompiledEval> compiledClass = compiledClasses.get(key);
+
+      if (compiledClass == null) {
+        compiledClass = compileIfAbsent(key);
+        if (compiledClass == null) {
+          return eval;
+        }
+      }
+
+      try {
+        return EvalCodeGenerator.newInstance(compiledClass, eval);
+      } catch (CompilationError e) {
+        LOG.warn(e, e);
+        return eval;
+      }
+    }
+
+    private synchronized Class<? extends CompiledEval> compileIfAbsent(Pair<Schema, EvalNode> key) {
+      if (uncompilables.contains(key)) {
+        return null;
+      }
+
+      Class<? extends CompiledEval> compiledClass = compiledClasses.get(key);
+      if (compiledClass == null) {
+        try {
+          compiledClass = compiler.compileClass(key.getFirst(), key.getSecond());
+          compiledClasses.put(key, compiledClass);
+
+        } catch (Throwable t) {
+          // If any compilation error occurs, it works in a fallback mode. This mode just uses EvalNode objects
+          // instead of a compiled EvalNode.
+          uncompilables.add(key);
+          LOG.warn("Interpreting " + key.getSecond() + " due to a compilation error", t);
+        }
+      }
+      return compiledClass;
+    }
+
+    /**
+     * Returns a new instance of the pipeline fusing a qual and targets. The pipeline class is compiled at first,
+     * and it is shared by all tasks of an execution block.
+     *
+     * @param schema The input schema
+     * @param qual The search condition. It can be null.
+     * @param targets The projection targets
+     * @return A compiled pipeline, or null if the pipeline cannot be compiled
+     */
+    public CompiledPipeline getCompiledPipeline(Schema schema, EvalNode qual, EvalNode [] targets) {
+      List<EvalNode> evals = Lists.newArrayList();
+      evals.add(qual);
+      evals.addAll(Arrays.asList(targets));
+      Pair<Schema, List<EvalNode>> key = new Pair<Schema, List<EvalNode>>(schema, evals);
+
+      Class<? extends CompiledPipeline> compiledClass = compiledPipelines.get(key);
+      if (compiledClass == null) {
+        compiledClass = compilePipelineIfAbsent(key, qual, targets);
+        if (compiledClass == null) {
+          return null;
+        }
+      }
+
       try {
-        EvalNode compiled = context.compiler.compile(schema, eval);
-        context.compiledEval.put(key, compiled);
-
-      } catch (Throwable t) {
-        // If any compilation error occurs, it works in a fallback mode. This mode just uses EvalNode objects
-        // instead of a compiled EvalNode.
-        context.compiledEval.put(key, eval);
-        LOG.warn(t, t);
+        return PipelineCodeGenerator.newInstance(compiledClass);
+      } catch (CompilationError e) {
+        LOG.warn(e, e);
+        return null;
+      }
+    }
+
+    private synchronized Class<? extends CompiledPipeline> compilePipelineIfAbsent(Pair<Schema, List<EvalNode>> key,
+                                                                                 EvalNode qual, EvalNode [] targets) {
+      if (uncompilablePipelines.contains(key)) {
+        return null;
+      }
+
+      Class<? extends CompiledPipeline> compiledClass = compiledPipelines.get(key);
+      if (compiledClass == null) {
+        try {
+          compiledClass = pipelineCompiler.compileClass(key.getFirst(), qual, targets);
+          compiledPipelines.put(key, compiledClass);
+        } catch (Throwable t) {
+          uncompilablePipelines.add(key);
+          LOG.warn("Cannot fuse the pipeline of " + key.getSecond() + " due to a compilation error", t);
+        }
       }
+      return compiledClass;
     }
   }
 
+  private static void compileIfAbsent(CompilationContext context, Schema schema, EvalNode eval) {
+    context.compileIfAbsent(new Pair<Schema, EvalNode>(schema, eval));
+  }
+
   private static void compileProjectableNode(CompilationContext context, Schema schema, Projectable node) {
     Target[] targets;
     if (node.hasTargets()) {
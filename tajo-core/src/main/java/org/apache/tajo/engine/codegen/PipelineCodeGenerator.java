@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.org.objectweb.asm.ClassWriter;
+import org.apache.tajo.org.objectweb.asm.Label;
+import org.apache.tajo.org.objectweb.asm.Opcodes;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.storage.Tuple;
+
+import java.util.Arrays;
+import java.util.Stack;
+
+/**
+ * It generates a {@link CompiledPipeline} which evaluates a search condition and projection targets of a
+ * pipelinable segment (i.e., scan, filter and projection) in a single method. The generated method looks like:
+ *
+ * <pre>
+ *   public boolean process(Tuple in, Tuple out) {
+ *     if (!(qual is true)) {
+ *       return false;
+ *     }
+ *     out.put(0, target0);
+ *     out.put(1, target1);
+ *     ...
+ *     return true;
+ *   }
+ * </pre>
+ *
+ * Each expression is inlined by {@link EvalCodeGenerator}, so fields are read from the input tuple directly.
+ */
+public class PipelineCodeGenerator {
+  private static final int OUT_TUPLE = 2;
+
+  private final TajoClassLoader classLoader;
+  private final EvalCodeGenerator evalGenerator;
+
+  public PipelineCodeGenerator(TajoClassLoader classLoader) {
+    this.classLoader = classLoader;
+    this.evalGenerator = new EvalCodeGenerator(classLoader);
+  }
+
+  /**
+   * Generates and loads a pipeline class.
+   *
+   * @param schema The input schema of the qual and targets
+   * @param qual The search condition. It can be null.
+   * @param targets The projection targets
+   * @return The generated class
+   * @throws CompilationError if any expression cannot be compiled or the generated bytecode is invalid
+   */
+  public Class<? extends CompiledPipeline> compileClass(Schema schema, EvalNode qual, EvalNode [] targets)
+      throws CompilationError {
+    EvalNode [] evalNodes;
+    if (qual != null) {
+      evalNodes = new EvalNode[targets.length + 1];
+      evalNodes[0] = qual;
+      System.arraycopy(targets, 0, evalNodes, 1, targets.length);
+    } else {
+      evalNodes = targets;
+    }
+
+    ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+    String className = EvalCodeGenerator.class.getPackage().getName() + ".CompiledPipeline" +
+        EvalCodeGenerator.getAndIncrementClassSeq();
+    EvalCodeGenContext context = new EvalCodeGenContext(TajoGeneratorAdapter.getInternalName(className),
+        CompiledPipeline.class, schema, classWriter, evalNodes,
+        "process", boolean.class, new Class[] {Tuple.class, Tuple.class});
+
+    Label ifRejected = new Label();
+    if (qual != null) {
+      evalGenerator.visit(context, qual, new Stack<EvalNode>()); // < value, nullflag
+      final int NULLFLAG = context.istore();
+      final int VALUE = context.istore();
+
+      // a null or false condition rejects the row
+      context.emitNullityCheck(ifRejected, NULLFLAG);
+      context.iload(VALUE);
+      context.push((int) EvalCodeGenerator.TRUE);
+      context.methodvisitor.visitJumpInsn(Opcodes.IF_ICMPNE, ifRejected);
+    }
+
+    for (int i = 0; i < targets.length; i++) {
+      context.aload(OUT_TUPLE);
+      context.push(i);
+      evalGenerator.visit(context, targets[i], new Stack<EvalNode>());
+      context.convertToDatum(targets[i].getValueType(), true);
+      context.invokeInterface(Tuple.class, "put", void.class, new Class[] {int.class, Datum.class});
+    }
+    context.push(true);
+    context.methodvisitor.visitInsn(Opcodes.IRETURN);
+
+    context.methodvisitor.visitLabel(ifRejected);
+    context.push(false);
+    context.methodvisitor.visitInsn(Opcodes.IRETURN);
+
+    context.methodvisitor.visitMaxs(0, 0);
+    context.methodvisitor.visitEnd();
+    classWriter.visitEnd();
+
+    Class<? extends CompiledPipeline> aClass;
+    try {
+      aClass = classLoader.defineClass(className, classWriter.toByteArray()).asSubclass(CompiledPipeline.class);
+      // verify the generated bytecode at compile time
+      aClass.newInstance();
+    } catch (Throwable t) {
+      throw new CompilationError("Compilation Error: " + Arrays.toString(evalNodes) + "\n\nBYTES CODE DUMP:\n" +
+          CodeGenUtils.disassemble(classWriter.toByteArray()), t);
+    }
+    return aClass;
+  }
+
+  public static CompiledPipeline newInstance(Class<? extends CompiledPipeline> clazz) throws CompilationError {
+    try {
+      return clazz.newInstance();
+    } catch (Throwable t) {
+      throw new CompilationError("Cannot instantiate " + clazz.getName(), t);
+    }
+  }
+}
@@ -28,6 +28,11 @@ import java.util.Stack;
 class VariablesPreBuilder extends SimpleEvalNodeVisitor<EvalCodeGenContext> {
 
   public EvalNode visitBinaryEval(EvalCodeGenContext context, Stack<EvalNode> stack, BinaryEval binaryEval) {
+    if (EvalCodeGenerator.isInterpreted(binaryEval)) {
+      addInterpretedEval(context, binaryEval);
+      return binaryEval;
+    }
+
     super.visitBinaryEval(context, stack, binaryEval);
 
     if (EvalType.isStringPatternMatchOperator(binaryEval.getType())) {
@@ -69,6 +74,11 @@ class VariablesPreBuilder extends SimpleEvalNodeVisitor<EvalCodeGenContext> {
 
   @Override
   public EvalNode visitFuncCall(EvalCodeGenContext context, FunctionEval function, Stack<EvalNode> stack) {
+    if (EvalCodeGenerator.isInterpreted(function)) {
+      addInterpretedEval(context, function);
+      return function;
+    }
+
     super.visitFuncCall(context, function, stack);
 
     if (!context.symbols.containsKey(function)) {
@@ -80,4 +90,13 @@ class VariablesPreBuilder extends SimpleEvalNodeVisitor<EvalCodeGenContext> {
 
     return function;
   }
+
+  private static void addInterpretedEval(EvalCodeGenContext context, EvalNode evalNode) {
+    if (!context.symbols.containsKey(evalNode)) {
+      String fieldName = "INTERPRETED_" + context.seqId++;
+      context.symbols.put(evalNode, fieldName);
+      context.classWriter.visitField(Opcodes.ACC_PRIVATE, fieldName,
+          "L" + TajoGeneratorAdapter.getInternalName(EvalNode.class) + ";", null, null);
+    }
+  }
 }
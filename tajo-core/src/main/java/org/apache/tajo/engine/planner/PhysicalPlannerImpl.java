@@ -46,6 +46,11 @@ import org.apache.tajo.ipc.TajoWorkerProtocol.DistinctGroupbyEnforcer.DistinctAg
 import org.apache.tajo.ipc.TajoWorkerProtocol.DistinctGroupbyEnforcer.MultipleAggregationStage;
 import org.apache.tajo.ipc.TajoWorkerProtocol.DistinctGroupbyEnforcer.SortSpecArray;
 import org.apache.tajo.plan.LogicalPlan;
+import org.apache.tajo.plan.Target;
+import org.apache.tajo.plan.expr.BinaryEval;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.EvalType;
+import org.apache.tajo.plan.expr.FieldEval;
 import org.apache.tajo.plan.logical.*;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.*;
@@ -147,6 +152,12 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       case SELECTION:
         SelectionNode selNode = (SelectionNode) logicalNode;
         stack.push(selNode);
+        ScanNode fusedScan = fuseScanPipeline(ctx, selNode);
+        if (fusedScan != null) {
+          leftExec = createScanPlan(ctx, fusedScan, stack);
+          stack.pop();
+          return leftExec;
+        }
         leftExec = createPlanRecursive(ctx, selNode.getChild(), stack);
         stack.pop();
 
@@ -155,6 +166,12 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       case PROJECTION:
         ProjectionNode prjNode = (ProjectionNode) logicalNode;
         stack.push(prjNode);
+        fusedScan = fuseScanPipeline(ctx, prjNode);
+        if (fusedScan != null) {
+          leftExec = createScanPlan(ctx, fusedScan, stack);
+          stack.pop();
+          return leftExec;
+        }
         leftExec = createPlanRecursive(ctx, prjNode.getChild(), stack);
         stack.pop();
 
@@ -366,7 +383,16 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
           LOG.info("Join (" + plan.getPID() +") chooses [Sort Merge Join]");
           return createMergeInnerJoin(context, plan, leftExec, rightExec);
         case HYBRID_HASH_JOIN:
-
+          // returns two PhysicalExec. smaller one is 0, and larger one is 1.
+          PhysicalExec [] hybridOrderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
+          if (HybridHashJoinExec.isSupported(plan, hybridOrderedChilds[1].getSchema(),
+              hybridOrderedChilds[0].getSchema())) {
+            LOG.info("Join (" + plan.getPID() +") chooses [Hybrid Hash Join]");
+            return new HybridHashJoinExec(context, plan, hybridOrderedChilds[1], hybridOrderedChilds[0]);
+          } else {
+            LOG.info("Join (" + plan.getPID() +") cannot use [Hybrid Hash Join], and chooses [Sort Merge Join]");
+            return createMergeInnerJoin(context, plan, leftExec, rightExec);
+          }
         default:
           LOG.error("Invalid Inner Join Algorithm Enforcer: " + algorithm.name());
           LOG.error("Choose a fallback inner join algorithm: " + JoinAlgorithm.MERGE_JOIN.name());
@@ -428,9 +454,15 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
       // returns two PhysicalExec. smaller one is 0, and larger one is 1.
       PhysicalExec [] orderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
       return new HashJoinExec(context, plan, orderedChilds[1], orderedChilds[0]);
-    } else {
-      return createMergeInnerJoin(context, plan, leftExec, rightExec);
+    } else if (context.getQueryContext().getBool(SessionVars.HYBRID_HASH_JOIN_ENABLED)) {
+      // The build side may not fit in memory, so the hybrid hash join spills partitions into disks if necessary.
+      PhysicalExec [] orderedChilds = switchJoinSidesIfNecessary(context, plan, leftExec, rightExec);
+      if (HybridHashJoinExec.isSupported(plan, orderedChilds[1].getSchema(), orderedChilds[0].getSchema())) {
+        LOG.info("Join (" + plan.getPID() +") chooses [Hybrid Hash Join]");
+        return new HybridHashJoinExec(context, plan, orderedChilds[1], orderedChilds[0]);
+      }
     }
+    return createMergeInnerJoin(context, plan, leftExec, rightExec);
   }
 
   private MergeJoinExec createMergeInnerJoin(TaskAttemptContext context, JoinNode plan,
@@ -870,6 +902,86 @@ public class PhysicalPlannerImpl implements PhysicalPlanner {
     return new SortBasedColPartitionStoreExec(context, storeTableNode, sortExec);
   }
 
+  /**
+   * Fuses a chain of selections and a projection directly above a scan into a copy of the scan node.
+   * The fused segment is executed by a single {@link SeqScanExec}, which compiles the combined qual and targets
+   * into one class instead of passing each row through separate executors.
+   *
+   * @param ctx The task attempt context
+   * @param node A selection or a projection node
+   * @return The fused scan node, or null if whole-stage code generation is disabled or the node cannot be fused
+   */
+  private ScanNode fuseScanPipeline(TaskAttemptContext ctx, LogicalNode node) throws IOException {
+    QueryContext queryContext = ctx.getQueryContext();
+    if (!queryContext.getBool(SessionVars.CODEGEN) || !queryContext.getBool(SessionVars.CODEGEN_WHOLE_STAGE_ENABLED)) {
+      return null;
+    }
+
+    try {
+      return fuseIntoScan(node);
+    } catch (CloneNotSupportedException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static ScanNode fuseIntoScan(LogicalNode node) throws CloneNotSupportedException {
+    ScanNode scanNode;
+
+    switch (node.getType()) {
+    case SCAN:
+      return (ScanNode) node.clone();
+
+    case SELECTION:
+      SelectionNode selNode = (SelectionNode) node;
+      scanNode = fuseIntoScan(selNode.getChild());
+      if (scanNode == null || !hasOnlyColumnTargets(scanNode)) {
+        return null;
+      }
+
+      EvalNode qual = (EvalNode) selNode.getQual().clone();
+      scanNode.setQual(scanNode.hasQual() ? new BinaryEval(EvalType.AND, scanNode.getQual(), qual) : qual);
+      return scanNode;
+
+    case PROJECTION:
+      ProjectionNode prjNode = (ProjectionNode) node;
+      scanNode = fuseIntoScan(prjNode.getChild());
+      if (scanNode == null || !hasOnlyColumnTargets(scanNode)) {
+        return null;
+      }
+
+      Target [] targets = new Target[prjNode.getTargets().length];
+      for (int i = 0; i < targets.length; i++) {
+        targets[i] = (Target) prjNode.getTargets()[i].clone();
+      }
+      scanNode.setTargets(targets);
+      scanNode.setOutSchema(prjNode.getOutSchema());
+      return scanNode;
+
+    default:
+      return null;
+    }
+  }
+
+  /**
+   * Returns true if each output column of a scan is just an input column. Then, expressions of the upper nodes
+   * refer to input columns of the scan, so they can be evaluated by the scan without any rewrite.
+   */
+  private static boolean hasOnlyColumnTargets(ScanNode scanNode) {
+    if (!scanNode.hasTargets()) {
+      return true;
+    }
+
+    Target [] targets = scanNode.getTargets();
+    for (int i = 0; i < targets.length; i++) {
+      EvalNode eval = targets[i].getEvalTree();
+      if (eval.getType() != EvalType.FIELD ||
+          !((FieldEval) eval).getColumnRef().equals(scanNode.getOutSchema().getColumn(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private boolean checkIfSortEquivalance(TaskAttemptContext ctx, ScanNode scanNode, Stack<LogicalNode> node) {
     Enforcer enforcer = ctx.getEnforcer();
     List<EnforceProperty> property = enforcer.getEnforceProperties(EnforceType.SORTED_INPUT);
@@ -55,6 +55,8 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
       return visitHashShuffleFileWrite(context, (HashShuffleFileWriteExec) exec, stack);
     } else if (exec instanceof HavingExec) {
       return visitHaving(context, (HavingExec) exec, stack);
+    } else if (exec instanceof HybridHashJoinExec) {
+      return visitHybridHashJoin(context, (HybridHashJoinExec) exec, stack);
     } else if (exec instanceof LimitExec) {
       return visitLimit(context, (LimitExec) exec, stack);
     } else if (exec instanceof MemSortExec) {
@@ -183,6 +185,12 @@ public class BasicPhysicalExecutorVisitor<CONTEXT, RESULT> implements PhysicalEx
     return visitUnaryExecutor(context, exec, stack);
   }
 
+  @Override
+  public RESULT visitHybridHashJoin(CONTEXT context, HybridHashJoinExec exec, Stack<PhysicalExec> stack)
+      throws PhysicalPlanningException {
+    return visitBinaryExecutor(context, exec, stack);
+  }
+
   @Override
   public RESULT visitLimit(CONTEXT context, LimitExec exec, Stack<PhysicalExec> stack)
       throws PhysicalPlanningException {
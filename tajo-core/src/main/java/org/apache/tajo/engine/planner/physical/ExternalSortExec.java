@@ -43,6 +43,7 @@ import org.apache.tajo.storage.fragment.FragmentConvertor;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.util.TUtil;
+import org.apache.tajo.util.UnsafeComparer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.File;
@@ -58,6 +59,9 @@ import static org.apache.tajo.storage.RawFile.RawFileScanner;
  *
  * <ul>
  *   <li>in-memory sort if input data size fits a sort buffer</li>
+ *   <li>off-heap sort buffer, which does not create any heap object per buffered row</li>
+ *   <li>parallel in-memory sort of each chunk and overlapped chunk writes if there are multiple cores</li>
+ *   <li>memcmp comparisons of normalized sort keys if all sort keys can be encoded</li>
  *   <li>k-way merge sort if input data size exceeds the size of sort buffer</li>
  *   <li>parallel merge</li>
  *   <li>final merge avoidance</li>
@@ -69,6 +73,8 @@ public class ExternalSortExec extends SortExec {
   private static final Log LOG = LogFactory.getLog(ExternalSortExec.class);
   /** The prefix of fragment name for intermediate */
   private static final String INTERMEDIATE_FILE_PREFIX = "@interFile_";
+  /** the minimum number of rows of a slice which is sorted by a thread */
+  private static final int MIN_SORT_SLICE_ROWS = 10000;
 
   private SortNode plan;
   private final TableMeta meta;
@@ -78,10 +84,16 @@ public class ExternalSortExec extends SortExec {
   private long sortBufferBytesNum;
   /** the number of available cores */
   private final int allocatedCoreNum;
-  /** If there are available multiple cores, it tries parallel merge. */
+  /** If there are available multiple cores, it tries parallel sort and parallel merge. */
   private ExecutorService executorService;
-  /** used for in-memory sort of each chunk. */
+  /** If there are available multiple cores, sorted chunks are written by this while the next chunk is sorted. */
+  private ExecutorService chunkWriterService;
+  /** used for in-memory sort of each chunk if the input schema cannot be stored in an off-heap sort buffer. */
   private List<Tuple> inMemoryTable;
+  /** used for in-memory sort of each chunk without any heap object per row. */
+  private OffHeapSortBuffer sortBuffer;
+  /** the off-heap sort buffer being written by chunkWriterService. It is reused for the chunk after next. */
+  private OffHeapSortBuffer writingSortBuffer;
   /** temporal dir */
   private final Path sortTmpDir;
   /** It enables round-robin disks allocation */
@@ -104,6 +116,10 @@ public class ExternalSortExec extends SortExec {
   private Scanner result;
   /** total bytes of input data */
   private long sortAndStoredBytes;
+  /** the chunk being written by chunkWriterService */
+  private Future<Path> chunkWriteFuture;
+  /** all chunk files written from the input, including one being written. They are deleted on close. */
+  private final List<Path> chunkFiles = Collections.synchronizedList(new ArrayList<Path>());
 
   private ExternalSortExec(final TaskAttemptContext context, final SortNode plan)
       throws PhysicalPlanningException {
@@ -120,7 +136,9 @@ public class ExternalSortExec extends SortExec {
     this.sortBufferBytesNum = context.getQueryContext().getLong(SessionVars.EXTSORT_BUFFER_SIZE) * StorageUnit.MB;
     this.allocatedCoreNum = context.getConf().getIntVar(ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM);
     this.executorService = Executors.newFixedThreadPool(this.allocatedCoreNum);
-    this.inMemoryTable = new ArrayList<Tuple>(100000);
+    if (!OffHeapSortBuffer.isSupported(inSchema)) {
+      this.inMemoryTable = new ArrayList<Tuple>(100000);
+    }
 
     this.sortTmpDir = getExecutorTmpDir();
     localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
@@ -158,37 +176,283 @@ public class ExternalSortExec extends SortExec {
     return this.plan;
   }
 
+  private boolean isParallelSortEnabled() {
+    return allocatedCoreNum > 1;
+  }
+
+  /**
+   * In the parallel sort, a chunk being written and a chunk being filled reside in memory together.
+   * So, each chunk uses a half of the sort buffer.
+   */
+  private long getChunkBufferBytesNum() {
+    return isParallelSortEnabled() ? sortBufferBytesNum / 2 : sortBufferBytesNum;
+  }
+
+  private boolean isOffHeapSortEnabled() {
+    return inMemoryTable == null;
+  }
+
+  private OffHeapSortBuffer createSortBuffer() {
+    return new OffHeapSortBuffer(inSchema, sortSpecs, getChunkBufferBytesNum());
+  }
+
+  private int getSliceNum(int rowNum) {
+    return Math.min(allocatedCoreNum, rowNum / MIN_SORT_SLICE_ROWS);
+  }
+
+  private void sortInParallel(OffHeapSortBuffer buffer) throws IOException {
+    try {
+      buffer.sortInParallel(executorService, getSliceNum(buffer.rows()));
+    } catch (InterruptedException e) {
+      throw new PhysicalPlanningException(e);
+    } catch (ExecutionException e) {
+      throw new PhysicalPlanningException(e.getCause());
+    }
+  }
+
+  /**
+   * Sort the buffered tuples and store them into a chunk file
+   */
+  private Path sortAndStoreChunk(int chunkId) throws IOException {
+    if (!isOffHeapSortEnabled()) {
+      return sortAndStoreChunk(chunkId, inMemoryTable);
+    }
+
+    int rowNum = sortBuffer.rows();
+
+    long sortStart = System.currentTimeMillis();
+    sortBuffer.sort();
+    long sortEnd = System.currentTimeMillis();
+
+    Path outputPath = writeChunk(chunkId, sortBuffer.rowsInOrder(), rowNum);
+    sortBuffer.clear();
+    info(LOG, "Chunk #" + chunkId + " sort time: " + (sortEnd - sortStart) + " msec");
+    return outputPath;
+  }
+
   /**
    * Sort a tuple block and store them into a chunk file
    */
   private Path sortAndStoreChunk(int chunkId, List<Tuple> tupleBlock)
       throws IOException {
-    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
     int rowNum = tupleBlock.size();
 
     long sortStart = System.currentTimeMillis();
     Iterable<Tuple> sorted = getSorter(tupleBlock).sort();
     long sortEnd = System.currentTimeMillis();
 
+    Path outputPath = writeChunk(chunkId, sorted, rowNum);
+    tupleBlock.clear();
+    info(LOG, "Chunk #" + chunkId + " sort time: " + (sortEnd - sortStart) + " msec");
+    return outputPath;
+  }
+
+  private Path writeChunk(int chunkId, Iterable<Tuple> sorted, int rowNum) throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+
     long chunkWriteStart = System.currentTimeMillis();
     Path outputPath = getChunkPathForWrite(0, chunkId);
+    chunkFiles.add(outputPath);
     final RawFileAppender appender = new RawFileAppender(context.getConf(), null, inSchema, meta, outputPath);
     appender.init();
     for (Tuple t : sorted) {
       appender.addTuple(t);
     }
     appender.close();
-    tupleBlock.clear();
     long chunkWriteEnd = System.currentTimeMillis();
 
-
-    info(LOG, "Chunk #" + chunkId + " sort and written (" +
+    info(LOG, "Chunk #" + chunkId + " written (" +
         FileUtil.humanReadableByteCount(appender.getOffset(), false) + " bytes, " + rowNum + " rows, " +
-        ", sort time: " + (sortEnd - sortStart) + " msec, " +
         "write time: " + (chunkWriteEnd - chunkWriteStart) + " msec)");
     return outputPath;
   }
 
+  /**
+   * Sorts the buffered tuples in parallel, and then writes them into a chunk file in background.
+   * Before it starts writing, it waits for the previous chunk to be written.
+   *
+   * @return The future of the chunk path
+   */
+  private Future<Path> sortAndStoreChunkInBackground(final int chunkId) throws IOException {
+    if (!isOffHeapSortEnabled()) {
+      return sortAndStoreChunkInBackground(chunkId, inMemoryTable);
+    }
+
+    final int rowNum = sortBuffer.rows();
+
+    long sortStart = System.currentTimeMillis();
+    sortInParallel(sortBuffer);
+    long sortEnd = System.currentTimeMillis();
+    info(LOG, "Chunk #" + chunkId + " parallel sort time: " + (sortEnd - sortStart) + " msec");
+
+    waitForChunkWrite();
+    if (chunkWriterService == null) {
+      chunkWriterService = Executors.newSingleThreadExecutor();
+    }
+    // the sorted buffer is written in background while the next chunk is filled into the other buffer.
+    final OffHeapSortBuffer sorted = sortBuffer;
+    sortBuffer = writingSortBuffer != null ? writingSortBuffer : createSortBuffer();
+    writingSortBuffer = sorted;
+    chunkWriteFuture = chunkWriterService.submit(new Callable<Path>() {
+      @Override
+      public Path call() throws Exception {
+        Path path = writeChunk(chunkId, sorted.rowsInOrder(), rowNum);
+        sorted.clear();
+        return path;
+      }
+    });
+    return chunkWriteFuture;
+  }
+
+  /**
+   * Sorts a tuple block in parallel, and then writes it into a chunk file in background.
+   * Before it starts writing, it waits for the previous chunk to be written.
+   *
+   * @return The future of the chunk path
+   */
+  private Future<Path> sortAndStoreChunkInBackground(final int chunkId, List<Tuple> tupleBlock)
+      throws IOException {
+    final int rowNum = tupleBlock.size();
+
+    long sortStart = System.currentTimeMillis();
+    final List<Tuple> sorted = sortInParallel(tupleBlock);
+    long sortEnd = System.currentTimeMillis();
+    info(LOG, "Chunk #" + chunkId + " parallel sort time: " + (sortEnd - sortStart) + " msec");
+
+    waitForChunkWrite();
+    if (chunkWriterService == null) {
+      chunkWriterService = Executors.newSingleThreadExecutor();
+    }
+    chunkWriteFuture = chunkWriterService.submit(new Callable<Path>() {
+      @Override
+      public Path call() throws Exception {
+        Path path = writeChunk(chunkId, sorted, rowNum);
+        sorted.clear();
+        return path;
+      }
+    });
+    return chunkWriteFuture;
+  }
+
+  private void waitForChunkWrite() throws IOException {
+    if (chunkWriteFuture != null) {
+      getFuture(chunkWriteFuture);
+      chunkWriteFuture = null;
+    }
+  }
+
+  private static <T> T getFuture(Future<T> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      throw new PhysicalPlanningException(e);
+    } catch (ExecutionException e) {
+      throw new PhysicalPlanningException(e.getCause());
+    }
+  }
+
+  /**
+   * Sorts slices of a tuple block in parallel, and then merges sorted slices in parallel until one remains.
+   * The given block can be reused after this method returns.
+   *
+   * @return The sorted tuples
+   */
+  private List<Tuple> sortInParallel(final List<Tuple> tupleBlock) throws IOException {
+    final int sliceNum = getSliceNum(tupleBlock.size());
+    if (sliceNum < 2) {
+      List<Tuple> copied = new ArrayList<Tuple>(tupleBlock);
+      tupleBlock.clear();
+      return toList(createSorter(copied).sort(), copied.size());
+    }
+
+    List<Future<List<Tuple>>> futures = TUtil.newList();
+    int sliceSize = (tupleBlock.size() + sliceNum - 1) / sliceNum;
+    for (int start = 0; start < tupleBlock.size(); start += sliceSize) {
+      final List<Tuple> slice = new ArrayList<Tuple>(
+          tupleBlock.subList(start, Math.min(start + sliceSize, tupleBlock.size())));
+      futures.add(executorService.submit(new Callable<List<Tuple>>() {
+        @Override
+        public List<Tuple> call() throws Exception {
+          return toList(createSorter(slice).sort(), slice.size());
+        }
+      }));
+    }
+    tupleBlock.clear();
+
+    List<List<Tuple>> runs = TUtil.newList();
+    for (Future<List<Tuple>> future : futures) {
+      runs.add(getFuture(future));
+    }
+
+    while (runs.size() > 1) {
+      futures.clear();
+      for (int i = 0; i + 1 < runs.size(); i += 2) {
+        final List<Tuple> left = runs.get(i);
+        final List<Tuple> right = runs.get(i + 1);
+        futures.add(executorService.submit(new Callable<List<Tuple>>() {
+          @Override
+          public List<Tuple> call() throws Exception {
+            return mergeSortedRuns(left, right);
+          }
+        }));
+      }
+
+      List<Tuple> odd = runs.size() % 2 == 1 ? runs.get(runs.size() - 1) : null;
+      runs.clear();
+      for (Future<List<Tuple>> future : futures) {
+        runs.add(getFuture(future));
+      }
+      if (odd != null) {
+        runs.add(odd);
+      }
+    }
+
+    return runs.get(0);
+  }
+
+  /**
+   * Creates a sorter which does not share any state with other sorters, so that sorters can run concurrently.
+   */
+  private TupleSorter createSorter(List<Tuple> tuples) {
+    if (!tuples.isEmpty() && normalizedKeyEnabled) {
+      return new NormalizedKeySorter(tuples, createNormalizedKeyEncoder());
+    }
+    if (!tuples.isEmpty() && ComparableVector.isVectorizable(sortSpecs)) {
+      return new VectorizedSorter(tuples, sortSpecs, comparator.getSortKeyIds());
+    }
+    return new TupleSorter.DefaultSorter(tuples, new BaseTupleComparator(inSchema, sortSpecs));
+  }
+
+  private List<Tuple> mergeSortedRuns(List<Tuple> left, List<Tuple> right) {
+    Comparator<Tuple> runComparator = new BaseTupleComparator(inSchema, sortSpecs);
+    List<Tuple> merged = new ArrayList<Tuple>(left.size() + right.size());
+    int leftIdx = 0;
+    int rightIdx = 0;
+    while (leftIdx < left.size() && rightIdx < right.size()) {
+      if (runComparator.compare(left.get(leftIdx), right.get(rightIdx)) <= 0) {
+        merged.add(left.get(leftIdx++));
+      } else {
+        merged.add(right.get(rightIdx++));
+      }
+    }
+    merged.addAll(left.subList(leftIdx, left.size()));
+    merged.addAll(right.subList(rightIdx, right.size()));
+    left.clear();
+    right.clear();
+    return merged;
+  }
+
+  private static List<Tuple> toList(Iterable<Tuple> sorted, int size) {
+    if (sorted instanceof List) {
+      return (List<Tuple>) sorted;
+    }
+    List<Tuple> list = new ArrayList<Tuple>(size);
+    for (Tuple tuple : sorted) {
+      list.add(tuple);
+    }
+    return list;
+  }
+
   /**
    * It divides all tuples into a number of chunks, then sort for each chunk.
    *
@@ -198,24 +462,40 @@ public class ExternalSortExec extends SortExec {
   private List<Path> sortAndStoreAllChunks() throws IOException {
     Tuple tuple;
     long memoryConsumption = 0;
+    long chunkBufferBytesNum = getChunkBufferBytesNum();
+    boolean parallelSort = isParallelSortEnabled();
+    List<Future<Path>> chunkFutures = TUtil.newList();
     List<Path> chunkPaths = TUtil.newList();
 
+    if (isOffHeapSortEnabled() && sortBuffer == null) {
+      sortBuffer = createSortBuffer();
+    }
+
     int chunkId = 0;
     long runStartTime = System.currentTimeMillis();
     while (!context.isStopped() && (tuple = child.next()) != null) { // partition sort start
-      Tuple vtuple = new VTuple(tuple);
-      inMemoryTable.add(vtuple);
-      memoryConsumption += MemoryUtil.calculateMemorySize(vtuple);
+      if (isOffHeapSortEnabled()) {
+        sortBuffer.add(tuple);
+        memoryConsumption = sortBuffer.usedMemory();
+      } else {
+        Tuple vtuple = new VTuple(tuple);
+        inMemoryTable.add(vtuple);
+        memoryConsumption += MemoryUtil.calculateMemorySize(vtuple);
+      }
 
-      if (memoryConsumption > sortBufferBytesNum) {
+      if (memoryConsumption > chunkBufferBytesNum) {
         long runEndTime = System.currentTimeMillis();
         info(LOG, chunkId + " run loading time: " + (runEndTime - runStartTime) + " msec");
         runStartTime = runEndTime;
 
-        info(LOG, "Memory consumption exceeds " + sortBufferBytesNum + " bytes");
+        info(LOG, "Memory consumption exceeds " + chunkBufferBytesNum + " bytes");
         memoryResident = false;
 
-        chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+        if (parallelSort) {
+          chunkFutures.add(sortAndStoreChunkInBackground(chunkId));
+        } else {
+          chunkPaths.add(sortAndStoreChunk(chunkId));
+        }
 
         memoryConsumption = 0;
         chunkId++;
@@ -235,15 +515,25 @@ public class ExternalSortExec extends SortExec {
       }
     }
 
-    if (!memoryResident && !inMemoryTable.isEmpty()) { // if there are at least one or more input tuples
+    int remainRowNum = isOffHeapSortEnabled() ? sortBuffer.rows() : inMemoryTable.size();
+    if (!memoryResident && remainRowNum > 0) { // if there are at least one or more input tuples
       // check if data exceeds a sort buffer. If so, it store the remain data into a chunk.
       long start = System.currentTimeMillis();
-      int rowNum = inMemoryTable.size();
-      chunkPaths.add(sortAndStoreChunk(chunkId, inMemoryTable));
+      int rowNum = remainRowNum;
+      if (parallelSort) {
+        chunkFutures.add(sortAndStoreChunkInBackground(chunkId));
+      } else {
+        chunkPaths.add(sortAndStoreChunk(chunkId));
+      }
       long end = System.currentTimeMillis();
       info(LOG, "Last Chunk #" + chunkId + " " + rowNum + " rows written (" + (end - start) + " msec)");
     }
 
+    for (Future<Path> future : chunkFutures) {
+      chunkPaths.add(getFuture(future));
+    }
+    chunkWriteFuture = null;
+
     // get total loaded (or stored) bytes and total row numbers
     TableStats childTableStats = child.getInputStats();
     if (childTableStats != null) {
@@ -274,13 +564,34 @@ public class ExternalSortExec extends SortExec {
       } else {
         // Try to sort all data, and store them as multiple chunks if memory exceeds
         long startTimeOfChunkSplit = System.currentTimeMillis();
-        List<Path> chunks = sortAndStoreAllChunks();
+        List<Path> chunks;
+        try {
+          chunks = sortAndStoreAllChunks();
+        } catch (IOException e) {
+          // chunks being written are not returned, so they are deleted here
+          awaitChunkWriters();
+          deleteChunkFiles();
+          throw e;
+        }
         long endTimeOfChunkSplit = System.currentTimeMillis();
         info(LOG, "Chunks creation time: " + (endTimeOfChunkSplit - startTimeOfChunkSplit) + " msec");
 
-        if (memoryResident) { // if all sorted data reside in a main-memory table.
-          TupleSorter sorter = getSorter(inMemoryTable);
-          result = new MemTableScanner(sorter.sort(), inMemoryTable.size(), sortAndStoredBytes);
+        if (memoryResident && isOffHeapSortEnabled()) {
+          if (isParallelSortEnabled()) {
+            sortInParallel(sortBuffer);
+          } else {
+            sortBuffer.sort();
+          }
+          result = new MemTableScanner(sortBuffer.rowsInOrder(), sortBuffer.rows(), sortAndStoredBytes);
+        } else if (memoryResident) { // if all sorted data reside in a main-memory table.
+          if (isParallelSortEnabled()) {
+            // inMemoryTable is replaced by the sorted one in order to rescan
+            inMemoryTable = sortInParallel(inMemoryTable);
+            result = new MemTableScanner(inMemoryTable, inMemoryTable.size(), sortAndStoredBytes);
+          } else {
+            TupleSorter sorter = getSorter(inMemoryTable);
+            result = new MemTableScanner(sorter.sort(), inMemoryTable.size(), sortAndStoredBytes);
+          }
         } else { // if input data exceeds main-memory at least once
 
           try {
@@ -524,10 +835,15 @@ public class ExternalSortExec extends SortExec {
       final int mid = (int) Math.ceil((float)num / 2);
       Scanner left = createKWayMergerInternal(sources, startIdx, mid);
       Scanner right = createKWayMergerInternal(sources, startIdx + mid, num - mid);
+      // BaseTupleComparator is not thread-safe, and mergers can run in different threads.
+      if (normalizedKeyEnabled) {
+        return new NormalizedKeyPairWiseMerger(inSchema, left, right, createNormalizedKeyEncoder());
+      }
+      BaseTupleComparator mergerComparator = new BaseTupleComparator(inSchema, sortSpecs);
       if (ComparableVector.isVectorizable(sortSpecs)) {
-        return new VectorComparePairWiseMerger(inSchema, left, right, comparator);
+        return new VectorComparePairWiseMerger(inSchema, left, right, mergerComparator);
       }
-      return new PairWiseMerger(inSchema, left, right, comparator);
+      return new PairWiseMerger(inSchema, left, right, mergerComparator);
     } else {
       return sources[startIdx];
     }
@@ -631,6 +947,35 @@ public class ExternalSortExec extends SortExec {
     }
   }
 
+  /**
+   * Two-way merger which compares the normalized keys of the current tuples. The normalized key of each input is
+   * encoded only once when the input moves to the next tuple.
+   */
+  private static class NormalizedKeyPairWiseMerger extends PairWiseMerger {
+
+    private final NormalizedKeyEncoder encoder;
+    private final byte [][] keys = new byte[2][];
+
+    public NormalizedKeyPairWiseMerger(Schema schema, Scanner leftScanner, Scanner rightScanner,
+                                       NormalizedKeyEncoder encoder) throws IOException {
+      super(schema, leftScanner, rightScanner, null);
+      this.encoder = encoder;
+    }
+
+    @Override
+    protected Tuple prepare(int index, Tuple tuple) {
+      if (tuple != null) {
+        keys[index] = encoder.encode(tuple);
+      }
+      return tuple;
+    }
+
+    @Override
+    protected int compare() {
+      return UnsafeComparer.INSTANCE.compare(keys[0], keys[1]);
+    }
+  }
+
   /**
    * Two-way merger scanner that reads two input sources and outputs one output tuples sorted in some order.
    */
@@ -799,15 +1144,73 @@ public class ExternalSortExec extends SortExec {
       inMemoryTable = null;
     }
 
+    // buffers being sorted or written cannot be released until all threads finish.
+    awaitChunkWriters();
     if(executorService != null){
-      executorService.shutdown();
+      shutdownAndAwait(executorService);
       executorService = null;
     }
+    if (chunkWriterService != null) {
+      shutdownAndAwait(chunkWriterService);
+      chunkWriterService = null;
+    }
+
+    if (sortBuffer != null) {
+      sortBuffer.release();
+      sortBuffer = null;
+    }
+    if (writingSortBuffer != null) {
+      writingSortBuffer.release();
+      writingSortBuffer = null;
+    }
+    deleteChunkFiles();
 
     plan = null;
     super.close();
   }
 
+  /**
+   * Waits for the chunk being written in background. Its failure is only logged, because it is called on
+   * cleanup.
+   */
+  private void awaitChunkWriters() {
+    if (chunkWriteFuture != null) {
+      try {
+        waitForChunkWrite();
+      } catch (IOException e) {
+        LOG.warn(e.getMessage(), e);
+      }
+      chunkWriteFuture = null;
+    }
+  }
+
+  private static void shutdownAndAwait(ExecutorService service) {
+    service.shutdown();
+    try {
+      while (!service.awaitTermination(1, TimeUnit.SECONDS)) {
+        LOG.info("Waiting for sort threads to finish");
+      }
+    } catch (InterruptedException e) {
+      service.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void deleteChunkFiles() {
+    synchronized (chunkFiles) {
+      for (Path chunk : chunkFiles) {
+        try {
+          if (localFS.delete(chunk, false)) {
+            LOG.info("Delete chunk file: " + chunk);
+          }
+        } catch (IOException e) {
+          LOG.warn("Cannot delete chunk file: " + chunk, e);
+        }
+      }
+      chunkFiles.clear();
+    }
+  }
+
   @Override
   public void rescan() throws IOException {
     if (result != null) {
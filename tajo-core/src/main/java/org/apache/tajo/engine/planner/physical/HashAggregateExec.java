@@ -18,10 +18,31 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.DataType;
+import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.plan.function.FunctionContext;
 import org.apache.tajo.plan.logical.GroupbyNode;
+import org.apache.tajo.storage.MemoryUtil;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.ClassSize;
+import org.apache.tajo.util.FileUtil;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -30,46 +51,150 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
+
 /**
  * This is the hash-based GroupBy Operator.
+ *
+ * If the estimated memory consumption of the hash table exceeds the hash buffer, all groups in the hash table are
+ * hash-partitioned and their partial aggregation states are spilled into local disks. After all input tuples are
+ * consumed, the spilled partial states are merged and returned partition by partition.
  */
 public class HashAggregateExec extends AggregationExec {
+  private static final Log LOG = LogFactory.getLog(HashAggregateExec.class);
+  /** The prefix of spill files */
+  private static final String SPILL_FILE_PREFIX = "aggr_";
+  /** The estimated size of a function context, which cannot be measured exactly */
+  private static final long FUNCTION_CONTEXT_SIZE = ClassSize.REFERENCE + ClassSize.OBJECT + 2 * ClassSize.LONG;
+
   private Tuple tuple = null;
   private Map<Tuple, FunctionContext[]> hashTable;
   private boolean computed = false;
   private Iterator<Entry<Tuple, FunctionContext []>> iterator = null;
 
+  // for spill
+  private final boolean spillable;
+  /** If the memory consumption of the hash table exceeds it, the hash table is spilled into disks. */
+  private long hashBufferBytesNum;
+  private long memoryConsumption = 0;
+  private final int spillPartitionNum;
+  private Schema spillSchema;
+  private TableMeta spillMeta;
+  private Path spillTmpDir;
+  private LocalDirAllocator localDirAllocator;
+  private RawLocalFileSystem localFS;
+  private RawFileAppender [] spillAppenders;
+  private Path [] spillPaths;
+  private long [] spillFileBytes;
+  /** the spilled partition being returned */
+  private int currentSpillPartition = -1;
+  private int numSpills = 0;
+  private long spillBytes = 0;
+  private TableStats spillInputStats;
+
   public HashAggregateExec(TaskAttemptContext ctx, GroupbyNode plan, PhysicalExec subOp) throws IOException {
     super(ctx, plan, subOp);
     hashTable = new HashMap<Tuple, FunctionContext []>(100000);
     this.tuple = new VTuple(plan.getOutSchema().size());
+
+    this.hashBufferBytesNum = ctx.getQueryContext().getLong(SessionVars.HASH_GROUPBY_BUFFER_SIZE) * StorageUnit.MB;
+    this.spillPartitionNum = ctx.getConf().getIntVar(ConfVars.EXECUTOR_GROUPBY_SPILL_PARTITION_NUM);
+    this.spillSchema = buildSpillSchema();
+    this.spillable = groupingKeyNum > 0 && spillPartitionNum > 0 && spillSchema != null;
+  }
+
+  @VisibleForTesting
+  public void setHashBufferBytesNum(long hashBufferBytesNum) {
+    this.hashBufferBytesNum = hashBufferBytesNum;
+  }
+
+  /**
+   * @return The number of times that the hash table was spilled into disks
+   */
+  public int getNumSpills() {
+    return numSpills;
+  }
+
+  /**
+   * @return The total bytes of spilled partial aggregation states
+   */
+  public long getSpillBytes() {
+    return spillBytes;
+  }
+
+  /**
+   * A spilled tuple consists of grouping keys followed by partial aggregation states.
+   *
+   * @return The schema of spilled tuples, or null if it contains any type which cannot be stored in RawFile
+   */
+  private Schema buildSpillSchema() {
+    Schema schema = new Schema();
+    for (int i = 0; i < groupingKeyNum; i++) {
+      Column column = inSchema.getColumn(groupingKeyIds[i]);
+      if (!isSpillableType(column.getDataType())) {
+        return null;
+      }
+      schema.addColumn("key_" + i, column.getDataType());
+    }
+    for (int i = 0; i < aggFunctionsNum; i++) {
+      DataType partialType = aggFunctions[i].getPartialResultType();
+      if (!isSpillableType(partialType)) {
+        return null;
+      }
+      schema.addColumn("partial_" + i, partialType);
+    }
+    return schema;
+  }
+
+  private static boolean isSpillableType(DataType dataType) {
+    switch (dataType.getType()) {
+    case NULL_TYPE:
+    case BOOLEAN:
+    case BIT:
+    case INT2:
+    case INT4:
+    case INT8:
+    case FLOAT4:
+    case FLOAT8:
+    case CHAR:
+    case TEXT:
+    case DATE:
+    case TIME:
+    case TIMESTAMP:
+    case BLOB:
+    case PROTOBUF:
+    case INET4:
+      return true;
+    default:
+      return false;
+    }
   }
 
   private void compute() throws IOException {
-    Tuple tuple;
-    Tuple keyTuple;
-    while(!context.isStopped() && (tuple = child.next()) != null) {
-      keyTuple = new VTuple(groupingKeyIds.length);
-      // build one key tuple
-      for(int i = 0; i < groupingKeyIds.length; i++) {
-        keyTuple.put(i, tuple.get(groupingKeyIds[i]));
-      }
-
-      FunctionContext [] contexts = hashTable.get(keyTuple);
-      if(contexts != null) {
-        for(int i = 0; i < aggFunctions.length; i++) {
-          aggFunctions[i].merge(contexts[i], tuple);
-        }
-      } else { // if the key occurs firstly
-        contexts = new FunctionContext[aggFunctionsNum];
-        for(int i = 0; i < aggFunctionsNum; i++) {
-          contexts[i] = aggFunctions[i].newContext();
-          aggFunctions[i].merge(contexts[i], tuple);
+    if (isBatchModeEnabled()) {
+      TupleBatch batch = createBatch(inSchema);
+      while (!context.isStopped() && child.nextBatch(batch)) {
+        for (int i = 0; i < batch.size(); i++) {
+          aggregate(batch.get(i));
         }
-        hashTable.put(keyTuple, contexts);
+      }
+    } else {
+      Tuple tuple;
+      while (!context.isStopped() && (tuple = child.next()) != null) {
+        aggregate(tuple);
       }
     }
 
+    if (numSpills > 0) {
+      // the remain groups are also spilled, so that all partial states of a group are merged together.
+      if (!hashTable.isEmpty()) {
+        spill();
+      }
+      closeSpillFiles();
+      return;
+    }
+
     // If HashAggregateExec received NullDatum and didn't has any grouping keys,
     // it should return primitive values for NullLDatum.
     if (groupingKeyNum == 0 && aggFunctionsNum > 0 && hashTable.entrySet().size() == 0) {
@@ -81,16 +206,197 @@ public class HashAggregateExec extends AggregationExec {
     }
   }
 
+  private void aggregate(Tuple tuple) throws IOException {
+    Tuple keyTuple = new VTuple(groupingKeyIds.length);
+    // build one key tuple
+    for(int i = 0; i < groupingKeyIds.length; i++) {
+      keyTuple.put(i, tuple.get(groupingKeyIds[i]));
+    }
+
+    FunctionContext [] contexts = hashTable.get(keyTuple);
+    if(contexts != null) {
+      for(int i = 0; i < aggFunctions.length; i++) {
+        aggFunctions[i].merge(contexts[i], tuple);
+      }
+    } else { // if the key occurs firstly
+      contexts = new FunctionContext[aggFunctionsNum];
+      for(int i = 0; i < aggFunctionsNum; i++) {
+        contexts[i] = aggFunctions[i].newContext();
+        aggFunctions[i].merge(contexts[i], tuple);
+      }
+      hashTable.put(keyTuple, contexts);
+
+      if (spillable) {
+        memoryConsumption += estimateGroupSize(keyTuple);
+        if (memoryConsumption > hashBufferBytesNum) {
+          spill();
+        }
+      }
+    }
+  }
+
+  private long estimateGroupSize(Tuple keyTuple) {
+    return MemoryUtil.calculateMemorySize(keyTuple) + ClassSize.MAP_ENTRY + ClassSize.ARRAY
+        + aggFunctionsNum * FUNCTION_CONTEXT_SIZE;
+  }
+
+  private int getPartitionId(Tuple keyTuple) {
+    // murmur3 fmix32, in order not to be correlated with the buckets of the hash table
+    int hash = keyTuple.hashCode();
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % spillPartitionNum;
+  }
+
+  /**
+   * Writes the partial aggregation states of all groups in the hash table into the spill files of their
+   * partitions, and then clears the hash table.
+   */
+  private void spill() throws IOException {
+    if (spillAppenders == null) {
+      spillMeta = CatalogUtil.newTableMeta(StoreType.RAW);
+      spillTmpDir = getExecutorTmpDir();
+      localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+      localFS = new RawLocalFileSystem();
+      spillAppenders = new RawFileAppender[spillPartitionNum];
+      spillPaths = new Path[spillPartitionNum];
+      spillFileBytes = new long[spillPartitionNum];
+    }
+
+    long startTime = System.currentTimeMillis();
+    Tuple spillTuple = new VTuple(spillSchema.size());
+    for (Entry<Tuple, FunctionContext []> entry : hashTable.entrySet()) {
+      Tuple keyTuple = entry.getKey();
+      FunctionContext [] contexts = entry.getValue();
+
+      int tupleIdx = 0;
+      for (; tupleIdx < groupingKeyNum; tupleIdx++) {
+        spillTuple.put(tupleIdx, keyTuple.get(tupleIdx));
+      }
+      for (int funcIdx = 0; funcIdx < aggFunctionsNum; funcIdx++, tupleIdx++) {
+        spillTuple.put(tupleIdx, aggFunctions[funcIdx].getPartialResult(contexts[funcIdx]));
+      }
+      getSpillAppender(getPartitionId(keyTuple)).addTuple(spillTuple);
+    }
+
+    info(LOG, "Hash aggregation spilled " + hashTable.size() + " groups (estimated "
+        + FileUtil.humanReadableByteCount(memoryConsumption, false) + " in memory, "
+        + (System.currentTimeMillis() - startTime) + " msec)");
+    hashTable.clear();
+    memoryConsumption = 0;
+    numSpills++;
+  }
+
+  private RawFileAppender getSpillAppender(int partitionId) throws IOException {
+    if (spillAppenders[partitionId] == null) {
+      spillPaths[partitionId] = localDirAllocator.getLocalPathForWrite(
+          spillTmpDir + "/" + SPILL_FILE_PREFIX + partitionId, context.getConf());
+      spillAppenders[partitionId] =
+          new RawFileAppender(context.getConf(), null, spillSchema, spillMeta, spillPaths[partitionId]);
+      spillAppenders[partitionId].init();
+    }
+    return spillAppenders[partitionId];
+  }
+
+  private void closeSpillFiles() throws IOException {
+    for (int i = 0; i < spillPartitionNum; i++) {
+      if (spillAppenders[i] != null) {
+        spillAppenders[i].close();
+        spillFileBytes[i] = spillAppenders[i].getOffset();
+        spillBytes += spillFileBytes[i];
+        spillAppenders[i] = null;
+      }
+    }
+  }
+
+  /**
+   * Merges all partial aggregation states of the next spilled partition into the hash table.
+   *
+   * @return False if there is no more spilled partition
+   */
+  private boolean loadNextSpilledPartition() throws IOException {
+    hashTable.clear();
+    iterator = hashTable.entrySet().iterator();
+
+    while (!context.isStopped() && ++currentSpillPartition < spillPartitionNum) {
+      Path path = spillPaths[currentSpillPartition];
+      if (path == null) {
+        continue;
+      }
+
+      RawFileScanner scanner = new RawFileScanner(context.getConf(), spillSchema, spillMeta,
+          new FileFragment(path.getName(), path, 0, spillFileBytes[currentSpillPartition]));
+      scanner.init();
+      try {
+        Tuple spilled;
+        Tuple partialTuple = new VTuple(1);
+        while ((spilled = scanner.next()) != null) {
+          Tuple keyTuple = new VTuple(groupingKeyNum);
+          for (int i = 0; i < groupingKeyNum; i++) {
+            keyTuple.put(i, spilled.get(i));
+          }
+
+          FunctionContext [] contexts = hashTable.get(keyTuple);
+          if (contexts == null) {
+            contexts = new FunctionContext[aggFunctionsNum];
+            for (int i = 0; i < aggFunctionsNum; i++) {
+              contexts[i] = aggFunctions[i].newContext();
+            }
+            hashTable.put(keyTuple, contexts);
+          }
+
+          for (int i = 0; i < aggFunctionsNum; i++) {
+            partialTuple.put(0, spilled.get(groupingKeyNum + i));
+            aggFunctions[i].mergePartialResult(contexts[i], partialTuple);
+          }
+        }
+      } finally {
+        scanner.close();
+      }
+
+      iterator = hashTable.entrySet().iterator();
+      return true;
+    }
+    return false;
+  }
+
+  private void deleteSpillFiles() throws IOException {
+    if (spillPaths != null) {
+      IOUtils.cleanup(LOG, spillAppenders);
+      for (Path path : spillPaths) {
+        if (path != null) {
+          localFS.delete(path, false);
+        }
+      }
+      spillPaths = null;
+      spillAppenders = null;
+    }
+  }
+
   @Override
   public Tuple next() throws IOException {
     if(!computed) {
       compute();
-      iterator = hashTable.entrySet().iterator();
+      if (numSpills > 0) {
+        currentSpillPartition = -1;
+        loadNextSpilledPartition();
+      } else {
+        iterator = hashTable.entrySet().iterator();
+      }
       computed = true;
     }
 
     FunctionContext [] contexts;
 
+    while (numSpills > 0 && !iterator.hasNext()) {
+      if (!loadNextSpilledPartition()) {
+        return null;
+      }
+    }
+
     if (iterator.hasNext()) {
       Entry<Tuple, FunctionContext []> entry = iterator.next();
       Tuple keyTuple = entry.getKey();
@@ -112,12 +418,35 @@ public class HashAggregateExec extends AggregationExec {
 
   @Override
   public void rescan() throws IOException {
-    iterator = hashTable.entrySet().iterator();
+    if (numSpills > 0) {
+      // spilled partitions are merged again.
+      currentSpillPartition = -1;
+      loadNextSpilledPartition();
+    } else {
+      iterator = hashTable.entrySet().iterator();
+    }
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    TableStats childInputStats = super.getInputStats();
+    if (numSpills == 0 || childInputStats == null) {
+      return childInputStats;
+    }
+
+    if (spillInputStats == null) {
+      spillInputStats = new TableStats();
+    }
+    spillInputStats.setValues(childInputStats);
+    spillInputStats.setNumSpills(spillInputStats.getNumSpills() + numSpills);
+    spillInputStats.setSpillBytes(spillInputStats.getSpillBytes() + spillBytes);
+    return spillInputStats;
   }
 
   @Override
   public void close() throws IOException {
     super.close();
+    deleteSpillFiles();
     hashTable.clear();
     hashTable = null;
     iterator = null;
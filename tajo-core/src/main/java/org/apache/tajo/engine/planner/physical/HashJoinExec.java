@@ -42,6 +42,9 @@ public class HashJoinExec extends CommonJoinExec {
   protected FrameTuple frameTuple;
   protected Tuple outTuple = null;
   protected Map<Tuple, List<Tuple>> tupleSlots;
+  // it is used instead of tupleSlots if the join keys and the right schema are supported by JoinHashTable.
+  protected JoinHashTable hashTable;
+  protected JoinHashTable.RowIterator rowIterator = new JoinHashTable.RowIterator();
   protected Iterator<Tuple> iterator = null;
   protected Tuple leftTuple;
   protected Tuple leftKeyTuple;
@@ -53,6 +56,9 @@ public class HashJoinExec extends CommonJoinExec {
   protected boolean shouldGetLeftTuple = true;
 
   private TableStats cachedRightTableStats;
+  private final boolean useJoinHashTable;
+  // false if the hash table is shared through the broadcast cache
+  private boolean hashTableOwned;
 
   public HashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftExec,
       PhysicalExec rightExec) {
@@ -77,6 +83,9 @@ public class HashJoinExec extends CommonJoinExec {
     frameTuple = new FrameTuple();
     outTuple = new VTuple(outSchema.size());
     leftKeyTuple = new VTuple(leftKeyList.length);
+
+    useJoinHashTable = JoinHashTable.isSupported(rightExec.getSchema(), rightKeyList,
+        leftExec.getSchema(), leftKeyList);
   }
 
   protected void getKeyLeftTuple(final Tuple outerTuple, Tuple keyTuple) {
@@ -85,6 +94,27 @@ public class HashJoinExec extends CommonJoinExec {
     }
   }
 
+  /**
+   * Finds right tuples having the same join key as a given left tuple, and sets {@link #iterator} to them.
+   *
+   * @return True if there is at least one right tuple having the same join key
+   */
+  protected boolean findRightTuples(Tuple leftTuple) {
+    if (hashTable != null) {
+      iterator = rowIterator;
+      return hashTable.find(leftTuple, leftKeyList, rowIterator);
+    } else {
+      getKeyLeftTuple(leftTuple, leftKeyTuple);
+      List<Tuple> rightTuples = tupleSlots.get(leftKeyTuple);
+      if (rightTuples != null) {
+        iterator = rightTuples.iterator();
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+
   public Tuple next() throws IOException {
     if (first) {
       loadRightToHashTable();
@@ -103,10 +133,7 @@ public class HashJoinExec extends CommonJoinExec {
         }
 
         // getting corresponding right
-        getKeyLeftTuple(leftTuple, leftKeyTuple); // get a left key tuple
-        List<Tuple> rightTuples = tupleSlots.get(leftKeyTuple);
-        if (rightTuples != null) { // found right tuples on in-memory hash table.
-          iterator = rightTuples.iterator();
+        if (findRightTuples(leftTuple)) { // found right tuples on in-memory hash table.
           shouldGetLeftTuple = false;
         } else {
           shouldGetLeftTuple = true;
@@ -141,6 +168,9 @@ public class HashJoinExec extends CommonJoinExec {
       TableCacheKey key = CacheHolder.BroadcastCacheHolder.getCacheKey(
           context, scanExec.getCanonicalName(), scanExec.getFragments());
       loadRightFromCache(key);
+    } else if (useJoinHashTable) {
+      this.hashTable = buildJoinHashTable();
+      this.hashTableOwned = true;
     } else {
       this.tupleSlots = buildRightToHashTable();
     }
@@ -151,18 +181,45 @@ public class HashJoinExec extends CommonJoinExec {
   protected void loadRightFromCache(TableCacheKey key) throws IOException {
     ExecutionBlockSharedResource sharedResource = context.getSharedResource();
     synchronized (sharedResource.getLock()) {
-      if (sharedResource.hasBroadcastCache(key)) {
-        CacheHolder<Map<Tuple, List<Tuple>>> data = sharedResource.getBroadcastCache(key);
-        this.tupleSlots = data.getData();
-        this.cachedRightTableStats = data.getTableStats();
-      } else {
-        CacheHolder.BroadcastCacheHolder holder =
-            new CacheHolder.BroadcastCacheHolder(buildRightToHashTable(), rightChild.getInputStats(), null);
+      if (!sharedResource.hasBroadcastCache(key)) {
+        CacheHolder<?> holder;
+        if (useJoinHashTable) {
+          holder = new CacheHolder.JoinHashTableCacheHolder(buildJoinHashTable(), rightChild.getInputStats());
+        } else {
+          holder = new CacheHolder.BroadcastCacheHolder(buildRightToHashTable(), rightChild.getInputStats(), null);
+        }
         sharedResource.addBroadcastCache(key, holder);
-        CacheHolder<Map<Tuple, List<Tuple>>> data = sharedResource.getBroadcastCache(key);
-        this.tupleSlots = data.getData();
-        this.cachedRightTableStats = data.getTableStats();
       }
+
+      CacheHolder<?> data = sharedResource.getBroadcastCache(key);
+      Object cached = data.getData();
+      if (cached instanceof JoinHashTable) {
+        this.hashTable = (JoinHashTable) cached;
+      } else {
+        this.tupleSlots = (Map<Tuple, List<Tuple>>) cached;
+      }
+      this.hashTableOwned = false;
+      this.cachedRightTableStats = data.getTableStats();
+    }
+  }
+
+  private JoinHashTable buildJoinHashTable() throws IOException {
+    Tuple tuple;
+    JoinHashTable table = new JoinHashTable(rightChild.getSchema(), rightKeyList);
+
+    while (!context.isStopped() && (tuple = rightChild.next()) != null) {
+      table.add(tuple);
+    }
+
+    return table;
+  }
+
+  private void releaseHashTable() {
+    if (hashTable != null) {
+      if (hashTableOwned) {
+        hashTable.release();
+      }
+      hashTable = null;
     }
   }
 
@@ -195,7 +252,10 @@ public class HashJoinExec extends CommonJoinExec {
   public void rescan() throws IOException {
     super.rescan();
 
-    tupleSlots.clear();
+    if (tupleSlots != null) {
+      tupleSlots.clear();
+    }
+    releaseHashTable();
     first = true;
 
     finished = false;
@@ -210,6 +270,7 @@ public class HashJoinExec extends CommonJoinExec {
       tupleSlots.clear();
       tupleSlots = null;
     }
+    releaseHashTable();
 
     iterator = null;
   }
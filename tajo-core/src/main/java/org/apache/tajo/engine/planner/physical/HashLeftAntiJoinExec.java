@@ -25,7 +25,6 @@ import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Prepare a hash table of the NOT IN side of the join. Scan the FROM side table.
@@ -73,13 +72,9 @@ public class HashLeftAntiJoinExec extends HashJoinExec {
         return null;
       }
 
-      // Try to find a hash bucket in in-memory hash table
-      getKeyLeftTuple(leftTuple, leftKeyTuple);
-      List<Tuple> rightTuples = tupleSlots.get(leftKeyTuple);
-      if (rightTuples != null) {
-        // if found, it gets a hash bucket from the hash table.
-        iterator = rightTuples.iterator();
-      } else {
+      // Try to find a hash bucket in in-memory hash table.
+      // If found, iterator is set to the hash bucket.
+      if (!findRightTuples(leftTuple)) {
         // if not found, it returns a tuple.
         frameTuple.set(leftTuple, rightNullTuple);
         projector.eval(frameTuple, outTuple);
@@ -23,7 +23,6 @@ import org.apache.tajo.plan.logical.JoinNode;
 import org.apache.tajo.storage.Tuple;
 
 import java.io.IOException;
-import java.util.List;
 
 /**
  * Prepare a hash table of the NOT IN side of the join. Scan the FROM side table.
@@ -67,13 +66,9 @@ public class HashLeftSemiJoinExec extends HashJoinExec {
         return null;
       }
 
-      // Try to find a hash bucket in in-memory hash table
-      getKeyLeftTuple(leftTuple, leftKeyTuple);
-      List<Tuple> rightTuples = tupleSlots.get(leftKeyTuple);
-      if (rightTuples != null) {
-        // if found, it gets a hash bucket from the hash table.
-        iterator = rightTuples.iterator();
-      } else {
+      // Try to find a hash bucket in in-memory hash table.
+      // If found, iterator is set to the hash bucket.
+      if (!findRightTuples(leftTuple)) {
         continue;
       }
 
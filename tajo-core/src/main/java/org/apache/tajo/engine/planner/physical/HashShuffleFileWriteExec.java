@@ -64,6 +64,7 @@ public final class HashShuffleFileWriteExec extends UnaryPhysicalExec {
     } else {
       this.meta = CatalogUtil.newTableMeta(plan.getStorageType());
     }
+    PhysicalPlanUtil.setShuffleCompressionIfNecessary(context.getQueryContext(), meta);
     // about the shuffle
     this.numShuffleOutputs = this.plan.getNumOutputs();
     int i = 0;
@@ -0,0 +1,616 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.SessionVars;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.engine.planner.PhysicalPlanningException;
+import org.apache.tajo.plan.logical.JoinNode;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.storage.FrameTuple;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.FileUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.apache.tajo.storage.RawFile.RawFileAppender;
+import static org.apache.tajo.storage.RawFile.RawFileScanner;
+
+/**
+ * Hybrid hash join for inner equi-joins whose build side (the right child) may not fit in memory.
+ *
+ * <ul>
+ *   <li>Both inputs are hash-partitioned on the join keys into a fixed number of partitions.</li>
+ *   <li>All partitions of the build side are kept in memory at first, each of which is a {@link JoinHashTable}.
+ *   Whenever the memory consumption, including the indexes of the hash tables, exceeds the join buffer,
+ *   the largest in-memory partition is written into a local spill file, and the later build tuples belonging to
+ *   it go directly to the file.</li>
+ *   <li>Probe tuples of in-memory partitions are joined immediately, and the others are written into the
+ *   spill files of their partitions.</li>
+ *   <li>Each pair of spilled build and probe partitions is joined in the same way, re-partitioning them with
+ *   a different hash seed. It is repeated up to the maximum recursion depth. If the partitions of the last
+ *   level still exceed the join buffer, e.g., because of a skewed join key, the join fails.</li>
+ * </ul>
+ *
+ * If the build side fits in the join buffer, no file is written and it works as an in-memory hash join.
+ */
+public class HybridHashJoinExec extends CommonJoinExec {
+  /** Class logger */
+  private static final Log LOG = LogFactory.getLog(HybridHashJoinExec.class);
+  /** The prefix of spill files */
+  private static final String BUILD_FILE_PREFIX = "build_";
+  private static final String PROBE_FILE_PREFIX = "probe_";
+  /** the initial size of the hash table of a partition, which is kept small because a pass has many partitions */
+  private static final int INITIAL_ROW_BLOCK_SIZE = 64 * StorageUnit.KB;
+  private static final int INITIAL_ROW_NUM = 64;
+
+  private final TableMeta meta;
+  private final int [] leftKeyList;
+  private final int [] rightKeyList;
+  // the types of join keys, which are the same on both sides
+  private final Type [] keyTypes;
+  /** the number of partitions at each level */
+  private final int partitionNum;
+  /** the partitions of this level cannot be spilled any more */
+  private final int maxRecursionDepth;
+  /** If memory consumption of build side exceeds it, in-memory partitions are spilled into a disk. */
+  private long joinBufferBytesNum;
+  /** temporal dir */
+  private final Path joinTmpDir;
+  /** It enables round-robin disks allocation */
+  private final LocalDirAllocator localDirAllocator;
+  /** local file system */
+  private final RawLocalFileSystem localFS;
+
+  ///////////////////////////////////////////////////
+  // transient variables
+  ///////////////////////////////////////////////////
+  /** spilled partitions which are not joined yet */
+  private final LinkedList<Partition> pendingPartitions = new LinkedList<Partition>();
+  /** the pass currently being probed */
+  private JoinPass currentPass;
+  private boolean first = true;
+  private boolean finished = false;
+  private int nextFileId = 0;
+
+  private FrameTuple frameTuple;
+  private Tuple outTuple;
+  private Tuple leftTuple;
+  private Iterator<Tuple> iterator;
+  private final JoinHashTable.RowIterator rowIterator = new JoinHashTable.RowIterator();
+
+  // statistics of spill
+  private int spilledPartitionNum = 0;
+  private long spilledBytes = 0;
+
+  public HybridHashJoinExec(TaskAttemptContext context, JoinNode plan, PhysicalExec leftExec,
+                            PhysicalExec rightExec) throws PhysicalPlanningException {
+    super(context, plan, leftExec, rightExec);
+
+    List<Column[]> joinKeyPairs = PlannerUtil.getJoinKeyPairs(joinQual, leftExec.getSchema(),
+        rightExec.getSchema(), false);
+    if (joinKeyPairs.isEmpty()) {
+      throw new PhysicalPlanningException("Hybrid hash join requires at least one equi-join key pair");
+    }
+
+    leftKeyList = getKeyIds(joinKeyPairs, leftExec.getSchema(), 0);
+    rightKeyList = getKeyIds(joinKeyPairs, rightExec.getSchema(), 1);
+    if (!JoinHashTable.isSupported(rightExec.getSchema(), rightKeyList, leftExec.getSchema(), leftKeyList)) {
+      throw new PhysicalPlanningException("Hybrid hash join does not support the join keys or the build side: "
+          + rightExec.getSchema());
+    }
+    keyTypes = JoinHashTable.getKeyTypes(rightExec.getSchema(), rightKeyList);
+
+    this.meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    this.partitionNum = context.getConf().getIntVar(ConfVars.EXECUTOR_HYBRID_HASH_JOIN_PARTITION_NUM);
+    if (partitionNum < 2) {
+      throw new PhysicalPlanningException(ConfVars.EXECUTOR_HYBRID_HASH_JOIN_PARTITION_NUM.varname
+          + " cannot be lower than 2");
+    }
+    this.maxRecursionDepth = context.getConf().getIntVar(ConfVars.EXECUTOR_HYBRID_HASH_JOIN_MAX_DEPTH);
+    this.joinBufferBytesNum =
+        context.getQueryContext().getLong(SessionVars.HYBRID_HASH_JOIN_BUFFER_SIZE) * StorageUnit.MB;
+
+    this.joinTmpDir = getExecutorTmpDir();
+    this.localDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = new RawLocalFileSystem();
+
+    frameTuple = new FrameTuple();
+    outTuple = new VTuple(outSchema.size());
+  }
+
+  private static int [] getKeyIds(List<Column[]> joinKeyPairs, Schema schema, int side) {
+    int [] keyIds = new int[joinKeyPairs.size()];
+    for (int i = 0; i < joinKeyPairs.size(); i++) {
+      keyIds[i] = schema.getColumnId(joinKeyPairs.get(i)[side].getQualifiedName());
+    }
+    return keyIds;
+  }
+
+  /**
+   * Checks if a join can be executed by this executor, where the right one is the build side.
+   */
+  public static boolean isSupported(JoinNode plan, Schema leftSchema, Schema rightSchema) {
+    List<Column[]> joinKeyPairs = PlannerUtil.getJoinKeyPairs(plan.getJoinQual(), leftSchema, rightSchema, false);
+    return !joinKeyPairs.isEmpty() && JoinHashTable.isSupported(rightSchema, getKeyIds(joinKeyPairs, rightSchema, 1),
+        leftSchema, getKeyIds(joinKeyPairs, leftSchema, 0));
+  }
+
+  @VisibleForTesting
+  public void setJoinBufferBytesNum(long joinBufferBytesNum) {
+    this.joinBufferBytesNum = joinBufferBytesNum;
+  }
+
+  /**
+   * @return The number of partitions spilled into a disk, including re-partitioned ones
+   */
+  public int getSpilledPartitionNum() {
+    return spilledPartitionNum;
+  }
+
+  /**
+   * @return The total bytes of build and probe tuples written into spill files
+   */
+  public long getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    if (first) {
+      currentPass = new JoinPass(0);
+      currentPass.build(new ExecTupleSource(rightChild));
+      currentPass.probeSource = new ExecTupleSource(leftChild);
+      first = false;
+    }
+
+    while (!context.isStopped() && !finished) {
+      if (iterator == null || !iterator.hasNext()) {
+        leftTuple = currentPass.probeSource.next();
+
+        if (leftTuple == null) { // the current pass is completed.
+          finishCurrentPass();
+          if (!startNextPass()) {
+            finished = true;
+          }
+          continue;
+        }
+
+        iterator = currentPass.probe(leftTuple);
+        continue;
+      }
+
+      frameTuple.set(leftTuple, iterator.next());
+      if (joinQual.eval(frameTuple).isTrue()) {
+        projector.eval(frameTuple, outTuple);
+        return new VTuple(outTuple);
+      }
+    }
+
+    return null;
+  }
+
+  private void finishCurrentPass() throws IOException {
+    iterator = null;
+    currentPass.finishProbe();
+    currentPass.release();
+  }
+
+  /**
+   * Starts the join of the next pending pair of spilled partitions.
+   *
+   * @return False if there is no more pending partitions
+   */
+  private boolean startNextPass() throws IOException {
+    while (!context.isStopped() && !pendingPartitions.isEmpty()) {
+      // the most recently spilled partition first, in order to keep the number of spill files small
+      Partition spilled = pendingPartitions.removeLast();
+
+      currentPass = new JoinPass(spilled.level + 1);
+      FileScannerSource buildSource =
+          new FileScannerSource(rightChild.getSchema(), spilled.buildPath, spilled.buildBytes);
+      try {
+        currentPass.build(buildSource);
+      } finally {
+        buildSource.close();
+        localFS.delete(spilled.buildPath, false);
+      }
+      currentPass.probeSource = new FileScannerSource(leftChild.getSchema(), spilled.probePath, spilled.probeBytes);
+      currentPass.probeFile = spilled.probePath;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Get a local path from all temporal paths in round-robin manner.
+   */
+  private Path getSpillPathForWrite(String prefix, int level, int partitionId) throws IOException {
+    return localDirAllocator.getLocalPathForWrite(
+        joinTmpDir + "/" + prefix + level + "_" + partitionId + "_" + (nextFileId++), context.getConf());
+  }
+
+  private static boolean hasNullKey(Tuple tuple, int [] keyIds) {
+    for (int keyId : keyIds) {
+      if (tuple.isNull(keyId)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Hashes join keys with a seed varying with the level, so that a partition spilled at some level is divided
+   * into different partitions at the next level. Keys are hashed as {@link JoinHashTable} does, so equal keys
+   * of both sides, e.g., -0.0 and 0.0, always fall into the same partition.
+   */
+  private int getPartitionId(Tuple tuple, int [] keyIds, int level) {
+    long keyHash = JoinHashTable.hashKeys(tuple, keyIds, keyTypes);
+    int hash = (int) (keyHash ^ (keyHash >>> 32));
+    hash ^= (level + 1) * 0x9E3779B9;
+    // murmur3 fmix32
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return (hash & Integer.MAX_VALUE) % partitionNum;
+  }
+
+  private interface TupleSource {
+    Tuple next() throws IOException;
+  }
+
+  private class ExecTupleSource implements TupleSource {
+    private final PhysicalExec exec;
+
+    ExecTupleSource(PhysicalExec exec) {
+      this.exec = exec;
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      return exec.next();
+    }
+  }
+
+  private class FileScannerSource implements TupleSource {
+    private final RawFileScanner scanner;
+
+    FileScannerSource(Schema schema, Path path, long length) throws IOException {
+      this.scanner = new RawFileScanner(context.getConf(), schema, meta,
+          new FileFragment(path.getName(), path, 0, length));
+      this.scanner.init();
+    }
+
+    @Override
+    public Tuple next() throws IOException {
+      return scanner.next();
+    }
+
+    public void close() throws IOException {
+      scanner.close();
+    }
+  }
+
+  /**
+   * A hash partition of both inputs at some level.
+   */
+  private class Partition {
+    final int level;
+    final int id;
+
+    /** in-memory build tuples, created by the first tuple */
+    JoinHashTable table;
+    long memoryBytes = 0;
+
+    RawFileAppender buildAppender;
+    Path buildPath;
+    long buildBytes;
+    RawFileAppender probeAppender;
+    Path probePath;
+    long probeBytes;
+
+    Partition(int level, int id) {
+      this.level = level;
+      this.id = id;
+    }
+
+    boolean isSpilled() {
+      return buildPath != null;
+    }
+
+    /**
+     * @return The increased memory consumption
+     */
+    long addBuildTuple(Tuple tuple) throws IOException {
+      if (isSpilled()) {
+        buildAppender.addTuple(tuple);
+        return 0;
+      } else {
+        if (table == null) {
+          table = new JoinHashTable(rightChild.getSchema(), rightKeyList, INITIAL_ROW_BLOCK_SIZE, INITIAL_ROW_NUM);
+        }
+        table.add(tuple);
+        // it includes the slots and the row indexes of the hash table
+        long size = table.usedMemory() - memoryBytes;
+        memoryBytes += size;
+        return size;
+      }
+    }
+
+    /**
+     * @return The build tuples having the same join key as a probe tuple, or null if there is no one
+     */
+    Iterator<Tuple> find(Tuple tuple) {
+      if (table != null && table.find(tuple, leftKeyList, rowIterator)) {
+        return rowIterator;
+      }
+      return null;
+    }
+
+    void addProbeTuple(Tuple tuple) throws IOException {
+      if (probeAppender == null) {
+        probePath = getSpillPathForWrite(PROBE_FILE_PREFIX, level, id);
+        probeAppender = new RawFileAppender(context.getConf(), null, leftChild.getSchema(), meta, probePath);
+        probeAppender.init();
+      }
+      probeAppender.addTuple(tuple);
+    }
+
+    /**
+     * Writes all in-memory build tuples into a spill file.
+     *
+     * @return The released memory
+     */
+    long spill() throws IOException {
+      buildPath = getSpillPathForWrite(BUILD_FILE_PREFIX, level, id);
+      buildAppender = new RawFileAppender(context.getConf(), null, rightChild.getSchema(), meta, buildPath);
+      buildAppender.init();
+      Iterator<Tuple> rows = table.rows();
+      while (rows.hasNext()) {
+        buildAppender.addTuple(rows.next());
+      }
+      releaseTable();
+
+      long released = memoryBytes;
+      memoryBytes = 0;
+      spilledPartitionNum++;
+      info(LOG, "Hybrid hash join partition #" + id + " at level " + level + " is spilled ("
+          + FileUtil.humanReadableByteCount(released, false) + " in memory)");
+      return released;
+    }
+
+    void releaseTable() {
+      if (table != null) {
+        table.release();
+        table = null;
+      }
+    }
+
+    void closeBuildFile() throws IOException {
+      if (buildAppender != null) {
+        buildAppender.close();
+        buildBytes = buildAppender.getOffset();
+        spilledBytes += buildBytes;
+        buildAppender = null;
+      }
+    }
+
+    void closeProbeFile() throws IOException {
+      if (probeAppender != null) {
+        probeAppender.close();
+        probeBytes = probeAppender.getOffset();
+        spilledBytes += probeBytes;
+        probeAppender = null;
+      }
+    }
+
+    void deleteFiles() throws IOException {
+      IOUtils.cleanup(LOG, buildAppender, probeAppender);
+      buildAppender = null;
+      probeAppender = null;
+      if (buildPath != null) {
+        localFS.delete(buildPath, false);
+      }
+      if (probePath != null) {
+        localFS.delete(probePath, false);
+      }
+    }
+  }
+
+  /**
+   * A build and probe pass over the partitions of some level.
+   */
+  private class JoinPass {
+    final int level;
+    final Partition [] partitions;
+    long memoryConsumption = 0;
+
+    TupleSource probeSource;
+    /** the spill file which probeSource reads, or null if it reads the left child */
+    Path probeFile;
+
+    JoinPass(int level) {
+      this.level = level;
+      this.partitions = new Partition[partitionNum];
+      for (int i = 0; i < partitionNum; i++) {
+        partitions[i] = new Partition(level, i);
+      }
+    }
+
+    void build(TupleSource source) throws IOException {
+      boolean spillable = level < maxRecursionDepth;
+      Tuple tuple;
+
+      while (!context.isStopped() && (tuple = source.next()) != null) {
+        if (hasNullKey(tuple, rightKeyList)) { // null keys never match in inner join
+          continue;
+        }
+
+        memoryConsumption += partitions[getPartitionId(tuple, rightKeyList, level)].addBuildTuple(tuple);
+
+        if (memoryConsumption > joinBufferBytesNum) {
+          if (!spillable) {
+            throw new IOException("Hybrid hash join partitions at the maximum recursion depth (" + level
+                + ") exceed the join buffer (" + FileUtil.humanReadableByteCount(joinBufferBytesNum, false)
+                + "). The join keys may be highly skewed.");
+          }
+
+          while (memoryConsumption > joinBufferBytesNum) {
+            Partition victim = getLargestInMemoryPartition();
+            if (victim == null) {
+              break;
+            }
+            memoryConsumption -= victim.spill();
+          }
+        }
+      }
+
+      for (Partition partition : partitions) {
+        if (partition.isSpilled()) {
+          partition.closeBuildFile();
+        }
+      }
+    }
+
+    private Partition getLargestInMemoryPartition() {
+      Partition largest = null;
+      for (Partition partition : partitions) {
+        if (!partition.isSpilled() && partition.memoryBytes > 0 &&
+            (largest == null || partition.memoryBytes > largest.memoryBytes)) {
+          largest = partition;
+        }
+      }
+      return largest;
+    }
+
+    /**
+     * @return The right tuples having the same join key, or null if there is no one in memory
+     */
+    Iterator<Tuple> probe(Tuple tuple) throws IOException {
+      if (hasNullKey(tuple, leftKeyList)) {
+        return null;
+      }
+
+      Partition partition = partitions[getPartitionId(tuple, leftKeyList, level)];
+      if (partition.isSpilled()) {
+        partition.addProbeTuple(tuple);
+        return null;
+      }
+
+      return partition.find(tuple);
+    }
+
+    /**
+     * Closes the spill files of this pass, and schedules the spilled partitions to be joined later.
+     */
+    void finishProbe() throws IOException {
+      if (probeSource instanceof FileScannerSource) {
+        ((FileScannerSource) probeSource).close();
+        localFS.delete(probeFile, false);
+      }
+      probeSource = null;
+
+      for (Partition partition : partitions) {
+        if (partition.isSpilled()) {
+          partition.closeProbeFile();
+          if (partition.probePath != null) {
+            pendingPartitions.add(partition);
+          } else { // no probe tuple for this partition, so it cannot produce any result.
+            partition.deleteFiles();
+          }
+        }
+      }
+    }
+
+    void release() {
+      for (Partition partition : partitions) {
+        partition.releaseTable();
+      }
+    }
+
+    void cleanup() throws IOException {
+      release();
+      if (probeSource instanceof FileScannerSource) {
+        ((FileScannerSource) probeSource).close();
+        localFS.delete(probeFile, false);
+      }
+      probeSource = null;
+      for (Partition partition : partitions) {
+        if (partition.isSpilled()) {
+          partition.deleteFiles();
+        }
+      }
+    }
+  }
+
+  private void cleanupSpillFiles() throws IOException {
+    if (currentPass != null) {
+      currentPass.cleanup();
+      currentPass = null;
+    }
+    for (Partition partition : pendingPartitions) {
+      partition.deleteFiles();
+    }
+    pendingPartitions.clear();
+  }
+
+  @Override
+  public void rescan() throws IOException {
+    super.rescan();
+    cleanupSpillFiles();
+
+    first = true;
+    finished = false;
+    iterator = null;
+    leftTuple = null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    cleanupSpillFiles();
+    if (spilledPartitionNum > 0) {
+      info(LOG, "Hybrid hash join spilled " + spilledPartitionNum + " partitions ("
+          + FileUtil.humanReadableByteCount(spilledBytes, false) + ")");
+    }
+    iterator = null;
+    super.close();
+  }
+}
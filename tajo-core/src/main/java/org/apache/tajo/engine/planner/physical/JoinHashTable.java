@@ -0,0 +1,488 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DictionaryTextDatum;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.tuple.offheap.OffHeapRowBlock;
+import org.apache.tajo.tuple.offheap.ResizableLimitSpec;
+import org.apache.tajo.tuple.offheap.ZeroCopyTuple;
+import org.apache.tajo.unit.StorageUnit;
+import org.apache.tajo.util.Deallocatable;
+import org.apache.tajo.util.MurmurHash;
+import org.apache.tajo.util.SizeOf;
+import org.apache.tajo.util.UnsafeUtil;
+import sun.misc.Unsafe;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An open-addressing hash table for the build side of hash joins.
+ *
+ * Build rows are serialized into an {@link OffHeapRowBlock}. Each slot of the hash table holds a 64-bit hash of
+ * a distinct join key and the first and the last rows having the key. Rows having the same key are chained through
+ * an int array. So, a build row costs only its serialized bytes and a few ints instead of a key tuple,
+ * a Datum array and a list.
+ *
+ * A probe computes the key hash directly from a probe tuple without building a key tuple, and
+ * returns matched rows through a reusable {@link RowIterator}. Once built, a table is read-only, so it can be shared
+ * by multiple tasks (e.g., broadcast join) as long as each task uses its own iterator.
+ *
+ * Keys are matched as the key tuples of a hash map are. A null key matches a null key, and -0.0 matches 0.0.
+ */
+public class JoinHashTable implements Deallocatable {
+  private static final Unsafe UNSAFE = UnsafeUtil.unsafe;
+
+  private static final int EMPTY = -1;
+  private static final float LOAD_FACTOR = 0.5f;
+  private static final int INITIAL_ROW_NUM = 1024;
+  private static final int INITIAL_ROW_BLOCK_SIZE = 4 * StorageUnit.MB;
+
+  private final int [] buildKeyIds;
+  private final Type [] keyTypes;
+  private OffHeapRowBlock rowBlock;
+
+  // row states
+  private int [] rowPositions;
+  private int [] nextRows;
+  private int rowNum;
+
+  // slot states
+  private long [] slotHashes;
+  private int [] slotHeads;
+  private int [] slotTails;
+  private int slotMask;
+  private int keyNum;
+
+  // only used while building
+  private final ZeroCopyTuple buildCursor = new ZeroCopyTuple();
+
+  public JoinHashTable(Schema buildSchema, int [] buildKeyIds) {
+    this(buildSchema, buildKeyIds, INITIAL_ROW_BLOCK_SIZE, INITIAL_ROW_NUM);
+  }
+
+  /**
+   * @param initialRowBlockSize The initial bytes of the row block
+   * @param initialRowNum The initial number of rows and slots, which must be a power of two
+   */
+  public JoinHashTable(Schema buildSchema, int [] buildKeyIds, int initialRowBlockSize, int initialRowNum) {
+    this.buildKeyIds = buildKeyIds;
+    this.keyTypes = getKeyTypes(buildSchema, buildKeyIds);
+    this.rowBlock = new OffHeapRowBlock(buildSchema,
+        new ResizableLimitSpec(initialRowBlockSize, ResizableLimitSpec.MAX_SIZE_BYTES));
+
+    this.rowPositions = new int[initialRowNum];
+    this.nextRows = new int[initialRowNum];
+    initSlots(initialRowNum);
+  }
+
+  private void initSlots(int slotNum) {
+    slotHashes = new long[slotNum];
+    slotHeads = new int[slotNum];
+    slotTails = new int[slotNum];
+    Arrays.fill(slotHeads, EMPTY);
+    slotMask = slotNum - 1;
+  }
+
+  /**
+   * Checks if both sides of a join can be handled by this hash table. All columns of the build side must be
+   * serializable into a row block, and each pair of join keys must have the same type.
+   */
+  public static boolean isSupported(Schema buildSchema, int [] buildKeyIds, Schema probeSchema, int [] probeKeyIds) {
+    if (buildKeyIds.length == 0 || buildKeyIds.length != probeKeyIds.length) {
+      return false;
+    }
+
+    for (int i = 0; i < buildSchema.size(); i++) {
+      switch (buildSchema.getColumn(i).getDataType().getType()) {
+      case BOOLEAN:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+      case TEXT:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+      case INTERVAL:
+      case NULL_TYPE:
+        break;
+      default:
+        return false;
+      }
+    }
+
+    for (int i = 0; i < buildKeyIds.length; i++) {
+      Type buildKeyType = buildSchema.getColumn(buildKeyIds[i]).getDataType().getType();
+      Type probeKeyType = probeSchema.getColumn(probeKeyIds[i]).getDataType().getType();
+      if (buildKeyType != probeKeyType || buildKeyType == Type.INTERVAL || buildKeyType == Type.NULL_TYPE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds a build row. The tuple is copied, so it can be reused by a caller.
+   */
+  public void add(Tuple tuple) {
+    long hash = hash(tuple, buildKeyIds);
+    int slot = findSlot(hash, tuple, buildKeyIds, buildCursor);
+
+    int rowId = writeRow(tuple);
+    if (slotHeads[slot] == EMPTY) {
+      slotHashes[slot] = hash;
+      slotHeads[slot] = rowId;
+      keyNum++;
+    } else {
+      nextRows[slotTails[slot]] = rowId;
+    }
+    slotTails[slot] = rowId;
+
+    if (keyNum > (slotMask + 1) * LOAD_FACTOR) {
+      rehash((slotMask + 1) * 2);
+    }
+  }
+
+  private int writeRow(Tuple tuple) {
+    if (rowNum == rowPositions.length) {
+      rowPositions = Arrays.copyOf(rowPositions, rowNum * 2);
+      nextRows = Arrays.copyOf(nextRows, rowNum * 2);
+    }
+
+    rowPositions[rowNum] = rowBlock.position();
+    nextRows[rowNum] = EMPTY;
+    RowStoreUtil.convert(tuple, rowBlock.getWriter());
+    return rowNum++;
+  }
+
+  private void rehash(int newSlotNum) {
+    long [] oldHashes = slotHashes;
+    int [] oldHeads = slotHeads;
+    int [] oldTails = slotTails;
+
+    initSlots(newSlotNum);
+    for (int i = 0; i < oldHeads.length; i++) {
+      if (oldHeads[i] != EMPTY) {
+        // slots always hold distinct keys, so keys do not need to be compared.
+        int slot = (int) oldHashes[i] & slotMask;
+        while (slotHeads[slot] != EMPTY) {
+          slot = (slot + 1) & slotMask;
+        }
+        slotHashes[slot] = oldHashes[i];
+        slotHeads[slot] = oldHeads[i];
+        slotTails[slot] = oldTails[i];
+      }
+    }
+  }
+
+  /**
+   * Finds the slot which has the same key as the given tuple, or an empty slot where the key should be put.
+   */
+  private int findSlot(long hash, Tuple tuple, int [] keyIds, ZeroCopyTuple cursor) {
+    int slot = (int) hash & slotMask;
+    while (slotHeads[slot] != EMPTY) {
+      if (slotHashes[slot] == hash) {
+        rowBlock.readRow(rowPositions[slotHeads[slot]], cursor);
+        if (keyEquals(cursor, tuple, keyIds)) {
+          return slot;
+        }
+      }
+      slot = (slot + 1) & slotMask;
+    }
+    return slot;
+  }
+
+  /**
+   * Finds all build rows matched to the join key of a probe tuple.
+   *
+   * @param probe A probe tuple
+   * @param probeKeyIds The join key column ids of the probe tuple
+   * @param iterator The iterator to be positioned at the first matched row
+   * @return True if there is at least one matched row
+   */
+  public boolean find(Tuple probe, int [] probeKeyIds, RowIterator iterator) {
+    int slot = findSlot(hash(probe, probeKeyIds), probe, probeKeyIds, iterator.tuple);
+    iterator.reset(this, slotHeads[slot]);
+    return slotHeads[slot] != EMPTY;
+  }
+
+  public int rowNum() {
+    return rowNum;
+  }
+
+  /**
+   * @return An iterator over all rows in the order they are added. Like {@link RowIterator}, it always returns
+   *         the same tuple instance.
+   */
+  public Iterator<Tuple> rows() {
+    return new Iterator<Tuple>() {
+      private final ZeroCopyTuple tuple = new ZeroCopyTuple();
+      private int nextRow = 0;
+
+      @Override
+      public boolean hasNext() {
+        return nextRow < rowNum;
+      }
+
+      @Override
+      public Tuple next() {
+        if (nextRow == rowNum) {
+          throw new NoSuchElementException();
+        }
+        rowBlock.readRow(rowPositions[nextRow++], tuple);
+        return tuple;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("JoinHashTable is read-only");
+      }
+    };
+  }
+
+  public int keyNum() {
+    return keyNum;
+  }
+
+  /**
+   * @return The bytes of serialized rows and in-heap indexes
+   */
+  public long usedMemory() {
+    return rowBlock.usedMem() + (long) rowPositions.length * SizeOf.SIZE_OF_INT * 2 +
+        (long) slotHashes.length * (SizeOf.SIZE_OF_LONG + SizeOf.SIZE_OF_INT * 2);
+  }
+
+  @Override
+  public void release() {
+    if (rowBlock != null) {
+      rowBlock.release();
+      rowBlock = null;
+    }
+  }
+
+  static Type [] getKeyTypes(Schema schema, int [] keyIds) {
+    Type [] keyTypes = new Type[keyIds.length];
+    for (int i = 0; i < keyIds.length; i++) {
+      keyTypes[i] = schema.getColumn(keyIds[i]).getDataType().getType();
+    }
+    return keyTypes;
+  }
+
+  private long hash(Tuple tuple, int [] keyIds) {
+    return hashKeys(tuple, keyIds, keyTypes);
+  }
+
+  /**
+   * Hashes join keys as this hash table does, so that equal keys, e.g., -0.0 and 0.0, have the same hash.
+   */
+  static long hashKeys(Tuple tuple, int [] keyIds, Type [] keyTypes) {
+    long hash = 1;
+    for (int i = 0; i < keyIds.length; i++) {
+      hash = 31 * hash + fieldHash(tuple, keyIds[i], keyTypes[i]);
+    }
+    return mix(hash);
+  }
+
+  private static long fieldHash(Tuple tuple, int fieldId, Type type) {
+    if (tuple.isNull(fieldId)) {
+      return 0;
+    }
+
+    switch (type) {
+    case BOOLEAN:
+      return tuple.getBool(fieldId) ? 1231 : 1237;
+    case INT2:
+      return tuple.getInt2(fieldId);
+    case INT4:
+    case DATE:
+      return tuple.getInt4(fieldId);
+    case INT8:
+    case TIME:
+    case TIMESTAMP:
+      return tuple.getInt8(fieldId);
+    case FLOAT4: {
+      // -0.0 is equal to 0.0, so it must have the same hash
+      float value = tuple.getFloat4(fieldId);
+      return Float.floatToIntBits(value == 0.0f ? 0.0f : value);
+    }
+    case FLOAT8: {
+      double value = tuple.getFloat8(fieldId);
+      return Double.doubleToLongBits(value == 0.0d ? 0.0d : value);
+    }
+    case TEXT:
+      return textHash(tuple, fieldId);
+    default:
+      throw new IllegalStateException("Unsupported join key type: " + type);
+    }
+  }
+
+  /**
+   * A text value read from a dictionary-encoded column already has its hash code,
+   * which is the same as the hash code of its bytes.
+   */
+  private static int textHash(Tuple tuple, int fieldId) {
+    if (tuple instanceof VTuple) {
+      Datum datum = tuple.get(fieldId);
+      if (datum instanceof DictionaryTextDatum) {
+        return datum.hashCode();
+      }
+    }
+    return MurmurHash.hash(tuple.getBytes(fieldId));
+  }
+
+  /**
+   * The finalization step of MurmurHash3, which spreads entropy to all bits.
+   */
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private boolean keyEquals(ZeroCopyTuple row, Tuple tuple, int [] keyIds) {
+    for (int i = 0; i < keyIds.length; i++) {
+      int rowFieldId = buildKeyIds[i];
+      int fieldId = keyIds[i];
+
+      boolean rowNull = row.isNull(rowFieldId);
+      if (rowNull || tuple.isNull(fieldId)) {
+        if (rowNull != tuple.isNull(fieldId)) {
+          return false;
+        }
+        continue;
+      }
+
+      switch (keyTypes[i]) {
+      case BOOLEAN:
+        if (row.getBool(rowFieldId) != tuple.getBool(fieldId)) {
+          return false;
+        }
+        break;
+      case INT2:
+        if (row.getInt2(rowFieldId) != tuple.getInt2(fieldId)) {
+          return false;
+        }
+        break;
+      case INT4:
+      case DATE:
+        if (row.getInt4(rowFieldId) != tuple.getInt4(fieldId)) {
+          return false;
+        }
+        break;
+      case INT8:
+      case TIME:
+      case TIMESTAMP:
+        if (row.getInt8(rowFieldId) != tuple.getInt8(fieldId)) {
+          return false;
+        }
+        break;
+      case FLOAT4:
+        // compared as Float4Datum.equals() does
+        if (row.getFloat4(rowFieldId) != tuple.getFloat4(fieldId)) {
+          return false;
+        }
+        break;
+      case FLOAT8:
+        if (row.getFloat8(rowFieldId) != tuple.getFloat8(fieldId)) {
+          return false;
+        }
+        break;
+      case TEXT:
+        if (!textEquals(row.getFieldAddr(rowFieldId), tuple.getBytes(fieldId))) {
+          return false;
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unsupported join key type: " + keyTypes[i]);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Compares a serialized text field, which consists of a 4 byte length and bytes, with a byte array.
+   */
+  private static boolean textEquals(long fieldAddr, byte [] bytes) {
+    int len = UNSAFE.getInt(fieldAddr);
+    if (len != bytes.length) {
+      return false;
+    }
+
+    long addr = fieldAddr + SizeOf.SIZE_OF_INT;
+    int i = 0;
+    for (; i + SizeOf.SIZE_OF_LONG <= len; i += SizeOf.SIZE_OF_LONG) {
+      if (UNSAFE.getLong(addr + i) != UNSAFE.getLong(bytes, (long) UnsafeUtil.ARRAY_BYTE_BASE_OFFSET + i)) {
+        return false;
+      }
+    }
+    for (; i < len; i++) {
+      if (UNSAFE.getByte(addr + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A reusable iterator over the rows having the same join key. It always returns the same tuple instance,
+   * which points to the current row, so a caller must copy it if it needs to keep the row.
+   */
+  public static class RowIterator implements Iterator<Tuple> {
+    private final ZeroCopyTuple tuple = new ZeroCopyTuple();
+    private JoinHashTable table;
+    private int nextRow = EMPTY;
+
+    private void reset(JoinHashTable table, int firstRow) {
+      this.table = table;
+      this.nextRow = firstRow;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextRow != EMPTY;
+    }
+
+    @Override
+    public Tuple next() {
+      if (nextRow == EMPTY) {
+        throw new NoSuchElementException();
+      }
+      table.rowBlock.readRow(table.rowPositions[nextRow], tuple);
+      nextRow = table.nextRows[nextRow];
+      return tuple;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("JoinHashTable is read-only");
+    }
+  }
+}
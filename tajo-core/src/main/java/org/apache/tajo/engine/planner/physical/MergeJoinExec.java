@@ -19,12 +19,11 @@
 package org.apache.tajo.engine.planner.physical;
 
 import com.google.common.base.Preconditions;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.SortSpec;
 import org.apache.tajo.plan.logical.JoinNode;
-import org.apache.tajo.storage.FrameTuple;
-import org.apache.tajo.storage.Tuple;
-import org.apache.tajo.storage.TupleComparator;
-import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.util.UnsafeComparer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -49,6 +48,12 @@ public class MergeJoinExec extends CommonJoinExec {
   private JoinTupleComparator joincomparator = null;
   private TupleComparator [] tupleComparator = null;
 
+  // normalized join keys, which are used instead of the comparators if both sides can be encoded in the same way
+  private NormalizedKeyEncoder outerKeyEncoder = null;
+  private NormalizedKeyEncoder innerKeyEncoder = null;
+  private byte [] outerKey;
+  private byte [] innerKey;
+
   private final static int INITIAL_TUPLE_SLOT = 10000;
 
   private boolean end = false;
@@ -69,6 +74,11 @@ public class MergeJoinExec extends CommonJoinExec {
         inner.getSchema(), sortSpecs);
     this.tupleComparator = PhysicalPlanUtil.getComparatorsFromJoinQual(
         plan.getJoinQual(), outer.getSchema(), inner.getSchema());
+    if (context.getQueryContext().getBool(SessionVars.SORT_NORMALIZED_KEY_ENABLED) &&
+        isNormalizable(outerSortKey, innerSortKey)) {
+      this.outerKeyEncoder = new NormalizedKeyEncoder(outer.getSchema(), outerSortKey);
+      this.innerKeyEncoder = new NormalizedKeyEncoder(inner.getSchema(), innerSortKey);
+    }
     this.outerIterator = outerTupleSlots.iterator();
     this.innerIterator = innerTupleSlots.iterator();
     
@@ -77,8 +87,58 @@ public class MergeJoinExec extends CommonJoinExec {
     outTuple = new VTuple(outSchema.size());
   }
 
+  /**
+   * Normalized keys of both sides can be compared with each other only if each pair of join keys has the same
+   * type and ordering.
+   */
+  private static boolean isNormalizable(SortSpec[] outerSortKey, SortSpec[] innerSortKey) {
+    if (outerSortKey.length != innerSortKey.length ||
+        !NormalizedKeyEncoder.isEncodable(outerSortKey) || !NormalizedKeyEncoder.isEncodable(innerSortKey)) {
+      return false;
+    }
+    for (int i = 0; i < outerSortKey.length; i++) {
+      if (!outerSortKey[i].getSortKey().getDataType().equals(innerSortKey[i].getSortKey().getDataType()) ||
+          outerSortKey[i].isAscending() != innerSortKey[i].isAscending() ||
+          outerSortKey[i].isNullFirst() != innerSortKey[i].isNullFirst()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Tuple nextOuterTuple() throws IOException {
+    outerTuple = leftChild.next();
+    if (outerKeyEncoder != null && outerTuple != null) {
+      outerKey = outerKeyEncoder.encode(outerTuple);
+    }
+    return outerTuple;
+  }
+
+  private Tuple nextInnerTuple() throws IOException {
+    innerTuple = rightChild.next();
+    if (innerKeyEncoder != null && innerTuple != null) {
+      innerKey = innerKeyEncoder.encode(innerTuple);
+    }
+    return innerTuple;
+  }
+
+  private int compareOuterAndInner() {
+    if (outerKeyEncoder != null && outerTuple != null && innerTuple != null) {
+      return UnsafeComparer.INSTANCE.compare(outerKey, innerKey);
+    }
+    return joincomparator.compare(outerTuple, innerTuple);
+  }
+
+  private boolean hasSameKey(int side, Tuple previous, byte [] previousKey, Tuple current, byte [] currentKey) {
+    if (outerKeyEncoder != null) {
+      return UnsafeComparer.INSTANCE.compare(previousKey, currentKey) == 0;
+    }
+    return tupleComparator[side].compare(previous, current) == 0;
+  }
+
   public Tuple next() throws IOException {
     Tuple previous;
+    byte [] previousKey;
 
     while (!context.isStopped()) {
       if (!outerIterator.hasNext() && !innerIterator.hasNext()) {
@@ -87,21 +147,21 @@ public class MergeJoinExec extends CommonJoinExec {
         }
 
         if(outerTuple == null){
-          outerTuple = leftChild.next();
+          nextOuterTuple();
         }
         if(innerTuple == null){
-          innerTuple = rightChild.next();
+          nextInnerTuple();
         }
 
         outerTupleSlots.clear();
         innerTupleSlots.clear();
 
         int cmp;
-        while ((cmp = joincomparator.compare(outerTuple, innerTuple)) != 0) {
+        while ((cmp = compareOuterAndInner()) != 0) {
           if (cmp > 0) {
-            innerTuple = rightChild.next();
+            nextInnerTuple();
           } else if (cmp < 0) {
-            outerTuple = leftChild.next();
+            nextOuterTuple();
           }
           if (innerTuple == null || outerTuple == null) {
             return null;
@@ -110,26 +170,26 @@ public class MergeJoinExec extends CommonJoinExec {
 
         try {
           previous = outerTuple.clone();
+          previousKey = outerKey;
           do {
             outerTupleSlots.add(outerTuple.clone());
-            outerTuple = leftChild.next();
-            if (outerTuple == null) {
+            if (nextOuterTuple() == null) {
               end = true;
               break;
             }
-          } while (tupleComparator[0].compare(previous, outerTuple) == 0);
+          } while (hasSameKey(0, previous, previousKey, outerTuple, outerKey));
           outerIterator = outerTupleSlots.iterator();
           outerNext = outerIterator.next();
 
           previous = innerTuple.clone();
+          previousKey = innerKey;
           do {
             innerTupleSlots.add(innerTuple.clone());
-            innerTuple = rightChild.next();
-            if (innerTuple == null) {
+            if (nextInnerTuple() == null) {
               end = true;
               break;
             }
-          } while (tupleComparator[1].compare(previous, innerTuple) == 0);
+          } while (hasSameKey(1, previous, previousKey, innerTuple, innerKey));
           innerIterator = innerTupleSlots.iterator();
         } catch (CloneNotSupportedException e) {
 
@@ -0,0 +1,432 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.primitives.Booleans;
+import org.apache.hadoop.util.IndexedSortable;
+import org.apache.hadoop.util.QuickSort;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.IntervalDatum;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.tuple.offheap.OffHeapRowBlock;
+import org.apache.tajo.tuple.offheap.ResizableLimitSpec;
+import org.apache.tajo.tuple.offheap.UnSafeTuple;
+import org.apache.tajo.tuple.offheap.UnSafeTupleBytesComparator;
+import org.apache.tajo.tuple.offheap.ZeroCopyTuple;
+import org.apache.tajo.util.Deallocatable;
+import org.apache.tajo.util.SizeOf;
+import org.apache.tajo.util.UnsafeUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * A sort buffer which keeps rows in an {@link OffHeapRowBlock} instead of heap tuples.
+ *
+ * Rows are appended to the row block, and the start offset of each row is kept in an index array.
+ * Sorting only reorders the index array, and it compares rows through {@link ZeroCopyTuple}s pointing to the
+ * row block. Sort keys are read directly from the row block as primitive values, so neither buffered rows nor
+ * comparisons create any heap object, and the memory consumption is exactly the bytes of the rows and the index.
+ *
+ * A buffer can be sorted by multiple threads, but it must be filled by a single thread.
+ */
+public class OffHeapSortBuffer implements Deallocatable {
+  private static final int MIN_INITIAL_BLOCK_SIZE = 64 * 1024;
+  private static final int MAX_INITIAL_BLOCK_SIZE = 4 * 1024 * 1024;
+  private static final int INITIAL_ROW_NUM = 1024;
+
+  private final Schema schema;
+  private final SortSpec [] sortSpecs;
+  private final int rowHeaderSize;
+  private OffHeapRowBlock rowBlock;
+  /** the start offsets of rows in the row block, which are ordered after sort */
+  private int [] rowOffsets;
+  private int rowNum;
+
+  /**
+   * @param schema The schema of rows
+   * @param sortSpecs The sort keys
+   * @param bufferBytesNum The expected size of this buffer. It is used to determine the initial size.
+   */
+  public OffHeapSortBuffer(Schema schema, SortSpec [] sortSpecs, long bufferBytesNum) {
+    this.schema = schema;
+    this.sortSpecs = sortSpecs;
+    this.rowHeaderSize = SizeOf.SIZE_OF_INT * (schema.size() + 1);
+
+    int initialSize = (int) Math.max(MIN_INITIAL_BLOCK_SIZE, Math.min(MAX_INITIAL_BLOCK_SIZE, bufferBytesNum));
+    this.rowBlock = new OffHeapRowBlock(schema, new ResizableLimitSpec(initialSize, ResizableLimitSpec.MAX_SIZE_BYTES));
+    this.rowOffsets = new int[INITIAL_ROW_NUM];
+  }
+
+  /**
+   * Returns true if all columns of a schema can be stored in an {@link OffHeapRowBlock}.
+   */
+  public static boolean isSupported(Schema schema) {
+    for (int i = 0; i < schema.size(); i++) {
+      switch (schema.getColumn(i).getDataType().getType()) {
+      case BOOLEAN:
+      case INT1:
+      case INT2:
+      case INT4:
+      case INT8:
+      case FLOAT4:
+      case FLOAT8:
+      case TEXT:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+      case INTERVAL:
+      case INET4:
+      case NULL_TYPE:
+        break;
+      default:
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds a row. The tuple is copied, so it can be reused by a caller.
+   */
+  public void add(Tuple tuple) {
+    if (rowNum == rowOffsets.length) {
+      rowOffsets = Arrays.copyOf(rowOffsets, rowOffsets.length * 2);
+    }
+    // a row header is written without checking the remain space.
+    rowBlock.ensureSize(rowHeaderSize);
+    rowOffsets[rowNum++] = rowBlock.position();
+    RowStoreUtil.convert(tuple, rowBlock.getWriter());
+  }
+
+  public int rows() {
+    return rowNum;
+  }
+
+  public boolean isEmpty() {
+    return rowNum == 0;
+  }
+
+  /**
+   * @return The bytes of buffered rows and the index array, which is allocated ahead of rows
+   */
+  public long usedMemory() {
+    return rowBlock.usedMem() + (long) rowOffsets.length * SizeOf.SIZE_OF_INT;
+  }
+
+  /**
+   * @return The bytes of memory allocated by this buffer
+   */
+  public long allocatedMemory() {
+    return rowBlock.size() + (long) rowOffsets.length * SizeOf.SIZE_OF_INT;
+  }
+
+  public void sort() {
+    sortRange(0, rowNum);
+  }
+
+  /**
+   * Sorts slices of rows by the given executor, and then merges sorted slices by the executor until one remains.
+   *
+   * @param executor The executor running sorts and merges
+   * @param sliceNum The number of slices
+   */
+  public void sortInParallel(ExecutorService executor, int sliceNum)
+      throws InterruptedException, ExecutionException {
+    if (sliceNum < 2 || rowNum < sliceNum) {
+      sort();
+      return;
+    }
+
+    int sliceSize = (rowNum + sliceNum - 1) / sliceNum;
+    List<Future<?>> futures = new ArrayList<Future<?>>();
+    List<int []> runs = new ArrayList<int []>(); // start and end of each sorted run
+    for (int start = 0; start < rowNum; start += sliceSize) {
+      final int sliceStart = start;
+      final int sliceEnd = Math.min(start + sliceSize, rowNum);
+      runs.add(new int[] {sliceStart, sliceEnd});
+      futures.add(executor.submit(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          sortRange(sliceStart, sliceEnd);
+          return null;
+        }
+      }));
+    }
+    waitFor(futures);
+
+    int [] source = rowOffsets;
+    int [] target = new int[rowOffsets.length];
+    while (runs.size() > 1) {
+      futures.clear();
+      List<int []> mergedRuns = new ArrayList<int []>();
+      for (int i = 0; i < runs.size(); i += 2) {
+        final int [] left = runs.get(i);
+        final int [] right = i + 1 < runs.size() ? runs.get(i + 1) : new int[] {left[1], left[1]};
+        final int [] from = source;
+        final int [] to = target;
+        mergedRuns.add(new int[] {left[0], right[1]});
+        futures.add(executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            mergeRuns(from, to, left[0], left[1], right[1]);
+            return null;
+          }
+        }));
+      }
+      waitFor(futures);
+
+      runs = mergedRuns;
+      int [] tmp = source;
+      source = target;
+      target = tmp;
+    }
+    rowOffsets = source;
+  }
+
+  private static void waitFor(List<Future<?>> futures) throws InterruptedException, ExecutionException {
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+
+  private void sortRange(int start, int end) {
+    new QuickSort().sort(new RowOffsetSortable(), start, end);
+  }
+
+  /**
+   * Merges two adjacent sorted runs [start, mid) and [mid, end) of source into the same range of target.
+   */
+  private void mergeRuns(int [] source, int [] target, int start, int mid, int end) {
+    RowComparator comparator = new RowComparator(schema, sortSpecs);
+    ZeroCopyTuple left = new ZeroCopyTuple();
+    ZeroCopyTuple right = new ZeroCopyTuple();
+
+    int leftIdx = start;
+    int rightIdx = mid;
+    int targetIdx = start;
+    while (leftIdx < mid && rightIdx < end) {
+      rowBlock.readRow(source[leftIdx], left);
+      rowBlock.readRow(source[rightIdx], right);
+      if (comparator.compare(left, right) <= 0) {
+        target[targetIdx++] = source[leftIdx++];
+      } else {
+        target[targetIdx++] = source[rightIdx++];
+      }
+    }
+    System.arraycopy(source, leftIdx, target, targetIdx, mid - leftIdx);
+    targetIdx += mid - leftIdx;
+    System.arraycopy(source, rightIdx, target, targetIdx, end - rightIdx);
+  }
+
+  /**
+   * Returns rows in the order of the row offsets. The returned tuple is reused for all rows, so it is valid until
+   * the next call of {@link java.util.Iterator#next()}.
+   */
+  public Iterable<Tuple> rowsInOrder() {
+    return new Iterable<Tuple>() {
+      @Override
+      public Iterator<Tuple> iterator() {
+        return new Iterator<Tuple>() {
+          final ZeroCopyTuple tuple = new ZeroCopyTuple();
+          int index;
+
+          public boolean hasNext() {
+            return index < rowNum;
+          }
+
+          public Tuple next() {
+            rowBlock.readRow(rowOffsets[index++], tuple);
+            return tuple;
+          }
+
+          public void remove() {
+            throw new UnsupportedException();
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Removes all rows. The allocated memory is kept to be reused.
+   */
+  public void clear() {
+    rowBlock.clear();
+    rowNum = 0;
+  }
+
+  @Override
+  public void release() {
+    if (rowBlock != null) {
+      rowBlock.release();
+      rowBlock = null;
+    }
+    rowOffsets = null;
+    rowNum = 0;
+  }
+
+  /**
+   * Sorts row offsets by comparing rows. Each instance has its own comparator and tuples,
+   * so that different ranges can be sorted concurrently.
+   */
+  private class RowOffsetSortable implements IndexedSortable {
+    private final RowComparator comparator = new RowComparator(schema, sortSpecs);
+    private final ZeroCopyTuple left = new ZeroCopyTuple();
+    private final ZeroCopyTuple right = new ZeroCopyTuple();
+
+    @Override
+    public int compare(int i1, int i2) {
+      rowBlock.readRow(rowOffsets[i1], left);
+      rowBlock.readRow(rowOffsets[i2], right);
+      return comparator.compare(left, right);
+    }
+
+    @Override
+    public void swap(int i1, int i2) {
+      int tmp = rowOffsets[i1];
+      rowOffsets[i1] = rowOffsets[i2];
+      rowOffsets[i2] = tmp;
+    }
+  }
+
+  /**
+   * Compares rows in the same order as {@link BaseTupleComparator}, but it reads sort keys directly from
+   * {@link UnSafeTuple}s instead of creating datums. An instance can be used by only one thread.
+   */
+  static class RowComparator {
+    private final int [] sortKeyIds;
+    private final Type [] types;
+    private final boolean [] asc;
+    private final boolean [] nullFirsts;
+
+    RowComparator(Schema schema, SortSpec [] sortKeys) {
+      this.sortKeyIds = new int[sortKeys.length];
+      this.types = new Type[sortKeys.length];
+      this.asc = new boolean[sortKeys.length];
+      this.nullFirsts = new boolean[sortKeys.length];
+      for (int i = 0; i < sortKeys.length; i++) {
+        if (sortKeys[i].getSortKey().hasQualifier()) {
+          this.sortKeyIds[i] = schema.getColumnId(sortKeys[i].getSortKey().getQualifiedName());
+        } else {
+          this.sortKeyIds[i] = schema.getColumnIdByName(sortKeys[i].getSortKey().getSimpleName());
+        }
+        this.types[i] = schema.getColumn(sortKeyIds[i]).getDataType().getType();
+        this.asc[i] = sortKeys[i].isAscending();
+        this.nullFirsts[i] = sortKeys[i].isNullFirst();
+      }
+    }
+
+    public int compare(UnSafeTuple left, UnSafeTuple right) {
+      for (int i = 0; i < sortKeyIds.length; i++) {
+        int fieldId = sortKeyIds[i];
+        boolean leftNull = left.isNull(fieldId);
+        boolean rightNull = right.isNull(fieldId);
+
+        int compVal;
+        if (leftNull || rightNull) {
+          if (leftNull == rightNull) {
+            compVal = 0;
+          } else {
+            // nulls are the largest values unless nulls first is given for an ascending key, and vice versa
+            compVal = leftNull ? 1 : -1;
+            if (nullFirsts[i] == asc[i]) {
+              compVal = -compVal;
+            }
+          }
+        } else if (asc[i]) {
+          compVal = compareField(types[i], left, right, fieldId);
+        } else {
+          compVal = compareField(types[i], right, left, fieldId);
+        }
+
+        if (compVal != 0) {
+          return compVal;
+        }
+      }
+      return 0;
+    }
+
+    /**
+     * Compares non-null fields as the compareTo() of their datums does.
+     */
+    private static int compareField(Type type, UnSafeTuple left, UnSafeTuple right, int fieldId) {
+      switch (type) {
+      case BOOLEAN:
+        return Booleans.compare(left.getBool(fieldId), right.getBool(fieldId));
+      case INT1:
+      case INT2:
+        return compare(left.getInt2(fieldId), right.getInt2(fieldId));
+      case INT4:
+      case DATE:
+        return compare(left.getInt4(fieldId), right.getInt4(fieldId));
+      case INET4:
+        // the bytes of an address are compared as unsigned values
+        return compare(left.getInt4(fieldId) & 0xFFFFFFFFL, right.getInt4(fieldId) & 0xFFFFFFFFL);
+      case INT8:
+      case TIME:
+      case TIMESTAMP:
+        return compare(left.getInt8(fieldId), right.getInt8(fieldId));
+      case FLOAT4:
+        return compare(left.getFloat4(fieldId), right.getFloat4(fieldId));
+      case FLOAT8:
+        return compare(left.getFloat8(fieldId), right.getFloat8(fieldId));
+      case TEXT:
+        return UnSafeTupleBytesComparator.compare(left.getFieldAddr(fieldId), right.getFieldAddr(fieldId));
+      case INTERVAL:
+        return compare(intervalMillis(left.getFieldAddr(fieldId)), intervalMillis(right.getFieldAddr(fieldId)));
+      case NULL_TYPE:
+        return 0;
+      default:
+        throw new UnsupportedException("Unsupported sort key type: " + type);
+      }
+    }
+
+    private static int compare(long left, long right) {
+      return left < right ? -1 : (left > right ? 1 : 0);
+    }
+
+    /**
+     * Unlike Double.compare(), NaN is equal to any value and -0.0 is equal to 0.0, as Float8Datum does.
+     */
+    private static int compare(double left, double right) {
+      return left < right ? -1 : (left > right ? 1 : 0);
+    }
+
+    /**
+     * @return The same value as {@link IntervalDatum#asInt8()} for a serialized interval of months and millis
+     */
+    private static long intervalMillis(long fieldAddr) {
+      int months = UnsafeUtil.unsafe.getInt(fieldAddr);
+      long millis = UnsafeUtil.unsafe.getLong(fieldAddr + SizeOf.SIZE_OF_INT);
+      return (months * 30) * IntervalDatum.DAY_MILLIS + millis;
+    }
+  }
+}
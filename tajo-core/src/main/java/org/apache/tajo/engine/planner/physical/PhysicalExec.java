@@ -60,6 +60,32 @@ public abstract class PhysicalExec implements SchemaObject {
 
   public abstract Tuple next() throws IOException;
 
+  /**
+   * Fills the given batch with the next tuples up to the capacity of the batch.
+   *
+   * This default implementation falls back to the row mode; it pulls tuples one by one through {@link #next()}.
+   * Executors supporting the batch mode override this method.
+   *
+   * @param batch the batch to be filled. It is reset before filling.
+   * @return True if the batch has at least one live row. False if there are no more tuples.
+   */
+  public boolean nextBatch(TupleBatch batch) throws IOException {
+    batch.reset();
+    Tuple tuple;
+    while (!batch.isFull() && (tuple = next()) != null) {
+      batch.add(tuple);
+    }
+    return !batch.isEmpty();
+  }
+
+  protected boolean isBatchModeEnabled() {
+    return context.getQueryContext().getBool(SessionVars.VECTORIZED_EXECUTION_ENABLED);
+  }
+
+  protected TupleBatch createBatch(Schema schema) {
+    return new TupleBatch(context.getQueryContext().getInt(SessionVars.VECTORIZED_BATCH_SIZE), schema.size());
+  }
+
   public abstract void rescan() throws IOException;
 
   public abstract void close() throws IOException;
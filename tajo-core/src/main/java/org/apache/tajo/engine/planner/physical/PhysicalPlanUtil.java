@@ -243,6 +243,21 @@ public class PhysicalPlanUtil {
     }
   }
 
+  /**
+   * Set the compression codec of intermediate data, given by the session variable, to TableMeta if necessary.
+   * It is used for both shuffle outputs and fetched inputs, and only RawFile compresses intermediate data.
+   *
+   * @param context QueryContext
+   * @param meta TableMeta of intermediate data
+   */
+  public static void setShuffleCompressionIfNecessary(QueryContext context, TableMeta meta) {
+    String codec = context.get(SessionVars.SHUFFLE_COMPRESSION_CODEC);
+    if (meta.getStoreType() == CatalogProtos.StoreType.RAW && !meta.containsOption(StorageConstants.COMPRESSION_CODEC)
+        && codec != null && !codec.trim().isEmpty()) {
+      meta.putOption(StorageConstants.COMPRESSION_CODEC, codec.trim());
+    }
+  }
+
   /**
    * Set session variable null char TableMeta if necessary
    *
@@ -35,6 +35,8 @@ public class ProjectionExec extends UnaryPhysicalExec {
   // for projection
   private Tuple outTuple;
   private Projector projector;
+  // for batch mode
+  private TupleBatch inBatch;
   
   public ProjectionExec(TaskAttemptContext context, Projectable plan,
       PhysicalExec child) {
@@ -61,9 +63,32 @@ public class ProjectionExec extends UnaryPhysicalExec {
     return outTuple;
   }
 
+  @Override
+  public boolean nextBatch(TupleBatch batch) throws IOException {
+    if (inBatch == null) {
+      inBatch = new TupleBatch(batch.capacity(), inSchema.size());
+    }
+
+    batch.reset();
+    if (!child.nextBatch(inBatch)) {
+      return false;
+    }
+
+    Tuple tuple;
+    VTuple slot;
+    for (int i = 0; i < inBatch.size(); i++) {
+      tuple = inBatch.get(i);
+      slot = batch.nextSlot();
+      projector.eval(tuple, slot);
+      slot.setOffset(tuple.getOffset());
+    }
+    return true;
+  }
+
   @Override
   public void close() throws IOException{
     super.close();
     plan = null;
+    inBatch = null;
   }
 }
@@ -24,12 +24,14 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.RawLocalFileSystem;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.*;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.storage.*;
 import org.apache.tajo.storage.index.bst.BSTIndex;
+import org.apache.tajo.util.UnsafeComparer;
 import org.apache.tajo.worker.TaskAttemptContext;
 
 import java.io.IOException;
@@ -48,8 +50,11 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
 
   private BSTIndex.BSTIndexWriter indexWriter;
   private TupleComparator comp;
+  // it is used to find key boundaries without projecting keys of every tuple
+  private NormalizedKeyEncoder keyEncoder;
   private FileAppender appender;
   private TableMeta meta;
+  private Path storeTablePath;
 
   public RangeShuffleFileWriteExec(final TaskAttemptContext context,
                                    final PhysicalExec child, final Schema inSchema, final Schema outSchema,
@@ -72,10 +77,15 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
 
     BSTIndex bst = new BSTIndex(new TajoConf());
     this.comp = new BaseTupleComparator(keySchema, sortSpecs);
-    Path storeTablePath = new Path(context.getWorkDir(), "output");
+    if (context.getQueryContext().getBool(SessionVars.SORT_NORMALIZED_KEY_ENABLED) &&
+        NormalizedKeyEncoder.isEncodable(sortSpecs)) {
+      this.keyEncoder = new NormalizedKeyEncoder(inSchema, sortSpecs);
+    }
+    storeTablePath = new Path(context.getWorkDir(), "output");
     LOG.info("Output data directory: " + storeTablePath);
     this.meta = CatalogUtil.newTableMeta(context.getDataChannel() != null ?
         context.getDataChannel().getStoreType() : CatalogProtos.StoreType.RAW);
+    PhysicalPlanUtil.setShuffleCompressionIfNecessary(context.getQueryContext(), meta);
     FileSystem fs = new RawLocalFileSystem();
     fs.mkdirs(storeTablePath);
     this.appender = (FileAppender) ((FileStorageManager)StorageManager.getFileStorageManager(context.getConf()))
@@ -93,17 +103,29 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
     Tuple tuple;
     Tuple keyTuple;
     Tuple prevKeyTuple = null;
+    byte [] key;
+    byte [] prevKey = null;
     long offset;
 
 
     while(!context.isStopped() && (tuple = child.next()) != null) {
       offset = appender.getOffset();
       appender.addTuple(tuple);
-      keyTuple = new VTuple(keySchema.size());
-      RowStoreUtil.project(tuple, keyTuple, indexKeys);
-      if (prevKeyTuple == null || !prevKeyTuple.equals(keyTuple)) {
-        indexWriter.write(keyTuple, offset);
-        prevKeyTuple = keyTuple;
+      if (keyEncoder != null) {
+        key = keyEncoder.encode(tuple);
+        if (prevKey == null || UnsafeComparer.INSTANCE.compare(prevKey, key) != 0) {
+          keyTuple = new VTuple(keySchema.size());
+          RowStoreUtil.project(tuple, keyTuple, indexKeys);
+          indexWriter.write(keyTuple, offset);
+          prevKey = key;
+        }
+      } else {
+        keyTuple = new VTuple(keySchema.size());
+        RowStoreUtil.project(tuple, keyTuple, indexKeys);
+        if (prevKeyTuple == null || !prevKeyTuple.equals(keyTuple)) {
+          indexWriter.write(keyTuple, offset);
+          prevKeyTuple = keyTuple;
+        }
       }
     }
 
@@ -124,6 +146,12 @@ public class RangeShuffleFileWriteExec extends UnaryPhysicalExec {
 
     // Collect statistics data
     context.setResultStats(appender.getStats());
+
+    if (context.getConf().getBoolVar(TajoConf.ConfVars.SHUFFLE_RANGE_CONSOLIDATION_ENABLED)
+        && context.getRangeShuffleFileManager() != null) {
+      context.getRangeShuffleFileManager().consolidate(context.getTaskId().getTaskId().getExecutionBlockId(),
+          storeTablePath);
+    }
     context.addShuffleFileOutput(0, context.getTaskId().toString());
     appender = null;
     indexWriter = null;
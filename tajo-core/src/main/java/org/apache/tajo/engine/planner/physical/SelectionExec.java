@@ -58,4 +58,32 @@ public class SelectionExec extends UnaryPhysicalExec  {
 
     return null;
   }
+
+  /**
+   * It narrows the selection vector of a batch filled by the child instead of copying rows.
+   * If all rows of a batch are filtered out, it pulls the next batch from the child.
+   */
+  @Override
+  public boolean nextBatch(TupleBatch batch) throws IOException {
+    int [] selected;
+    int selectedNum;
+    while (!context.isStopped() && child.nextBatch(batch)) {
+      selected = batch.getSelected();
+      selectedNum = 0;
+      for (int i = 0; i < batch.size(); i++) {
+        if (qual.eval(batch.get(i)).isTrue()) {
+          // the write position never goes ahead of the read position.
+          selected[selectedNum++] = batch.isSelectionInUse() ? selected[i] : i;
+        }
+      }
+      batch.setSelected(selectedNum);
+
+      if (selectedNum > 0) {
+        return true;
+      }
+    }
+
+    batch.reset();
+    return false;
+  }
 }
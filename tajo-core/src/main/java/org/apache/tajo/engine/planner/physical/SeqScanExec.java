@@ -19,6 +19,7 @@
 package org.apache.tajo.engine.planner.physical;
 
 import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SchemaUtil;
@@ -29,6 +30,7 @@ import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.engine.codegen.CompilationError;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
 import org.apache.tajo.engine.planner.Projector;
 import org.apache.tajo.plan.Target;
 import org.apache.tajo.plan.expr.ConstEval;
@@ -60,6 +62,9 @@ public class SeqScanExec extends ScanExec {
 
   private Projector projector;
 
+  /** the generated class fusing the qual and the projection; it is null if code generation is not used */
+  private CompiledPipeline pipeline;
+
   private TableStats inputStats;
 
   public SeqScanExec(TaskAttemptContext context, ScanNode plan,
@@ -165,6 +170,9 @@ public class SeqScanExec extends ScanExec {
     if (plan.hasQual()) {
       qual.bind(inSchema);
     }
+    if (pipeline != null) {
+      pipeline.bind(inSchema);
+    }
   }
 
   @Override
@@ -172,6 +180,18 @@ public class SeqScanExec extends ScanExec {
     if (plan.hasQual()) {
       qual = context.getPrecompiledEval(inSchema, qual);
     }
+
+    if (context.getQueryContext().getBool(SessionVars.CODEGEN_WHOLE_STAGE_ENABLED)) {
+      Target [] targets = plan.hasTargets() ? plan.getTargets() : PlannerUtil.schemaToTargets(outSchema);
+      if (plan.hasQual() || targets.length > 0) {
+        EvalNode [] targetEvals = new EvalNode[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+          targetEvals[i] = targets[i].getEvalTree();
+        }
+        // If the pipeline cannot be compiled, the qual and the projector are evaluated separately.
+        pipeline = context.getCompiledPipeline(inSchema, plan.getQual(), targetEvals);
+      }
+    }
   }
 
   private void initScanner(Schema projected) throws IOException {
@@ -197,6 +217,10 @@ public class SeqScanExec extends ScanExec {
         this.scanner = storageManager.getScanner(meta,
             plan.getPhysicalSchema(), fragments[0], projected);
       }
+      // a selectable scanner may skip blocks of rows by the qual, but the qual is still evaluated here.
+      if (plan.hasQual() && scanner.isSelectable()) {
+        scanner.setSearchCondition(plan.getQual());
+      }
       scanner.init();
     }
   }
@@ -210,7 +234,15 @@ public class SeqScanExec extends ScanExec {
     Tuple tuple;
     Tuple outTuple = new VTuple(outColumnNum);
 
-    if (!plan.hasQual()) {
+    if (pipeline != null) {
+      while ((tuple = scanner.next()) != null) {
+        if (pipeline.process(tuple, outTuple)) {
+          outTuple.setOffset(tuple.getOffset());
+          return outTuple;
+        }
+      }
+      return null;
+    } else if (!plan.hasQual()) {
       if ((tuple = scanner.next()) != null) {
         projector.eval(tuple, outTuple);
         outTuple.setOffset(tuple.getOffset());
@@ -229,6 +261,43 @@ public class SeqScanExec extends ScanExec {
     }
   }
 
+  /**
+   * In the batch mode, rows which do not satisfy the qual are dropped while filling the batch,
+   * and projected rows are written into the reused slots of the batch instead of new tuples.
+   */
+  @Override
+  public boolean nextBatch(TupleBatch batch) throws IOException {
+    batch.reset();
+    if (fragments == null) {
+      return false;
+    }
+
+    Tuple tuple;
+    VTuple slot;
+    if (pipeline != null) {
+      while (!batch.isFull() && (tuple = scanner.next()) != null) {
+        slot = batch.nextSlot();
+        if (pipeline.process(tuple, slot)) {
+          slot.setOffset(tuple.getOffset());
+        } else {
+          batch.revertSlot();
+        }
+      }
+      return !batch.isEmpty();
+    }
+
+    boolean hasQual = plan.hasQual();
+    while (!batch.isFull() && (tuple = scanner.next()) != null) {
+      if (hasQual && !qual.eval(tuple).isTrue()) {
+        continue;
+      }
+      slot = batch.nextSlot();
+      projector.eval(tuple, slot);
+      slot.setOffset(tuple.getOffset());
+    }
+    return !batch.isEmpty();
+  }
+
   @Override
   public void rescan() throws IOException {
     scanner.reset();
@@ -251,6 +320,7 @@ public class SeqScanExec extends ScanExec {
     plan = null;
     qual = null;
     projector = null;
+    pipeline = null;
   }
 
   @Override
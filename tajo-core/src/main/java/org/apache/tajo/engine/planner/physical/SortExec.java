@@ -18,9 +18,11 @@
 
 package org.apache.tajo.engine.planner.physical;
 
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.SortSpec;
 import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.NormalizedKeyEncoder;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.worker.TaskAttemptContext;
 
@@ -32,15 +34,29 @@ public abstract class SortExec extends UnaryPhysicalExec {
 
   protected final BaseTupleComparator comparator;
   protected final SortSpec [] sortSpecs;
+  protected final boolean normalizedKeyEnabled;
 
   public SortExec(TaskAttemptContext context, Schema inSchema,
                   Schema outSchema, PhysicalExec child, SortSpec [] sortSpecs) {
     super(context, inSchema, outSchema, child);
     this.sortSpecs = sortSpecs;
     this.comparator = new BaseTupleComparator(inSchema, sortSpecs);
+    this.normalizedKeyEnabled = context.getQueryContext().getBool(SessionVars.SORT_NORMALIZED_KEY_ENABLED) &&
+        NormalizedKeyEncoder.isEncodable(sortSpecs);
+  }
+
+  /**
+   * Returns a new encoder of normalized keys. It returns null if normalized keys are not enabled or
+   * some sort keys cannot be encoded.
+   */
+  protected NormalizedKeyEncoder createNormalizedKeyEncoder() {
+    return normalizedKeyEnabled ? new NormalizedKeyEncoder(inSchema, sortSpecs) : null;
   }
 
   protected TupleSorter getSorter(List<Tuple> tupleSlots) {
+    if (!tupleSlots.isEmpty() && normalizedKeyEnabled) {
+      return new NormalizedKeySorter(tupleSlots, createNormalizedKeyEncoder());
+    }
     if (!tupleSlots.isEmpty() && ComparableVector.isVectorizable(sortSpecs)) {
       return new VectorizedSorter(tupleSlots, sortSpecs, comparator.getSortKeyIds());
     }
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+
+/**
+ * A fixed-size batch of tuples exchanged between physical executors in the batch execution mode.
+ *
+ * A batch owns <code>capacity</code> reusable row slots. Slots are filled from 0 to {@link #rowNum()} - 1.
+ * Operators like filters do not move rows. Instead, they narrow the selection vector,
+ * which holds the indexes of live slots. Consumers must access rows only through {@link #size()}
+ * and {@link #get(int)}, which respect the selection vector.
+ *
+ * Row slots are reused across {@link PhysicalExec#nextBatch(TupleBatch)} calls, so a consumer
+ * must copy a row if it wants to keep it after the next call.
+ */
+public class TupleBatch {
+  private final VTuple [] rows;
+  private final int [] selected;
+  private int rowNum;
+  private int selectedNum;
+  private boolean selectionInUse;
+
+  public TupleBatch(int capacity, int columnNum) {
+    Preconditions.checkArgument(capacity > 0, "batch capacity must be positive");
+    this.rows = new VTuple[capacity];
+    for (int i = 0; i < capacity; i++) {
+      rows[i] = new VTuple(columnNum);
+    }
+    this.selected = new int[capacity];
+  }
+
+  public int capacity() {
+    return rows.length;
+  }
+
+  /**
+   * @return the number of filled row slots, including unselected ones
+   */
+  public int rowNum() {
+    return rowNum;
+  }
+
+  public boolean isFull() {
+    return rowNum == rows.length;
+  }
+
+  /**
+   * @return the number of live rows
+   */
+  public int size() {
+    return selectionInUse ? selectedNum : rowNum;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * @param i the i-th live row, which must be less than {@link #size()}
+   * @return the live row
+   */
+  public Tuple get(int i) {
+    return selectionInUse ? rows[selected[i]] : rows[i];
+  }
+
+  /**
+   * Returns the next free row slot and counts it as filled.
+   */
+  public VTuple nextSlot() {
+    return rows[rowNum++];
+  }
+
+  /**
+   * Gives back the last slot obtained by {@link #nextSlot()}.
+   */
+  public void revertSlot() {
+    rowNum--;
+  }
+
+  /**
+   * Copies a tuple into the next free row slot. Datums are immutable, so only references are copied.
+   */
+  public void add(Tuple tuple) {
+    VTuple slot = rows[rowNum++];
+    slot.put(0, tuple);
+    slot.setOffset(tuple.getOffset());
+  }
+
+  public boolean isSelectionInUse() {
+    return selectionInUse;
+  }
+
+  /**
+   * Returns the selection vector to be narrowed. After writing the indexes of live slots into the
+   * returned array, a caller must call {@link #setSelected(int)}.
+   */
+  public int [] getSelected() {
+    return selected;
+  }
+
+  public void setSelected(int selectedNum) {
+    this.selectedNum = selectedNum;
+    this.selectionInUse = true;
+  }
+
+  /**
+   * Clears the selection vector and all filled slots.
+   */
+  public void reset() {
+    rowNum = 0;
+    selectedNum = 0;
+    selectionInUse = false;
+  }
+}
@@ -21,6 +21,7 @@ package org.apache.tajo.engine.utils;
 import com.google.common.collect.Maps;
 import org.apache.tajo.catalog.proto.CatalogProtos;
 import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.engine.planner.physical.JoinHashTable;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
@@ -94,4 +95,34 @@ public interface CacheHolder<T> {
       return new TableCacheKey(ctx.getTaskId().getTaskId().getExecutionBlockId().toString(), canonicalName, pathNameKey);
     }
   }
+
+  /**
+   * This is a cache-holder for a join hash table whose rows are stored in off-heap memory.
+   * The hash table is read-only after it is built, so it is shared by all tasks without copy.
+   * It will release when execution block is finished
+   */
+  public static class JoinHashTableCacheHolder implements CacheHolder<JoinHashTable> {
+    private JoinHashTable data;
+    private TableStats tableStats;
+
+    public JoinHashTableCacheHolder(JoinHashTable data, TableStats tableStats) {
+      this.data = data;
+      this.tableStats = tableStats;
+    }
+
+    @Override
+    public JoinHashTable getData() {
+      return data;
+    }
+
+    @Override
+    public TableStats getTableStats() {
+      return tableStats;
+    }
+
+    @Override
+    public void release() {
+      data.release();
+    }
+  }
 }
@@ -34,6 +34,7 @@ import org.apache.tajo.catalog.TableDesc;
 import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
 import org.apache.tajo.engine.parser.SQLAnalyzer;
 import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.exception.UnsupportedException;
 import org.apache.tajo.ipc.ClientProtos;
 import org.apache.tajo.master.TajoMaster.MasterContext;
 import org.apache.tajo.master.exec.DDLExecutor;
@@ -50,6 +51,7 @@ import org.apache.tajo.plan.verifier.PreLogicalPlanVerifier;
 import org.apache.tajo.plan.verifier.VerificationState;
 import org.apache.tajo.plan.verifier.VerifyException;
 import org.apache.tajo.storage.StorageManager;
+import org.apache.tajo.storage.StorageUtil;
 import org.apache.tajo.util.CommonTestingUtil;
 
 import java.io.IOException;
@@ -243,6 +245,7 @@ public class GlobalEngine extends AbstractService {
     LOG.info("=============================================");
 
     annotatedPlanVerifier.verify(queryContext, state, plan);
+    verifyStoreTypeAvailable(queryContext, state, plan);
     verifyInsertTableSchema(queryContext, state, plan);
 
     if (!state.verified()) {
@@ -256,6 +259,16 @@ public class GlobalEngine extends AbstractService {
     return plan;
   }
 
+  private void verifyStoreTypeAvailable(QueryContext queryContext, VerificationState state, LogicalPlan plan) {
+    if (PlannerUtil.getStoreType(plan) == StoreType.ORC) {
+      try {
+        StorageUtil.checkOrcAvailable(queryContext.getConf());
+      } catch (UnsupportedException e) {
+        state.addVerification(e.getMessage());
+      }
+    }
+  }
+
   private void verifyInsertTableSchema(QueryContext queryContext, VerificationState state, LogicalPlan plan) {
     StoreType storeType = PlannerUtil.getStoreType(plan);
     if (storeType != null) {
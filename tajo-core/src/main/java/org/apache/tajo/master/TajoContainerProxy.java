@@ -35,6 +35,7 @@ import org.apache.tajo.master.event.TaskFatalErrorEvent;
 import org.apache.tajo.master.rm.TajoWorkerContainer;
 import org.apache.tajo.master.rm.TajoWorkerContainerId;
 import org.apache.tajo.querymaster.QueryMasterTask;
+import org.apache.tajo.querymaster.Stage;
 import org.apache.tajo.rpc.NettyClientBase;
 import org.apache.tajo.rpc.NullCallback;
 import org.apache.tajo.rpc.RpcConnectionPool;
@@ -105,7 +106,7 @@ public class TajoContainerProxy extends ContainerProxy {
       tajoWorkerRpc = RpcConnectionPool.getPool().getConnection(addr, TajoWorkerProtocol.class, true);
       TajoWorkerProtocol.TajoWorkerProtocolService tajoWorkerRpcClient = tajoWorkerRpc.getStub();
 
-      TajoWorkerProtocol.RunExecutionBlockRequestProto request =
+      TajoWorkerProtocol.RunExecutionBlockRequestProto.Builder requestBuilder =
           TajoWorkerProtocol.RunExecutionBlockRequestProto.newBuilder()
               .setExecutionBlockId(executionBlockId.getProto())
               .setQueryMaster(context.getQueryMasterContext().getWorkerContext().getConnectionInfo().getProto())
@@ -113,8 +114,13 @@ public class TajoContainerProxy extends ContainerProxy {
               .setContainerId(container.getId().toString())
               .setQueryOutputPath(context.getStagingDir().toString())
               .setQueryContext(queryContext.getProto())
-              .setPlanJson(planJson)
-              .build();
+              .setPlanJson(planJson);
+
+      Stage stage = context.getStage(executionBlockId);
+      if (stage != null) {
+        requestBuilder.addAllShufflePushTargets(stage.getShufflePushTargets());
+      }
+      TajoWorkerProtocol.RunExecutionBlockRequestProto request = requestBuilder.build();
 
       tajoWorkerRpcClient.startExecutionBlock(null, request, NullCallback.get());
     } catch (Throwable e) {
@@ -432,16 +432,211 @@ public class Repartitioner {
     }
     Stage.scheduleFragment(stage, fragments[0], rightFragments);
 
-    // Assign partitions to tasks in a round robin manner.
-    for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry
-        : hashEntries.entrySet()) {
-      addJoinShuffle(stage, entry.getKey(), entry.getValue());
+    int skewTaskNum = 0;
+    if (stage.getMasterPlan().getContext().getBool(SessionVars.JOIN_SKEW_ENABLED)
+        && broadcastFragments == null && (unionScanMap == null || unionScanMap.isEmpty())) {
+      skewTaskNum = scheduleSkewedJoinPartitions(stage, hashEntries, (long) desireJoinTaskVolumn * 1048576);
     }
 
+    if (stage.getMasterPlan().getContext().getBool(SessionVars.SHUFFLE_ADAPTIVE_PARTITION_ENABLED)) {
+      // Partitions are over-partitioned by the producers. Adjacent small partitions are coalesced into a task
+      // by their actual volumes of both sides.
+      SortedMap<Integer, Long> partitionVolumes = new TreeMap<Integer, Long>();
+      for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry : hashEntries.entrySet()) {
+        long volume = 0;
+        for (List<IntermediateEntry> intermediates : entry.getValue().values()) {
+          for (IntermediateEntry intermediate : intermediates) {
+            volume += intermediate.getVolume();
+          }
+        }
+        partitionVolumes.put(entry.getKey(), volume);
+      }
+
+      List<List<Integer>> groups = coalescePartitions(partitionVolumes, (long) desireJoinTaskVolumn * 1048576);
+      for (List<Integer> group : groups) {
+        addJoinShuffle(stage, group, hashEntries);
+      }
+      joinTaskNum = Math.max(1, groups.size());
+      LOG.info(stage.getId() + ", " + hashEntries.size() + " join partitions are coalesced into "
+          + joinTaskNum + " tasks");
+    } else {
+      // Assign partitions to tasks in a round robin manner.
+      for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry
+          : hashEntries.entrySet()) {
+        addJoinShuffle(stage, entry.getKey(), entry.getValue());
+      }
+    }
+
+    joinTaskNum += skewTaskNum;
     schedulerContext.setTaskSize((int) Math.ceil((double) bothFetchSize / joinTaskNum));
     schedulerContext.setEstimatedTaskNum(joinTaskNum);
   }
 
+  /**
+   * Finds skewed partitions of a repartition join from the volumes of intermediate data, and schedules each of them
+   * to several tasks. The skewed side of a partition is split by pages, and the partition of the other side is
+   * replicated to all the tasks. A side can be split only if the join does not preserve the rows of the other side,
+   * e.g., only the left side of a left outer join can be split.
+   *
+   * The scheduled partitions are removed from the given hashEntries.
+   *
+   * @return The number of scheduled tasks
+   */
+  private static int scheduleSkewedJoinPartitions(
+      Stage stage, Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries, long desiredVolume) {
+    LogicalNode[] joinNodes = PlannerUtil.findAllNodes(stage.getBlock().getPlan(), NodeType.JOIN);
+    if (joinNodes.length != 1) {
+      return 0;
+    }
+    JoinNode joinNode = (JoinNode) joinNodes[0];
+    ScanNode leftScan = PlannerUtil.findTopNode(joinNode.getLeftChild(), NodeType.SCAN);
+    ScanNode rightScan = PlannerUtil.findTopNode(joinNode.getRightChild(), NodeType.SCAN);
+    if (leftScan == null || rightScan == null) {
+      return 0;
+    }
+    ExecutionBlockId [] sides = new ExecutionBlockId[] {
+        TajoIdUtils.createExecutionBlockId(leftScan.getTableName()),
+        TajoIdUtils.createExecutionBlockId(rightScan.getTableName())
+    };
+
+    // find skewed partitions of each splittable side
+    int skewFactor = stage.getMasterPlan().getContext().getInt(SessionVars.JOIN_SKEW_FACTOR);
+    List<Set<Integer>> skewedPartitions = new ArrayList<Set<Integer>>();
+    List<Map<Integer, Long>> sideVolumes = new ArrayList<Map<Integer, Long>>();
+    for (int i = 0; i < sides.length; i++) {
+      Map<Integer, Long> volumes = new HashMap<Integer, Long>();
+      for (Entry<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> entry : hashEntries.entrySet()) {
+        List<IntermediateEntry> intermediates = entry.getValue().get(sides[i]);
+        if (intermediates != null && !intermediates.isEmpty()) {
+          long volume = 0;
+          for (IntermediateEntry intermediate : intermediates) {
+            volume += intermediate.getVolume();
+          }
+          volumes.put(entry.getKey(), volume);
+        }
+      }
+      sideVolumes.add(volumes);
+      if (isSplittableJoinSide(joinNode.getJoinType(), i == 0)) {
+        skewedPartitions.add(findSkewedPartitions(volumes, skewFactor, desiredVolume));
+      } else {
+        skewedPartitions.add(Collections.<Integer>emptySet());
+      }
+    }
+
+    long pageSize = ((long)StorageUnit.MB) *
+        stage.getContext().getConf().getIntVar(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME);
+    int taskNum = 0;
+    for (Integer partitionId : new TreeSet<Integer>(hashEntries.keySet())) {
+      // split the larger side if both sides are skewed
+      int splitSide = -1;
+      for (int i = 0; i < sides.length; i++) {
+        if (skewedPartitions.get(i).contains(partitionId) && (splitSide < 0 ||
+            sideVolumes.get(i).get(partitionId) > sideVolumes.get(splitSide).get(partitionId))) {
+          splitSide = i;
+        }
+      }
+      if (splitSide < 0) {
+        continue;
+      }
+
+      Map<ExecutionBlockId, List<IntermediateEntry>> partition = hashEntries.get(partitionId);
+      List<List<FetchImpl>> splits = splitJoinPartition(sides[splitSide], partitionId,
+          partition.get(sides[splitSide]), desiredVolume, pageSize);
+      if (splits.size() <= 1) {
+        continue;
+      }
+
+      ExecutionBlockId replicatedSide = sides[1 - splitSide];
+      for (List<FetchImpl> split : splits) {
+        Map<String, List<FetchImpl>> fetches = new HashMap<String, List<FetchImpl>>();
+        fetches.put(sides[splitSide].toString(), split);
+        if (partition.containsKey(replicatedSide)) {
+          fetches.put(replicatedSide.toString(), Lists.newArrayList(
+              mergeShuffleRequest(partitionId, HASH_SHUFFLE, partition.get(replicatedSide))));
+        }
+        Stage.scheduleFetches(stage, fetches);
+      }
+      LOG.info(stage.getId() + ", Skewed join partition " + partitionId + " ("
+          + sideVolumes.get(splitSide).get(partitionId) + " bytes of " + sides[splitSide]
+          + ") is split into " + splits.size() + " tasks");
+
+      hashEntries.remove(partitionId);
+      taskNum += splits.size();
+    }
+    return taskNum;
+  }
+
+  private static boolean isSplittableJoinSide(JoinType joinType, boolean left) {
+    switch (joinType) {
+    case INNER:
+      return true;
+    case LEFT_OUTER:
+    case LEFT_SEMI:
+    case LEFT_ANTI:
+      return left;
+    case RIGHT_OUTER:
+    case RIGHT_SEMI:
+    case RIGHT_ANTI:
+      return !left;
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * A partition is skewed if its volume is larger than both skewFactor times the median volume and the minimum
+   * volume.
+   *
+   * @param partitionVolumes <partition id, volume>
+   * @return The ids of skewed partitions
+   */
+  @VisibleForTesting
+  public static Set<Integer> findSkewedPartitions(Map<Integer, Long> partitionVolumes, int skewFactor,
+                                                  long minVolume) {
+    Set<Integer> skewed = new HashSet<Integer>();
+    if (partitionVolumes.isEmpty()) {
+      return skewed;
+    }
+
+    List<Long> volumes = new ArrayList<Long>(partitionVolumes.values());
+    Collections.sort(volumes);
+    long threshold = Math.max(volumes.get(volumes.size() / 2) * skewFactor, minVolume);
+    for (Entry<Integer, Long> entry : partitionVolumes.entrySet()) {
+      if (entry.getValue() > threshold) {
+        skewed.add(entry.getKey());
+      }
+    }
+    return skewed;
+  }
+
+  /**
+   * Splits intermediate data of a join partition by pages. Pages pushed to owners are fetched together as a split.
+   */
+  private static List<List<FetchImpl>> splitJoinPartition(ExecutionBlockId ebId, int partitionId,
+                                                          List<IntermediateEntry> entries, long splitVolume,
+                                                          long pageSize) {
+    List<IntermediateEntry> pulledEntries = new ArrayList<IntermediateEntry>();
+    List<IntermediateEntry> pushedEntries = new ArrayList<IntermediateEntry>();
+    for (IntermediateEntry entry : entries) {
+      if (entry.isPushed()) {
+        pushedEntries.add(entry);
+      } else if (entry.getPages() == null || entry.getPages().isEmpty()) {
+        return Collections.emptyList();
+      } else {
+        pulledEntries.add(entry);
+      }
+    }
+
+    List<List<FetchImpl>> splits = new ArrayList<List<FetchImpl>>();
+    if (!pulledEntries.isEmpty()) {
+      splits.addAll(splitOrMergeIntermediates(ebId, pulledEntries, splitVolume, pageSize, HASH_SHUFFLE));
+    }
+    if (!pushedEntries.isEmpty()) {
+      splits.add(createPushedFetches(partitionId, HASH_SHUFFLE, pushedEntries));
+    }
+    return splits;
+  }
+
   /**
    * merge intermediate entry by ebid, pullhost
    * @param hashEntries
@@ -466,11 +661,13 @@ public class Repartitioner {
         Map<String, IntermediateEntry> ebMerged = new HashMap<String, IntermediateEntry>();
 
         for (IntermediateEntry eachIntermediate: intermediateList) {
-          String ebMergedKey = eachIntermediate.getEbId().toString() + eachIntermediate.getPullHost().getPullAddress();
+          String ebMergedKey = eachIntermediate.getEbId().toString() + eachIntermediate.getPullHost().getPullAddress()
+              + (eachIntermediate.isPushed() ? ",pushed" : "");
           IntermediateEntry intermediateEntryPerPullHost = ebMerged.get(ebMergedKey);
           if (intermediateEntryPerPullHost == null) {
             intermediateEntryPerPullHost = new IntermediateEntry(-1, -1, partId, eachIntermediate.getPullHost());
             intermediateEntryPerPullHost.setEbId(eachIntermediate.getEbId());
+            intermediateEntryPerPullHost.setPushed(eachIntermediate.isPushed());
             ebMerged.put(ebMergedKey, intermediateEntryPerPullHost);
           }
           intermediateEntryPerPullHost.setVolume(intermediateEntryPerPullHost.getVolume() + eachIntermediate.getVolume());
@@ -575,19 +772,76 @@ public class Repartitioner {
   private static void addJoinShuffle(Stage stage, int partitionId,
                                      Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions) {
     Map<String, List<FetchImpl>> fetches = new HashMap<String, List<FetchImpl>>();
+    addJoinFetches(stage, partitionId, grouppedPartitions, fetches);
+
+    if (fetches.isEmpty()) {
+      LOG.info(stage.getId() + "'s " + partitionId + " partition has empty result.");
+      return;
+    }
+    Stage.scheduleFetches(stage, fetches);
+  }
+
+  /**
+   * Schedules a task which fetches all the given partitions of both sides.
+   */
+  private static void addJoinShuffle(Stage stage, List<Integer> partitionIds,
+                                     Map<Integer, Map<ExecutionBlockId, List<IntermediateEntry>>> hashEntries) {
+    Map<String, List<FetchImpl>> fetches = new HashMap<String, List<FetchImpl>>();
+    for (int partitionId : partitionIds) {
+      addJoinFetches(stage, partitionId, hashEntries.get(partitionId), fetches);
+    }
+
+    if (fetches.isEmpty()) {
+      LOG.info(stage.getId() + "'s " + partitionIds + " partitions have empty result.");
+      return;
+    }
+    Stage.scheduleFetches(stage, fetches);
+  }
+
+  private static void addJoinFetches(Stage stage, int partitionId,
+                                     Map<ExecutionBlockId, List<IntermediateEntry>> grouppedPartitions,
+                                     Map<String, List<FetchImpl>> fetches) {
     for (ExecutionBlock execBlock : stage.getMasterPlan().getChilds(stage.getId())) {
       if (grouppedPartitions.containsKey(execBlock.getId())) {
         Collection<FetchImpl> requests = mergeShuffleRequest(partitionId, HASH_SHUFFLE,
             grouppedPartitions.get(execBlock.getId()));
-        fetches.put(execBlock.getId().toString(), Lists.newArrayList(requests));
+        String key = execBlock.getId().toString();
+        if (fetches.containsKey(key)) {
+          fetches.get(key).addAll(requests);
+        } else {
+          fetches.put(key, Lists.newArrayList(requests));
+        }
       }
     }
+  }
 
-    if (fetches.isEmpty()) {
-      LOG.info(stage.getId() + "'s " + partitionId + " partition has empty result.");
-      return;
+  /**
+   * Groups adjacent partitions so that the volume of each group does not exceed the desired volume if possible.
+   * A partition larger than the desired volume forms a group by itself.
+   *
+   * @param partitionVolumes <partition id, volume> sorted by partition ids
+   * @param desiredVolume The desired volume of a group
+   * @return Groups of partition ids
+   */
+  @VisibleForTesting
+  public static List<List<Integer>> coalescePartitions(SortedMap<Integer, Long> partitionVolumes,
+                                                       long desiredVolume) {
+    List<List<Integer>> groups = new ArrayList<List<Integer>>();
+    List<Integer> current = new ArrayList<Integer>();
+    long currentVolume = 0;
+    for (Entry<Integer, Long> entry : partitionVolumes.entrySet()) {
+      if (!current.isEmpty() && currentVolume + entry.getValue() > desiredVolume) {
+        groups.add(current);
+        current = new ArrayList<Integer>();
+        currentVolume = 0;
+      }
+      current.add(entry.getKey());
+      currentVolume += entry.getValue();
     }
-    Stage.scheduleFetches(stage, fetches);
+    if (!current.isEmpty()) {
+      groups.add(current);
+    }
+    return groups;
   }
 
   /**
@@ -601,8 +855,13 @@ public class Repartitioner {
                                                           List<IntermediateEntry> partitions) {
     // ebId + pullhost -> FetchImmpl
     Map<String, FetchImpl> mergedPartitions = new HashMap<String, FetchImpl>();
+    List<IntermediateEntry> pushedPartitions = new ArrayList<IntermediateEntry>();
 
     for (IntermediateEntry partition : partitions) {
+      if (partition.isPushed()) {
+        pushedPartitions.add(partition);
+        continue;
+      }
       String mergedKey = partition.getEbId().toString() + "," + partition.getPullHost();
 
       if (mergedPartitions.containsKey(mergedKey)) {
@@ -615,7 +874,71 @@ public class Repartitioner {
         mergedPartitions.put(mergedKey, fetch);
       }
     }
-    return mergedPartitions.values();
+
+    if (pushedPartitions.isEmpty()) {
+      return mergedPartitions.values();
+    }
+    List<FetchImpl> fetches = new ArrayList<FetchImpl>(mergedPartitions.values());
+    fetches.addAll(createPushedFetches(partitionId, type, pushedPartitions));
+    return fetches;
+  }
+
+  /**
+   * Creates fetches of a partition pushed to its owners. The consolidated file of an owner may also have pages of
+   * a failed push, which the producer keeps to be pulled instead. So only the reported pages are fetched, and
+   * adjacent pages are fetched together.
+   */
+  @VisibleForTesting
+  public static List<FetchImpl> createPushedFetches(int partitionId, ShuffleType type,
+                                                    List<IntermediateEntry> partitions) {
+    // ebId + pullhost -> pages in the consolidated file
+    Map<String, List<Pair<Long, Integer>>> pagesPerOwner = new HashMap<String, List<Pair<Long, Integer>>>();
+    Map<String, IntermediateEntry> owners = new HashMap<String, IntermediateEntry>();
+    for (IntermediateEntry partition : partitions) {
+      if (partition.getPages() == null || partition.getPages().isEmpty()) {
+        continue;
+      }
+      String ownerKey = partition.getEbId().toString() + "," + partition.getPullHost();
+      if (!owners.containsKey(ownerKey)) {
+        owners.put(ownerKey, partition);
+        pagesPerOwner.put(ownerKey, new ArrayList<Pair<Long, Integer>>());
+      }
+      pagesPerOwner.get(ownerKey).addAll(partition.getPages());
+    }
+
+    List<FetchImpl> fetches = new ArrayList<FetchImpl>();
+    for (Entry<String, List<Pair<Long, Integer>>> entry : pagesPerOwner.entrySet()) {
+      IntermediateEntry owner = owners.get(entry.getKey());
+      List<Pair<Long, Integer>> pages = entry.getValue();
+      Collections.sort(pages, new Comparator<Pair<Long, Integer>>() {
+        @Override
+        public int compare(Pair<Long, Integer> o1, Pair<Long, Integer> o2) {
+          return o1.getFirst().compareTo(o2.getFirst());
+        }
+      });
+
+      long start = pages.get(0).getFirst();
+      long end = start;
+      for (Pair<Long, Integer> eachPage : pages) {
+        if (eachPage.getFirst() != end) {
+          fetches.add(createPushedFetch(partitionId, type, owner, start, end - start));
+          start = eachPage.getFirst();
+        }
+        end = eachPage.getFirst() + eachPage.getSecond();
+      }
+      fetches.add(createPushedFetch(partitionId, type, owner, start, end - start));
+    }
+    return fetches;
+  }
+
+  private static FetchImpl createPushedFetch(int partitionId, ShuffleType type, IntermediateEntry owner,
+                                             long offset, long length) {
+    FetchImpl fetch = new FetchImpl(owner.getPullHost(), type, owner.getEbId(), partitionId);
+    fetch.setPushed(true);
+    fetch.addPart(owner.getTaskId(), owner.getAttemptId());
+    fetch.setOffset(offset);
+    fetch.setLength(length);
+    return fetch;
   }
 
   public static void scheduleFragmentsForNonLeafTasks(TaskSchedulerContext schedulerContext,
@@ -721,17 +1044,23 @@ public class Repartitioner {
     FileFragment dummyFragment = new FileFragment(scan.getTableName(), tablePath, 0, 0, new String[]{UNKNOWN_HOST});
     Stage.scheduleFragment(stage, dummyFragment);
 
+    // Outputs of tasks in the same pull server are requested by a single fetch
     List<FetchImpl> fetches = new ArrayList<FetchImpl>();
     List<ExecutionBlock> childBlocks = masterPlan.getChilds(stage.getId());
     for (ExecutionBlock childBlock : childBlocks) {
       Stage childExecSM = stage.getContext().getStage(childBlock.getId());
+      Map<Task.PullHost, FetchImpl> fetchesByHost = new HashMap<Task.PullHost, FetchImpl>();
       for (Task qu : childExecSM.getTasks()) {
         for (IntermediateEntry p : qu.getIntermediateData()) {
-          FetchImpl fetch = new FetchImpl(p.getPullHost(), RANGE_SHUFFLE, childBlock.getId(), 0);
+          FetchImpl fetch = fetchesByHost.get(p.getPullHost());
+          if (fetch == null) {
+            fetch = new FetchImpl(p.getPullHost(), RANGE_SHUFFLE, childBlock.getId(), 0);
+            fetchesByHost.put(p.getPullHost(), fetch);
+          }
           fetch.addPart(p.getTaskId(), p.getAttemptId());
-          fetches.add(fetch);
         }
       }
+      fetches.addAll(fetchesByHost.values());
     }
 
     SortedMap<TupleRange, Collection<FetchImpl>> map;
@@ -843,15 +1172,33 @@ public class Repartitioner {
       // make FetchImpl per PullServer, PartId
       Map<Integer, List<IntermediateEntry>> hashed = hashByKey(partitions);
       for (Entry<Integer, List<IntermediateEntry>> interm : hashed.entrySet()) {
-        Map<Task.PullHost, List<IntermediateEntry>> hashedByHost = hashByHost(interm.getValue());
-        for (Entry<Task.PullHost, List<IntermediateEntry>> e : hashedByHost.entrySet()) {
+        // A partition pushed to its owner is fetched apart from the partition kept in the owner's own shuffle file.
+        List<IntermediateEntry> pulledEntries = new ArrayList<IntermediateEntry>();
+        List<IntermediateEntry> pushedEntries = new ArrayList<IntermediateEntry>();
+        for (IntermediateEntry eachEntry : interm.getValue()) {
+          if (eachEntry.isPushed()) {
+            pushedEntries.add(eachEntry);
+          } else {
+            pulledEntries.add(eachEntry);
+          }
+        }
 
-          FetchImpl fetch = new FetchImpl(e.getKey(), channel.getShuffleType(),
-              block.getId(), interm.getKey(), e.getValue());
+        List<FetchImpl> partitionFetches = new ArrayList<FetchImpl>();
+        Map<Task.PullHost, List<IntermediateEntry>> hashedByHost = hashByHost(pulledEntries);
+        for (Entry<Task.PullHost, List<IntermediateEntry>> e : hashedByHost.entrySet()) {
+          partitionFetches.add(new FetchImpl(e.getKey(), channel.getShuffleType(),
+              block.getId(), interm.getKey(), e.getValue()));
+        }
+        partitionFetches.addAll(createPushedFetches(interm.getKey(), channel.getShuffleType(), pushedEntries));
 
+        for (FetchImpl fetch : partitionFetches) {
           long volumeSum = 0;
-          for (IntermediateEntry ie : e.getValue()) {
-            volumeSum += ie.getVolume();
+          if (fetch.isPushed()) {
+            volumeSum = fetch.getLength();
+          } else {
+            for (IntermediateEntry ie : hashedByHost.get(fetch.getPullHost())) {
+              volumeSum += ie.getVolume();
+            }
           }
 
           if (finalFetches.containsKey(interm.getKey())) {
@@ -901,6 +1248,18 @@ public class Repartitioner {
       TableStats totalStat = computeChildBlocksStats(stage.getContext(), masterPlan, stage.getId());
       if (totalStat.getNumRows() == 0) {
         determinedTaskNum = 1;
+      } else if (masterPlan.getContext().getBool(SessionVars.SHUFFLE_ADAPTIVE_PARTITION_ENABLED)) {
+        // Partitions are over-partitioned by the producers. The number of tasks is determined by actual volumes,
+        // and small partitions are packed into the tasks by their volumes.
+        long totalVolume = 0;
+        for (FetchGroupMeta meta : finalFetches.values()) {
+          totalVolume += meta.getVolume();
+        }
+        long desiredVolume = (long) masterPlan.getContext().getInt(SessionVars.GROUPBY_PER_SHUFFLE_SIZE) * 1048576;
+        int adaptiveTaskNum = (int) Math.ceil((double) totalVolume / desiredVolume);
+        determinedTaskNum = Math.max(1, Math.min(adaptiveTaskNum, finalFetches.size()));
+        LOG.info(stage.getId() + ", " + finalFetches.size() + " aggregation partitions are coalesced into "
+            + determinedTaskNum + " tasks");
       }
     }
 
@@ -1056,6 +1415,11 @@ public class Repartitioner {
    */
   public static List<List<FetchImpl>> splitOrMergeIntermediates(
       ExecutionBlockId ebId, List<IntermediateEntry> entries, long splitVolume, long pageSize) {
+    return splitOrMergeIntermediates(ebId, entries, splitVolume, pageSize, SCATTERED_HASH_SHUFFLE);
+  }
+
+  public static List<List<FetchImpl>> splitOrMergeIntermediates(
+      ExecutionBlockId ebId, List<IntermediateEntry> entries, long splitVolume, long pageSize, ShuffleType type) {
     // Each List<FetchImpl> has splitVolume size.
     List<List<FetchImpl>> fetches = new ArrayList<List<FetchImpl>>();
 
@@ -1089,7 +1453,7 @@ public class Repartitioner {
           fetchListForSingleTask = new ArrayList<FetchImpl>();
           fetchListVolume = 0;
         }
-        FetchImpl fetch = new FetchImpl(currentInterm.getPullHost(), SCATTERED_HASH_SHUFFLE,
+        FetchImpl fetch = new FetchImpl(currentInterm.getPullHost(), type,
             ebId, currentInterm.getPartId(), TUtil.newList(currentInterm));
         fetch.setOffset(eachSplit.getFirst());
         fetch.setLength(eachSplit.getSecond());
@@ -1113,7 +1477,8 @@ public class Repartitioner {
         .append("&p=").append(fetch.getPartitionId())
         .append("&type=");
     if (fetch.getType() == HASH_SHUFFLE) {
-      urlPrefix.append("h");
+      // 'p' indicates a partition which is pushed to and consolidated in its owner
+      urlPrefix.append(fetch.isPushed() ? "p" : "h");
     } else if (fetch.getType() == RANGE_SHUFFLE) {
       urlPrefix.append("r").append("&").append(fetch.getRangeParams());
     } else if (fetch.getType() == SCATTERED_HASH_SHUFFLE) {
@@ -45,6 +45,8 @@ import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.planner.global.ExecutionBlock;
 import org.apache.tajo.engine.planner.global.MasterPlan;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.ipc.QueryCoordinatorProtocol.WorkerResourceProto;
 import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.ipc.TajoWorkerProtocol.DistinctGroupbyEnforcer.MultipleAggregationStage;
 import org.apache.tajo.ipc.TajoWorkerProtocol.EnforceProperty;
@@ -307,6 +309,8 @@ public class Stage implements EventHandler<StageEvent> {
   private int failedObjectCount = 0;
   private TaskSchedulerContext schedulerContext;
   private List<IntermediateEntry> hashShuffleIntermediateEntries = Lists.newArrayList();
+  // workers owning hash shuffle partitions in the push-based shuffle
+  private List<TajoProtos.WorkerConnectionInfoProto> shufflePushTargets = Collections.emptyList();
   private AtomicInteger completedShuffleTasks = new AtomicInteger(0);
   private AtomicBoolean stopShuffleReceiver = new AtomicBoolean();
   private StageHistory finalStageHistory;
@@ -499,6 +503,9 @@ public class Stage implements EventHandler<StageEvent> {
     stageHistory.setTotalReadRows(totalReadRows);
     stageHistory.setTotalWriteBytes(totalWriteBytes);
     stageHistory.setTotalWriteRows(totalWriteRows);
+    if (resultStatistics != null) {
+      stageHistory.setTotalCompressedWriteBytes(resultStatistics.getCompressedBytes());
+    }
     stageHistory.setNumShuffles(numShuffles);
     stageHistory.setProgress(getProgress());
     return stageHistory;
@@ -728,6 +735,25 @@ public class Stage implements EventHandler<StageEvent> {
     resultStatistics = statsArray[1];
   }
 
+  /**
+   * Hash shuffle outputs are shared by tasks in a worker, so their compressed size is known only from the reports
+   * of workers. Volumes of intermediate entries are compressed bytes if intermediate data are compressed.
+   */
+  private void finalizeCompressedBytes() {
+    String codec = getContext().getQueryContext().get(SessionVars.SHUFFLE_COMPRESSION_CODEC);
+    if (resultStatistics == null || hashShuffleIntermediateEntries.isEmpty()
+        || codec == null || codec.trim().isEmpty()
+        || masterPlan.getOutgoingChannels(getId()).get(0).getStoreType() != StoreType.RAW) {
+      return;
+    }
+
+    long compressedBytes = 0;
+    for (IntermediateEntry entry : hashShuffleIntermediateEntries) {
+      compressedBytes += entry.getVolume();
+    }
+    resultStatistics.setCompressedBytes(compressedBytes);
+  }
+
   @Override
   public void handle(StageEvent event) {
     lastContactTime = System.currentTimeMillis();
@@ -785,7 +811,7 @@ public class Stage implements EventHandler<StageEvent> {
           state = StageState.SUCCEEDED;
         } else {
           ExecutionBlock parent = stage.getMasterPlan().getParent(stage.getBlock());
-          DataChannel channel = stage.getMasterPlan().getChannel(stage.getId(), parent.getId());
+          final DataChannel channel = stage.getMasterPlan().getChannel(stage.getId(), parent.getId());
           setShuffleIfNecessary(stage, channel);
           initTaskScheduler(stage);
           // execute pre-processing asyncronously
@@ -803,6 +829,7 @@ public class Stage implements EventHandler<StageEvent> {
                               stage.complete();
                             } else {
                               if(stage.getSynchronizedState() == StageState.INITED) {
+                                setShufflePushTargetsIfNecessary(stage, channel);
                                 stage.taskScheduler.start();
                                 allocateContainers(stage);
                               } else {
@@ -838,6 +865,25 @@ public class Stage implements EventHandler<StageEvent> {
       return state;
     }
 
+    /**
+     * In the push-based hash shuffle, the i-th partition is owned by the (i % n)-th worker of the cluster.
+     * Workers push their pages of a partition to its owner, and the owner appends them into a single file.
+     */
+    private static void setShufflePushTargetsIfNecessary(Stage stage, DataChannel channel) {
+      if (channel.getShuffleType() != ShuffleType.HASH_SHUFFLE || channel.getStoreType() != StoreType.RAW
+          || !stage.getContext().getQueryContext().getBool(SessionVars.SHUFFLE_PUSH_ENABLED)) {
+        return;
+      }
+
+      List<TajoProtos.WorkerConnectionInfoProto> targets = Lists.newArrayList();
+      for (WorkerResourceProto eachWorker :
+          stage.getContext().getQueryMasterContext().getQueryMaster().getAllWorker()) {
+        targets.add(eachWorker.getConnectionInfo());
+      }
+      stage.shufflePushTargets = targets;
+      LOG.info(stage.getId() + ", Push-based hash shuffle - owner workers=" + targets.size());
+    }
+
     private void initTaskScheduler(Stage stage) throws IOException {
       TajoConf conf = stage.context.getConf();
       stage.schedulerContext = new TaskSchedulerContext(stage.context,
@@ -901,6 +947,8 @@ public class Stage implements EventHandler<StageEvent> {
         if (masterPlan.getContext().containsKey(SessionVars.TEST_MIN_TASK_NUM)) {
           taskNum = masterPlan.getContext().getInt(SessionVars.TEST_MIN_TASK_NUM);
           LOG.warn("!!!!! TESTCASE MODE !!!!!");
+        } else {
+          taskNum = overPartitionIfAdaptive(stage, channel, taskNum);
         }
 
         // The shuffle output numbers of join may be inconsistent by execution block order.
@@ -965,6 +1013,7 @@ public class Stage implements EventHandler<StageEvent> {
           // determine the number of task
           int taskNum = (int) Math.ceil((double) volumeByMB /
               masterPlan.getContext().getInt(SessionVars.GROUPBY_PER_SHUFFLE_SIZE));
+          taskNum = overPartitionIfAdaptive(stage, channel, taskNum);
           LOG.info(stage.getId() + ", The determined number of aggregation partitions is " + taskNum);
           return taskNum;
         }
@@ -981,6 +1030,21 @@ public class Stage implements EventHandler<StageEvent> {
       }
     }
 
+    /**
+     * If adaptive partition is enabled, a hash shuffle is split into more partitions than needed. The consumer
+     * coalesces small adjacent partitions by their actual volumes when it schedules tasks.
+     */
+    private static int overPartitionIfAdaptive(Stage stage, DataChannel channel, int taskNum) {
+      QueryContext context = stage.getMasterPlan().getContext();
+      if (channel.getShuffleType() != ShuffleType.HASH_SHUFFLE
+          || !context.getBool(SessionVars.SHUFFLE_ADAPTIVE_PARTITION_ENABLED)) {
+        return taskNum;
+      }
+      int overPartitioned = Math.max(1, taskNum) * context.getInt(SessionVars.SHUFFLE_OVER_PARTITION_FACTOR);
+      LOG.info(stage.getId() + ", Over-partitioned hash shuffle from " + taskNum + " to " + overPartitioned);
+      return overPartitioned;
+    }
+
     private static void schedule(Stage stage) throws IOException {
       MasterPlan masterPlan = stage.getMasterPlan();
       ExecutionBlock execBlock = stage.getBlock();
@@ -1292,6 +1356,10 @@ public class Stage implements EventHandler<StageEvent> {
     this.finalStageHistory.setTasks(makeTaskHistories());
   }
 
+  public List<TajoProtos.WorkerConnectionInfoProto> getShufflePushTargets() {
+    return shufflePushTargets;
+  }
+
   public List<IntermediateEntry> getHashShuffleIntermediateEntries() {
     return hashShuffleIntermediateEntries;
   }
@@ -1331,6 +1399,7 @@ public class Stage implements EventHandler<StageEvent> {
 
           if (stage.completedShuffleTasks.get() >= stage.succeededObjectCount) {
             LOG.info(stage.getId() + ", Finalized shuffle reports: " + stage.completedShuffleTasks.get());
+            stage.finalizeCompressedBytes();
             stage.eventHandler.handle(new StageEvent(stage.getId(), StageEventType.SQ_STAGE_COMPLETED));
             if (stage.timeoutChecker != null) {
               stage.stopFinalization();
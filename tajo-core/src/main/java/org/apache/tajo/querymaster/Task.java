@@ -787,6 +787,8 @@ public class Task implements EventHandler<TaskEvent> {
     long volume;
     List<Pair<Long, Integer>> pages;
     List<Pair<Long, Pair<Integer, Integer>>> failureRowNums;
+    // if true, the data are pushed to the partition owner
+    boolean pushed;
 
     public IntermediateEntry(IntermediateEntryProto proto) {
       this.ebId = new ExecutionBlockId(proto.getEbId());
@@ -797,6 +799,7 @@ public class Task implements EventHandler<TaskEvent> {
       String[] pullHost = proto.getHost().split(":");
       this.host = new PullHost(pullHost[0], Integer.parseInt(pullHost[1]));
       this.volume = proto.getVolume();
+      this.pushed = proto.getPushed();
 
       failureRowNums = new ArrayList<Pair<Long, Pair<Integer, Integer>>>();
       for (FailureIntermediateProto eachFailure: proto.getFailuresList()) {
@@ -866,6 +869,14 @@ public class Task implements EventHandler<TaskEvent> {
       this.pages = pages;
     }
 
+    public boolean isPushed() {
+      return pushed;
+    }
+
+    public void setPushed(boolean pushed) {
+      this.pushed = pushed;
+    }
+
     public List<Pair<Long, Pair<Integer, Integer>>> getFailureRowNums() {
       return failureRowNums;
     }
@@ -350,6 +350,17 @@ public class JSPUtil {
     result += ", ReadBytes: " + FileUtil.humanReadableByteCount(tableStats.getReadBytes(), false) + " ("
         + tableStats.getReadBytes() + " B)";
     result += ", ReadRows: " + (tableStats.getNumRows() == 0 ? "-" : tableStats.getNumRows());
+    if (tableStats.getNumSpills() > 0) {
+      result += ", Spills: " + tableStats.getNumSpills() + " ("
+          + FileUtil.humanReadableByteCount(tableStats.getSpillBytes(), false) + ")";
+    }
+    if (tableStats.getCompressedBytes() > 0) {
+      result += ", CompressedBytes: " + FileUtil.humanReadableByteCount(tableStats.getCompressedBytes(), false)
+          + " (ratio: " + percentFormat((float) tableStats.getCompressedBytes() / tableStats.getNumBytes()) + "%)";
+    }
+    if (tableStats.getNumSkippedBlocks() > 0) {
+      result += ", SkippedBlocks: " + tableStats.getNumSkippedBlocks();
+    }
 
     return result;
   }
@@ -56,6 +56,8 @@ public class StageHistory implements GsonObject {
   @Expose
   private long totalWriteRows;
   @Expose
+  private long totalCompressedWriteBytes;
+  @Expose
   private int numShuffles;
   @Expose
   private float progress;
@@ -157,6 +159,17 @@ public class StageHistory implements GsonObject {
     this.totalWriteRows = totalWriteRows;
   }
 
+  /**
+   * @return The compressed bytes of intermediate data, or 0 if they are not compressed
+   */
+  public long getTotalCompressedWriteBytes() {
+    return totalCompressedWriteBytes;
+  }
+
+  public void setTotalCompressedWriteBytes(long totalCompressedWriteBytes) {
+    this.totalCompressedWriteBytes = totalCompressedWriteBytes;
+  }
+
   public int getNumShuffles() {
     return numShuffles;
   }
@@ -258,6 +271,7 @@ public class StageHistory implements GsonObject {
       .setTotalReadRows(totalReadRows)
       .setTotalWriteBytes(totalWriteBytes)
       .setTotalWriteRows(totalWriteRows)
+      .setTotalCompressedWriteBytes(totalCompressedWriteBytes)
       .setNumShuffles(numShuffles)
       .setProgress(progress)
 
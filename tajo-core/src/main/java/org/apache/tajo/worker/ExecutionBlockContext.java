@@ -20,6 +20,8 @@ package org.apache.tajo.worker;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.io.LimitInputStream;
+import com.google.protobuf.ByteString;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FileSystem;
@@ -33,11 +35,14 @@ import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.ipc.QueryMasterProtocol;
+import org.apache.tajo.ipc.TajoWorkerProtocol;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.rpc.CallFuture;
 import org.apache.tajo.rpc.NettyClientBase;
 import org.apache.tajo.rpc.NullCallback;
 import org.apache.tajo.rpc.RpcConnectionPool;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.ShufflePageChecksums;
 import org.apache.tajo.storage.StorageUtil;
 import org.apache.tajo.util.NetUtils;
 import org.apache.tajo.util.Pair;
@@ -45,12 +50,17 @@ import org.apache.tajo.util.Pair;
 import io.netty.channel.ConnectTimeoutException;
 import io.netty.channel.EventLoopGroup;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -59,6 +69,8 @@ import static org.apache.tajo.ipc.TajoWorkerProtocol.*;
 public class ExecutionBlockContext {
   /** class logger */
   private static final Log LOG = LogFactory.getLog(ExecutionBlockContext.class);
+  private static final int SHUFFLE_PUSH_TIMEOUT_SEC = 300;
+  private static final int SHUFFLE_PUSH_READ_CHUNK_SIZE = 1024 * 1024;
 
   private TaskRunnerManager manager;
   public AtomicInteger completedTasksNum = new AtomicInteger();
@@ -82,6 +94,8 @@ public class ExecutionBlockContext {
   private RpcConnectionPool connPool;
   private InetSocketAddress qmMasterAddr;
   private WorkerConnectionInfo queryMaster;
+  // workers owning hash shuffle partitions in the push-based shuffle. It is empty in the pull-based shuffle.
+  private List<WorkerConnectionInfo> shufflePushTargets = Collections.emptyList();
   private TajoConf systemConf;
   // for the doAs block
   private UserGroupInformation taskOwner;
@@ -272,6 +286,152 @@ public class ExecutionBlockContext {
     return workerContext;
   }
 
+  public void setShufflePushTargets(List<WorkerConnectionInfo> shufflePushTargets) {
+    this.shufflePushTargets = shufflePushTargets;
+  }
+
+  /**
+   * Pushes the pages of a hash shuffle partition to the worker owning the partition. Pages are sent in batches of
+   * contiguous whole pages, and a limited number of batches are in flight while the next batch is read.
+   * The local file is deleted only after all pages are pushed.
+   *
+   * @return Pages in the consolidated partition file of the owner
+   */
+  private List<Pair<Long, Integer>> pushShufflePages(WorkerConnectionInfo owner,
+                                                     HashShuffleAppenderManager.HashShuffleIntermediate shuffle)
+      throws Exception {
+    boolean local = owner.getHostAndPeerRpcPort().equals(
+        getWorkerContext().getConnectionInfo().getHostAndPeerRpcPort());
+    long batchVolume = systemConf.getIntVar(TajoConf.ConfVars.SHUFFLE_PUSH_BATCH_VOLUME) * 1024L * 1024L;
+    int maxInFlight = systemConf.getIntVar(TajoConf.ConfVars.SHUFFLE_PUSH_INFLIGHT_MAX_NUM);
+
+    List<Pair<Long, Integer>> pushedPages = Lists.newArrayList();
+    File dataFile = new File(shuffle.getDataFile().toUri());
+    FileInputStream in = new FileInputStream(dataFile);
+    NettyClientBase client = null;
+    try {
+      if (!local) {
+        client = connPool.getConnection(NetUtils.createSocketAddr(owner.getHost(), owner.getPeerRpcPort()),
+            TajoWorkerProtocol.class, true);
+      }
+
+      LinkedList<PushedBatch> inFlight = new LinkedList<PushedBatch>();
+      for (List<Pair<Long, Integer>> eachBatch : getPushBatches(shuffle.getPages(), batchVolume)) {
+        long position = eachBatch.get(0).getFirst();
+        long length = getVolume(eachBatch);
+
+        if (local) {
+          long offset = getWorkerContext().getHashShuffleAppenderManager().appendPushedPages(executionBlockId,
+              shuffle.getPartId(), in.getChannel(), position, length);
+          addPushedPages(pushedPages, eachBatch, offset);
+          continue;
+        }
+
+        if (inFlight.size() >= maxInFlight) {
+          inFlight.poll().waitFor(owner, pushedPages);
+        }
+
+        // pages are read into a ByteString directly, so they are not copied twice on the heap
+        in.getChannel().position(position);
+        ByteString data = ByteString.readFrom(new LimitInputStream(in, length), SHUFFLE_PUSH_READ_CHUNK_SIZE);
+        if (data.size() != length) {
+          throw new IOException("Pages of the partition " + shuffle.getPartId() + " end at "
+              + (position + data.size()) + ", but expected " + (position + length));
+        }
+        ShufflePushRequestProto request = ShufflePushRequestProto.newBuilder()
+            .setEbId(executionBlockId.getProto())
+            .setPartId(shuffle.getPartId())
+            .setData(data)
+            .build();
+        PushedBatch batch = new PushedBatch(shuffle.getPartId(), eachBatch);
+        TajoWorkerProtocolService stub = client.getStub();
+        stub.pushShuffleData(batch.callFuture.getController(), request, batch.callFuture);
+        inFlight.add(batch);
+      }
+
+      while (!inFlight.isEmpty()) {
+        inFlight.poll().waitFor(owner, pushedPages);
+      }
+    } finally {
+      in.close();
+      connPool.releaseConnection(client);
+    }
+
+    // pages are now served by the owner
+    if (!dataFile.delete()) {
+      LOG.warn("Can't delete the pushed shuffle file: " + dataFile);
+    }
+    File checksumFile = ShufflePageChecksums.getChecksumFile(dataFile);
+    if (checksumFile.exists() && !checksumFile.delete()) {
+      LOG.warn("Can't delete the checksum file of the pushed shuffle file: " + checksumFile);
+    }
+    return pushedPages;
+  }
+
+  /**
+   * Groups contiguous pages into batches whose volume does not exceed the given volume.
+   * A page larger than the volume forms a batch by itself.
+   */
+  private static List<List<Pair<Long, Integer>>> getPushBatches(List<Pair<Long, Integer>> pages, long batchVolume) {
+    List<List<Pair<Long, Integer>>> batches = Lists.newArrayList();
+    List<Pair<Long, Integer>> current = Lists.newArrayList();
+    long currentEnd = -1;
+    long currentVolume = 0;
+    for (Pair<Long, Integer> eachPage : pages) {
+      if (!current.isEmpty() &&
+          (eachPage.getFirst() != currentEnd || currentVolume + eachPage.getSecond() > batchVolume)) {
+        batches.add(current);
+        current = Lists.newArrayList();
+        currentVolume = 0;
+      }
+      current.add(eachPage);
+      currentEnd = eachPage.getFirst() + eachPage.getSecond();
+      currentVolume += eachPage.getSecond();
+    }
+    if (!current.isEmpty()) {
+      batches.add(current);
+    }
+    return batches;
+  }
+
+  private static long getVolume(List<Pair<Long, Integer>> pages) {
+    long volume = 0;
+    for (Pair<Long, Integer> eachPage : pages) {
+      volume += eachPage.getSecond();
+    }
+    return volume;
+  }
+
+  /**
+   * Adds pages of a batch, which are appended from the given offset of the consolidated file.
+   */
+  private static void addPushedPages(List<Pair<Long, Integer>> pushedPages, List<Pair<Long, Integer>> batch,
+                                     long offset) {
+    for (Pair<Long, Integer> eachPage : batch) {
+      pushedPages.add(new Pair<Long, Integer>(offset, eachPage.getSecond()));
+      offset += eachPage.getSecond();
+    }
+  }
+
+  private static class PushedBatch {
+    private final int partId;
+    private final List<Pair<Long, Integer>> pages;
+    private final CallFuture<ShufflePushResponseProto> callFuture = new CallFuture<ShufflePushResponseProto>();
+
+    PushedBatch(int partId, List<Pair<Long, Integer>> pages) {
+      this.partId = partId;
+      this.pages = pages;
+    }
+
+    void waitFor(WorkerConnectionInfo owner, List<Pair<Long, Integer>> pushedPages) throws Exception {
+      ShufflePushResponseProto response = callFuture.get(SHUFFLE_PUSH_TIMEOUT_SEC, TimeUnit.SECONDS);
+      if (response == null || response.getOffset() < 0) {
+        throw new IOException("Failed to push the partition " + partId + " to " + owner.getHostAndPeerRpcPort());
+      }
+      addPushedPages(pushedPages, pages, response.getOffset());
+    }
+  }
+
   private void sendExecutionBlockReport(ExecutionBlockReport reporter) throws Exception {
     NettyClientBase client = getQueryMasterConnection();
     try {
@@ -305,7 +465,26 @@ public class ExecutionBlockContext {
         List<IntermediateEntryProto.PageProto> pages = Lists.newArrayList();
         List<FailureIntermediateProto> failureIntermediateItems = Lists.newArrayList();
 
-        for (Pair<Long, Integer> eachPage: eachShuffle.getPages()) {
+        String pullHost = getWorkerContext().getConnectionInfo().getHost() + ":" +
+            getWorkerContext().getConnectionInfo().getPullServerPort();
+        List<Pair<Long, Integer>> shufflePages = eachShuffle.getPages();
+        // Pages including rows of failed tasks are only known to this worker, so they are not pushed.
+        boolean pushed = !shufflePushTargets.isEmpty() && eachShuffle.getFailureTskTupleIndexes().isEmpty();
+        if (pushed) {
+          WorkerConnectionInfo owner = shufflePushTargets.get(eachShuffle.getPartId() % shufflePushTargets.size());
+          try {
+            shufflePages = pushShufflePages(owner, eachShuffle);
+            pullHost = owner.getHost() + ":" + owner.getPullServerPort();
+          } catch (Throwable t) {
+            // The local file is kept until all pages are pushed, so the partition is pulled from this worker.
+            // Pages already appended by the owner are not reported, and they are never fetched.
+            LOG.warn("Failed to push the partition " + eachShuffle.getPartId() + " to "
+                + owner.getHostAndPeerRpcPort() + ", and it will be pulled from this worker", t);
+            pushed = false;
+          }
+        }
+
+        for (Pair<Long, Integer> eachPage: shufflePages) {
           pageBuilder.clear();
           pageBuilder.setPos(eachPage.getFirst());
           pageBuilder.setLength(eachPage.getSecond());
@@ -322,14 +501,14 @@ public class ExecutionBlockContext {
         intermediateBuilder.clear();
 
         intermediateBuilder.setEbId(ebId.getProto())
-            .setHost(getWorkerContext().getConnectionInfo().getHost() + ":" +
-                getWorkerContext().getConnectionInfo().getPullServerPort())
+            .setHost(pullHost)
             .setTaskId(-1)
             .setAttemptId(-1)
             .setPartId(eachShuffle.getPartId())
             .setVolume(eachShuffle.getVolume())
             .addAllPages(pages)
-            .addAllFailures(failureIntermediateItems);
+            .addAllFailures(failureIntermediateItems)
+            .setPushed(pushed);
         intermediateEntries.add(intermediateBuilder.build());
       }
 
@@ -24,6 +24,7 @@ import org.apache.commons.logging.LogFactory;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.SessionVars;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
 import org.apache.tajo.engine.codegen.ExecutorPreCompiler;
 import org.apache.tajo.engine.codegen.TajoClassLoader;
 import org.apache.tajo.engine.json.CoreGsonHelper;
@@ -34,7 +35,6 @@ import org.apache.tajo.engine.utils.TableCacheKey;
 import org.apache.tajo.plan.PlanningException;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.plan.logical.LogicalNode;
-import org.apache.tajo.util.Pair;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -89,30 +89,44 @@ public class ExecutionBlockSharedResource {
     return this.plan;
   }
 
+  /**
+   * Compiles an eval. Unlike {@link #getPreCompiledEval(Schema, EvalNode)}, it does not use the compiled class cache.
+   *
+   * @throws org.apache.tajo.engine.codegen.CompilationError if the eval cannot be compiled
+   */
   public EvalNode compileEval(Schema schema, EvalNode eval) {
     return compilationContext.getCompiler().compile(schema, eval);
   }
 
+  /**
+   * Returns a new instance of the compiled eval. The classes compiled from the plan are shared by all tasks of this
+   * execution block, and an eval missing from them is compiled and cached at the first call.
+   * If the eval cannot be compiled, the given interpreted eval is returned.
+   */
   public EvalNode getPreCompiledEval(Schema schema, EvalNode eval) {
     if (codeGenEnabled) {
-
-      Pair<Schema, EvalNode> key = new Pair<Schema, EvalNode>(schema, eval);
-      if (compilationContext.getPrecompiedEvals().containsKey(key)) {
-        return compilationContext.getPrecompiedEvals().get(key);
-      } else {
-        try {
-          LOG.warn(eval.toString() + " does not exists. Immediately compile it: " + eval);
-          return compileEval(schema, eval);
-        } catch (Throwable t) {
-          LOG.warn(t, t);
-          return eval;
-        }
+      if (LOG.isDebugEnabled() && !compilationContext.isCompiled(schema, eval)) {
+        LOG.debug(eval + " is not precompiled. Immediately compile it.");
       }
+      return compilationContext.getCompiledEval(schema, eval);
     } else {
       throw new IllegalStateException("CodeGen is disabled");
     }
   }
 
+  /**
+   * Returns a new instance of the pipeline fusing a qual and projection targets.
+   *
+   * @return A compiled pipeline, or null if code generation is disabled or the pipeline cannot be compiled
+   */
+  public CompiledPipeline getCompiledPipeline(Schema schema, EvalNode qual, EvalNode [] targets) {
+    if (codeGenEnabled) {
+      return compilationContext.getCompiledPipeline(schema, qual, targets);
+    } else {
+      return null;
+    }
+  }
+
   /* This is guarantee a lock for a ExecutionBlock */
   public synchronized Object getLock() {
     return lock;
@@ -51,6 +51,7 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
 
   private long offset = -1;
   private long length = -1;
+  private boolean pushed = false;              // optional, if true, fetches a partition pushed to its owner
 
   public FetchImpl() {
     taskIds = new ArrayList<Integer>();
@@ -74,6 +75,7 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
     if (proto.hasLength()) {
       this.length = proto.getLength();
     }
+    this.pushed = proto.getPushed();
   }
 
   public FetchImpl(Task.PullHost host, ShuffleType type, ExecutionBlockId executionBlockId,
@@ -108,7 +110,7 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
   @Override
   public int hashCode() {
     return Objects.hashCode(host, type, executionBlockId, partitionId, name, rangeParams,
-        hasNext, taskIds, attemptIds, offset, length);
+        hasNext, taskIds, attemptIds, offset, length, pushed);
   }
 
   @Override
@@ -133,6 +135,7 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
 
     builder.setOffset(offset);
     builder.setLength(length);
+    builder.setPushed(pushed);
     return builder.build();
   }
 
@@ -231,6 +234,14 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
     this.length = length;
   }
 
+  public boolean isPushed() {
+    return pushed;
+  }
+
+  public void setPushed(boolean pushed) {
+    this.pushed = pushed;
+  }
+
   public FetchImpl clone() throws CloneNotSupportedException {
     FetchImpl newFetchImpl = (FetchImpl) super.clone();
 
@@ -249,6 +260,7 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
     }
     newFetchImpl.offset = offset;
     newFetchImpl.length = length;
+    newFetchImpl.pushed = pushed;
     return newFetchImpl;
   }
 
@@ -273,6 +285,7 @@ public class FetchImpl implements ProtoObject<TajoWorkerProtocol.FetchProto>, Cl
         TUtil.checkEquals(taskIds, fetch.taskIds) &&
         TUtil.checkEquals(type, fetch.type) &&
         TUtil.checkEquals(offset, fetch.offset) &&
-        TUtil.checkEquals(length, fetch.length);
+        TUtil.checkEquals(length, fetch.length) &&
+        TUtil.checkEquals(pushed, fetch.pushed);
   }
 }
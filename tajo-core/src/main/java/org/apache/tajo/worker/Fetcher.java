@@ -18,46 +18,27 @@
 
 package org.apache.tajo.worker;
 
-import io.netty.buffer.PooledByteBufAllocator;
-import io.netty.channel.*;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
-import org.apache.hadoop.io.IOUtils;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.pullserver.retriever.FileChunk;
-import org.apache.tajo.rpc.RpcChannelFactory;
-
-import io.netty.bootstrap.Bootstrap;
-import io.netty.buffer.ByteBuf;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.http.DefaultHttpRequest;
-import io.netty.handler.codec.http.HttpClientCodec;
-import io.netty.handler.codec.http.HttpContent;
-import io.netty.handler.codec.http.HttpContentDecompressor;
-import io.netty.handler.codec.http.HttpHeaders;
-import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpRequest;
-import io.netty.handler.codec.http.HttpResponse;
-import io.netty.handler.codec.http.HttpResponseStatus;
-import io.netty.handler.codec.http.HttpVersion;
-import io.netty.handler.codec.http.LastHttpContent;
-import io.netty.handler.timeout.ReadTimeoutException;
-import io.netty.handler.timeout.ReadTimeoutHandler;
-import io.netty.util.ReferenceCountUtil;
+import org.apache.tajo.storage.ShufflePageChecksums;
+import org.apache.tajo.storage.ShuffleStreamBuffer;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.net.InetSocketAddress;
 import java.net.URI;
-import java.nio.channels.FileChannel;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Fetcher fetches data from a given uri via HTTP protocol and stores them into
- * a specific file. It aims at asynchronous and efficient data transmit.
+ * a specific file. Requests are sent through a {@link ShuffleFetchClient}, which keeps connections to
+ * pull servers alive and shares them among fetchers.
+ *
+ * If a fetch into a file fails, the received bytes are kept, and a next call of {@link #get()} requests only the
+ * rest of the data. If the data have page checksums, only the verified pages are kept.
  */
 public class Fetcher {
 
@@ -66,6 +47,8 @@ public class Fetcher {
   private final URI uri;
   private final FileChunk fileChunk;
   private final TajoConf conf;
+  private final ShuffleFetchClient client;
+  private final ShuffleStreamBuffer stream;
 
   private final String host;
   private int port;
@@ -77,14 +60,32 @@ public class Fetcher {
   private int messageReceiveCount;
   private TajoProtos.FetcherState state;
 
-  private Bootstrap bootstrap;
+  // the bytes of a failed fetch, which are kept by a next fetch
+  private long resumeOffset;
 
   public Fetcher(TajoConf conf, URI uri, FileChunk chunk) {
+    this(conf, uri, chunk, null);
+  }
+
+  /**
+   * @param client The shared fetch client. If it is null, a fetch client is created and closed for each fetch.
+   */
+  public Fetcher(TajoConf conf, URI uri, FileChunk chunk, ShuffleFetchClient client) {
+    this(conf, uri, chunk, client, null);
+  }
+
+  /**
+   * @param stream If it is given, fetched data are written into the stream buffer instead of the chunk file,
+   *               and they can be read while being fetched.
+   */
+  public Fetcher(TajoConf conf, URI uri, FileChunk chunk, ShuffleFetchClient client, ShuffleStreamBuffer stream) {
     this.uri = uri;
+    this.stream = stream;
     this.fileChunk = chunk;
     this.useLocalFile = !chunk.fromRemote();
     this.state = TajoProtos.FetcherState.FETCH_INIT;
     this.conf = conf;
+    this.client = client;
 
     String scheme = uri.getScheme() == null ? "http" : uri.getScheme();
     this.host = uri.getHost() == null ? "localhost" : uri.getHost();
@@ -96,21 +97,6 @@ public class Fetcher {
         this.port = 443;
       }
     }
-
-    if (!useLocalFile) {
-      bootstrap = new Bootstrap()
-        .group(
-            RpcChannelFactory.getSharedClientEventloopGroup(RpcChannelFactory.ClientChannelId.FETCHER,
-                conf.getIntVar(TajoConf.ConfVars.SHUFFLE_RPC_CLIENT_WORKER_THREAD_NUM)))
-        .channel(NioSocketChannel.class)
-        .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000) // set 5 sec
-        .option(ChannelOption.SO_RCVBUF, 1048576) // set 1M
-        .option(ChannelOption.TCP_NODELAY, true);
-
-      ChannelInitializer<Channel> initializer = new HttpClientChannelInitializer(fileChunk.getFile());
-      bootstrap.handler(initializer);
-    }
   }
 
   public long getStartTime() {
@@ -145,41 +131,42 @@ public class Fetcher {
     LOG.info("Get real fetch from remote host");
     this.startTime = System.currentTimeMillis();
     this.state = TajoProtos.FetcherState.FETCH_FETCHING;
-    ChannelFuture future = null;
+    ShuffleFetchClient fetchClient = client != null ? client : new ShuffleFetchClient(conf);
     try {
-      future = bootstrap.clone().connect(new InetSocketAddress(host, port))
-              .addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
-
-      // Wait until the connection attempt succeeds or fails.
-      Channel channel = future.awaitUninterruptibly().channel();
-      if (!future.isSuccess()) {
-        state = TajoProtos.FetcherState.FETCH_FAILED;
-        throw new IOException(future.cause());
-      }
-
       String query = uri.getPath()
           + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
-      // Prepare the HTTP request.
-      HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, query);
-      request.headers().set(HttpHeaders.Names.HOST, host);
-      request.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.CLOSE);
-      request.headers().set(HttpHeaders.Names.ACCEPT_ENCODING, HttpHeaders.Values.GZIP);
-
-      LOG.info("Status: " + getState() + ", URI:" + uri);
-      // Send the HTTP request.
-      ChannelFuture channelFuture = channel.writeAndFlush(request);
 
-      // Wait for the server to close the connection.
-      channel.closeFuture().awaitUninterruptibly();
+      LOG.info("Status: " + getState() + ", URI:" + uri
+          + (resumeOffset > 0 ? ", resume from " + resumeOffset + " bytes" : ""));
+      ShuffleFetchClient.FetchRequest request;
+      try {
+        request = fetchClient.fetch(new InetSocketAddress(host, port), host, query, fileChunk.getFile(), stream,
+            resumeOffset);
+      } catch (IOException e) {
+        state = TajoProtos.FetcherState.FETCH_FAILED;
+        throw e;
+      }
 
-      channelFuture.addListener(ChannelFutureListener.CLOSE);
+      messageReceiveCount = request.getMessageReceiveCount();
+      if (request.isSucceeded()) {
+        fileLen = stream != null ? stream.getLength() : fileChunk.getFile().length();
+        state = TajoProtos.FetcherState.FETCH_FINISHED;
+        resumeOffset = 0;
+      } else {
+        if (request.getCause() != null) {
+          LOG.warn("Fetch failed: " + uri + ", " + request.getCause().getMessage());
+        }
+        state = TajoProtos.FetcherState.FETCH_FAILED;
+        if (stream == null) {
+          prepareResume(request);
+        }
+      }
 
-      fileChunk.setLength(fileChunk.getFile().length());
+      fileChunk.setLength(stream != null ? stream.getLength() : fileChunk.getFile().length());
       return fileChunk;
     } finally {
-      if(future != null){
-        // Close the channel to exit.
-        future.channel().close();
+      if (client == null) {
+        fetchClient.close();
       }
 
       this.finishTime = System.currentTimeMillis();
@@ -187,145 +174,42 @@ public class Fetcher {
     }
   }
 
-  public URI getURI() {
-    return this.uri;
-  }
-
-  class HttpClientHandler extends ChannelInboundHandlerAdapter {
-    private final File file;
-    private RandomAccessFile raf;
-    private FileChannel fc;
-    private long length = -1;
-
-    public HttpClientHandler(File file) throws FileNotFoundException {
-      this.file = file;
-      this.raf = new RandomAccessFile(file, "rw");
-      this.fc = raf.getChannel();
+  /**
+   * Keeps the received bytes of a failed fetch. A partially received page is discarded.
+   */
+  private void prepareResume(ShuffleFetchClient.FetchRequest request) throws IOException {
+    File file = fileChunk.getFile();
+    if (!file.exists()) {
+      resumeOffset = 0;
+      return;
     }
 
-    @Override
-    public void channelRead(ChannelHandlerContext ctx, Object msg)
-        throws Exception {
-
-      messageReceiveCount++;
-      if (msg instanceof HttpResponse) {
-        try {
-          HttpResponse response = (HttpResponse) msg;
-
-          StringBuilder sb = new StringBuilder();
-          if (LOG.isDebugEnabled()) {
-            sb.append("STATUS: ").append(response.getStatus()).append(", VERSION: ")
-                .append(response.getProtocolVersion()).append(", HEADER: ");
-          }
-          if (!response.headers().names().isEmpty()) {
-            for (String name : response.headers().names()) {
-              for (String value : response.headers().getAll(name)) {
-                if (LOG.isDebugEnabled()) {
-                  sb.append(name).append(" = ").append(value);
-                }
-                if (this.length == -1 && name.equals("Content-Length")) {
-                  this.length = Long.parseLong(value);
-                }
-              }
-            }
-          }
-          if (LOG.isDebugEnabled()) {
-            LOG.debug(sb.toString());
-          }
-
-          if (response.getStatus().code() == HttpResponseStatus.NO_CONTENT.code()) {
-            LOG.warn("There are no data corresponding to the request");
-            length = 0;
-            return;
-          } else if (response.getStatus().code() != HttpResponseStatus.OK.code()) {
-            LOG.error(response.getStatus().reasonPhrase());
-            state = TajoProtos.FetcherState.FETCH_FAILED;
-            return;
-          }
-        } catch (Exception e) {
-          LOG.error(e.getMessage(), e);
-        } finally {
-          ReferenceCountUtil.release(msg);
-        }
-      }
-
-      if (msg instanceof HttpContent) {
-        try {
-          HttpContent httpContent = (HttpContent) msg;
-          ByteBuf content = httpContent.content();
-          if (content.isReadable()) {
-            content.readBytes(fc, content.readableBytes());
-          }
-
-          if (msg instanceof LastHttpContent) {
-            if (raf != null) {
-              fileLen = file.length();
-            }
-
-            IOUtils.cleanup(LOG, fc, raf);
-            if (ctx.channel().isActive()) {
-              ctx.channel().close();
-            }
-            finishTime = System.currentTimeMillis();
-            if (state != TajoProtos.FetcherState.FETCH_FAILED) {
-              state = TajoProtos.FetcherState.FETCH_FINISHED;
-            }
-          }
-        } catch (Exception e) {
-          LOG.error(e.getMessage(), e);
-        } finally {
-          ReferenceCountUtil.release(msg);
-        }
-      }
-    }
-
-    @Override
-    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause)
-        throws Exception {
-      if (cause instanceof ReadTimeoutException) {
-        LOG.warn(cause, cause);
-      } else {
-        LOG.error("Fetch failed :", cause);
-      }
-
-      // this fetching will be retry
-      IOUtils.cleanup(LOG, fc, raf);
-      finishTime = System.currentTimeMillis();
-      state = TajoProtos.FetcherState.FETCH_FAILED;
-      ctx.close();
-    }
-
-    @Override
-    public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
-      if(getState() != TajoProtos.FetcherState.FETCH_FINISHED){
-        //channel is closed, but cannot complete fetcher
-        finishTime = System.currentTimeMillis();
-        state = TajoProtos.FetcherState.FETCH_FAILED;
+    ShufflePageChecksums.Verifier verifier = request.getVerifier();
+    if (verifier != null) {
+      resumeOffset = verifier.getVerifiedBytes();
+      RandomAccessFile raf = new RandomAccessFile(file, "rw");
+      try {
+        raf.setLength(resumeOffset);
+      } finally {
+        raf.close();
       }
-      IOUtils.cleanup(LOG, fc, raf);
-      
-      super.channelUnregistered(ctx);
+    } else {
+      resumeOffset = file.length();
     }
   }
 
-  class HttpClientChannelInitializer extends ChannelInitializer<Channel> {
-    private final File file;
-
-    public HttpClientChannelInitializer(File file) {
-      this.file = file;
-    }
-
-    @Override
-    protected void initChannel(Channel channel) throws Exception {
-      ChannelPipeline pipeline = channel.pipeline();
+  /**
+   * @return The bytes which are kept from failed fetches
+   */
+  public long getResumeOffset() {
+    return resumeOffset;
+  }
 
-      int maxChunkSize = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE);
-      int readTimeout = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_READ_TIMEOUT);
+  public ShuffleStreamBuffer getStream() {
+    return stream;
+  }
 
-      pipeline.addLast("codec", new HttpClientCodec(4096, 8192, maxChunkSize));
-      pipeline.addLast("inflater", new HttpContentDecompressor());
-      pipeline.addLast("timeout", new ReadTimeoutHandler(readTimeout, TimeUnit.SECONDS));
-      pipeline.addLast("handler", new HttpClientHandler(file));
-    }
+  public URI getURI() {
+    return this.uri;
   }
 }
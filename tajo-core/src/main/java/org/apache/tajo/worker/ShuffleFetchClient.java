@@ -0,0 +1,715 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.codahale.metrics.Gauge;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.*;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.*;
+import io.netty.handler.timeout.ReadTimeoutException;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.util.ReferenceCountUtil;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.ChecksumException;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.rpc.RpcChannelFactory;
+import org.apache.tajo.storage.ShufflePageChecksums;
+import org.apache.tajo.storage.ShuffleStreamBuffer;
+import org.apache.tajo.util.metrics.TajoMetrics;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A shuffle fetch client shared by all tasks of a worker.
+ *
+ * It keeps persistent HTTP/1.1 connections to each pull server, and it pipelines multiple partition requests over
+ * a connection. Responses of a connection are received in the order of requests, so each connection keeps a queue
+ * of pending requests. The number of connections to a host and the number of pipelined requests per connection
+ * are bounded, and a request waits until a connection becomes available.
+ *
+ * The numbers of connections, requests, received bytes, and the latencies are kept for each host, and they are
+ * registered as metrics if a {@link TajoMetrics} is given.
+ */
+public class ShuffleFetchClient implements Closeable {
+  private static final Log LOG = LogFactory.getLog(ShuffleFetchClient.class);
+  private static final String METRICS_CONTEXT = "shuffle-fetch";
+
+  private final TajoConf conf;
+  private final Bootstrap bootstrap;
+  private final int maxConnectionsPerHost;
+  private final int maxPipelinedRequests;
+  private final TajoMetrics metrics;
+  private final ConcurrentMap<InetSocketAddress, HostConnectionPool> pools = Maps.newConcurrentMap();
+  private volatile boolean closed = false;
+
+  public ShuffleFetchClient(TajoConf conf) {
+    this(conf, null);
+  }
+
+  /**
+   * @param conf The system configuration
+   * @param metrics The metrics where the per-host metrics are registered. It can be null.
+   */
+  public ShuffleFetchClient(TajoConf conf, TajoMetrics metrics) {
+    this.conf = conf;
+    this.metrics = metrics;
+    this.maxConnectionsPerHost = Math.max(1, conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_CONNECTION_MAX_NUM));
+    this.maxPipelinedRequests = Math.max(1, conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_PIPELINE_MAX_NUM));
+
+    this.bootstrap = new Bootstrap()
+        .group(
+            RpcChannelFactory.getSharedClientEventloopGroup(RpcChannelFactory.ClientChannelId.FETCHER,
+                conf.getIntVar(TajoConf.ConfVars.SHUFFLE_RPC_CLIENT_WORKER_THREAD_NUM)))
+        .channel(NioSocketChannel.class)
+        .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000) // set 5 sec
+        .option(ChannelOption.SO_RCVBUF, 1048576) // set 1M
+        .option(ChannelOption.TCP_NODELAY, true)
+        .option(ChannelOption.SO_KEEPALIVE, true)
+        .handler(new HttpClientChannelInitializer());
+  }
+
+  /**
+   * Requests a shuffle data, and writes the response body into a file. It blocks until the response is completely
+   * received or the request fails.
+   *
+   * @param address The address of a pull server
+   * @param host The host name used for the host header
+   * @param query The path and the query string of a request
+   * @param file The file where the response body is written
+   * @return The finished request
+   * @throws IOException If it cannot connect to the pull server
+   */
+  public FetchRequest fetch(InetSocketAddress address, String host, String query, File file) throws IOException {
+    return fetch(address, host, query, file, null);
+  }
+
+  /**
+   * Requests a shuffle data. If a stream buffer is given, the response body is written into the buffer instead of
+   * a file, and the buffer becomes ready to be read when the response header is received.
+   */
+  public FetchRequest fetch(InetSocketAddress address, String host, String query, File file,
+                            ShuffleStreamBuffer stream) throws IOException {
+    return fetch(address, host, query, file, stream, 0);
+  }
+
+  /**
+   * Requests the rest of a shuffle data, which has been partially received into a file by a failed request.
+   *
+   * @param resumeOffset The bytes of the file which are kept. The rest of the file is received again.
+   */
+  public FetchRequest fetch(InetSocketAddress address, String host, String query, File file,
+                            ShuffleStreamBuffer stream, long resumeOffset) throws IOException {
+    if (closed) {
+      throw new IOException("ShuffleFetchClient is already closed");
+    }
+
+    HostConnectionPool pool = pools.get(address);
+    if (pool == null) {
+      HostConnectionPool newPool = new HostConnectionPool(address);
+      pool = pools.putIfAbsent(address, newPool);
+      if (pool == null) {
+        pool = newPool;
+        pool.metrics.register();
+      }
+    }
+
+    FetchRequest request = new FetchRequest(host, query, file, stream, resumeOffset);
+    pool.send(request);
+    try {
+      request.done.await();
+    } catch (InterruptedException e) {
+      request.fail(e);
+      Thread.currentThread().interrupt();
+    }
+    return request;
+  }
+
+  public Map<InetSocketAddress, HostMetrics> getHostMetrics() {
+    Map<InetSocketAddress, HostMetrics> hostMetrics = Maps.newHashMap();
+    for (HostConnectionPool pool : pools.values()) {
+      hostMetrics.put(pool.address, pool.metrics);
+    }
+    return Collections.unmodifiableMap(hostMetrics);
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    for (HostConnectionPool pool : pools.values()) {
+      pool.close();
+    }
+  }
+
+  /**
+   * A shuffle request and its result.
+   */
+  public static class FetchRequest {
+    private final String host;
+    private final String query;
+    private final File file;
+    private final ShuffleStreamBuffer stream;
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    private long sendTime;
+    // the bytes already received before this request
+    private long resumeOffset;
+    private ShufflePageChecksums.Verifier verifier;
+    private byte [] verifyBuffer;
+    private RandomAccessFile raf;
+    private FileChannel fc;
+    private int messageReceiveCount;
+    private long receivedBytes;
+    private boolean succeeded;
+    private Throwable cause;
+
+    FetchRequest(String host, String query, File file, ShuffleStreamBuffer stream, long resumeOffset) {
+      this.host = host;
+      this.query = query;
+      this.file = file;
+      this.stream = stream;
+      this.resumeOffset = resumeOffset;
+    }
+
+    HttpRequest toHttpRequest() {
+      HttpRequest request = new DefaultHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.GET, query);
+      request.headers().set(HttpHeaders.Names.HOST, host);
+      request.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+      if (resumeOffset > 0) {
+        // a range is given for the identity content, so the content must not be compressed
+        request.headers().set(HttpHeaders.Names.RANGE, "bytes=" + resumeOffset + "-");
+      } else if (stream == null) {
+        // the length of a stream is given by the content length, so the content must not be compressed
+        request.headers().set(HttpHeaders.Names.ACCEPT_ENCODING, HttpHeaders.Values.GZIP);
+      }
+      return request;
+    }
+
+    /**
+     * Called when a successful response header is received.
+     *
+     * @param partial True if the response has only the rest of the content from the resume offset
+     * @param checksums The value of {@link ShufflePageChecksums#HTTP_HEADER}, or null
+     */
+    void started(long contentLength, boolean partial, String checksums) {
+      if (!partial) {
+        // the whole content is received again
+        resumeOffset = 0;
+      }
+      if (checksums != null) {
+        // checksums cover the whole content, and the pages before the resume offset have been verified
+        verifier = ShufflePageChecksums.parseHeaderValue(checksums);
+        if (!verifier.skip(resumeOffset)) {
+          LOG.warn("Resumed content is not verified, because it does not start at a page boundary: " + query);
+          verifier = null;
+        }
+      }
+      if (stream != null) {
+        stream.setLength(contentLength);
+      }
+    }
+
+    void write(ByteBuf content) throws IOException {
+      if (verifier != null) {
+        verify(content);
+      }
+      if (stream != null) {
+        receivedBytes += content.readableBytes();
+        stream.write(content);
+        return;
+      }
+      if (fc == null) {
+        openFile();
+      }
+      receivedBytes += content.readableBytes();
+      content.readBytes(fc, content.readableBytes());
+    }
+
+    private void openFile() throws IOException {
+      raf = new RandomAccessFile(file, "rw");
+      // bytes after the resume offset are not verified, so they are discarded
+      raf.setLength(resumeOffset);
+      fc = raf.getChannel();
+      fc.position(resumeOffset);
+    }
+
+    private void verify(ByteBuf content) throws IOException {
+      try {
+        if (content.hasArray()) {
+          verifier.update(content.array(), content.arrayOffset() + content.readerIndex(), content.readableBytes());
+          return;
+        }
+
+        if (verifyBuffer == null) {
+          verifyBuffer = new byte[8192];
+        }
+        for (int pos = content.readerIndex(); pos < content.writerIndex(); pos += verifyBuffer.length) {
+          int len = Math.min(verifyBuffer.length, content.writerIndex() - pos);
+          content.getBytes(pos, verifyBuffer, 0, len);
+          verifier.update(verifyBuffer, 0, len);
+        }
+      } catch (ChecksumException e) {
+        cause = e;
+        throw e;
+      }
+    }
+
+    void finish(boolean succeeded) throws IOException {
+      if (succeeded && verifier != null && !verifier.isCompleted()) {
+        cause = new ChecksumException("Missing checksummed pages: " + query, verifier.getVerifiedBytes());
+        succeeded = false;
+      }
+      if (stream != null) {
+        if (succeeded) {
+          stream.finish();
+          succeeded = !stream.isFailed();
+        } else {
+          stream.fail(new IOException("Fetch failed: " + query));
+        }
+        this.succeeded = succeeded;
+        done.countDown();
+        return;
+      }
+      if (fc == null && succeeded) {
+        // no content, but a file is expected by a caller
+        openFile();
+      }
+      IOUtils.cleanup(LOG, fc, raf);
+      this.succeeded = succeeded;
+      done.countDown();
+    }
+
+    void fail(Throwable cause) {
+      if (stream != null) {
+        stream.fail(cause);
+      }
+      IOUtils.cleanup(LOG, fc, raf);
+      if (this.cause == null) {
+        this.cause = cause;
+      }
+      this.succeeded = false;
+      done.countDown();
+    }
+
+    public boolean isSucceeded() {
+      return succeeded;
+    }
+
+    public Throwable getCause() {
+      return cause;
+    }
+
+    public int getMessageReceiveCount() {
+      return messageReceiveCount;
+    }
+
+    public long getReceivedBytes() {
+      return receivedBytes;
+    }
+
+    /**
+     * @return The checksum verifier of the content, or null if the content has no checksum
+     */
+    public ShufflePageChecksums.Verifier getVerifier() {
+      return verifier;
+    }
+  }
+
+  /**
+   * The metrics of the connections to a pull server.
+   */
+  public class HostMetrics {
+    private final String name;
+    private final AtomicLong openedConnections = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failedRequests = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final HostConnectionPool pool;
+
+    HostMetrics(HostConnectionPool pool) {
+      this.pool = pool;
+      this.name = pool.address.getHostName() + "_" + pool.address.getPort();
+    }
+
+    /** @return The number of connections which have been opened */
+    public long getOpenedConnections() {
+      return openedConnections.get();
+    }
+
+    public int getActiveConnections() {
+      return pool.activeConnections();
+    }
+
+    /** @return The number of completed requests */
+    public long getRequests() {
+      return requests.get();
+    }
+
+    public long getFailedRequests() {
+      return failedRequests.get();
+    }
+
+    public long getReceivedBytes() {
+      return receivedBytes.get();
+    }
+
+    /** @return The average time from sending a request to receiving the whole response */
+    public long getAverageLatencyMillis() {
+      long completed = requests.get();
+      return completed == 0 ? 0 : totalLatencyMillis.get() / completed;
+    }
+
+    void completed(FetchRequest request) {
+      requests.incrementAndGet();
+      if (!request.isSucceeded()) {
+        failedRequests.incrementAndGet();
+      }
+      receivedBytes.addAndGet(request.getReceivedBytes());
+      totalLatencyMillis.addAndGet(System.currentTimeMillis() - request.sendTime);
+    }
+
+    void register() {
+      if (metrics == null) {
+        return;
+      }
+      try {
+        metrics.register(METRICS_CONTEXT, name + ".activeConnections", new Gauge<Integer>() {
+          @Override
+          public Integer getValue() {
+            return getActiveConnections();
+          }
+        });
+        metrics.register(METRICS_CONTEXT, name + ".openedConnections", new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getOpenedConnections();
+          }
+        });
+        metrics.register(METRICS_CONTEXT, name + ".requests", new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getRequests();
+          }
+        });
+        metrics.register(METRICS_CONTEXT, name + ".failedRequests", new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getFailedRequests();
+          }
+        });
+        metrics.register(METRICS_CONTEXT, name + ".receivedBytes", new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getReceivedBytes();
+          }
+        });
+        metrics.register(METRICS_CONTEXT, name + ".averageLatencyMillis", new Gauge<Long>() {
+          @Override
+          public Long getValue() {
+            return getAverageLatencyMillis();
+          }
+        });
+      } catch (IllegalArgumentException e) {
+        LOG.warn("Shuffle fetch metrics for " + name + " are already registered");
+      }
+    }
+
+    @Override
+    public String toString() {
+      return name + " (connections=" + getActiveConnections() + "/" + getOpenedConnections() +
+          ", requests=" + getRequests() + ", failed=" + getFailedRequests() + ", bytes=" + getReceivedBytes() +
+          ", avg latency=" + getAverageLatencyMillis() + " ms)";
+    }
+  }
+
+  /**
+   * The connections to a pull server.
+   */
+  class HostConnectionPool {
+    private final InetSocketAddress address;
+    private final HostMetrics metrics;
+    private final List<HttpClientHandler> connections = Lists.newArrayList();
+    private int connecting = 0;
+
+    HostConnectionPool(InetSocketAddress address) {
+      this.address = address;
+      this.metrics = new HostMetrics(this);
+    }
+
+    synchronized int activeConnections() {
+      return connections.size();
+    }
+
+    /**
+     * Sends a request through the least loaded connection. An idle connection is preferred. A new connection is
+     * opened if there is no idle connection and the number of connections is less than the limit. Otherwise, it
+     * pipelines the request if possible, or it waits until a pending request is completed.
+     */
+    void send(FetchRequest request) throws IOException {
+      synchronized (this) {
+        while (true) {
+          if (closed) {
+            throw new IOException("ShuffleFetchClient is already closed");
+          }
+
+          HttpClientHandler leastLoaded = null;
+          for (Iterator<HttpClientHandler> it = connections.iterator(); it.hasNext(); ) {
+            HttpClientHandler handler = it.next();
+            if (!handler.channel.isActive()) {
+              it.remove();
+              continue;
+            }
+            if (leastLoaded == null || handler.pendingNum() < leastLoaded.pendingNum()) {
+              leastLoaded = handler;
+            }
+          }
+
+          boolean canConnect = connections.size() + connecting < maxConnectionsPerHost;
+          if (leastLoaded != null && (leastLoaded.pendingNum() == 0 ||
+              (!canConnect && leastLoaded.pendingNum() < maxPipelinedRequests))) {
+            leastLoaded.send(request);
+            return;
+          } else if (canConnect) {
+            connecting++;
+            break;
+          }
+
+          try {
+            wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection to " + address);
+          }
+        }
+      }
+
+      // connect without holding the lock
+      ChannelFuture future = bootstrap.connect(address).awaitUninterruptibly();
+      synchronized (this) {
+        connecting--;
+        if (!future.isSuccess()) {
+          future.channel().close();
+          notifyAll();
+          throw new IOException(future.cause());
+        }
+
+        HttpClientHandler handler = future.channel().pipeline().get(HttpClientHandler.class);
+        handler.pool = this;
+        connections.add(handler);
+        metrics.openedConnections.incrementAndGet();
+        handler.send(request);
+      }
+    }
+
+    synchronized void released() {
+      notifyAll();
+    }
+
+    synchronized void remove(HttpClientHandler handler) {
+      connections.remove(handler);
+      notifyAll();
+    }
+
+    synchronized void close() {
+      for (HttpClientHandler handler : connections) {
+        handler.channel.close();
+      }
+      connections.clear();
+      notifyAll();
+    }
+  }
+
+  /**
+   * Receives responses of a connection. Responses are matched to pending requests in the order of the requests.
+   */
+  class HttpClientHandler extends ChannelInboundHandlerAdapter {
+    private final Queue<FetchRequest> pending = new ArrayDeque<FetchRequest>();
+    private Channel channel;
+    private HostConnectionPool pool;
+    private boolean inactive = false;
+    private FetchRequest current;
+    private boolean currentFailed;
+    private boolean currentKeepAlive;
+
+    synchronized int pendingNum() {
+      return pending.size();
+    }
+
+    /**
+     * Enqueues and writes a request while holding the lock, so that the order of the queue is the same as the order
+     * of the requests on the wire.
+     */
+    synchronized void send(FetchRequest request) {
+      request.sendTime = System.currentTimeMillis();
+      if (inactive) {
+        request.fail(new IOException("Connection to " + pool.address + " is closed"));
+        pool.metrics.completed(request);
+        return;
+      }
+      pending.add(request);
+      channel.writeAndFlush(request.toHttpRequest()).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+    }
+
+    private synchronized FetchRequest poll() {
+      return pending.poll();
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+      channel = ctx.channel();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+      try {
+        if (msg instanceof HttpResponse) {
+          HttpResponse response = (HttpResponse) msg;
+          synchronized (this) {
+            current = pending.peek();
+          }
+          if (current == null) {
+            LOG.warn("Unexpected response from " + channel.remoteAddress() + ": " + response.getStatus());
+            ctx.close();
+            return;
+          }
+
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("STATUS: " + response.getStatus() + ", VERSION: " + response.getProtocolVersion() +
+                ", HEADER: " + response.headers().entries());
+          }
+
+          currentKeepAlive = HttpHeaders.isKeepAlive(response);
+          if (response.getStatus().code() == HttpResponseStatus.NO_CONTENT.code()) {
+            LOG.warn("There are no data corresponding to the request");
+            currentFailed = false;
+            current.started(0, false, null);
+          } else if (response.getStatus().code() != HttpResponseStatus.OK.code() &&
+              response.getStatus().code() != HttpResponseStatus.PARTIAL_CONTENT.code()) {
+            LOG.error(response.getStatus().reasonPhrase());
+            currentFailed = true;
+          } else {
+            currentFailed = false;
+            current.started(HttpHeaders.getContentLength(response, -1),
+                response.getStatus().code() == HttpResponseStatus.PARTIAL_CONTENT.code(),
+                response.headers().get(ShufflePageChecksums.HTTP_HEADER));
+          }
+        }
+
+        if (current != null) {
+          current.messageReceiveCount++;
+        }
+
+        if (msg instanceof HttpContent && current != null) {
+          ByteBuf content = ((HttpContent) msg).content();
+          if (content.isReadable() && !currentFailed) {
+            current.write(content);
+          }
+
+          if (msg instanceof LastHttpContent) {
+            FetchRequest finished = poll();
+            finished.finish(!currentFailed);
+            pool.metrics.completed(finished);
+            current = null;
+
+            if (!currentKeepAlive) {
+              // the server keeps a keep-alive connection open even after an error response
+              ctx.close();
+            }
+            pool.released();
+          }
+        }
+      } catch (Exception e) {
+        LOG.error(e.getMessage(), e);
+        ctx.close();
+      } finally {
+        ReferenceCountUtil.release(msg);
+      }
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+      if (pendingNum() == 0) {
+        // an idle connection is timed out
+        LOG.debug("Idle shuffle fetch connection is closed: " + cause.getMessage());
+      } else if (cause instanceof ReadTimeoutException) {
+        LOG.warn(cause, cause);
+      } else {
+        LOG.error("Fetch failed :", cause);
+      }
+      ctx.close();
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      // remaining requests will be retried by fetchers
+      synchronized (this) {
+        inactive = true;
+      }
+      FetchRequest request;
+      while ((request = poll()) != null) {
+        request.fail(new IOException("Connection to " + ctx.channel().remoteAddress() + " is closed"));
+        if (pool != null) {
+          pool.metrics.completed(request);
+        }
+      }
+      if (pool != null) {
+        pool.remove(this);
+      }
+      super.channelInactive(ctx);
+    }
+  }
+
+  class HttpClientChannelInitializer extends ChannelInitializer<Channel> {
+    @Override
+    protected void initChannel(Channel channel) throws Exception {
+      ChannelPipeline pipeline = channel.pipeline();
+
+      int maxChunkSize = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_CHUNK_MAX_SIZE);
+      int readTimeout = conf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_READ_TIMEOUT);
+
+      pipeline.addLast("codec", new HttpClientCodec(4096, 8192, maxChunkSize));
+      pipeline.addLast("inflater", new HttpContentDecompressor());
+      pipeline.addLast("timeout", new ReadTimeoutHandler(readTimeout, TimeUnit.SECONDS));
+      pipeline.addLast("handler", new HttpClientHandler());
+    }
+  }
+}
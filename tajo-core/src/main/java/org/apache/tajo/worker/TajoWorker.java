@@ -50,7 +50,10 @@ import org.apache.tajo.rule.EvaluationFailedException;
 import org.apache.tajo.rule.SelfDiagnosisRuleEngine;
 import org.apache.tajo.rule.SelfDiagnosisRuleSession;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.RangeShuffleFileManager;
+import org.apache.tajo.storage.ShuffleStreamBuffer;
 import org.apache.tajo.storage.StorageManager;
+import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.CommonTestingUtil;
 import org.apache.tajo.util.JvmPauseMonitor;
 import org.apache.tajo.util.NetUtils;
@@ -119,6 +122,8 @@ public class TajoWorker extends CompositeService {
 
   private HashShuffleAppenderManager hashShuffleAppenderManager;
 
+  private RangeShuffleFileManager rangeShuffleFileManager;
+
   private AsyncDispatcher dispatcher;
 
   private LocalDirAllocator lDirAllocator;
@@ -129,6 +134,10 @@ public class TajoWorker extends CompositeService {
 
   private HistoryReader historyReader;
 
+  private ShuffleFetchClient shuffleFetchClient;
+
+  private ShuffleStreamBuffer.MemoryBudget shuffleStreamBudget;
+
   public TajoWorker() throws Exception {
     super(TajoWorker.class.getName());
   }
@@ -225,6 +234,7 @@ public class TajoWorker extends CompositeService {
 
     try {
       hashShuffleAppenderManager = new HashShuffleAppenderManager(systemConf);
+      rangeShuffleFileManager = new RangeShuffleFileManager(systemConf);
     } catch (IOException e) {
       LOG.fatal(e.getMessage(), e);
       System.exit(-1);
@@ -327,6 +337,9 @@ public class TajoWorker extends CompositeService {
     }
 
     initWorkerMetrics();
+    shuffleFetchClient = new ShuffleFetchClient(systemConf, workerSystemMetrics);
+    shuffleStreamBudget = new ShuffleStreamBuffer.MemoryBudget(
+        (long) systemConf.getIntVar(ConfVars.SHUFFLE_FETCHER_STREAMING_MEMORY_BUDGET) * StorageUnit.MB);
     super.serviceStart();
     LOG.info("Tajo Worker is started");
   }
@@ -362,6 +375,10 @@ public class TajoWorker extends CompositeService {
       LOG.error(ie.getMessage(), ie);
     }
 
+    if(shuffleFetchClient != null) {
+      shuffleFetchClient.close();
+    }
+
     if(workerSystemMetrics != null) {
       workerSystemMetrics.stop();
     }
@@ -418,6 +435,11 @@ public class TajoWorker extends CompositeService {
     }
 
     protected void cleanup(String strPath) {
+      // cached shuffle files should be closed before they are deleted
+      if (pullService != null) {
+        pullService.evictCachedFiles(strPath);
+      }
+
       if (deletionService == null) return;
 
       LocalDirAllocator lDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
@@ -477,10 +499,22 @@ public class TajoWorker extends CompositeService {
       return workerSystemMetrics;
     }
 
+    public ShuffleFetchClient getShuffleFetchClient() {
+      return shuffleFetchClient;
+    }
+
+    public ShuffleStreamBuffer.MemoryBudget getShuffleStreamBudget() {
+      return shuffleStreamBudget;
+    }
+
     public HashShuffleAppenderManager getHashShuffleAppenderManager() {
       return hashShuffleAppenderManager;
     }
 
+    public RangeShuffleFileManager getRangeShuffleFileManager() {
+      return rangeShuffleFileManager;
+    }
+
     public HistoryWriter getTaskHistoryWriter() {
       return taskHistoryWriter;
     }
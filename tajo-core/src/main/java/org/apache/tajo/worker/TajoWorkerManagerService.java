@@ -27,6 +27,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.service.CompositeService;
 import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.QueryId;
+import org.apache.tajo.TajoProtos;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.TajoIdProtos;
 import org.apache.tajo.conf.TajoConf;
@@ -40,6 +41,8 @@ import org.apache.tajo.worker.event.TaskRunnerStartEvent;
 import org.apache.tajo.worker.event.TaskRunnerStopEvent;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
 
 public class TajoWorkerManagerService extends CompositeService
     implements TajoWorkerProtocol.TajoWorkerProtocolService.Interface {
@@ -121,7 +124,8 @@ public class TajoWorkerManagerService extends CompositeService
           , new ExecutionBlockId(request.getExecutionBlockId())
           , request.getContainerId()
           , new QueryContext(workerContext.getConf(), request.getQueryContext()),
-          request.getPlanJson()
+          request.getPlanJson(),
+          getShufflePushTargets(request)
       ));
       done.run(TajoWorker.TRUE_PROTO);
     } catch (Throwable t) {
@@ -130,6 +134,15 @@ public class TajoWorkerManagerService extends CompositeService
     }
   }
 
+  private static List<WorkerConnectionInfo> getShufflePushTargets(
+      TajoWorkerProtocol.RunExecutionBlockRequestProto request) {
+    List<WorkerConnectionInfo> targets = new ArrayList<WorkerConnectionInfo>();
+    for (TajoProtos.WorkerConnectionInfoProto eachTarget : request.getShufflePushTargetsList()) {
+      targets.add(new WorkerConnectionInfo(eachTarget));
+    }
+    return targets;
+  }
+
   @Override
   public void stopExecutionBlock(RpcController controller,
                                  TajoIdProtos.ExecutionBlockIdProto requestProto,
@@ -170,7 +183,26 @@ public class TajoWorkerManagerService extends CompositeService
       workerContext.cleanup(inputDir);
       String outputDir = ExecutionBlockContext.getBaseOutputDir(new ExecutionBlockId(executionBlockIdProto)).toString();
       workerContext.cleanup(outputDir);
+      workerContext.getHashShuffleAppenderManager().cleanupPushedPartitions(
+          new ExecutionBlockId(executionBlockIdProto));
+      workerContext.getRangeShuffleFileManager().cleanup(new ExecutionBlockId(executionBlockIdProto));
     }
     done.run(TajoWorker.TRUE_PROTO);
   }
+
+  @Override
+  public void pushShuffleData(RpcController controller,
+                              TajoWorkerProtocol.ShufflePushRequestProto request,
+                              RpcCallback<TajoWorkerProtocol.ShufflePushResponseProto> done) {
+    long offset;
+    try {
+      // the buffers share the received bytes, so the pages are not copied again before being written
+      offset = workerContext.getHashShuffleAppenderManager().appendPushedPages(
+          new ExecutionBlockId(request.getEbId()), request.getPartId(), request.getData().asReadOnlyByteBufferList());
+    } catch (Throwable t) {
+      LOG.error(t.getMessage(), t);
+      offset = -1;
+    }
+    done.run(TajoWorkerProtocol.ShufflePushResponseProto.newBuilder().setOffset(offset).build());
+  }
 }
@@ -19,6 +19,8 @@
 package org.apache.tajo.worker;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 
@@ -44,6 +46,7 @@ import org.apache.tajo.master.cluster.WorkerConnectionInfo;
 import org.apache.tajo.plan.serder.LogicalNodeDeserializer;
 import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.engine.planner.physical.PhysicalExec;
+import org.apache.tajo.engine.planner.physical.PhysicalPlanUtil;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.engine.query.TaskRequest;
 import org.apache.tajo.ipc.QueryMasterProtocol;
@@ -67,6 +70,7 @@ import java.net.URI;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.apache.tajo.catalog.proto.CatalogProtos.FragmentProto;
 import static org.apache.tajo.plan.serder.PlanProto.ShuffleType;
@@ -96,6 +100,8 @@ public class Task {
 
   private final TableStats inputStats;
   private List<FileChunk> localChunks;
+  /** fetched data streamed into memory, keyed by their input tables */
+  private final ListMultimap<String, ShuffleStreamBuffer> streams = ArrayListMultimap.create();
 
   // TODO - to be refactored
   private ShuffleType shuffleType = null;
@@ -153,6 +159,14 @@ public class Task {
       }
     }
 
+    // fetched intermediate data are compressed as their shuffle outputs are
+    for (FetchImpl f : request.getFetches()) {
+      TableDesc desc = descs.get(f.getName());
+      if (desc != null) {
+        PhysicalPlanUtil.setShuffleCompressionIfNecessary(queryContext, desc.getMeta());
+      }
+    }
+
     interQuery = request.getProto().getInterQuery();
     if (interQuery) {
       context.setInterQuery();
@@ -490,6 +504,13 @@ public class Task {
       LOG.fatal(e.getMessage(), e);
     }
 
+    synchronized (streams) {
+      for (ShuffleStreamBuffer stream : streams.values()) {
+        stream.release();
+      }
+      streams.clear();
+    }
+
     executionBlockContext.getWorkerContext().getTaskHistoryWriter().appendHistory(taskHistory);
   }
 
@@ -561,13 +582,23 @@ public class Task {
 
     FileStatus[] fileLists = fs.listStatus(tablePath);
     for (FileStatus f : fileLists) {
-      if (f.getLen() == 0) {
+      // a streamed chunk may have a spilled file, but it is read through the stream
+      if (f.getLen() == 0 || ShuffleStreamBuffer.lookup(new File(f.getPath().toUri())) != null) {
         continue;
       }
       tablet = new FileFragment(name, f.getPath(), 0l, f.getLen());
       listTablets.add(tablet);
     }
 
+    // streamed chunks are read while they are being fetched
+    synchronized (streams) {
+      for (ShuffleStreamBuffer stream : streams.get(name)) {
+        if (stream.getLength() > 0) {
+          listTablets.add(new FileFragment(name, new Path(stream.getFile().getAbsolutePath()), 0, stream.getLength()));
+        }
+      }
+    }
+
     // Special treatment for locally pseudo fetched chunks
     synchronized (localChunks) {
       for (FileChunk chunk : localChunks) {
@@ -589,6 +620,8 @@ public class Task {
     private final TaskAttemptContext ctx;
     private final Fetcher fetcher;
     private int maxRetryNum;
+    /** A streamed fetch releases the fetch phase when its data become readable, before the fetch is finished. */
+    private final AtomicBoolean released = new AtomicBoolean(false);
 
     public FetchRunner(TaskAttemptContext ctx, Fetcher fetcher) {
       this.ctx = ctx;
@@ -596,13 +629,33 @@ public class Task {
       this.maxRetryNum = systemConf.getIntVar(TajoConf.ConfVars.SHUFFLE_FETCHER_READ_RETRY_MAX_NUM);
     }
 
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        fetcherFinished(ctx);
+      }
+    }
+
     @Override
     public void run() {
       int retryNum = 0;
       int retryWaitTime = 1000; //sec
+      final ShuffleStreamBuffer stream = fetcher.getStream();
 
       try { // for releasing fetch latch
         while(!context.isStopped() && retryNum < maxRetryNum) {
+          if (stream != null) {
+            // a stream which may have been read cannot be fetched again, so the task should be retried
+            if (stream.isReady() || stream.getWrittenBytes() > 0) {
+              break;
+            }
+            stream.reset();
+            stream.setReadyListener(new Runnable() {
+              @Override
+              public void run() {
+                release();
+              }
+            });
+          }
           if (retryNum > 0) {
             try {
               Thread.sleep(retryWaitTime);
@@ -629,13 +682,15 @@ public class Task {
         }
       } finally {
         if(fetcher.getState() == TajoProtos.FetcherState.FETCH_FINISHED){
-          fetcherFinished(ctx);
+          release();
         } else {
           if (retryNum == maxRetryNum) {
             LOG.error("ERROR: the maximum retry (" + retryNum + ") on the fetch exceeded (" + fetcher.getURI() + ")");
           }
           context.stop(); // retry task
-          ctx.getFetchLatch().countDown();
+          if (released.compareAndSet(false, true)) {
+            ctx.getFetchLatch().countDown();
+          }
         }
       }
     }
@@ -706,8 +761,9 @@ public class Task {
               continue;
             }
 
+            // a chunk with a header, i.e., a range of compressed blocks, can be read only through the pull server
             if (storeChunk != null && storeChunk.getFile() != null && storeChunk.startOffset() > -1
-                && hasError == false) {
+                && storeChunk.getHeader() == null && hasError == false) {
               storeChunk.setFromRemote(false);
             } else {
               storeChunk = new FileChunk(defaultStoreFile, 0, -1);
@@ -721,7 +777,17 @@ public class Task {
           // If we decide that intermediate data should be really fetched from a remote host, storeChunk
           // represents a complete file. Otherwise, storeChunk may represent a complete file or only a part of it
           storeChunk.setEbId(f.getName());
-          Fetcher fetcher = new Fetcher(systemConf, uri, storeChunk);
+          ShuffleStreamBuffer stream = null;
+          if (storeChunk.fromRemote() && isStreamable(f.getName())) {
+            stream = new ShuffleStreamBuffer(defaultStoreFile,
+                executionBlockContext.getWorkerContext().getShuffleStreamBudget());
+            ShuffleStreamBuffer.register(stream);
+            synchronized (streams) {
+              streams.put(f.getName(), stream);
+            }
+          }
+          Fetcher fetcher = new Fetcher(systemConf, uri, storeChunk,
+              executionBlockContext.getWorkerContext().getShuffleFetchClient(), stream);
           LOG.info("Create a new Fetcher with storeChunk:" + storeChunk.toString());
           runnerList.add(fetcher);
           i++;
@@ -734,6 +800,16 @@ public class Task {
     }
   }
 
+  /**
+   * Fetched data of an input table can be streamed into memory if they are read by {@link RawFile.RawFileScanner}.
+   */
+  private boolean isStreamable(String inputTable) {
+    TableDesc desc = descs.get(inputTable);
+    return systemConf.getBoolVar(TajoConf.ConfVars.SHUFFLE_FETCHER_STREAMING_ENABLED)
+        && executionBlockContext.getWorkerContext().getShuffleStreamBudget() != null
+        && desc != null && desc.getMeta().getStoreType() == CatalogProtos.StoreType.RAW;
+  }
+
   private FileChunk getLocalStoredFileChunk(URI fetchURI, TajoConf conf) throws IOException {
     // Parse the URI
     LOG.info("getLocalStoredFileChunk starts");
@@ -779,6 +855,10 @@ public class Task {
 
     // If the stage requires a range shuffle
     if (shuffleType.equals("r")) {
+      if (taskIds.size() > 1) {
+        // outputs of multiple tasks are concatenated by the pull server
+        throw new IOException("Range shuffle - multiple task outputs are fetched through the pull server");
+      }
       String ta = taskIds.get(0);
       if (!executionBlockContext.getLocalDirAllocator().ifExists(queryBaseDir + ta + "/output/", conf)) {
         LOG.warn("Range shuffle - file not exist");
@@ -790,17 +870,29 @@ public class Task {
       String endKey = params.get("end").get(0);
       boolean last = params.get("final") != null;
 
+      String sharedDataFilePath = RangeShuffleFileManager.getDataFilePath(queryId, sid);
+      Path sharedDataFile = null;
+      if (executionBlockContext.getLocalDirAllocator().ifExists(sharedDataFilePath, conf)) {
+        sharedDataFile = executionBlockContext.getLocalFS().makeQualified(
+            executionBlockContext.getLocalDirAllocator().getLocalPathToRead(sharedDataFilePath, conf));
+      }
+
       try {
-        chunk = TajoPullServerService.getFileCunks(path, startKey, endKey, last);
+        chunk = TajoPullServerService.getFileCunks(path, sharedDataFile, startKey, endKey, last);
             } catch (Throwable t) {
         LOG.error("getFileChunks() throws exception");
         return null;
       }
 
-      // If the stage requires a hash shuffle or a scattered hash shuffle
-    } else if (shuffleType.equals("h") || shuffleType.equals("s")) {
+      // If the stage requires a hash shuffle or a scattered hash shuffle, or the partition is pushed to this worker
+    } else if (shuffleType.equals("h") || shuffleType.equals("s") || shuffleType.equals("p")) {
+      if (shuffleType.equals("p") && (offset < 0 || length < 0)) {
+        throw new IOException("Pushed partition - offset and length are required");
+      }
       int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), (TajoConf) conf);
-      String partPath = queryBaseDir + "hash-shuffle/" + partParentId + "/" + partId;
+      String shuffleDir = shuffleType.equals("p") ?
+          HashShuffleAppenderManager.PUSHED_HASH_SHUFFLE_DIR : HashShuffleAppenderManager.HASH_SHUFFLE_DIR;
+      String partPath = queryBaseDir + shuffleDir + "/" + partParentId + "/" + partId;
       if (!executionBlockContext.getLocalDirAllocator().ifExists(partPath, conf)) {
         LOG.warn("Hash shuffle or Scattered hash shuffle - file not exist: " + partPath);
         return null;
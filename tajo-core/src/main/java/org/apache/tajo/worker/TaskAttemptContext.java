@@ -29,11 +29,13 @@ import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.engine.codegen.CompiledPipeline;
 import org.apache.tajo.engine.planner.enforce.Enforcer;
 import org.apache.tajo.engine.planner.global.DataChannel;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.RangeShuffleFileManager;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.storage.fragment.FragmentConvertor;
@@ -82,6 +84,7 @@ public class TaskAttemptContext {
   /** a output volume for each partition */
   private Map<Integer, Long> partitionOutputVolume;
   private HashShuffleAppenderManager hashShuffleAppenderManager;
+  private RangeShuffleFileManager rangeShuffleFileManager;
 
   public TaskAttemptContext(QueryContext queryContext, final ExecutionBlockContext executionBlockContext,
                             final TaskAttemptId queryId,
@@ -117,9 +120,11 @@ public class TaskAttemptContext {
 
     if (workerContext != null) {
       this.hashShuffleAppenderManager = workerContext.getHashShuffleAppenderManager();
+      this.rangeShuffleFileManager = workerContext.getRangeShuffleFileManager();
     } else {
       try {
         this.hashShuffleAppenderManager = new HashShuffleAppenderManager(queryContext.getConf());
+        this.rangeShuffleFileManager = new RangeShuffleFileManager(queryContext.getConf());
       } catch (IOException e) {
         LOG.error(e.getMessage(), e);
       }
@@ -178,6 +183,17 @@ public class TaskAttemptContext {
     }
   }
 
+  /**
+   * @return A compiled pipeline fusing a qual and targets, or null if it is not available
+   */
+  public CompiledPipeline getCompiledPipeline(Schema schema, EvalNode qual, EvalNode [] targets) {
+    if (sharedResource != null) {
+      return sharedResource.getCompiledPipeline(schema, qual, targets);
+    } else {
+      return null;
+    }
+  }
+
   public boolean hasResultStats() {
     return resultStats != null;
   }
@@ -403,4 +419,8 @@ public class TaskAttemptContext {
   public HashShuffleAppenderManager getHashShuffleAppenderManager() {
     return hashShuffleAppenderManager;
   }
+
+  public RangeShuffleFileManager getRangeShuffleFileManager() {
+    return rangeShuffleFileManager;
+  }
 }
\ No newline at end of file
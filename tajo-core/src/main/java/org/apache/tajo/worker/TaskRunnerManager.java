@@ -157,6 +157,7 @@ public class TaskRunnerManager extends CompositeService implements EventHandler<
         try {
           context = new ExecutionBlockContext(getTajoConf(), getWorkerContext(), this, startEvent.getQueryContext(),
               startEvent.getPlan(), startEvent.getExecutionBlockId(), startEvent.getQueryMaster());
+          context.setShufflePushTargets(startEvent.getShufflePushTargets());
           context.init();
         } catch (Throwable e) {
           LOG.fatal(e.getMessage(), e);
@@ -22,23 +22,28 @@ import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.engine.query.QueryContext;
 import org.apache.tajo.master.cluster.WorkerConnectionInfo;
 
+import java.util.List;
+
 public class TaskRunnerStartEvent extends TaskRunnerEvent {
 
   private final QueryContext queryContext;
   private final WorkerConnectionInfo queryMaster;
   private final String containerId;
   private final String plan;
+  private final List<WorkerConnectionInfo> shufflePushTargets;
 
   public TaskRunnerStartEvent(WorkerConnectionInfo queryMaster,
                               ExecutionBlockId executionBlockId,
                               String containerId,
                               QueryContext context,
-                              String plan) {
+                              String plan,
+                              List<WorkerConnectionInfo> shufflePushTargets) {
     super(EventType.START, executionBlockId);
     this.queryMaster = queryMaster;
     this.containerId = containerId;
     this.queryContext = context;
     this.plan = plan;
+    this.shufflePushTargets = shufflePushTargets;
   }
 
   public WorkerConnectionInfo getQueryMaster() {
@@ -56,4 +61,8 @@ public class TaskRunnerStartEvent extends TaskRunnerEvent {
   public String getPlan() {
     return plan;
   }
+
+  public List<WorkerConnectionInfo> getShufflePushTargets() {
+    return shufflePushTargets;
+  }
 }
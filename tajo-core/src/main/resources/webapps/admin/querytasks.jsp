@@ -90,6 +90,7 @@
   long totalReadRows = 0;
   long totalWriteBytes = 0;
   long totalWriteRows = 0;
+  long totalCompressedWriteBytes = 0;
 
   if (stage != null) {
     totalInputBytes = stage.getTotalInputBytes();
@@ -97,6 +98,7 @@
     totalReadRows = stage.getTotalReadRows();
     totalWriteBytes = stage.getTotalWriteBytes();
     totalWriteRows = stage.getTotalWriteRows();
+    totalCompressedWriteBytes = stage.getTotalCompressedWriteBytes();
   }
 
   List<TaskHistory> allTasks = reader.getTaskHistory(queryId, ebId);
@@ -161,6 +163,13 @@
     <tr><td align='right'>Actual Processed Bytes:</td><td><%=totalReadBytes == 0 ? "-" : FileUtil.humanReadableByteCount(totalReadBytes, false) + " (" + nf.format(totalReadBytes) + " B)"%></td></tr>
     <tr><td align='right'>Input Rows:</td><td><%=nf.format(totalReadRows)%></td></tr>
     <tr><td align='right'>Output Bytes:</td><td><%=FileUtil.humanReadableByteCount(totalWriteBytes, false) + " (" + nf.format(totalWriteBytes) + " B)"%></td></tr>
+<%
+  if (totalCompressedWriteBytes > 0) {
+%>
+    <tr><td align='right'>Compressed Output Bytes:</td><td><%=FileUtil.humanReadableByteCount(totalCompressedWriteBytes, false) + " (ratio: " + JSPUtil.percentFormat((float) totalCompressedWriteBytes / totalWriteBytes) + "%)"%></td></tr>
+<%
+  }
+%>
     <tr><td align='right'>Output Rows:</td><td><%=nf.format(totalWriteRows)%></td></tr>
   </table>
   <hr/>
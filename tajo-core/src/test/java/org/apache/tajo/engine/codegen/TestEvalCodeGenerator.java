@@ -22,11 +22,21 @@ package org.apache.tajo.engine.codegen;
 import org.apache.tajo.catalog.CatalogUtil;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.common.TajoDataTypes;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.engine.eval.ExprTestBase;
+import org.apache.tajo.plan.expr.BinaryEval;
+import org.apache.tajo.plan.expr.EvalNode;
+import org.apache.tajo.plan.expr.EvalType;
+import org.apache.tajo.plan.expr.FieldEval;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
 import org.junit.Test;
 
 import java.io.IOException;
 
+import static org.junit.Assert.*;
+
 public class TestEvalCodeGenerator extends ExprTestBase {
   private static Schema schema;
   static {
@@ -43,6 +53,10 @@ public class TestEvalCodeGenerator extends ExprTestBase {
     schema.addColumn("nullable", TajoDataTypes.Type.NULL_TYPE);
   }
 
+  public TestEvalCodeGenerator() {
+    super(true);
+  }
+
   @Test
   public void testArithmetic() throws IOException {
     testEval(schema, "table1", "0,1,2,3,4.5,6.5", "select 1+1;", new String [] {"2"});
@@ -308,4 +322,61 @@ public class TestEvalCodeGenerator extends ExprTestBase {
     testEval(schema, "table1", " trim, abc", "select ltrim(col1) || ltrim(col2) from table1",
         new String[]{"trimabc"});
   }
+
+  @Test
+  public void testNestedPredicates() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("col1", TajoDataTypes.Type.INT4);
+    schema.addColumn("col2", TajoDataTypes.Type.TEXT);
+
+    // IN and pattern match predicates embed interpreted evals, which must be bound with the compiled eval.
+    testEval(schema, "table1", "1,abc", "select col2 in ('abc', 'def') from table1;", new String [] {"t"});
+    testEval(schema, "table1", "1,abc", "select col2 like 'a%' from table1;", new String [] {"t"});
+    testEval(schema, "table1", "1,abc", "select col2 ~ '^b' from table1;", new String [] {"f"});
+    testEval(schema, "table1", "1,abc", "select not (col1 > 0 and col2 like 'b%') from table1;",
+        new String [] {"t"});
+    testEval(schema, "table1", "1,abc", "select case when col1 = 1 then col2 else 'x' end from table1;",
+        new String [] {"abc"});
+    testEval(schema, "table1", "1,abc", "select cast(col1 as float8) + 0.5 from table1;", new String [] {"1.5"});
+  }
+
+  @Test
+  public void testCompiledClassCache() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", TajoDataTypes.Type.INT4);
+    schema.addColumn("col2", TajoDataTypes.Type.INT4);
+    EvalNode eval = new BinaryEval(EvalType.PLUS,
+        new FieldEval(schema.getColumn("col1")), new FieldEval(schema.getColumn("col2")));
+
+    TajoClassLoader classLoader = new TajoClassLoader();
+    ExecutorPreCompiler.CompilationContext context = new ExecutorPreCompiler.CompilationContext(classLoader);
+    EvalNode compiled1 = context.getCompiledEval(schema, eval);
+    EvalNode compiled2 = context.getCompiledEval(schema, eval);
+
+    assertTrue(compiled1 instanceof CompiledEval);
+    assertTrue(context.isCompiled(schema, eval));
+    // each caller gets its own instance of the same class
+    assertNotSame(compiled1, compiled2);
+    assertSame(compiled1.getClass(), compiled2.getClass());
+    assertEquals(eval.getValueType(), compiled1.getValueType());
+
+    compiled1.bind(schema);
+    Tuple tuple = new VTuple(new Datum[] {DatumFactory.createInt4(1), DatumFactory.createInt4(2)});
+    assertEquals(3, compiled1.eval(tuple).asInt4());
+  }
+
+  @Test
+  public void testFallbackToInterpretation() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", TajoDataTypes.Type.BLOB);
+    EvalNode eval = new FieldEval(schema.getColumn("col1"));
+
+    TajoClassLoader classLoader = new TajoClassLoader();
+    ExecutorPreCompiler.CompilationContext context = new ExecutorPreCompiler.CompilationContext(classLoader);
+
+    // BLOB fields cannot be compiled, so the interpreted eval is returned
+    assertSame(eval, context.getCompiledEval(schema, eval));
+    assertSame(eval, context.getCompiledEval(schema, eval));
+    assertFalse(context.isCompiled(schema, eval));
+  }
 }
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.codegen;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestPipelineCodeGenerator {
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.INT4);
+    schema.addColumn("col2", Type.TEXT);
+    schema.addColumn("col3", Type.FLOAT8);
+    return schema;
+  }
+
+  private static Tuple createTuple(Datum... datums) {
+    return new VTuple(datums);
+  }
+
+  @Test
+  public void testFilterAndProject() throws Exception {
+    Schema schema = createSchema();
+    FieldEval col1 = new FieldEval(schema.getColumn("col1"));
+    FieldEval col2 = new FieldEval(schema.getColumn("col2"));
+    FieldEval col3 = new FieldEval(schema.getColumn("col3"));
+
+    // where col1 > 1 and col2 like 'a%'
+    EvalNode qual = new BinaryEval(EvalType.AND,
+        new BinaryEval(EvalType.GTH, col1, new ConstEval(DatumFactory.createInt4(1))),
+        new LikePredicateEval(false, col2, new ConstEval(DatumFactory.createText("a%")), false));
+    // select col2, col3 + col3
+    EvalNode [] targets = new EvalNode[] {col2, new BinaryEval(EvalType.PLUS, col3, col3)};
+
+    TajoClassLoader classLoader = new TajoClassLoader();
+    PipelineCodeGenerator generator = new PipelineCodeGenerator(classLoader);
+    CompiledPipeline pipeline = PipelineCodeGenerator.newInstance(generator.compileClass(schema, qual, targets));
+    pipeline.bind(schema);
+
+    Tuple out = new VTuple(targets.length);
+    assertTrue(pipeline.process(createTuple(DatumFactory.createInt4(2), DatumFactory.createText("abc"),
+        DatumFactory.createFloat8(0.5)), out));
+    assertEquals(DatumFactory.createText("abc"), out.get(0));
+    assertEquals(1.0, out.get(1).asFloat8(), 0.0);
+
+    // rejected rows do not change the output tuple
+    assertFalse(pipeline.process(createTuple(DatumFactory.createInt4(1), DatumFactory.createText("abc"),
+        DatumFactory.createFloat8(0.5)), out));
+    assertFalse(pipeline.process(createTuple(DatumFactory.createInt4(2), DatumFactory.createText("bcd"),
+        DatumFactory.createFloat8(0.5)), out));
+    assertFalse(pipeline.process(createTuple(NullDatum.get(), DatumFactory.createText("abc"),
+        DatumFactory.createFloat8(0.5)), out));
+    assertEquals(DatumFactory.createText("abc"), out.get(0));
+
+    // null values are projected as nulls
+    assertTrue(pipeline.process(createTuple(DatumFactory.createInt4(3), DatumFactory.createText("a"),
+        NullDatum.get()), out));
+    assertTrue(out.isNull(1));
+
+    classLoader.clean();
+  }
+
+  @Test
+  public void testProjectOnly() throws Exception {
+    Schema schema = createSchema();
+    EvalNode [] targets = new EvalNode[] {
+        new FieldEval(schema.getColumn("col3")), new FieldEval(schema.getColumn("col1"))};
+
+    ExecutorPreCompiler.CompilationContext context = new ExecutorPreCompiler.CompilationContext(
+        new TajoClassLoader());
+    CompiledPipeline pipeline = context.getCompiledPipeline(schema, null, targets);
+    assertNotNull(pipeline);
+    // pipeline classes are cached, but each caller gets its own instance
+    CompiledPipeline another = context.getCompiledPipeline(schema, null, targets);
+    assertNotSame(pipeline, another);
+    assertSame(pipeline.getClass(), another.getClass());
+
+    pipeline.bind(schema);
+    Tuple out = new VTuple(targets.length);
+    assertTrue(pipeline.process(createTuple(DatumFactory.createInt4(7), DatumFactory.createText("x"),
+        DatumFactory.createFloat8(1.5)), out));
+    assertEquals(1.5, out.get(0).asFloat8(), 0.0);
+    assertEquals(7, out.get(1).asInt4());
+  }
+
+  @Test
+  public void testUncompilablePipeline() {
+    Schema schema = createSchema();
+    schema.addColumn("col4", Type.BLOB);
+    EvalNode [] targets = new EvalNode[] {new FieldEval(schema.getColumn("col4"))};
+
+    ExecutorPreCompiler.CompilationContext context = new ExecutorPreCompiler.CompilationContext(
+        new TajoClassLoader());
+    assertNull(context.getCompiledPipeline(schema, null, targets));
+  }
+}
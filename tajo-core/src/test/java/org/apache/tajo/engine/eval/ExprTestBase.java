@@ -80,7 +80,17 @@ public class ExprTestBase {
     return DateTimeUtil.getTimeZoneDisplayTime(tz);
   }
 
+  private final boolean compileAlways;
+
   public ExprTestBase() {
+    this(false);
+  }
+
+  /**
+   * @param compileAlways If true, every expression is compiled regardless of the CODEGEN session variable.
+   */
+  public ExprTestBase(boolean compileAlways) {
+    this.compileAlways = compileAlways;
   }
 
   @BeforeClass
@@ -269,8 +279,9 @@ public class ExprTestBase {
     try {
       targets = getRawTargets(queryContext, query, condition);
 
+      // Expressions are compiled without a fallback to interpretation, so that a compilation error fails a test.
       EvalCodeGenerator codegen = null;
-      if (queryContext.getBool(SessionVars.CODEGEN)) {
+      if (compileAlways || queryContext.getBool(SessionVars.CODEGEN)) {
         codegen = new EvalCodeGenerator(classLoader);
       }
 
@@ -278,7 +289,7 @@ public class ExprTestBase {
       for (int i = 0; i < targets.length; i++) {
         EvalNode eval = targets[i].getEvalTree();
 
-        if (queryContext.getBool(SessionVars.CODEGEN)) {
+        if (codegen != null) {
           eval = codegen.compile(inputSchema, eval);
         }
         eval.bind(inputSchema);
@@ -45,6 +45,7 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.Random;
 
@@ -120,9 +121,22 @@ public class TestExternalSortExec {
 
   @Test
   public final void testNext() throws IOException, PlanningException {
+    assertSortResult(conf, TestExternalSortExec.class.getName(), null);
+  }
+
+  @Test
+  public final void testParallelSort() throws IOException, PlanningException {
+    TajoConf parallelConf = new TajoConf(conf);
+    parallelConf.setIntVar(TajoConf.ConfVars.EXECUTOR_EXTERNAL_SORT_THREAD_NUM, 4);
+    // a small sort buffer makes multiple chunks, which are written while the next ones are sorted.
+    assertSortResult(parallelConf, "testParallelSort", 8 * 1024 * 1024);
+  }
+
+  private void assertSortResult(TajoConf conf, String workDirName, Integer sortBufferBytesNum)
+      throws IOException, PlanningException {
     FileFragment[] frags = FileStorageManager.splitNG(conf, "default.employee", employee.getMeta(),
         new Path(employee.getPath()), Integer.MAX_VALUE);
-    Path workDir = new Path(testDir, TestExternalSortExec.class.getName());
+    Path workDir = new Path(testDir, workDirName);
     TaskAttemptContext ctx = new TaskAttemptContext(new QueryContext(conf),
         LocalTajoTestingUtility.newTaskAttemptId(), new FileFragment[] { frags[0] }, workDir);
     ctx.setEnforcer(new Enforcer());
@@ -143,6 +157,10 @@ public class TestExternalSortExec {
       ExternalSortExec extSort = new ExternalSortExec(ctx, ((MemSortExec)sortExec).getPlan(), scan);
       proj.setChild(extSort);
     }
+    if (sortBufferBytesNum != null) {
+      ExternalSortExec extSort = proj.getChild();
+      extSort.setSortBufferBytesNum(sortBufferBytesNum);
+    }
 
     Tuple tuple;
     Tuple preVal = null;
@@ -182,5 +200,23 @@ public class TestExternalSortExec {
     assertEquals(numTuple, cnt);
     exec.close();
     System.out.println("Sort Time: " + (end - start) + " msc");
+
+    // all chunk files are deleted on close
+    assertEquals(0, countChunkFiles(new File(testDir.toUri().getPath())));
+  }
+
+  private static int countChunkFiles(File dir) {
+    int count = 0;
+    File [] files = dir.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isDirectory()) {
+          count += countChunkFiles(file);
+        } else if (file.getName().startsWith("0_")) {
+          count++;
+        }
+      }
+    }
+    return count;
   }
 }
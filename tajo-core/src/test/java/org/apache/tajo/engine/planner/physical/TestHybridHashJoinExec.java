@@ -0,0 +1,280 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.LocalTajoTestingUtility;
+import org.apache.tajo.TajoConstants;
+import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.algebra.Expr;
+import org.apache.tajo.catalog.*;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.parser.SQLAnalyzer;
+import org.apache.tajo.engine.planner.*;
+import org.apache.tajo.engine.planner.enforce.Enforcer;
+import org.apache.tajo.plan.LogicalPlanner;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.plan.PlanningException;
+import org.apache.tajo.plan.logical.JoinNode;
+import org.apache.tajo.plan.logical.LogicalNode;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.engine.query.QueryContext;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.TUtil;
+import org.apache.tajo.worker.TaskAttemptContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.apache.tajo.TajoConstants.DEFAULT_TABLESPACE_NAME;
+import static org.apache.tajo.ipc.TajoWorkerProtocol.JoinEnforce.JoinAlgorithm;
+import static org.junit.Assert.*;
+
+public class TestHybridHashJoinExec {
+  private TajoConf conf;
+  private final String TEST_PATH = TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/TestHybridHashJoinExec";
+  private TajoTestingCluster util;
+  private CatalogService catalog;
+  private SQLAnalyzer analyzer;
+  private LogicalPlanner planner;
+  private Path testDir;
+  private QueryContext defaultContext;
+
+  private TableDesc employee;
+  private TableDesc people;
+
+  private static final int EMPLOYEE_NUM = 10000;
+
+  @Before
+  public void setUp() throws Exception {
+    util = new TajoTestingCluster();
+    util.initTestDir();
+    catalog = util.startCatalogCluster().getCatalog();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    catalog.createTablespace(DEFAULT_TABLESPACE_NAME, testDir.toUri().toString());
+    catalog.createDatabase(TajoConstants.DEFAULT_DATABASE_NAME, DEFAULT_TABLESPACE_NAME);
+    conf = util.getConfiguration();
+
+    Schema employeeSchema = new Schema();
+    employeeSchema.addColumn("managerid", Type.INT4);
+    employeeSchema.addColumn("empid", Type.INT4);
+    employeeSchema.addColumn("memid", Type.INT4);
+    employeeSchema.addColumn("deptname", Type.TEXT);
+
+    TableMeta employeeMeta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Path employeePath = new Path(testDir, "employee.csv");
+    Appender appender = ((FileStorageManager)StorageManager.getFileStorageManager(conf))
+        .getAppender(employeeMeta, employeeSchema, employeePath);
+    appender.init();
+    Tuple tuple = new VTuple(employeeSchema.size());
+    for (int i = 0; i < EMPLOYEE_NUM; i++) {
+      tuple.put(new Datum[] { DatumFactory.createInt4(i),
+          DatumFactory.createInt4(i), DatumFactory.createInt4(10 + i),
+          DatumFactory.createText("dept_" + i) });
+      appender.addTuple(tuple);
+    }
+
+    appender.flush();
+    appender.close();
+    employee = CatalogUtil.newTableDesc("default.employee", employeeSchema, employeeMeta, employeePath);
+    catalog.createTable(employee);
+
+    Schema peopleSchema = new Schema();
+    peopleSchema.addColumn("empid", Type.INT4);
+    peopleSchema.addColumn("fk_memid", Type.INT4);
+    peopleSchema.addColumn("name", Type.TEXT);
+    peopleSchema.addColumn("age", Type.INT4);
+    TableMeta peopleMeta = CatalogUtil.newTableMeta(StoreType.CSV);
+    Path peoplePath = new Path(testDir, "people.csv");
+    appender = ((FileStorageManager)StorageManager.getFileStorageManager(conf))
+        .getAppender(peopleMeta, peopleSchema, peoplePath);
+    appender.init();
+    tuple = new VTuple(peopleSchema.size());
+    for (int i = 1; i < EMPLOYEE_NUM; i += 2) {
+      tuple.put(new Datum[] { DatumFactory.createInt4(i),
+          DatumFactory.createInt4(10 + i),
+          DatumFactory.createText("name_" + i),
+          DatumFactory.createInt4(30 + i) });
+      appender.addTuple(tuple);
+    }
+
+    appender.flush();
+    appender.close();
+
+    people = CatalogUtil.newTableDesc("default.people", peopleSchema, peopleMeta, peoplePath);
+    catalog.createTable(people);
+    analyzer = new SQLAnalyzer();
+    planner = new LogicalPlanner(catalog);
+    defaultContext = LocalTajoTestingUtility.createDummyContext(conf);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    util.shutdownCatalogCluster();
+  }
+
+  String[] QUERIES = {
+      "select managerId, e.empId, deptName, e.memId from employee as e inner join " +
+          "people as p on e.empId = p.empId and e.memId = p.fk_memId"
+  };
+
+  private ProjectionExec createPlan(String testName)
+      throws IOException, PlanningException {
+    return createPlan(testName, QUERIES[0], employee, "default.e", people, "default.p");
+  }
+
+  private ProjectionExec createPlan(String testName, String query, TableDesc left, String leftName,
+                                    TableDesc right, String rightName) throws IOException, PlanningException {
+    Expr expr = analyzer.parse(query);
+    LogicalNode plan = planner.createPlan(defaultContext, expr).getRootBlock().getRoot();
+
+    JoinNode joinNode = PlannerUtil.findTopNode(plan, NodeType.JOIN);
+    Enforcer enforcer = new Enforcer();
+    enforcer.enforceJoinAlgorithm(joinNode.getPID(), JoinAlgorithm.HYBRID_HASH_JOIN);
+
+    FileFragment[] leftFrags = FileStorageManager.splitNG(conf, leftName, left.getMeta(),
+        new Path(left.getPath()), Integer.MAX_VALUE);
+    FileFragment[] rightFrags = FileStorageManager.splitNG(conf, rightName, right.getMeta(),
+        new Path(right.getPath()), Integer.MAX_VALUE);
+    FileFragment[] merged = TUtil.concat(leftFrags, rightFrags);
+
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY + "/" + testName);
+    TaskAttemptContext ctx = new TaskAttemptContext(new QueryContext(conf),
+        LocalTajoTestingUtility.newTaskAttemptId(), merged, workDir);
+    ctx.setEnforcer(enforcer);
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, plan);
+
+    ProjectionExec proj = (ProjectionExec) exec;
+    assertTrue(proj.getChild() instanceof HybridHashJoinExec);
+    return proj;
+  }
+
+  private static void assertJoinResult(PhysicalExec exec) throws IOException {
+    Tuple tuple;
+    Set<Integer> empIds = new HashSet<Integer>();
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      int i = tuple.get(1).asInt4();
+      assertEquals(1, i % 2);
+      assertEquals(i, tuple.get(0).asInt4());
+      assertEquals("dept_" + i, tuple.get(2).asChars());
+      assertEquals(10 + i, tuple.get(3).asInt4());
+      assertTrue(empIds.add(i));
+    }
+    assertEquals(EMPLOYEE_NUM / 2, empIds.size());
+  }
+
+  @Test
+  public final void testHybridHashInnerJoinInMemory() throws IOException, PlanningException {
+    ProjectionExec exec = createPlan("testHybridHashInnerJoinInMemory");
+    HybridHashJoinExec joinExec = exec.getChild();
+
+    assertJoinResult(exec);
+    assertEquals(0, joinExec.getSpilledPartitionNum());
+    exec.close();
+  }
+
+  @Test
+  public final void testHybridHashInnerJoinWithSpill() throws IOException, PlanningException {
+    ProjectionExec exec = createPlan("testHybridHashInnerJoinWithSpill");
+    HybridHashJoinExec joinExec = exec.getChild();
+    // small enough to spill partitions, but large enough for the hash tables of the next level
+    joinExec.setJoinBufferBytesNum(128 * 1024);
+
+    assertJoinResult(exec);
+    assertTrue(joinExec.getSpilledPartitionNum() > 0);
+    assertTrue(joinExec.getSpilledBytes() > 0);
+    exec.close();
+  }
+
+  private TableDesc createZeroKeyTable(String tableName, double zero, int rowNum) throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("x", Type.FLOAT8);
+    schema.addColumn("id", Type.INT4);
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    Path path = new Path(testDir, tableName);
+    Appender appender = ((FileStorageManager)StorageManager.getFileStorageManager(conf))
+        .getAppender(meta, schema, path);
+    appender.init();
+    Tuple tuple = new VTuple(schema.size());
+    for (int i = 0; i < rowNum; i++) {
+      tuple.put(new Datum[] { DatumFactory.createFloat8(zero), DatumFactory.createInt4(i) });
+      appender.addTuple(tuple);
+    }
+    appender.flush();
+    appender.close();
+
+    TableDesc desc = CatalogUtil.newTableDesc("default." + tableName, schema, meta, path);
+    catalog.createTable(desc);
+    return desc;
+  }
+
+  @Test
+  public final void testHybridHashInnerJoinWithNegativeZero() throws IOException, PlanningException {
+    int rowNum = 100;
+    TableDesc negativeZero = createZeroKeyTable("negative_zero", -0.0d, rowNum);
+    TableDesc positiveZero = createZeroKeyTable("positive_zero", 0.0d, rowNum);
+
+    // -0.0 equals 0.0, so each pair of keys must be hashed into the same partition
+    ProjectionExec exec = createPlan("testHybridHashInnerJoinWithNegativeZero",
+        "select n.id, p.id from negative_zero as n inner join positive_zero as p on n.x = p.x and n.id = p.id",
+        negativeZero, "default.n", positiveZero, "default.p");
+
+    Tuple tuple;
+    Set<Integer> ids = new HashSet<Integer>();
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      assertEquals(tuple.get(0).asInt4(), tuple.get(1).asInt4());
+      assertTrue(ids.add(tuple.get(0).asInt4()));
+    }
+    assertEquals(rowNum, ids.size());
+    exec.close();
+  }
+
+  @Test
+  public final void testHybridHashInnerJoinExceedingMaxDepth() throws IOException, PlanningException {
+    conf.setIntVar(TajoConf.ConfVars.EXECUTOR_HYBRID_HASH_JOIN_MAX_DEPTH, 0);
+    ProjectionExec exec = createPlan("testHybridHashInnerJoinExceedingMaxDepth");
+    HybridHashJoinExec joinExec = exec.getChild();
+    joinExec.setJoinBufferBytesNum(16 * 1024);
+
+    exec.init();
+    try {
+      exec.next();
+      fail("The build side cannot be partitioned any more");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("maximum recursion depth"));
+    } finally {
+      exec.close();
+    }
+    assertEquals(0, joinExec.getSpilledPartitionNum());
+  }
+}
@@ -0,0 +1,162 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class TestJoinHashTable {
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    schema.addColumn("score", Type.INT8);
+    return schema;
+  }
+
+  private static Tuple createTuple(int id, String name, long score) {
+    Tuple tuple = new VTuple(3);
+    tuple.put(0, DatumFactory.createInt4(id));
+    tuple.put(1, DatumFactory.createText(name));
+    tuple.put(2, DatumFactory.createInt8(score));
+    return tuple;
+  }
+
+  @Test
+  public final void testFind() {
+    Schema schema = createSchema();
+    int [] keyIds = new int[] {0, 1};
+    JoinHashTable table = new JoinHashTable(schema, keyIds);
+
+    final int KEY_NUM = 10000;
+    // each key has three rows, and there are more keys than the initial slots.
+    for (int j = 0; j < 3; j++) {
+      for (int i = 0; i < KEY_NUM; i++) {
+        table.add(createTuple(i, "name_" + i, (long) i * 10 + j));
+      }
+    }
+    // a null key is a distinct key, which is matched only to a null key.
+    Tuple nullKeyTuple = createTuple(0, "name_0", 0);
+    nullKeyTuple.put(1, NullDatum.get());
+    table.add(nullKeyTuple);
+
+    assertEquals(KEY_NUM * 3 + 1, table.rowNum());
+    assertEquals(KEY_NUM + 1, table.keyNum());
+
+    JoinHashTable.RowIterator iterator = new JoinHashTable.RowIterator();
+    for (int i = 0; i < KEY_NUM; i++) {
+      assertTrue(table.find(createTuple(i, "name_" + i, -1), keyIds, iterator));
+      for (int j = 0; j < 3; j++) { // rows are returned in the inserted order
+        assertTrue(iterator.hasNext());
+        Tuple row = iterator.next();
+        assertEquals(i, row.getInt4(0));
+        assertEquals("name_" + i, row.getText(1));
+        assertEquals((long) i * 10 + j, row.get(2).asInt8());
+      }
+      assertFalse(iterator.hasNext());
+    }
+
+    assertFalse(table.find(createTuple(1, "name_2", -1), keyIds, iterator));
+    assertFalse(iterator.hasNext());
+    assertTrue(table.find(nullKeyTuple, keyIds, iterator));
+    assertTrue(iterator.hasNext());
+    assertTrue(iterator.next().isNull(1));
+    assertFalse(iterator.hasNext());
+    nullKeyTuple.put(0, DatumFactory.createInt4(1));
+    assertFalse(table.find(nullKeyTuple, keyIds, iterator));
+
+    table.release();
+  }
+
+  @Test
+  public final void testRows() {
+    Schema schema = createSchema();
+    int [] keyIds = new int[] {0};
+    // a small initial table is grown by rows
+    JoinHashTable table = new JoinHashTable(schema, keyIds, 1024, 4);
+    try {
+      for (int i = 0; i < 100; i++) {
+        table.add(createTuple(i % 10, "name_" + i, i));
+      }
+
+      Iterator<Tuple> rows = table.rows();
+      for (int i = 0; i < 100; i++) { // rows are returned in the inserted order
+        assertTrue(rows.hasNext());
+        Tuple row = rows.next();
+        assertEquals(i % 10, row.getInt4(0));
+        assertEquals("name_" + i, row.getText(1));
+      }
+      assertFalse(rows.hasNext());
+      assertEquals(10, table.keyNum());
+    } finally {
+      table.release();
+    }
+  }
+
+  @Test
+  public final void testFloatKeys() {
+    Schema schema = new Schema();
+    schema.addColumn("f4", Type.FLOAT4);
+    schema.addColumn("f8", Type.FLOAT8);
+    int [] keyIds = new int[] {0, 1};
+    JoinHashTable table = new JoinHashTable(schema, keyIds);
+
+    Tuple tuple = new VTuple(2);
+    tuple.put(0, DatumFactory.createFloat4(-0.0f));
+    tuple.put(1, DatumFactory.createFloat8(-0.0d));
+    table.add(tuple);
+
+    // -0.0 matches 0.0 as Float4Datum and Float8Datum are equal
+    JoinHashTable.RowIterator iterator = new JoinHashTable.RowIterator();
+    Tuple probe = new VTuple(2);
+    probe.put(0, DatumFactory.createFloat4(0.0f));
+    probe.put(1, DatumFactory.createFloat8(0.0d));
+    assertTrue(table.find(probe, keyIds, iterator));
+    assertEquals(1, table.keyNum());
+
+    probe.put(1, DatumFactory.createFloat8(0.5d));
+    assertFalse(table.find(probe, keyIds, iterator));
+
+    table.release();
+  }
+
+  @Test
+  public final void testIsSupported() {
+    Schema schema = createSchema();
+    assertTrue(JoinHashTable.isSupported(schema, new int[] {0}, schema, new int[] {0}));
+    // different key types
+    assertFalse(JoinHashTable.isSupported(schema, new int[] {0}, schema, new int[] {2}));
+    // no join key
+    assertFalse(JoinHashTable.isSupported(schema, new int[] {}, schema, new int[] {}));
+
+    Schema blobSchema = createSchema();
+    blobSchema.addColumn("image", Type.BLOB);
+    assertFalse(JoinHashTable.isSupported(blobSchema, new int[] {0}, schema, new int[] {0}));
+  }
+}
@@ -0,0 +1,207 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.engine.planner.physical;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.IntervalDatum;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.util.SizeOf;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class TestOffHeapSortBuffer {
+  private static final Random rnd = new Random(-1);
+  private static final int ROW_NUM = 50000;
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    schema.addColumn("score", Type.FLOAT8);
+    return schema;
+  }
+
+  private static List<Tuple> createTuples() {
+    List<Tuple> tuples = new ArrayList<Tuple>(ROW_NUM);
+    for (int i = 0; i < ROW_NUM; i++) {
+      Tuple tuple = new VTuple(3);
+      tuple.put(0, rnd.nextInt(50) == 0 ? NullDatum.get() : DatumFactory.createInt4(rnd.nextInt(1000)));
+      tuple.put(1, DatumFactory.createText("name_" + rnd.nextInt(100)));
+      tuple.put(2, DatumFactory.createFloat8(i)); // makes the order deterministic
+      tuples.add(tuple);
+    }
+    return tuples;
+  }
+
+  private static void assertSorted(List<Tuple> expected, OffHeapSortBuffer buffer) {
+    assertEquals(expected.size(), buffer.rows());
+    int i = 0;
+    for (Tuple tuple : buffer.rowsInOrder()) {
+      Tuple expectedTuple = expected.get(i++);
+      assertEquals(expectedTuple.get(0), tuple.get(0));
+      assertEquals(expectedTuple.get(1), tuple.get(1));
+      assertEquals(expectedTuple.get(2), tuple.get(2));
+    }
+    assertEquals(expected.size(), i);
+  }
+
+  @Test
+  public final void testSort() throws Exception {
+    Schema schema = createSchema();
+    SortSpec [] sortSpecs = new SortSpec[] {
+        new SortSpec(schema.getColumn("id"), false, true),
+        new SortSpec(schema.getColumn("name"), true, false),
+        new SortSpec(schema.getColumn("score"), true, false)};
+
+    List<Tuple> tuples = createTuples();
+    OffHeapSortBuffer buffer = new OffHeapSortBuffer(schema, sortSpecs, 1024);
+    try {
+      for (Tuple tuple : tuples) {
+        buffer.add(tuple);
+      }
+      assertTrue(buffer.usedMemory() > (long) ROW_NUM * SizeOf.SIZE_OF_INT);
+      assertTrue(buffer.allocatedMemory() >= buffer.usedMemory());
+      long usedMemory = buffer.usedMemory();
+
+      Collections.sort(tuples, new BaseTupleComparator(schema, sortSpecs));
+      buffer.sort();
+      assertSorted(tuples, buffer);
+
+      buffer.clear();
+      assertTrue(buffer.isEmpty());
+      // only the index array is kept for the next rows
+      assertTrue(buffer.usedMemory() >= (long) ROW_NUM * SizeOf.SIZE_OF_INT);
+      assertTrue(buffer.usedMemory() < usedMemory);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  @Test
+  public final void testSortInParallel() throws Exception {
+    Schema schema = createSchema();
+    SortSpec [] sortSpecs = new SortSpec[] {
+        new SortSpec(schema.getColumn("name"), false, false),
+        new SortSpec(schema.getColumn("id"), true, false),
+        new SortSpec(schema.getColumn("score"), true, false)};
+
+    List<Tuple> tuples = createTuples();
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    OffHeapSortBuffer buffer = new OffHeapSortBuffer(schema, sortSpecs, 1024);
+    try {
+      for (Tuple tuple : tuples) {
+        buffer.add(tuple);
+      }
+
+      Collections.sort(tuples, new BaseTupleComparator(schema, sortSpecs));
+      // an odd number of slices leaves an unpaired run in merge rounds
+      buffer.sortInParallel(executor, 3);
+      assertSorted(tuples, buffer);
+    } finally {
+      buffer.release();
+      executor.shutdown();
+    }
+  }
+
+  private static Datum nullOr(Datum datum) {
+    return rnd.nextInt(10) == 0 ? NullDatum.get() : datum;
+  }
+
+  @Test
+  public final void testSortAllKeyTypes() throws Exception {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.BOOLEAN);
+    schema.addColumn("col2", Type.INT2);
+    schema.addColumn("col3", Type.INT8);
+    schema.addColumn("col4", Type.FLOAT4);
+    schema.addColumn("col5", Type.DATE);
+    schema.addColumn("col6", Type.TIMESTAMP);
+    schema.addColumn("col7", Type.INET4);
+    schema.addColumn("col8", Type.INTERVAL);
+    schema.addColumn("col9", Type.TEXT);
+
+    List<Tuple> tuples = new ArrayList<Tuple>(ROW_NUM);
+    for (int i = 0; i < ROW_NUM; i++) {
+      Tuple tuple = new VTuple(schema.size());
+      // small domains make ties on leading keys, so that all keys are compared
+      tuple.put(0, nullOr(DatumFactory.createBool(rnd.nextBoolean())));
+      tuple.put(1, nullOr(DatumFactory.createInt2((short) (rnd.nextInt(5) - 2))));
+      tuple.put(2, nullOr(DatumFactory.createInt8(rnd.nextInt(5) - 2L)));
+      tuple.put(3, nullOr(DatumFactory.createFloat4(rnd.nextInt(5) - 2.5f)));
+      tuple.put(4, nullOr(DatumFactory.createDate(rnd.nextInt(3))));
+      tuple.put(5, nullOr(DatumFactory.createTimestamp(rnd.nextInt(3) - 1L)));
+      // addresses in the upper half are negative integers
+      tuple.put(6, nullOr(DatumFactory.createInet4(rnd.nextInt(3) * Integer.MAX_VALUE)));
+      tuple.put(7, nullOr(DatumFactory.createInterval(rnd.nextInt(3), rnd.nextInt(3) * IntervalDatum.DAY_MILLIS)));
+      tuple.put(8, nullOr(DatumFactory.createText("name_" + rnd.nextInt(1000))));
+      tuples.add(tuple);
+    }
+
+    SortSpec [] sortSpecs = new SortSpec[schema.size()];
+    for (int i = 0; i < schema.size(); i++) {
+      sortSpecs[i] = new SortSpec(schema.getColumn(i), i % 2 == 0, i % 3 == 0);
+    }
+
+    OffHeapSortBuffer buffer = new OffHeapSortBuffer(schema, sortSpecs, 1024);
+    try {
+      for (Tuple tuple : tuples) {
+        buffer.add(tuple);
+      }
+      buffer.sort();
+
+      BaseTupleComparator comparator = new BaseTupleComparator(schema, sortSpecs);
+      Tuple prev = null;
+      int rows = 0;
+      for (Tuple tuple : buffer.rowsInOrder()) {
+        Tuple current = new VTuple(tuple);
+        if (prev != null) {
+          assertTrue(comparator.compare(prev, current) <= 0);
+        }
+        prev = current;
+        rows++;
+      }
+      assertEquals(ROW_NUM, rows);
+    } finally {
+      buffer.release();
+    }
+  }
+
+  @Test
+  public final void testIsSupported() {
+    Schema schema = createSchema();
+    assertTrue(OffHeapSortBuffer.isSupported(schema));
+    schema.addColumn("image", Type.BLOB);
+    assertFalse(OffHeapSortBuffer.isSupported(schema));
+  }
+}
@@ -326,6 +326,80 @@ public class TestPhysicalPlanner {
     assertEquals(10, i);
   }
 
+  @Test
+  public final void testGroupByPlanInBatchMode() throws IOException, PlanningException {
+    FileFragment[] frags = FileStorageManager.splitNG(conf, "default.score", score.getMeta(), new Path(score.getPath()),
+        Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY +
+        "/testGroupByPlanInBatchMode");
+    QueryContext queryContext = new QueryContext(conf);
+    queryContext.setBool(SessionVars.VECTORIZED_EXECUTION_ENABLED, true);
+    // a batch size which does not divide the number of rows
+    queryContext.setInt(SessionVars.VECTORIZED_BATCH_SIZE, 7);
+    TaskAttemptContext ctx = new TaskAttemptContext(queryContext,
+        LocalTajoTestingUtility.newTaskAttemptId(masterPlan),
+        new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr context = analyzer.parse(QUERIES[7]);
+    LogicalPlan plan = planner.createPlan(defaultContext, context);
+    optimizer.optimize(plan);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+    assertNotNull(PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class));
+
+    int i = 0;
+    Tuple tuple;
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      assertEquals(6, tuple.get(2).asInt4()); // sum
+      assertEquals(3, tuple.get(3).asInt4()); // max
+      assertEquals(1, tuple.get(4).asInt4()); // min
+      i++;
+    }
+    exec.close();
+    assertEquals(10, i);
+  }
+
+  @Test
+  public final void testGroupByPlanWithSpill() throws IOException, PlanningException {
+    FileFragment[] frags = FileStorageManager.splitNG(conf, "default.score", score.getMeta(), new Path(score.getPath()),
+        Integer.MAX_VALUE);
+    Path workDir = CommonTestingUtil.getTestDir(TajoTestingCluster.DEFAULT_TEST_DIRECTORY +
+        "/testGroupByPlanWithSpill");
+    TaskAttemptContext ctx = new TaskAttemptContext(new QueryContext(conf),
+        LocalTajoTestingUtility.newTaskAttemptId(masterPlan),
+        new FileFragment[] { frags[0] }, workDir);
+    ctx.setEnforcer(new Enforcer());
+    Expr context = analyzer.parse(QUERIES[7]);
+    LogicalPlan plan = planner.createPlan(defaultContext, context);
+    optimizer.optimize(plan);
+    LogicalNode rootNode = plan.getRootBlock().getRoot();
+
+    PhysicalPlanner phyPlanner = new PhysicalPlannerImpl(conf);
+    PhysicalExec exec = phyPlanner.createPlan(ctx, rootNode);
+    HashAggregateExec aggExec = PhysicalPlanUtil.findExecutor(exec, HashAggregateExec.class);
+    assertNotNull(aggExec);
+    // every new group makes the hash table spilled.
+    aggExec.setHashBufferBytesNum(1);
+
+    int i = 0;
+    Tuple tuple;
+    exec.init();
+    while ((tuple = exec.next()) != null) {
+      assertEquals(6, tuple.get(2).asInt4()); // sum
+      assertEquals(3, tuple.get(3).asInt4()); // max
+      assertEquals(1, tuple.get(4).asInt4()); // min
+      i++;
+    }
+    assertTrue(aggExec.getNumSpills() > 0);
+    assertTrue(aggExec.getSpillBytes() > 0);
+    exec.close();
+    assertEquals(10, i);
+    assertEquals(aggExec.getNumSpills(), aggExec.getInputStats().getNumSpills().intValue());
+  }
+
   @Test
   public final void testHashGroupByPlanWithALLField() throws IOException, PlanningException {
     // TODO - currently, this query does not use hash-based group operator.
@@ -28,7 +28,9 @@ import org.apache.tajo.catalog.SortSpec;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.storage.BaseTupleComparator;
+import org.apache.tajo.storage.NormalizedKeyEncoder;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
 import org.junit.Test;
@@ -42,6 +44,7 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
 
 public class TestTupleSorter {
 
@@ -129,4 +132,38 @@ public class TestTupleSorter {
       assertArrayEquals(result1, result2);
     }
   }
+
+  @Test
+  public final void testNormalizedKeySorter() {
+    final int LENGTH = 100000;
+
+    Schema schema = new Schema(new Column[] {
+        new Column("col0", Type.INT4), new Column("col1", Type.TEXT), new Column("col2", Type.FLOAT8)});
+
+    Tuple[] tuples = new Tuple[LENGTH];
+    for (int i = 0; i < LENGTH; i++) {
+      tuples[i] = new VTuple(new Datum[]{
+          rnd.nextInt(100) == 0 ? NullDatum.get() : DatumFactory.createInt4(rnd.nextInt(100) - 50),
+          DatumFactory.createText("dept_" + rnd.nextInt(100)),
+          DatumFactory.createFloat8(rnd.nextGaussian())});
+    }
+
+    for (int option = 0; option < 4; option++) {
+      SortSpec[] sortKeys = new SortSpec[] {
+          new SortSpec(schema.getColumn(0), option / 2 == 0, option % 2 == 0),
+          new SortSpec(schema.getColumn(1), option % 2 == 0, true),
+          new SortSpec(schema.getColumn(2), true, false)};
+
+      List<Tuple> expected = Arrays.asList(Arrays.copyOf(tuples, tuples.length));
+      Collections.sort(expected, new BaseTupleComparator(schema, sortKeys));
+
+      NormalizedKeySorter sorter = new NormalizedKeySorter(
+          Arrays.asList(Arrays.copyOf(tuples, tuples.length)), new NormalizedKeyEncoder(schema, sortKeys));
+      Iterator<Tuple> iterator = sorter.sort().iterator();
+      for (Tuple tuple : expected) {
+        // every row has a distinct float value, so the sorted order is deterministic.
+        assertSame(tuple, iterator.next());
+      }
+    }
+  }
 }
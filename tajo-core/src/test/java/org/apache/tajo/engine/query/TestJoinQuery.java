@@ -19,14 +19,24 @@
 package org.apache.tajo.engine.query;
 
 import org.apache.tajo.IntegrationTest;
+import org.apache.tajo.QueryId;
 import org.apache.tajo.QueryTestCaseBase;
+import org.apache.tajo.SessionVars;
 import org.apache.tajo.TajoConstants;
 import org.apache.tajo.TajoTestingCluster;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.jdbc.FetchResultSet;
+import org.apache.tajo.jdbc.TajoMemoryResultSet;
+import org.apache.tajo.plan.logical.NodeType;
+import org.apache.tajo.plan.util.PlannerUtil;
+import org.apache.tajo.querymaster.QueryMasterTask;
+import org.apache.tajo.querymaster.Stage;
 import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.util.KeyValueSet;
+import org.apache.tajo.util.TUtil;
+import org.apache.tajo.worker.TajoWorker;
 import org.junit.AfterClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
@@ -39,8 +49,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 @Category(IntegrationTest.class)
 @RunWith(Parameterized.class)
@@ -1191,4 +1202,119 @@ public class TestJoinQuery extends QueryTestCaseBase {
     assertResultSet(res);
     cleanupQuery(res);
   }
+
+  private int getJoinTaskNum(ResultSet res) {
+    QueryId queryId;
+    if (res instanceof TajoMemoryResultSet) {
+      queryId = ((TajoMemoryResultSet) res).getQueryId();
+    } else {
+      queryId = ((FetchResultSet) res).getQueryId();
+    }
+
+    for (TajoWorker eachWorker : testingCluster.getTajoWorkers()) {
+      QueryMasterTask queryMasterTask = eachWorker.getWorkerContext().getQueryMaster().getQueryMasterTask(queryId, true);
+      if (queryMasterTask != null) {
+        for (Stage stage : queryMasterTask.getQuery().getStages()) {
+          if (PlannerUtil.findTopNode(stage.getBlock().getPlan(), NodeType.JOIN) != null) {
+            return stage.getTotalScheduledObjectsCount();
+          }
+        }
+        fail("Can't find a join stage of " + queryId);
+      }
+    }
+
+    fail("Can't find query from workers" + queryId);
+    return -1;
+  }
+
+  @Test
+  public final void testJoinWithSkewedKey() throws Exception {
+    KeyValueSet tableOptions = new KeyValueSet();
+    tableOptions.set(StorageConstants.TEXT_DELIMITER, StorageConstants.DEFAULT_FIELD_DELIMITER);
+    tableOptions.set(StorageConstants.TEXT_NULL, "\\\\N");
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+
+    // key 1 takes about 4MB, and each of the other keys has a single row
+    List<String> data = new ArrayList<String>();
+    int bytes = 0;
+    int skewedRows = 0;
+    while (bytes < 4 * 1024 * 1024) {
+      String row = "1|" + skewedRows + "name012345678901234567890123456789012345678901234567890";
+      bytes += row.getBytes().length;
+      data.add(row);
+      skewedRows++;
+    }
+    for (int i = 2; i <= 1000; i++) {
+      data.add(i + "|" + i + "name012345678901234567890123456789012345678901234567890");
+    }
+    TajoTestingCluster.createTable("skewed_table", schema, tableOptions, data.toArray(new String[]{}), 3);
+
+    // key 0 does not match any row of skewed_table
+    List<String> dimData = new ArrayList<String>();
+    for (int i = 0; i <= 10; i++) {
+      dimData.add(i + "|dim" + i);
+    }
+    TajoTestingCluster.createTable("skewed_dim", schema, tableOptions, dimData.toArray(new String[]{}));
+
+    // skewed join partitions are split only in repartition joins, and only by pages
+    testingCluster.setAllTajoDaemonConfValue(ConfVars.$TEST_BROADCAST_JOIN_ENABLED.varname, "false");
+    testingCluster.setAllTajoDaemonConfValue(ConfVars.$DIST_QUERY_BROADCAST_JOIN_THRESHOLD.varname, "-1");
+    testingCluster.setAllTajoDaemonConfValue(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME.varname, "1");
+
+    Map<String, String> variables = TUtil.newHashMap(SessionVars.JOIN_PER_SHUFFLE_SIZE.keyname(), "1");
+    variables.put(SessionVars.JOIN_TASK_INPUT_SIZE.keyname(), "1");
+    client.updateSessionVariables(variables);
+
+    // <query, whether the skewed side can be split>
+    Object [][] queries = new Object[][] {
+        {"select a.id, count(*) as cnt from skewed_table a join skewed_dim b on a.id = b.id " +
+            "group by a.id order by a.id", true},
+        {"select a.id, count(*) as cnt, count(b.id) as matched from skewed_table a " +
+            "left outer join skewed_dim b on a.id = b.id group by a.id order by a.id", true},
+        {"select b.id, count(*) as cnt, count(a.id) as matched from skewed_dim a " +
+            "right outer join skewed_table b on a.id = b.id group by b.id order by b.id", true},
+        {"select a.id, count(*) as cnt, count(b.id) as matched from skewed_table a " +
+            "right outer join skewed_dim b on a.id = b.id group by a.id order by a.id", false},
+        {"select a.id, b.id, count(*) as cnt from skewed_table a " +
+            "full outer join skewed_dim b on a.id = b.id group by a.id, b.id order by a.id, b.id", false}
+    };
+
+    try {
+      for (Object [] query : queries) {
+        client.updateSessionVariables(TUtil.newHashMap(SessionVars.JOIN_SKEW_ENABLED.keyname(), "false"));
+        ResultSet res = executeString((String) query[0]);
+        String expected = resultSetToString(res);
+        int taskNum = getJoinTaskNum(res);
+        cleanupQuery(res);
+
+        client.updateSessionVariables(TUtil.newHashMap(SessionVars.JOIN_SKEW_ENABLED.keyname(), "true"));
+        res = executeString((String) query[0]);
+        try {
+          assertEquals((String) query[0], expected, resultSetToString(res));
+          if ((Boolean) query[1]) {
+            assertTrue((String) query[0], getJoinTaskNum(res) > taskNum);
+          }
+        } finally {
+          cleanupQuery(res);
+        }
+      }
+
+      ResultSet res = executeString((String) queries[0][0]);
+      try {
+        assertTrue(resultSetToString(res).contains("\n1," + skewedRows + "\n"));
+      } finally {
+        cleanupQuery(res);
+      }
+    } finally {
+      client.unsetSessionVariables(TUtil.newList(SessionVars.JOIN_PER_SHUFFLE_SIZE.keyname(),
+          SessionVars.JOIN_TASK_INPUT_SIZE.keyname(), SessionVars.JOIN_SKEW_ENABLED.keyname()));
+      testingCluster.setAllTajoDaemonConfValue(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME.varname,
+          ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME.defaultVal);
+      executeString("DROP TABLE skewed_table PURGE").close();
+      executeString("DROP TABLE skewed_dim PURGE").close();
+    }
+  }
 }
@@ -491,6 +491,141 @@ public class TestRepartitioner {
     assertNotEquals(expected, fetch2);
   }
 
+  @Test
+  public void testPushedFetchImpl() {
+    ExecutionBlockId ebId = new ExecutionBlockId(LocalTajoTestingUtility.newQueryId(), 0);
+    Task.PullHost pullHost = new Task.PullHost("localhost", 1234);
+
+    FetchImpl pulled = new FetchImpl(pullHost, HASH_SHUFFLE, ebId, 1);
+    FetchImpl pushed = new FetchImpl(pullHost, HASH_SHUFFLE, ebId, 1);
+    pushed.setPushed(true);
+    assertNotEquals(pulled, pushed);
+    assertEquals(pushed, new FetchImpl(pushed.getProto()));
+
+    QueryStringDecoder pulledDecoder = new QueryStringDecoder(pulled.getSimpleURIs().get(0));
+    assertEquals("h", pulledDecoder.parameters().get("type").get(0));
+    QueryStringDecoder pushedDecoder = new QueryStringDecoder(pushed.getSimpleURIs().get(0));
+    assertEquals("p", pushedDecoder.parameters().get("type").get(0));
+  }
+
+  private static IntermediateEntry newPushedEntry(ExecutionBlockId ebId, Task.PullHost owner, long... pages) {
+    IntermediateEntry entry = new IntermediateEntry(-1, -1, 1, owner);
+    entry.setEbId(ebId);
+    entry.setPushed(true);
+    List<Pair<Long, Integer>> pageList = new ArrayList<Pair<Long, Integer>>();
+    for (int i = 0; i < pages.length; i += 2) {
+      pageList.add(new Pair<Long, Integer>(pages[i], (int) pages[i + 1]));
+    }
+    entry.setPages(pageList);
+    return entry;
+  }
+
+  @Test
+  public void testCreatePushedFetches() {
+    ExecutionBlockId ebId = new ExecutionBlockId(LocalTajoTestingUtility.newQueryId(), 0);
+    Task.PullHost owner1 = new Task.PullHost("host1", 1234);
+    Task.PullHost owner2 = new Task.PullHost("host2", 1234);
+
+    // [150, 300) of the owner1's file has pages of a failed push, which are not reported
+    List<IntermediateEntry> entries = TUtil.newList(
+        newPushedEntry(ebId, owner1, 300, 80),
+        newPushedEntry(ebId, owner1, 0, 100, 100, 50),
+        newPushedEntry(ebId, owner2, 0, 70),
+        newPushedEntry(ebId, owner1, 380, 20));
+
+    List<FetchImpl> fetches = Repartitioner.createPushedFetches(1, HASH_SHUFFLE, entries);
+    assertEquals(3, fetches.size());
+
+    Map<String, List<Pair<Long, Long>>> ranges = new HashMap<String, List<Pair<Long, Long>>>();
+    for (FetchImpl fetch : fetches) {
+      assertTrue(fetch.isPushed());
+      QueryStringDecoder decoder = new QueryStringDecoder(fetch.getSimpleURIs().get(0));
+      assertEquals("p", decoder.parameters().get("type").get(0));
+      assertEquals(String.valueOf(fetch.getOffset()), decoder.parameters().get("offset").get(0));
+      assertEquals(String.valueOf(fetch.getLength()), decoder.parameters().get("length").get(0));
+
+      String host = fetch.getPullHost().getHost();
+      if (!ranges.containsKey(host)) {
+        ranges.put(host, new ArrayList<Pair<Long, Long>>());
+      }
+      ranges.get(host).add(new Pair<Long, Long>(fetch.getOffset(), fetch.getLength()));
+    }
+
+    // adjacent pages are fetched together
+    List<Pair<Long, Long>> owner1Ranges = ranges.get("host1");
+    Collections.sort(owner1Ranges, new Comparator<Pair<Long, Long>>() {
+      @Override
+      public int compare(Pair<Long, Long> o1, Pair<Long, Long> o2) {
+        return o1.getFirst().compareTo(o2.getFirst());
+      }
+    });
+    assertEquals(TUtil.newList(new Pair<Long, Long>(0L, 150L), new Pair<Long, Long>(300L, 100L)), owner1Ranges);
+    assertEquals(TUtil.newList(new Pair<Long, Long>(0L, 70L)), ranges.get("host2"));
+  }
+
+  @Test
+  public void testCoalescePartitions() {
+    SortedMap<Integer, Long> partitionVolumes = new TreeMap<Integer, Long>();
+    long [] volumes = {10, 20, 30, 150, 5, 5, 90, 100, 1};
+    for (int i = 0; i < volumes.length; i++) {
+      partitionVolumes.put(i, volumes[i]);
+    }
+
+    List<List<Integer>> groups = Repartitioner.coalescePartitions(partitionVolumes, 100);
+    assertEquals(5, groups.size());
+    assertEquals(TUtil.newList(0, 1, 2), groups.get(0));
+    // an oversized partition is not merged with others
+    assertEquals(TUtil.newList(3), groups.get(1));
+    assertEquals(TUtil.newList(4, 5, 6), groups.get(2));
+    assertEquals(TUtil.newList(7), groups.get(3));
+    assertEquals(TUtil.newList(8), groups.get(4));
+  }
+
+  @Test
+  public void testFindSkewedPartitions() {
+    Map<Integer, Long> partitionVolumes = new HashMap<Integer, Long>();
+    long [] volumes = {100, 120, 90, 110, 5000, 130, 400};
+    for (int i = 0; i < volumes.length; i++) {
+      partitionVolumes.put(i, volumes[i]);
+    }
+
+    // the median is 120
+    assertEquals(Sets.newHashSet(4, 6), Repartitioner.findSkewedPartitions(partitionVolumes, 2, 0));
+    assertEquals(Sets.newHashSet(4), Repartitioner.findSkewedPartitions(partitionVolumes, 4, 0));
+    // a partition smaller than the minimum volume is not skewed
+    assertEquals(Sets.newHashSet(4), Repartitioner.findSkewedPartitions(partitionVolumes, 2, 1000));
+    assertTrue(Repartitioner.findSkewedPartitions(partitionVolumes, 2, 10000).isEmpty());
+    assertTrue(Repartitioner.findSkewedPartitions(new HashMap<Integer, Long>(), 2, 0).isEmpty());
+  }
+
+  @Test
+  public void testSplitHashShuffleIntermediates() {
+    ExecutionBlockId ebId = new ExecutionBlockId(LocalTajoTestingUtility.newQueryId(), 0);
+    List<IntermediateEntry> entries = new ArrayList<IntermediateEntry>();
+    for (int i = 0; i < 2; i++) {
+      IntermediateEntry entry = new IntermediateEntry(-1, -1, 1, new Task.PullHost("host" + i, 1234));
+      List<Pair<Long, Integer>> pages = new ArrayList<Pair<Long, Integer>>();
+      for (int j = 0; j < 10; j++) {
+        pages.add(new Pair<Long, Integer>(j * 10L, 10));
+      }
+      entry.setPages(pages);
+      entry.setVolume(100);
+      entries.add(entry);
+    }
+
+    List<List<FetchImpl>> fetches = Repartitioner.splitOrMergeIntermediates(ebId, entries, 50, 10, HASH_SHUFFLE);
+    assertEquals(5, fetches.size());
+    long totalLength = 0;
+    for (List<FetchImpl> eachFetches : fetches) {
+      for (FetchImpl fetch : eachFetches) {
+        assertEquals(HASH_SHUFFLE, fetch.getType());
+        assertEquals(1, fetch.getPartitionId());
+        totalLength += fetch.getLength();
+      }
+    }
+    assertEquals(200, totalLength);
+  }
+
   private static void assertFetchImpl(FetchImpl [] expected, Map<String, List<FetchImpl>>[] result) {
     Set<FetchImpl> expectedURLs = Sets.newHashSet();
 
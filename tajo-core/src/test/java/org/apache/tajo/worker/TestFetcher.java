@@ -18,23 +18,42 @@
 
 package org.apache.tajo.worker;
 
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.fs.*;
+import org.apache.tajo.ExecutionBlockId;
 import org.apache.tajo.QueryId;
 import org.apache.tajo.QueryIdFactory;
 import org.apache.tajo.TajoProtos;
 import org.apache.tajo.TajoTestingCluster;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
 import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.engine.utils.TupleUtil;
+import org.apache.tajo.plan.util.PlannerUtil;
 import org.apache.tajo.pullserver.TajoPullServerService;
 import org.apache.tajo.pullserver.retriever.FileChunk;
-import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.storage.index.bst.BSTIndex;
 import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.hadoop.io.compress.DefaultCodec;
 import org.junit.*;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.zip.CRC32;
 
 import static org.junit.Assert.*;
 
@@ -102,6 +121,343 @@ public class TestFetcher {
     assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
   }
 
+  @Test
+  public void testResumeWithPageChecksums() throws IOException {
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    String partId = "2";
+
+    int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), conf);
+    String dataPath = conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) +
+        queryId.toString() + "/output/" + sid + "/hash-shuffle/" + partParentId + "/" + partId;
+    String params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, partId, "h");
+
+    byte [][] pages = new byte[2][1000];
+    Random rnd = new Random();
+    rnd.nextBytes(pages[0]);
+    rnd.nextBytes(pages[1]);
+
+    Path inputPath = new Path(dataPath);
+    FSDataOutputStream stream = FileSystem.getLocal(conf).create(inputPath, true);
+    stream.write(pages[0]);
+    stream.write(pages[1]);
+    stream.close();
+
+    // the checksum of the second page is wrong, so only the first page is kept
+    File dataFile = new File(dataPath);
+    ShufflePageChecksums.append(dataFile, 0, pages[0].length, getChecksum(pages[0]));
+    ShufflePageChecksums.append(dataFile, pages[0].length, pages[1].length, getChecksum(pages[0]));
+
+    URI uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+    File outFile = new File(OUTPUT_DIR + "resumed");
+    FileChunk storeChunk = new FileChunk(outFile, 0, 0);
+    storeChunk.setFromRemote(true);
+    Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+    fetcher.get();
+    assertEquals(TajoProtos.FetcherState.FETCH_FAILED, fetcher.getState());
+    assertEquals(pages[0].length, fetcher.getResumeOffset());
+    assertEquals(pages[0].length, outFile.length());
+
+    // the next fetch receives only the second page
+    assertTrue(ShufflePageChecksums.getChecksumFile(dataFile).delete());
+    ShufflePageChecksums.append(dataFile, 0, pages[0].length, getChecksum(pages[0]));
+    ShufflePageChecksums.append(dataFile, pages[0].length, pages[1].length, getChecksum(pages[1]));
+    fetcher.get();
+    assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+    assertEquals(0, fetcher.getResumeOffset());
+
+    byte [] fetched = FileUtils.readFileToByteArray(outFile);
+    assertEquals(pages[0].length + pages[1].length, fetched.length);
+    assertArrayEquals(pages[0], Arrays.copyOfRange(fetched, 0, pages[0].length));
+    assertArrayEquals(pages[1], Arrays.copyOfRange(fetched, pages[0].length, fetched.length));
+  }
+
+  @Test
+  public void testFetchPushedPages() throws IOException {
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.NULL_QUERY_ID, 1);
+    int partId = 3;
+    HashShuffleAppenderManager manager = new HashShuffleAppenderManager(conf);
+
+    byte [][] pages = new byte[4][];
+    Random rnd = new Random();
+    for (int i = 0; i < pages.length; i++) {
+      pages[i] = new byte[1000 + i * 100];
+      rnd.nextBytes(pages[i]);
+    }
+
+    // pages of two workers, and the pages of a failed push between them which are not reported
+    long first = manager.appendPushedPages(ebId, partId,
+        Lists.newArrayList(ByteBuffer.wrap(pages[0]), ByteBuffer.wrap(pages[1])));
+    long failed = manager.appendPushedPages(ebId, partId, Lists.newArrayList(ByteBuffer.wrap(pages[2])));
+    long second = manager.appendPushedPages(ebId, partId, Lists.newArrayList(ByteBuffer.wrap(pages[3])));
+    assertEquals(0, first);
+    assertEquals(pages[0].length + pages[1].length, failed);
+    assertEquals(failed + pages[2].length, second);
+
+    String params = String.format("qid=%s&sid=%s&p=%s&type=%s", ebId.getQueryId(), ebId.getId(), partId, "p");
+    String baseUrl = "http://127.0.0.1:" + pullServerService.getPort() + "/?" + params;
+
+    // only the reported pages are served
+    URI uri = URI.create(baseUrl + "&offset=" + first + "&length=" + (pages[0].length + pages[1].length));
+    File outFile = new File(OUTPUT_DIR + "pushed_0");
+    FileChunk storeChunk = new FileChunk(outFile, 0, 0);
+    storeChunk.setFromRemote(true);
+    Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+    fetcher.get();
+    assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+    byte [] fetched = FileUtils.readFileToByteArray(outFile);
+    assertEquals(pages[0].length + pages[1].length, fetched.length);
+    assertArrayEquals(pages[0], Arrays.copyOfRange(fetched, 0, pages[0].length));
+    assertArrayEquals(pages[1], Arrays.copyOfRange(fetched, pages[0].length, fetched.length));
+
+    uri = URI.create(baseUrl + "&offset=" + second + "&length=" + pages[3].length);
+    outFile = new File(OUTPUT_DIR + "pushed_1");
+    storeChunk = new FileChunk(outFile, 0, 0);
+    storeChunk.setFromRemote(true);
+    fetcher = new Fetcher(conf, uri, storeChunk);
+    fetcher.get();
+    assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+    assertArrayEquals(pages[3], FileUtils.readFileToByteArray(outFile));
+
+    // the whole consolidated file is never served
+    outFile = new File(OUTPUT_DIR + "pushed_all");
+    storeChunk = new FileChunk(outFile, 0, 0);
+    storeChunk.setFromRemote(true);
+    fetcher = new Fetcher(conf, URI.create(baseUrl), storeChunk);
+    fetcher.get();
+    assertEquals(TajoProtos.FetcherState.FETCH_FAILED, fetcher.getState());
+  }
+
+  @Test
+  public void testRangeFetchOfCompressedBlocks() throws IOException {
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    String ta = "1_0";
+    String outDir = conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) +
+        queryId.toString() + "/output/" + sid + "/" + ta + "/output/";
+    new File(outDir).mkdirs();
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    SortSpec [] sortSpecs = new SortSpec[] {new SortSpec(schema.getColumn("id"))};
+    Schema keySchema = PlannerUtil.sortSpecsToSchema(sortSpecs);
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    meta.putOption(StorageConstants.COMPRESSION_CODEC, DefaultCodec.class.getName());
+
+    // a range shuffle output of small compressed blocks, which is indexed by virtual offsets
+    TajoConf writeConf = new TajoConf(conf);
+    writeConf.setInt(RawFile.WRITE_BUFFER_SIZE, 1024);
+    RawFile.RawFileAppender appender =
+        new RawFile.RawFileAppender(writeConf, null, schema, meta, new Path(outDir, "output"));
+    appender.init();
+    BSTIndex.BSTIndexWriter indexWriter = new BSTIndex(conf).getIndexWriter(new Path(outDir, "index"),
+        BSTIndex.TWO_LEVEL_INDEX, keySchema, new BaseTupleComparator(keySchema, sortSpecs));
+    indexWriter.setLoadNum(100);
+    indexWriter.open();
+    for (int i = 0; i < 1000; i++) {
+      Tuple tuple = new VTuple(2);
+      tuple.put(0, DatumFactory.createInt4(i));
+      tuple.put(1, DatumFactory.createText("name_" + i));
+      long offset = appender.getOffset();
+      appender.addTuple(tuple);
+      indexWriter.write(new VTuple(new Datum[] {tuple.get(0)}), offset);
+    }
+    appender.close();
+    indexWriter.flush();
+    indexWriter.close();
+
+    // the range starts and ends in the middle of blocks
+    TupleRange range = new TupleRange(sortSpecs, new VTuple(new Datum[] {DatumFactory.createInt4(250)}),
+        new VTuple(new Datum[] {DatumFactory.createInt4(750)}));
+    String params = String.format("qid=%s&sid=%s&p=%s&type=%s&ta=%s&", queryId, sid, "0", "r", ta)
+        + TupleUtil.rangeToQuery(keySchema, range, false);
+    URI uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+    File outFile = new File(OUTPUT_DIR + "range");
+    FileChunk storeChunk = new FileChunk(outFile, 0, 0);
+    storeChunk.setFromRemote(true);
+    Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+    fetcher.get();
+    assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+
+    // covering blocks are sent as they are, following a range frame
+    byte [] fetched = FileUtils.readFileToByteArray(outFile);
+    assertEquals(RawFile.RANGE_MAGIC, ByteBuffer.wrap(fetched).getInt(0));
+    assertTrue(fetched.length < new File(outDir, "output").length());
+
+    RawFile.RawFileScanner scanner = new RawFile.RawFileScanner(conf, schema, meta,
+        new FileFragment("range", new Path(outFile.getAbsolutePath()), 0, outFile.length()));
+    scanner.init();
+    try {
+      int nextId = 250;
+      Tuple tuple;
+      while ((tuple = scanner.next()) != null) {
+        assertEquals(nextId++, tuple.getInt4(0));
+      }
+      assertEquals(750, nextId);
+    } finally {
+      scanner.close();
+    }
+  }
+
+  private static long getChecksum(byte [] page) {
+    CRC32 crc = new CRC32();
+    crc.update(page, 0, page.length);
+    return crc.getValue();
+  }
+
+  @Test
+  public void testSharedConnections() throws Exception {
+    Random rnd = new Random();
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    final int partNum = 10;
+
+    TajoConf clientConf = new TajoConf(conf);
+    clientConf.setIntVar(ConfVars.SHUFFLE_FETCHER_CONNECTION_MAX_NUM, 1);
+    clientConf.setIntVar(ConfVars.SHUFFLE_FETCHER_PIPELINE_MAX_NUM, 4);
+    ShuffleFetchClient client = new ShuffleFetchClient(clientConf);
+
+    try {
+      final Fetcher [] fetchers = new Fetcher[partNum];
+      long [] lengths = new long[partNum];
+      for (int partId = 0; partId < partNum; partId++) {
+        int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+        String dataPath = conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) +
+            queryId.toString() + "/output/" + sid + "/hash-shuffle/" + partParentId + "/" + partId;
+        FSDataOutputStream stream = FileSystem.getLocal(conf).create(new Path(dataPath), true);
+        for (int i = 0; i < 100 * (partId + 1); i++) {
+          stream.write(("" + rnd.nextInt()).getBytes());
+        }
+        stream.close();
+        lengths[partId] = FileSystem.getLocal(conf).getFileStatus(new Path(dataPath)).getLen();
+
+        String params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, partId, "h");
+        URI uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+        FileChunk storeChunk = new FileChunk(new File(OUTPUT_DIR + "data_" + partId), 0, 0);
+        storeChunk.setFromRemote(true);
+        fetchers[partId] = new Fetcher(clientConf, uri, storeChunk, client);
+      }
+
+      // concurrent fetches are pipelined over a single connection
+      Thread [] threads = new Thread[partNum];
+      for (int i = 0; i < partNum; i++) {
+        final Fetcher fetcher = fetchers[i];
+        threads[i] = new Thread() {
+          @Override
+          public void run() {
+            try {
+              fetcher.get();
+            } catch (IOException e) {
+              throw new RuntimeException(e);
+            }
+          }
+        };
+        threads[i].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      for (int i = 0; i < partNum; i++) {
+        assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetchers[i].getState());
+        assertEquals(lengths[i], new File(OUTPUT_DIR + "data_" + i).length());
+      }
+
+      assertEquals(1, client.getHostMetrics().size());
+      ShuffleFetchClient.HostMetrics metrics = client.getHostMetrics().values().iterator().next();
+      assertEquals(1, metrics.getOpenedConnections());
+      assertEquals(partNum, metrics.getRequests());
+      assertEquals(0, metrics.getFailedRequests());
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testKeepAliveAfterNoContentAndError() throws Exception {
+    Random rnd = new Random();
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    int partId = 1;
+
+    int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+    String dataPath = conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) +
+        queryId.toString() + "/output/" + sid + "/hash-shuffle/" + partParentId + "/" + partId;
+    FSDataOutputStream stream = FileSystem.getLocal(conf).create(new Path(dataPath), true);
+    for (int i = 0; i < 100; i++) {
+      stream.write(("" + rnd.nextInt()).getBytes());
+    }
+    stream.close();
+
+    TajoConf clientConf = new TajoConf(conf);
+    clientConf.setIntVar(ConfVars.SHUFFLE_FETCHER_CONNECTION_MAX_NUM, 1);
+    ShuffleFetchClient client = new ShuffleFetchClient(clientConf);
+
+    try {
+      // a missing partition (204), an unknown shuffle type (400), and then an existing partition
+      String [] types = new String[] {"h", "x", "h"};
+      int [] partIds = new int[] {partId + 1, partId, partId};
+      TajoProtos.FetcherState [] states = new TajoProtos.FetcherState[] {
+          TajoProtos.FetcherState.FETCH_FINISHED,
+          TajoProtos.FetcherState.FETCH_FAILED,
+          TajoProtos.FetcherState.FETCH_FINISHED
+      };
+      for (int i = 0; i < types.length; i++) {
+        String params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, partIds[i], types[i]);
+        URI uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+        FileChunk storeChunk = new FileChunk(new File(OUTPUT_DIR + "data_" + i), 0, 0);
+        storeChunk.setFromRemote(true);
+        Fetcher fetcher = new Fetcher(clientConf, uri, storeChunk, client);
+        fetcher.get();
+        assertEquals(states[i], fetcher.getState());
+      }
+      assertEquals(FileSystem.getLocal(conf).getFileStatus(new Path(dataPath)).getLen(),
+          new File(OUTPUT_DIR + "data_2").length());
+
+      // responses without content do not close the connection
+      ShuffleFetchClient.HostMetrics metrics = client.getHostMetrics().values().iterator().next();
+      assertEquals(1, metrics.getOpenedConnections());
+      assertEquals(3, metrics.getRequests());
+      assertEquals(1, metrics.getFailedRequests());
+    } finally {
+      client.close();
+    }
+  }
+
+  @Test
+  public void testCachedShuffleFile() throws IOException {
+    QueryId queryId = QueryIdFactory.NULL_QUERY_ID;
+    String sid = "1";
+    String partId = "1";
+
+    int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), conf);
+    String dataPath = conf.getVar(ConfVars.WORKER_TEMPORAL_DIR) +
+        queryId.toString() + "/output/" + sid + "/hash-shuffle/" + partParentId + "/" + partId;
+    FSDataOutputStream stream = FileSystem.getLocal(conf).create(new Path(dataPath), true);
+    stream.write("shuffle data".getBytes());
+    stream.close();
+
+    String params = String.format("qid=%s&sid=%s&p=%s&type=%s", queryId, sid, partId, "h");
+    URI uri = URI.create("http://127.0.0.1:" + pullServerService.getPort() + "/?" + params);
+
+    for (int i = 0; i < 3; i++) {
+      if (i == 2) {
+        // files of a cleaned execution block are closed
+        pullServerService.evictCachedFiles(queryId.toString() + "/output/" + sid);
+      }
+      FileChunk storeChunk = new FileChunk(new File(OUTPUT_DIR + "data_" + i), 0, 0);
+      storeChunk.setFromRemote(true);
+      Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+      fetcher.get();
+      assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+      assertEquals("shuffle data".length(), new File(OUTPUT_DIR + "data_" + i).length());
+    }
+
+    assertEquals(1, pullServerService.getFileCache().getFileStats().hitCount());
+    assertEquals(2, pullServerService.getFileCache().getFileStats().missCount());
+  }
+
   @Test
   public void testAdjustFetchProcess() {
     assertEquals(0.0f, Task.adjustFetchProcess(0, 0), 0);
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.worker;
+
+import com.google.protobuf.ByteString;
+import org.apache.commons.io.FileUtils;
+import org.apache.tajo.*;
+import org.apache.tajo.ipc.TajoWorkerProtocol;
+import org.apache.tajo.ipc.TajoWorkerProtocol.ShufflePushRequestProto;
+import org.apache.tajo.ipc.TajoWorkerProtocol.ShufflePushResponseProto;
+import org.apache.tajo.master.cluster.WorkerConnectionInfo;
+import org.apache.tajo.pullserver.retriever.FileChunk;
+import org.apache.tajo.rpc.CallFuture;
+import org.apache.tajo.rpc.NettyClientBase;
+import org.apache.tajo.rpc.RpcConnectionPool;
+import org.apache.tajo.rpc.protocolrecords.PrimitiveProtos;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.NetUtils;
+import org.apache.tajo.util.TUtil;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.File;
+import java.net.URI;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+@Category(IntegrationTest.class)
+public class TestShufflePush extends QueryTestCaseBase {
+
+  public TestShufflePush() {
+    super(TajoConstants.DEFAULT_DATABASE_NAME);
+  }
+
+  private static long push(TajoWorkerProtocol.TajoWorkerProtocolService stub, ExecutionBlockId ebId, int partId,
+                           byte [] data) throws Exception {
+    ShufflePushRequestProto request = ShufflePushRequestProto.newBuilder()
+        .setEbId(ebId.getProto())
+        .setPartId(partId)
+        .setData(ByteString.copyFrom(data))
+        .build();
+    CallFuture<ShufflePushResponseProto> callFuture = new CallFuture<ShufflePushResponseProto>();
+    stub.pushShuffleData(callFuture.getController(), request, callFuture);
+    return callFuture.get(10, TimeUnit.SECONDS).getOffset();
+  }
+
+  @Test
+  public final void testPushShuffleData() throws Exception {
+    WorkerConnectionInfo owner = testingCluster.getTajoWorkers().get(0).getWorkerContext().getConnectionInfo();
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(
+        QueryIdFactory.newQueryId(System.currentTimeMillis(), 1), 1);
+    int partId = 5;
+
+    byte [][] batches = new byte[2][];
+    Random rnd = new Random();
+    for (int i = 0; i < batches.length; i++) {
+      batches[i] = new byte[2000 + i * 500];
+      rnd.nextBytes(batches[i]);
+    }
+
+    RpcConnectionPool connPool = RpcConnectionPool.getPool();
+    NettyClientBase client = connPool.getConnection(
+        NetUtils.createSocketAddr(owner.getHost(), owner.getPeerRpcPort()), TajoWorkerProtocol.class, true);
+    try {
+      TajoWorkerProtocol.TajoWorkerProtocolService stub = client.getStub();
+
+      // batches are appended to the consolidated file of the partition in order
+      assertEquals(0, push(stub, ebId, partId, batches[0]));
+      assertEquals(batches[0].length, push(stub, ebId, partId, batches[1]));
+
+      // the pull server of the owner serves a pushed batch by its offset
+      URI uri = URI.create("http://" + owner.getHost() + ":" + owner.getPullServerPort() + "/?"
+          + String.format("qid=%s&sid=%s&p=%s&type=p&offset=%s&length=%s",
+          ebId.getQueryId(), ebId.getId(), partId, batches[0].length, batches[1].length));
+      File outFile = new File(CommonTestingUtil.getTestDir().toUri().getPath(), "pushed");
+      FileChunk storeChunk = new FileChunk(outFile, 0, 0);
+      storeChunk.setFromRemote(true);
+      Fetcher fetcher = new Fetcher(conf, uri, storeChunk);
+      fetcher.get();
+      assertEquals(TajoProtos.FetcherState.FETCH_FINISHED, fetcher.getState());
+      assertArrayEquals(batches[1], FileUtils.readFileToByteArray(outFile));
+
+      CallFuture<PrimitiveProtos.BoolProto> cleanupFuture = new CallFuture<PrimitiveProtos.BoolProto>();
+      stub.cleanupExecutionBlocks(cleanupFuture.getController(),
+          TajoWorkerProtocol.ExecutionBlockListProto.newBuilder().addExecutionBlockId(ebId.getProto()).build(),
+          cleanupFuture);
+      assertTrue(cleanupFuture.get(10, TimeUnit.SECONDS).getValue());
+    } finally {
+      connPool.releaseConnection(client);
+    }
+  }
+
+  @Test
+  public final void testQueriesWithPushedShuffle() throws Exception {
+    String [] queries = new String[] {
+        "select l_orderkey, count(*) as cnt, sum(l_quantity) as total from lineitem group by l_orderkey " +
+            "order by l_orderkey",
+        "select n_name, r_name from nation join region on n_regionkey = r_regionkey order by n_name"
+    };
+
+    for (String query : queries) {
+      ResultSet res = executeString(query);
+      String expected = resultSetToString(res);
+      cleanupQuery(res);
+
+      Map<String, String> variables = new HashMap<String, String>();
+      variables.put(SessionVars.SHUFFLE_PUSH_ENABLED.keyname(), "true");
+      client.updateSessionVariables(variables);
+      try {
+        res = executeString(query);
+        assertEquals(expected, resultSetToString(res));
+        cleanupQuery(res);
+      } finally {
+        client.unsetSessionVariables(TUtil.newList(SessionVars.SHUFFLE_PUSH_ENABLED.keyname()));
+      }
+    }
+  }
+}
@@ -75,6 +75,29 @@ public class AggregationFunctionCallEval extends FunctionEval implements Cloneab
     }
   }
 
+  /**
+   * Returns the partial aggregation state of a given context regardless of the aggregation phase.
+   * It can be merged into another context by {@link #mergePartialResult(FunctionContext, Tuple)}.
+   */
+  public Datum getPartialResult(FunctionContext context) {
+    return instance.getPartialResult(context);
+  }
+
+  public DataType getPartialResultType() {
+    return instance.getPartialResultType();
+  }
+
+  /**
+   * Merges a partial aggregation state, which is given by {@link #getPartialResult(FunctionContext)},
+   * into a given context.
+   *
+   * @param context The context to be merged into
+   * @param partialResult The tuple whose first field is a partial aggregation state
+   */
+  public void mergePartialResult(FunctionContext context, Tuple partialResult) {
+    instance.merge(context, partialResult);
+  }
+
   @Override
   public DataType getValueType() {
     if (!finalPhase) {
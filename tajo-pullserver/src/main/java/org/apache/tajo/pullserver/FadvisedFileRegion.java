@@ -33,6 +33,7 @@ import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class FadvisedFileRegion extends DefaultFileRegion {
 
@@ -48,6 +49,9 @@ public class FadvisedFileRegion extends DefaultFileRegion {
   private final int shuffleBufferSize;
   private final boolean shuffleTransferToAllowed;
   private final FileChannel fileChannel;
+  /** If a file is shared by regions, its handle is released instead of closing the file. */
+  private final ShuffleFileCache.Handle<RandomAccessFile> handle;
+  private final AtomicBoolean deallocated = new AtomicBoolean(false);
 
   private ReadaheadPool.ReadaheadRequest readaheadRequest;
   public static final int DEFAULT_SHUFFLE_BUFFER_SIZE = 128 * 1024;
@@ -56,14 +60,32 @@ public class FadvisedFileRegion extends DefaultFileRegion {
                             boolean manageOsCache, int readaheadLength, ReadaheadPool readaheadPool,
                             String identifier) throws IOException {
     this(file, position, count, manageOsCache, readaheadLength, readaheadPool,
-        identifier, DEFAULT_SHUFFLE_BUFFER_SIZE, true);
+        identifier, DEFAULT_SHUFFLE_BUFFER_SIZE, true, null);
+  }
+
+  public FadvisedFileRegion(RandomAccessFile file, long position, long count,
+                            boolean manageOsCache, int readaheadLength, ReadaheadPool readaheadPool,
+                            String identifier, ShuffleFileCache.Handle<RandomAccessFile> handle)
+      throws IOException {
+    this(file, position, count, manageOsCache, readaheadLength, readaheadPool,
+        identifier, DEFAULT_SHUFFLE_BUFFER_SIZE, true, handle);
   }
 
   public FadvisedFileRegion(RandomAccessFile file, long position, long count,
                             boolean manageOsCache, int readaheadLength, ReadaheadPool readaheadPool,
                             String identifier, int shuffleBufferSize,
                             boolean shuffleTransferToAllowed) throws IOException {
+    this(file, position, count, manageOsCache, readaheadLength, readaheadPool,
+        identifier, shuffleBufferSize, shuffleTransferToAllowed, null);
+  }
+
+  public FadvisedFileRegion(RandomAccessFile file, long position, long count,
+                            boolean manageOsCache, int readaheadLength, ReadaheadPool readaheadPool,
+                            String identifier, int shuffleBufferSize,
+                            boolean shuffleTransferToAllowed,
+                            ShuffleFileCache.Handle<RandomAccessFile> handle) throws IOException {
     super(file.getChannel(), position, count);
+    this.handle = handle;
     this.manageOsCache = manageOsCache;
     this.readaheadLength = readaheadLength;
     this.readaheadPool = readaheadPool;
@@ -149,10 +171,17 @@ public class FadvisedFileRegion extends DefaultFileRegion {
 
   @Override
   protected void deallocate() {
+    if (!deallocated.compareAndSet(false, true)) {
+      return;
+    }
     if (readaheadRequest != null) {
       readaheadRequest.cancel();
     }
-    super.deallocate();
+    if (handle != null) {
+      handle.release();
+    } else {
+      super.deallocate();
+    }
   }
 
   /**
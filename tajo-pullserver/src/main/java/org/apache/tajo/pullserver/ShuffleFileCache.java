@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.pullserver;
+
+import com.google.common.cache.*;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.storage.ShufflePageChecksums;
+import org.apache.tajo.storage.index.bst.BSTIndex;
+import org.apache.tajo.storage.index.bst.BSTIndex.BSTIndexReader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LRU caches of opened {@link BSTIndexReader}s of range shuffle outputs, {@link RandomAccessFile}s of shuffle
+ * output files and the page checksums of hash shuffle files. Without them, each fetch request opens an index and
+ * re-reads its root from disk, and re-reads the whole checksum file of a hash shuffle file.
+ *
+ * A cached resource is reference-counted. The cache holds one reference, and each user holds one reference until
+ * it calls {@link Handle#release()}. A resource is closed when it is evicted and it is not used anymore, so
+ * eviction never closes a file being sent.
+ */
+public class ShuffleFileCache {
+  private static final Log LOG = LogFactory.getLog(ShuffleFileCache.class);
+
+  private final TajoConf conf;
+  private final LoadingCache<String, Handle<BSTIndexReader>> indexReaders;
+  private final LoadingCache<String, Handle<RandomAccessFile>> files;
+  private final LoadingCache<String, ShufflePageChecksums.Pages> pageChecksums;
+
+  /**
+   * @param maxNum The maximum number of each kind of cached resources
+   * @param expirySec Resources not accessed for this time are closed
+   */
+  public ShuffleFileCache(TajoConf conf, int maxNum, int expirySec) {
+    this.conf = conf;
+
+    RemovalListener<String, Handle<?>> releaser = new RemovalListener<String, Handle<?>>() {
+      @Override
+      public void onRemoval(RemovalNotification<String, Handle<?>> notification) {
+        notification.getValue().release();
+      }
+    };
+
+    this.indexReaders = CacheBuilder.newBuilder()
+        .maximumSize(maxNum)
+        .expireAfterAccess(expirySec, TimeUnit.SECONDS)
+        .removalListener(releaser)
+        .build(new CacheLoader<String, Handle<BSTIndexReader>>() {
+          @Override
+          public Handle<BSTIndexReader> load(String outDir) throws Exception {
+            BSTIndex index = new BSTIndex(ShuffleFileCache.this.conf);
+            BSTIndexReader reader = index.getIndexReader(new Path(outDir, "index"));
+            reader.open();
+            LOG.info("BSTIndex is loaded from disk (" + reader.getFirstKey() + ", " + reader.getLastKey() + ")");
+            return new Handle<BSTIndexReader>(reader, reader);
+          }
+        });
+
+    this.files = CacheBuilder.newBuilder()
+        .maximumSize(maxNum)
+        .expireAfterAccess(expirySec, TimeUnit.SECONDS)
+        .removalListener(releaser)
+        .build(new CacheLoader<String, Handle<RandomAccessFile>>() {
+          @Override
+          public Handle<RandomAccessFile> load(String path) throws Exception {
+            RandomAccessFile file = new RandomAccessFile(path, "r");
+            return new Handle<RandomAccessFile>(file, file);
+          }
+        });
+
+    // page checksums hold no file, so they are not reference-counted
+    this.pageChecksums = CacheBuilder.newBuilder()
+        .maximumSize(maxNum)
+        .expireAfterAccess(expirySec, TimeUnit.SECONDS)
+        .build(new CacheLoader<String, ShufflePageChecksums.Pages>() {
+          @Override
+          public ShufflePageChecksums.Pages load(String path) throws Exception {
+            return new ShufflePageChecksums.Pages(new File(path));
+          }
+        });
+  }
+
+  /**
+   * Returns the index reader of a range shuffle output directory. The returned handle must be released.
+   */
+  public Handle<BSTIndexReader> getIndexReader(Path outDir) throws IOException {
+    return acquire(indexReaders, outDir.toString());
+  }
+
+  /**
+   * Returns the opened file of a shuffle output. The returned handle must be released.
+   */
+  public Handle<RandomAccessFile> getFile(File file) throws IOException {
+    return acquire(files, file.getAbsolutePath());
+  }
+
+  /**
+   * Returns the page checksums of a hash shuffle file.
+   */
+  public ShufflePageChecksums.Pages getPageChecksums(File dataFile) {
+    return pageChecksums.getUnchecked(dataFile.getAbsolutePath());
+  }
+
+  private static <T> Handle<T> acquire(LoadingCache<String, Handle<T>> cache, String key) throws IOException {
+    while (true) {
+      Handle<T> handle;
+      try {
+        handle = cache.get(key);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          throw (IOException) e.getCause();
+        }
+        throw new IOException(e.getCause());
+      } catch (UncheckedExecutionException e) {
+        throw new IOException(e.getCause());
+      }
+
+      if (handle.retain()) {
+        return handle;
+      }
+      // it has been evicted and closed just before
+      cache.asMap().remove(key, handle);
+    }
+  }
+
+  /**
+   * Evicts all resources under a directory. The directory is relative to the temporal directory of a worker
+   * (e.g., a query id or the output directory of an execution block).
+   */
+  public void evict(String dir) {
+    String pattern = "/" + (dir.endsWith("/") ? dir : dir + "/");
+    evict(indexReaders, pattern);
+    evict(files, pattern);
+    evict(pageChecksums, pattern);
+  }
+
+  private static void evict(Cache<String, ?> cache, String pattern) {
+    for (String key : cache.asMap().keySet()) {
+      if ((key + "/").contains(pattern)) {
+        cache.invalidate(key);
+      }
+    }
+  }
+
+  public void evictAll() {
+    indexReaders.invalidateAll();
+    files.invalidateAll();
+    pageChecksums.invalidateAll();
+  }
+
+  public CacheStats getIndexReaderStats() {
+    return indexReaders.stats();
+  }
+
+  public CacheStats getFileStats() {
+    return files.stats();
+  }
+
+  /**
+   * A reference-counted resource.
+   */
+  public static class Handle<T> {
+    private final T resource;
+    private final Closeable closeable;
+    private int refCount = 1; // the reference of a cache
+
+    Handle(T resource, Closeable closeable) {
+      this.resource = resource;
+      this.closeable = closeable;
+    }
+
+    public T get() {
+      return resource;
+    }
+
+    synchronized boolean retain() {
+      if (refCount == 0) {
+        return false;
+      }
+      refCount++;
+      return true;
+    }
+
+    public void release() {
+      boolean close;
+      synchronized (this) {
+        close = --refCount == 0;
+      }
+      if (close) {
+        IOUtils.cleanup(LOG, closeable);
+      }
+    }
+  }
+}
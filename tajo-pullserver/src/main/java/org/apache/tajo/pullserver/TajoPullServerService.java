@@ -18,6 +18,7 @@
 
 package org.apache.tajo.pullserver;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
 import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
@@ -60,7 +61,10 @@ import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.pullserver.retriever.FileChunk;
 import org.apache.tajo.rpc.RpcChannelFactory;
 import org.apache.tajo.storage.HashShuffleAppenderManager;
+import org.apache.tajo.storage.RangeShuffleFileManager;
+import org.apache.tajo.storage.RawFile;
 import org.apache.tajo.storage.RowStoreUtil;
+import org.apache.tajo.storage.ShufflePageChecksums;
 import org.apache.tajo.storage.RowStoreUtil.RowStoreDecoder;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.TupleComparator;
@@ -70,7 +74,9 @@ import java.io.*;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -87,10 +93,17 @@ public class TajoPullServerService extends AbstractService {
   public static final String SHUFFLE_READAHEAD_BYTES = "tajo.pullserver.readahead.bytes";
   public static final int DEFAULT_SHUFFLE_READAHEAD_BYTES = 4 * 1024 * 1024;
 
+  public static final String SHUFFLE_FILE_CACHE_MAX_NUM = "tajo.pullserver.file-cache.max-num";
+  public static final int DEFAULT_SHUFFLE_FILE_CACHE_MAX_NUM = 512;
+
+  public static final String SHUFFLE_FILE_CACHE_EXPIRY_SEC = "tajo.pullserver.file-cache.expiry-sec";
+  public static final int DEFAULT_SHUFFLE_FILE_CACHE_EXPIRY_SEC = 300;
+
   private int port;
   private ServerBootstrap selector;
   private final ChannelGroup accepted = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
   private HttpChannelInitializer channelInitializer;
+  private ShuffleFileCache fileCache;
   private int sslFileBufferSize;
 
   private ApplicationId appId;
@@ -143,6 +156,18 @@ public class TajoPullServerService extends AbstractService {
     @Metric({"Connections","# of current shuffle connections"})
     MutableGaugeInt shuffleConnections;
 
+    ShuffleFileCache fileCache;
+
+    @Metric({"IndexCacheHitRate","Hit rate of the cached index readers"})
+    public double getIndexCacheHitRate() {
+      return fileCache == null ? 0 : fileCache.getIndexReaderStats().hitRate();
+    }
+
+    @Metric({"FileCacheHitRate","Hit rate of the cached shuffle files"})
+    public double getFileCacheHitRate() {
+      return fileCache == null ? 0 : fileCache.getFileStats().hitRate();
+    }
+
     @Override
     public void operationComplete(ChannelFuture future) throws Exception {
       if (future.isSuccess()) {
@@ -176,6 +201,20 @@ public class TajoPullServerService extends AbstractService {
 
   public void stopApp(ApplicationId appId) {
     userRsrc.remove(appId.toString());
+    if (fileCache != null) {
+      fileCache.evictAll();
+    }
+  }
+
+  /**
+   * Closes cached index readers and files under a directory, which is about to be deleted.
+   *
+   * @param dir A directory relative to the temporal directory (e.g., a query id or an execution block output dir)
+   */
+  public void evictCachedFiles(String dir) {
+    if (fileCache != null) {
+      fileCache.evict(dir);
+    }
   }
 
   @Override
@@ -187,6 +226,11 @@ public class TajoPullServerService extends AbstractService {
       readaheadLength = conf.getInt(SHUFFLE_READAHEAD_BYTES,
           DEFAULT_SHUFFLE_READAHEAD_BYTES);
 
+      fileCache = new ShuffleFileCache(new TajoConf(conf),
+          conf.getInt(SHUFFLE_FILE_CACHE_MAX_NUM, DEFAULT_SHUFFLE_FILE_CACHE_MAX_NUM),
+          conf.getInt(SHUFFLE_FILE_CACHE_EXPIRY_SEC, DEFAULT_SHUFFLE_FILE_CACHE_EXPIRY_SEC));
+      metrics.fileCache = fileCache;
+
       int workerNum = conf.getInt("tajo.shuffle.rpc.server.worker-thread-num",
           Runtime.getRuntime().availableProcessors() * 2);
 
@@ -298,6 +342,11 @@ public class TajoPullServerService extends AbstractService {
     return port;
   }
 
+  @VisibleForTesting
+  public ShuffleFileCache getFileCache() {
+    return fileCache;
+  }
+
   @Override
   public void stop() {
     try {
@@ -315,6 +364,10 @@ public class TajoPullServerService extends AbstractService {
         channelInitializer.destroy();
       }
 
+      if (fileCache != null) {
+        fileCache.evictAll();
+      }
+
       localFS.close();
     } catch (Throwable t) {
       LOG.error(t, t);
@@ -455,7 +508,7 @@ public class TajoPullServerService extends AbstractService {
             throws Exception {
 
       if (request.getMethod() != HttpMethod.GET) {
-        sendError(ctx, HttpResponseStatus.METHOD_NOT_ALLOWED);
+        sendError(ctx, request, HttpResponseStatus.METHOD_NOT_ALLOWED);
         return;
       }
 
@@ -472,12 +525,13 @@ public class TajoPullServerService extends AbstractService {
       final List<String> lengthList = params.get("length");
 
       if (types == null || subQueryIds == null || qids == null || partIds == null) {
-        sendError(ctx, "Required queryId, type, subquery Id, and part id", HttpResponseStatus.BAD_REQUEST);
+        sendError(ctx, request, "Required queryId, type, subquery Id, and part id", HttpResponseStatus.BAD_REQUEST);
         return;
       }
 
       if (qids.size() != 1 && types.size() != 1 || subQueryIds.size() != 1) {
-        sendError(ctx, "Required qids, type, taskIds, subquery Id, and part id", HttpResponseStatus.BAD_REQUEST);
+        sendError(ctx, request, "Required qids, type, taskIds, subquery Id, and part id",
+            HttpResponseStatus.BAD_REQUEST);
         return;
       }
 
@@ -502,41 +556,69 @@ public class TajoPullServerService extends AbstractService {
       }
 
       final List<FileChunk> chunks = Lists.newArrayList();
+      // checksums of the pages of a response, or null
+      String checksums = null;
 
       // if a stage requires a range shuffle
       if (shuffleType.equals("r")) {
-        String ta = taskIds.get(0);
-        String pathString = queryBaseDir + "/" + sid + "/" + ta + "/output/";
-        if (!lDirAlloc.ifExists(pathString, conf)) {
-          LOG.warn(pathString + "does not exist.");
-          sendError(ctx, HttpResponseStatus.NO_CONTENT);
-          return;
-        }
-        Path path = localFS.makeQualified(lDirAlloc.getLocalPathToRead(queryBaseDir + "/" + sid + "/" + ta
-            + "/output/", conf));
         String startKey = params.get("start").get(0);
         String endKey = params.get("end").get(0);
         boolean last = params.get("final") != null;
 
-        FileChunk chunk;
-        try {
-          chunk = getFileCunks(path, startKey, endKey, last);
-        } catch (Throwable t) {
-          LOG.error("ERROR Request: " + request.getUri(), t);
-          sendError(ctx, "Cannot get file chunks to be sent", HttpResponseStatus.BAD_REQUEST);
-          return;
-        }
-        if (chunk != null) {
-          chunks.add(chunk);
+        // a range request may contain outputs of multiple tasks, which are sent in a single response
+        for (String ta : taskIds) {
+          String pathString = queryBaseDir + "/" + sid + "/" + ta + "/output/";
+          if (!lDirAlloc.ifExists(pathString, conf)) {
+            LOG.warn(pathString + "does not exist.");
+            continue;
+          }
+          Path path = localFS.makeQualified(lDirAlloc.getLocalPathToRead(queryBaseDir + "/" + sid + "/" + ta
+              + "/output/", conf));
+
+          FileChunk chunk;
+          ShuffleFileCache.Handle<BSTIndex.BSTIndexReader> idxReader = null;
+          ShuffleFileCache.Handle<RandomAccessFile> data = null;
+          try {
+            long [] segment = RangeShuffleFileManager.readSegment(path);
+            File dataFile = segment == null ? getDataFile(path) : new File(localFS.makeQualified(
+                lDirAlloc.getLocalPathToRead(RangeShuffleFileManager.getDataFilePath(queryId, sid), conf)).toUri());
+            idxReader = fileCache.getIndexReader(path);
+            data = fileCache.getFile(dataFile);
+            chunk = getFileChunks(idxReader.get(), data.get(), dataFile, segment, startKey, endKey, last);
+          } catch (Throwable t) {
+            LOG.error("ERROR Request: " + request.getUri(), t);
+            sendError(ctx, request, "Cannot get file chunks to be sent", HttpResponseStatus.BAD_REQUEST);
+            return;
+          } finally {
+            if (idxReader != null) {
+              idxReader.release();
+            }
+            if (data != null) {
+              data.release();
+            }
+          }
+          if (chunk != null) {
+            chunks.add(chunk);
+          }
         }
 
-        // if a stage requires a hash shuffle or a scattered hash shuffle
-      } else if (shuffleType.equals("h") || shuffleType.equals("s")) {
+        // if a stage requires a hash shuffle or a scattered hash shuffle,
+        // or the partition of a hash shuffle is pushed to this worker
+      } else if (shuffleType.equals("h") || shuffleType.equals("s") || shuffleType.equals("p")) {
+        // a consolidated file may have pages of failed pushes, so only the pages reported by producers are served
+        if (shuffleType.equals("p") && (offset < 0 || length < 0)) {
+          LOG.error("A pushed partition is requested without its offset and length: " + request.getUri());
+          sendError(ctx, request, "Offset and length are required for a pushed partition",
+              HttpResponseStatus.BAD_REQUEST);
+          return;
+        }
         int partParentId = HashShuffleAppenderManager.getPartParentId(Integer.parseInt(partId), conf);
-        String partPath = queryBaseDir + "/" + sid + "/hash-shuffle/" + partParentId + "/" + partId;
+        String shuffleDir = shuffleType.equals("p") ?
+            HashShuffleAppenderManager.PUSHED_HASH_SHUFFLE_DIR : HashShuffleAppenderManager.HASH_SHUFFLE_DIR;
+        String partPath = queryBaseDir + "/" + sid + "/" + shuffleDir + "/" + partParentId + "/" + partId;
         if (!lDirAlloc.ifExists(partPath, conf)) {
           LOG.warn("Partition shuffle file not exists: " + partPath);
-          sendError(ctx, HttpResponseStatus.NO_CONTENT);
+          sendError(ctx, request, HttpResponseStatus.NO_CONTENT);
           return;
         }
 
@@ -549,15 +631,18 @@ public class TajoPullServerService extends AbstractService {
         if (startPos >= file.length()) {
           String errorMessage = "Start pos[" + startPos + "] great than file length [" + file.length() + "]";
           LOG.error(errorMessage);
-          sendError(ctx, errorMessage, HttpResponseStatus.BAD_REQUEST);
+          sendError(ctx, request, errorMessage, HttpResponseStatus.BAD_REQUEST);
           return;
         }
         LOG.info("RequestURL: " + request.getUri() + ", fileLen=" + file.length());
         FileChunk chunk = new FileChunk(file, startPos, readLen);
         chunks.add(chunk);
+        if (conf.getBoolVar(ConfVars.SHUFFLE_PAGE_CHECKSUM_ENABLED)) {
+          checksums = fileCache.getPageChecksums(file).getHeaderValue(startPos, readLen);
+        }
       } else {
         LOG.error("Unknown shuffle type: " + shuffleType);
-        sendError(ctx, "Unknown shuffle type:" + shuffleType, HttpResponseStatus.BAD_REQUEST);
+        sendError(ctx, request, "Unknown shuffle type:" + shuffleType, HttpResponseStatus.BAD_REQUEST);
         return;
       }
 
@@ -565,23 +650,36 @@ public class TajoPullServerService extends AbstractService {
       processingStatus.makeFileListTime = System.currentTimeMillis() - processingStatus.startTime;
       // Write the content.
       if (chunks.size() == 0) {
-        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.NO_CONTENT);
-
-        if (!HttpHeaders.isKeepAlive(request)) {
-          ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
-        } else {
-          response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
-          ctx.writeAndFlush(response);
-        }
+        sendError(ctx, request, HttpResponseStatus.NO_CONTENT);
       } else {
         FileChunk[] file = chunks.toArray(new FileChunk[chunks.size()]);
         ChannelFuture writeFuture = null;
-        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
         long totalSize = 0;
         for (FileChunk chunk : file) {
           totalSize += chunk.length();
+          if (chunk.getHeader() != null) {
+            totalSize += chunk.getHeader().length;
+          }
+        }
+
+        // a fetcher resumes a failed fetch from the bytes already received. An invalid range is ignored,
+        // and then the whole content is sent again.
+        long rangeStart = getRangeStart(request);
+        HttpResponse response;
+        if (rangeStart > 0 && rangeStart < totalSize) {
+          response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.PARTIAL_CONTENT);
+          response.headers().set(HttpHeaders.Names.CONTENT_RANGE,
+              "bytes " + rangeStart + "-" + (totalSize - 1) + "/" + totalSize);
+          HttpHeaders.setContentLength(response, totalSize - rangeStart);
+          file = skipChunks(file, rangeStart);
+        } else {
+          response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+          HttpHeaders.setContentLength(response, totalSize);
+        }
+        // checksums always cover the whole content, so that a resumed fetch is verified with them
+        if (checksums != null) {
+          response.headers().set(ShufflePageChecksums.HTTP_HEADER, checksums);
         }
-        HttpHeaders.setContentLength(response, totalSize);
 
         if (HttpHeaders.isKeepAlive(request)) {
           response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
@@ -592,7 +690,9 @@ public class TajoPullServerService extends AbstractService {
         for (FileChunk chunk : file) {
           writeFuture = sendFile(ctx, chunk, request.getUri().toString());
           if (writeFuture == null) {
-            sendError(ctx, HttpResponseStatus.NOT_FOUND);
+            // the response is partially written, so the fetcher can only learn the failure from a closed connection
+            LOG.error("Cannot send " + chunk.getFile() + " for " + request.getUri());
+            ctx.channel().close();
             return;
           }
         }
@@ -610,6 +710,22 @@ public class TajoPullServerService extends AbstractService {
       }
     }
 
+    /**
+     * @return The start of a "bytes=start-" range, or 0 if a request has no range
+     */
+    private long getRangeStart(HttpRequest request) {
+      String range = request.headers().get(HttpHeaders.Names.RANGE);
+      if (range == null || !range.startsWith("bytes=") || !range.endsWith("-")) {
+        return 0;
+      }
+      try {
+        return Math.max(0, Long.parseLong(range.substring("bytes=".length(), range.length() - 1)));
+      } catch (NumberFormatException e) {
+        LOG.warn("Invalid range: " + range);
+        return 0;
+      }
+    }
+
     private ChannelFuture sendFile(ChannelHandlerContext ctx,
                                    FileChunk file,
                                    String requestUri) throws IOException {
@@ -617,15 +733,26 @@ public class TajoPullServerService extends AbstractService {
       RandomAccessFile spill = null;      
       ChannelFuture writeFuture;
       try {
-        spill = new RandomAccessFile(file.getFile(), "r");
+        if (file.getHeader() != null) {
+          ctx.write(Unpooled.wrappedBuffer(file.getHeader()));
+        }
         if (ctx.pipeline().get(SslHandler.class) == null) {
-          final FadvisedFileRegion filePart = new FadvisedFileRegion(spill,
-              file.startOffset(), file.length(), manageOsCache, readaheadLength,
-              readaheadPool, file.getFile().getAbsolutePath());
+          // a cached file is shared by requests, and it is released when the region is deallocated
+          ShuffleFileCache.Handle<RandomAccessFile> handle = fileCache.getFile(file.getFile());
+          final FadvisedFileRegion filePart;
+          try {
+            filePart = new FadvisedFileRegion(handle.get(),
+                file.startOffset(), file.length(), manageOsCache, readaheadLength,
+                readaheadPool, file.getFile().getAbsolutePath(), handle);
+          } catch (IOException e) {
+            handle.release();
+            throw e;
+          }
           writeFuture = ctx.write(filePart);
           writeFuture.addListener(new FileCloseListener(filePart, requestUri, startTime, TajoPullServerService.this));
         } else {
           // HTTPS cannot be done with zero copy.
+          spill = new RandomAccessFile(file.getFile(), "r");
           final FadvisedChunkedFile chunk = new FadvisedChunkedFile(spill,
               file.startOffset(), file.length(), sslFileBufferSize,
               manageOsCache, readaheadLength, readaheadPool,
@@ -647,19 +774,28 @@ public class TajoPullServerService extends AbstractService {
       return writeFuture;
     }
 
-    private void sendError(ChannelHandlerContext ctx,
+    private void sendError(ChannelHandlerContext ctx, HttpRequest request,
         HttpResponseStatus status) {
-      sendError(ctx, "", status);
+      sendError(ctx, request, "", status);
     }
 
-    private void sendError(ChannelHandlerContext ctx, String message,
+    /**
+     * Sends a response without file chunks. It has a content length, so that a keep-alive connection is reused
+     * by the next request. The connection is closed only if the request asks for it.
+     */
+    private void sendError(ChannelHandlerContext ctx, HttpRequest request, String message,
         HttpResponseStatus status) {
       FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1, status,
           Unpooled.copiedBuffer(message, CharsetUtil.UTF_8));
       response.headers().set(HttpHeaders.Names.CONTENT_TYPE, "text/plain; charset=UTF-8");
+      HttpHeaders.setContentLength(response, response.content().readableBytes());
 
-      // Close the connection as soon as the error message is sent.
-      ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+      if (HttpHeaders.isKeepAlive(request)) {
+        response.headers().set(HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+        ctx.writeAndFlush(response);
+      } else {
+        ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+      }
     }
 
     @Override
@@ -672,7 +808,40 @@ public class TajoPullServerService extends AbstractService {
     }
   }
 
+  /**
+   * @return Chunks from which the given bytes, including the headers of chunks, are skipped
+   */
+  @VisibleForTesting
+  public static FileChunk[] skipChunks(FileChunk[] chunks, long skip) throws IOException {
+    List<FileChunk> remaining = Lists.newArrayList();
+    for (FileChunk chunk : chunks) {
+      byte [] header = chunk.getHeader();
+      long headerLength = header == null ? 0 : header.length;
+      if (skip >= headerLength + chunk.length()) {
+        skip -= headerLength + chunk.length();
+        continue;
+      }
+
+      FileChunk skipped;
+      if (skip < headerLength) {
+        skipped = new FileChunk(chunk.getFile(), chunk.startOffset(), chunk.length());
+        skipped.setHeader(Arrays.copyOfRange(header, (int) skip, header.length));
+      } else {
+        long skipInFile = skip - headerLength;
+        skipped = new FileChunk(chunk.getFile(), chunk.startOffset() + skipInFile, chunk.length() - skipInFile);
+      }
+      skipped.setEbId(chunk.getEbId());
+      remaining.add(skipped);
+      skip = 0;
+    }
+    return remaining.toArray(new FileChunk[remaining.size()]);
+  }
+
+  /**
+   * @param sharedDataFile The data file shared by tasks, which is used if the task output is consolidated
+   */
   public static FileChunk getFileCunks(Path outDir,
+                                      Path sharedDataFile,
                                       String startKey,
                                       String endKey,
                                       boolean last) throws IOException {
@@ -680,13 +849,40 @@ public class TajoPullServerService extends AbstractService {
     BSTIndex.BSTIndexReader idxReader =
         index.getIndexReader(new Path(outDir, "index"));
     idxReader.open();
-    Schema keySchema = idxReader.getKeySchema();
-    TupleComparator comparator = idxReader.getComparator();
 
     LOG.info("BSTIndex is loaded from disk (" + idxReader.getFirstKey() + ", "
         + idxReader.getLastKey());
+    RandomAccessFile data = null;
+    try {
+      long [] segment = RangeShuffleFileManager.readSegment(outDir);
+      File dataFile = segment == null ? getDataFile(outDir) : new File(sharedDataFile.toUri());
+      data = new RandomAccessFile(dataFile, "r");
+      return getFileChunks(idxReader, data, dataFile, segment, startKey, endKey, last);
+    } finally {
+      IOUtils.cleanup(LOG, data);
+      idxReader.close();
+    }
+  }
 
-    File data = new File(URI.create(outDir.toUri() + "/output"));
+  private static File getDataFile(Path outDir) {
+    return new File(URI.create(outDir.toUri() + "/output"));
+  }
+
+  /**
+   * Finds the file chunk of a key range by an opened index reader, which may be shared by concurrent requests.
+   *
+   * @param segment <base offset, length> of the task output in a shared data file, or null if the data file
+   *                belongs to the task only. Offsets in the index are relative to the segment.
+   */
+  private static FileChunk getFileChunks(BSTIndex.BSTIndexReader idxReader,
+                                         RandomAccessFile raf,
+                                         File data,
+                                         long [] segment,
+                                         String startKey,
+                                         String endKey,
+                                         boolean last) throws IOException {
+    Schema keySchema = idxReader.getKeySchema();
+    TupleComparator comparator = idxReader.getComparator();
     byte [] startBytes = Base64.decodeBase64(startKey);
     byte [] endBytes = Base64.decodeBase64(endKey);
 
@@ -767,16 +963,50 @@ public class TajoPullServerService extends AbstractService {
           + idxReader.getLastKey());
     }
 
+    boolean compressed = RawFile.isBlockCompressed(raf.getChannel());
+    long segmentBase = segment == null ? 0 : segment[0];
+    long segmentLength = segment == null ? data.length() : segment[1];
+
     // if greater than indexed values
     if (last || (endOffset == -1
         && comparator.compare(idxReader.getLastKey(), end) < 0)) {
-      endOffset = data.length();
+      endOffset = compressed ? RawFile.toVirtualOffset(segmentLength, 0) : segmentLength;
     }
 
-    idxReader.close();
+    // relocate offsets into the shared data file
+    if (segmentBase > 0) {
+      long delta = compressed ? RawFile.toVirtualOffset(segmentBase, 0) : segmentBase;
+      startOffset += delta;
+      endOffset += delta;
+    }
 
-    FileChunk chunk = new FileChunk(data, startOffset, endOffset - startOffset);
+    FileChunk chunk;
+    if (compressed) {
+      chunk = getCompressedFileChunk(raf.getChannel(), data, startOffset, endOffset);
+    } else {
+      chunk = new FileChunk(data, startOffset, endOffset - startOffset);
+    }
     LOG.info("Retrieve File Chunk: " + chunk);
     return chunk;
   }
+
+  /**
+   * Compressed blocks including the given virtual offsets are sent with a range frame, so that a reader skips rows
+   * out of the range in the first and last blocks.
+   */
+  private static FileChunk getCompressedFileChunk(FileChannel channel, File data, long startOffset, long endOffset)
+      throws IOException {
+    long startBlock = RawFile.getBlockOffset(startOffset);
+    long endBlock = RawFile.getBlockOffset(endOffset);
+    int take = RawFile.getInBlockOffset(endOffset);
+    if (take > 0) {
+      endBlock += RawFile.getBlockLength(channel, endBlock);
+    } else {
+      take = -1;
+    }
+
+    FileChunk chunk = new FileChunk(data, startBlock, endBlock - startBlock);
+    chunk.setHeader(RawFile.createRangeFrame(RawFile.getInBlockOffset(startOffset), take, endBlock - startBlock));
+    return chunk;
+  }
 }
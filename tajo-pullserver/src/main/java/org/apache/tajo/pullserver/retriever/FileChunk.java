@@ -36,6 +36,11 @@ public class FileChunk {
    */
   private String ebId;
 
+  /**
+   * Bytes to be sent ahead of the file region, or NULL
+   */
+  private byte [] header;
+
   public FileChunk(File file, long startOffset, long length) throws FileNotFoundException {
     this.file = file;
     this.startOffset = startOffset;
@@ -74,6 +79,14 @@ public class FileChunk {
     this.ebId = newVal;
   }
 
+  public byte [] getHeader() {
+    return this.header;
+  }
+
+  public void setHeader(byte [] header) {
+    this.header = header;
+  }
+
   public String toString() {
     return " (start=" + startOffset() + ", length=" + length + ", fromRemote=" + fromRemote + ", ebId=" + ebId + ") "
 	+ file.getAbsolutePath();
@@ -21,7 +21,6 @@ package org.apache.tajo.storage;
 import io.netty.buffer.ByteBuf;
 import org.apache.tajo.catalog.Column;
 import org.apache.tajo.datum.Datum;
-import org.apache.tajo.storage.text.TextLineParsingError;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -31,7 +30,6 @@ public interface FieldSerializerDeserializer {
 
   public int serialize(OutputStream out, Datum datum, Column col, int columnIndex, byte[] nullChars) throws IOException;
 
-  public Datum deserialize(ByteBuf buf, Column col, int columnIndex, ByteBuf nullChars)
-      throws IOException, TextLineParsingError;
+  public Datum deserialize(ByteBuf buf, Column col, int columnIndex, ByteBuf nullChars) throws IOException;
 
 }
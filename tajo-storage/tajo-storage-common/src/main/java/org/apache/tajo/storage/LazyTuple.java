@@ -18,6 +18,7 @@
 
 package org.apache.tajo.storage;
 
+import io.netty.buffer.ByteBuf;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.IntervalDatum;
@@ -25,8 +26,16 @@ import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.ProtobufDatum;
 import org.apache.tajo.exception.UnsupportedException;
 
+import java.io.IOException;
 import java.util.Arrays;
 
+/**
+ * A tuple whose fields are deserialized on the first access. The raw bytes of fields are given as separate
+ * byte arrays, or as ranges of a line which are set by {@link #setField(int, int, int)}.
+ *
+ * A field given as a byte array becomes NULL if it cannot be deserialized. A field of a line does not; the error
+ * is thrown by the first access of the field.
+ */
 public class LazyTuple implements Tuple, Cloneable {
   private long offset;
   private Datum[] values;
@@ -35,6 +44,13 @@ public class LazyTuple implements Tuple, Cloneable {
   private byte[] nullBytes;
   private SerializerDeserializer serializeDeserialize;
 
+  // a line and the (start, length) pairs of its fields, which are null if fields are given as byte arrays.
+  // textBytes is null if fields are given as a line.
+  private ByteBuf line;
+  private int[] fieldRanges;
+  private ByteBuf nullChars;
+  private FieldSerializerDeserializer fieldSerde;
+
   public LazyTuple(Schema schema, byte[][] textBytes, long offset) {
     this(schema, textBytes, offset, NullDatum.get().asTextBytes(), new TextSerializerDeserializer());
   }
@@ -48,6 +64,23 @@ public class LazyTuple implements Tuple, Cloneable {
     this.serializeDeserialize = serde;
   }
 
+  /**
+   * Creates a tuple whose fields are ranges of a line. The line must not be modified while this tuple is used.
+   *
+   * @param line A line which starts at index 0
+   * @param nullChars The bytes of a null field
+   * @param serde The deserializer of a field
+   */
+  public LazyTuple(Schema schema, ByteBuf line, ByteBuf nullChars, FieldSerializerDeserializer serde) {
+    this.schema = schema;
+    this.values = new Datum[schema.size()];
+    this.line = line;
+    this.fieldRanges = new int[schema.size() * 2];
+    Arrays.fill(fieldRanges, -1);
+    this.nullChars = nullChars;
+    this.fieldSerde = serde;
+  }
+
   public LazyTuple(LazyTuple tuple) {
     this.values = tuple.getValues();
     this.offset = tuple.offset;
@@ -57,6 +90,31 @@ public class LazyTuple implements Tuple, Cloneable {
     this.serializeDeserialize = tuple.serializeDeserialize;
   }
 
+  /**
+   * Sets the range of a field in the line, which is deserialized when it is accessed first.
+   */
+  public void setField(int fieldId, int start, int length) {
+    values[fieldId] = null;
+    fieldRanges[fieldId * 2] = start;
+    fieldRanges[fieldId * 2 + 1] = length;
+  }
+
+  private boolean hasFieldRange(int fieldId) {
+    return fieldRanges != null && fieldRanges[fieldId * 2] >= 0;
+  }
+
+  private void clearFieldRange(int fieldId) {
+    if (fieldRanges != null) {
+      fieldRanges[fieldId * 2] = -1;
+    }
+  }
+
+  private void clearTextBytes(int fieldId) {
+    if (textBytes != null) {
+      textBytes[fieldId] = null;
+    }
+  }
+
   @Override
   public int size() {
     return values.length;
@@ -64,12 +122,13 @@ public class LazyTuple implements Tuple, Cloneable {
 
   @Override
   public boolean contains(int fieldid) {
-    return textBytes[fieldid] != null || values[fieldid] != null;
+    return values[fieldid] != null || hasFieldRange(fieldid) || (textBytes != null && textBytes[fieldid] != null);
   }
 
   @Override
   public boolean isNull(int fieldid) {
-    return get(fieldid).isNull();
+    Datum datum = get(fieldid);
+    return datum == null || datum.isNull();
   }
 
   @Override
@@ -81,7 +140,8 @@ public class LazyTuple implements Tuple, Cloneable {
   public void clear() {
     for (int i = 0; i < values.length; i++) {
       values[i] = null;
-      textBytes[i] = null;
+      clearTextBytes(i);
+      clearFieldRange(i);
     }
   }
 
@@ -91,13 +151,15 @@ public class LazyTuple implements Tuple, Cloneable {
   @Override
   public void put(int fieldId, Datum value) {
     values[fieldId] = value;
-    textBytes[fieldId] = null;
+    clearTextBytes(fieldId);
+    clearFieldRange(fieldId);
   }
 
   @Override
   public void put(int fieldId, Datum[] values) {
     for (int i = fieldId, j = 0; j < values.length; i++, j++) {
       this.values[i] = values[j];
+      clearFieldRange(i);
     }
     this.textBytes = new byte[values.length][];
   }
@@ -106,7 +168,8 @@ public class LazyTuple implements Tuple, Cloneable {
   public void put(int fieldId, Tuple tuple) {
     for (int i = fieldId, j = 0; j < tuple.size(); i++, j++) {
       values[i] = tuple.get(j);
-      textBytes[i] = null;
+      clearTextBytes(i);
+      clearFieldRange(i);
     }
   }
 
@@ -114,6 +177,7 @@ public class LazyTuple implements Tuple, Cloneable {
   public void put(Datum[] values) {
     System.arraycopy(values, 0, this.values, 0, size());
     this.textBytes = new byte[values.length][];
+    this.fieldRanges = null;
   }
 
   //////////////////////////////////////////////////////
@@ -123,7 +187,12 @@ public class LazyTuple implements Tuple, Cloneable {
   public Datum get(int fieldId) {
     if (values[fieldId] != null)
       return values[fieldId];
-    else if (textBytes.length <= fieldId) {
+    else if (fieldRanges != null) {
+      if (hasFieldRange(fieldId)) {
+        values[fieldId] = deserializeField(fieldId);
+        clearFieldRange(fieldId);
+      }
+    } else if (textBytes.length <= fieldId) {
       values[fieldId] = NullDatum.get();  // split error. (col : 3, separator: ',', row text: "a,")
     } else if (textBytes[fieldId] != null) {
       try {
@@ -139,6 +208,16 @@ public class LazyTuple implements Tuple, Cloneable {
     return values[fieldId];
   }
 
+  private Datum deserializeField(int fieldId) {
+    int start = fieldRanges[fieldId * 2];
+    line.setIndex(start, start + fieldRanges[fieldId * 2 + 1]);
+    try {
+      return fieldSerde.deserialize(line, schema.getColumn(fieldId), fieldId, nullChars);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   @Override
   public void setOffset(long offset) {
     this.offset = offset;
@@ -238,7 +317,8 @@ public class LazyTuple implements Tuple, Cloneable {
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(values);
+    // values not decoded yet are null, so the hash is computed from decoded values as equals() compares them
+    return Arrays.hashCode(getValues());
   }
 
   @Override
@@ -256,6 +336,8 @@ public class LazyTuple implements Tuple, Cloneable {
 
     lazyTuple.values = getValues(); //shallow copy
     lazyTuple.textBytes = new byte[size()][];
+    lazyTuple.fieldRanges = null;
+    lazyTuple.line = null;
     return lazyTuple;
   }
 
@@ -44,6 +44,7 @@ public class MergeScanner implements Scanner {
   private boolean projectable = false;
   private boolean selectable = false;
   private Schema target;
+  private Object searchCondition;
   private float progress;
   protected TableStats tableStats;
 
@@ -93,6 +94,10 @@ public class MergeScanner implements Scanner {
   @Override
   public void init() throws IOException {
     progress = 0.0f;
+    if (searchCondition != null && selectable) {
+      // the first scanner is opened again with the search condition
+      reset();
+    }
   }
 
   @Override
@@ -109,6 +114,7 @@ public class MergeScanner implements Scanner {
         if (scannerTableStsts != null) {
           tableStats.setReadBytes(tableStats.getReadBytes() + scannerTableStsts.getReadBytes());
           tableStats.setNumRows(tableStats.getNumRows() + scannerTableStsts.getNumRows());
+          tableStats.setNumSkippedBlocks(tableStats.getNumSkippedBlocks() + scannerTableStsts.getNumSkippedBlocks());
         }
       }
       currentScanner = getNextScanner();
@@ -133,6 +139,9 @@ public class MergeScanner implements Scanner {
       currentFragment = iterator.next();
       currentScanner = StorageManager.getStorageManager((TajoConf)conf, meta.getStoreType()).getScanner(meta, schema,
           currentFragment, target);
+      if (searchCondition != null && currentScanner.isSelectable()) {
+        currentScanner.setSearchCondition(searchCondition);
+      }
       currentScanner.init();
       return currentScanner;
     } else {
@@ -167,6 +176,7 @@ public class MergeScanner implements Scanner {
 
   @Override
   public void setSearchCondition(Object expr) {
+    this.searchCondition = expr;
   }
 
   @Override
@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.base.Preconditions;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.util.UnsafeComparer;
+
+import java.util.Arrays;
+
+/**
+ * NormalizedKeyEncoder encodes the sort keys of a tuple into a byte array whose unsigned lexicographic order
+ * is the same as the order given by {@link BaseTupleComparator} for the same sort specs. So, two tuples can be
+ * compared by a single memcmp of their normalized keys (e.g., {@link UnsafeComparer}) instead of
+ * comparing datums key by key.
+ *
+ * Each key field is encoded as a null marker byte followed by its value bytes:
+ * <ul>
+ *   <li>Integral values are written in big-endian order with the sign bit flipped.</li>
+ *   <li>Floating point values are written as their IEEE 754 bits, which are flipped so that they are ordered
+ *   like signed numbers.</li>
+ *   <li>Variable-length values are escaped (0x00 is written as 0x00 0xFF) and terminated by 0x00 0x00,
+ *   so that a shorter value is ordered before the longer values which it prefixes.</li>
+ *   <li>All value bytes of a descending key are inverted.</li>
+ * </ul>
+ * The null marker is not inverted, and it directly places a null before or after all non-null values.
+ *
+ * This class is not thread-safe because it reuses an internal buffer.
+ */
+public class NormalizedKeyEncoder {
+  private static final byte NULL_FIRST_MARKER = 0x00;
+  private static final byte NOT_NULL_MARKER = 0x01;
+  private static final byte NULL_LAST_MARKER = 0x02;
+
+  private static final int INITIAL_BUFFER_SIZE = 64;
+
+  private final int [] sortKeyIds;
+  private final Type [] types;
+  private final boolean [] asc;
+  private final boolean [] nullLasts;
+
+  private byte [] buffer = new byte[INITIAL_BUFFER_SIZE];
+  private int position;
+
+  /**
+   * @param schema The schema of input tuples
+   * @param sortKeys The description of sort keys
+   */
+  public NormalizedKeyEncoder(Schema schema, SortSpec[] sortKeys) {
+    Preconditions.checkArgument(sortKeys.length > 0,
+        "At least one sort key must be specified.");
+    Preconditions.checkArgument(isEncodable(sortKeys), "Sort keys are not encodable: " + Arrays.toString(sortKeys));
+
+    this.sortKeyIds = new int[sortKeys.length];
+    this.types = new Type[sortKeys.length];
+    this.asc = new boolean[sortKeys.length];
+    this.nullLasts = new boolean[sortKeys.length];
+    for (int i = 0; i < sortKeys.length; i++) {
+      if (sortKeys[i].getSortKey().hasQualifier()) {
+        this.sortKeyIds[i] = schema.getColumnId(sortKeys[i].getSortKey().getQualifiedName());
+      } else {
+        this.sortKeyIds[i] = schema.getColumnIdByName(sortKeys[i].getSortKey().getSimpleName());
+      }
+
+      this.types[i] = sortKeys[i].getSortKey().getDataType().getType();
+      this.asc[i] = sortKeys[i].isAscending();
+      // the same null ordering as BaseTupleComparator
+      this.nullLasts[i] = sortKeys[i].isAscending() != sortKeys[i].isNullFirst();
+    }
+  }
+
+  /**
+   * Returns true if all sort keys can be encoded into normalized keys.
+   */
+  public static boolean isEncodable(SortSpec[] sortKeys) {
+    if (sortKeys.length == 0) {
+      return false;
+    }
+    for (SortSpec sortKey : sortKeys) {
+      if (!isEncodable(sortKey.getSortKey().getDataType().getType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isEncodable(Type type) {
+    switch (type) {
+    case NULL_TYPE:
+    case BOOLEAN:
+    case BIT:
+    case INT1:
+    case INT2:
+    case INT4:
+    case DATE:
+    case INET4:
+    case INT8:
+    case TIME:
+    case TIMESTAMP:
+    case INTERVAL:
+    case FLOAT4:
+    case FLOAT8:
+    case CHAR:
+    case TEXT:
+    case BLOB:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  public int [] getSortKeyIds() {
+    return sortKeyIds;
+  }
+
+  /**
+   * Encodes the sort keys of a given tuple.
+   *
+   * @param tuple The tuple to be encoded
+   * @return A new byte array containing the normalized key
+   */
+  public byte [] encode(Tuple tuple) {
+    position = 0;
+    for (int i = 0; i < sortKeyIds.length; i++) {
+      Datum datum = tuple.get(sortKeyIds[i]);
+
+      ensureCapacity(1);
+      if (datum.isNull()) {
+        buffer[position++] = nullLasts[i] ? NULL_LAST_MARKER : NULL_FIRST_MARKER;
+        continue;
+      }
+      buffer[position++] = NOT_NULL_MARKER;
+
+      int valueStart = position;
+      writeValue(types[i], datum);
+      if (!asc[i]) {
+        for (int j = valueStart; j < position; j++) {
+          buffer[j] = (byte) ~buffer[j];
+        }
+      }
+    }
+
+    return Arrays.copyOf(buffer, position);
+  }
+
+  private void writeValue(Type type, Datum datum) {
+    switch (type) {
+    case NULL_TYPE:
+      break;
+    case BOOLEAN:
+      ensureCapacity(1);
+      buffer[position++] = (byte) (datum.asBool() ? 1 : 0);
+      break;
+    case BIT:
+      ensureCapacity(1);
+      buffer[position++] = (byte) (datum.asByte() ^ 0x80);
+      break;
+    case INT1:
+    case INT2:
+      writeShort((short) (datum.asInt2() ^ Short.MIN_VALUE));
+      break;
+    case INT4:
+    case DATE:
+      writeInt(datum.asInt4() ^ Integer.MIN_VALUE);
+      break;
+    case INET4:
+      // IP addresses are compared as unsigned integers.
+      writeInt(datum.asInt4());
+      break;
+    case INT8:
+    case TIME:
+    case TIMESTAMP:
+    case INTERVAL:
+      writeLong(datum.asInt8() ^ Long.MIN_VALUE);
+      break;
+    case FLOAT4: {
+      float val = datum.asFloat4();
+      // -0.0 and 0.0 are equal in Float4Datum::compareTo
+      int bits = Float.floatToIntBits(val == 0.0f ? 0.0f : val);
+      writeInt(bits < 0 ? ~bits : bits ^ Integer.MIN_VALUE);
+      break;
+    }
+    case FLOAT8: {
+      double val = datum.asFloat8();
+      long bits = Double.doubleToLongBits(val == 0.0d ? 0.0d : val);
+      writeLong(bits < 0 ? ~bits : bits ^ Long.MIN_VALUE);
+      break;
+    }
+    case CHAR:
+    case TEXT:
+      writeBytes(datum.asByteArray(), false);
+      break;
+    case BLOB:
+      // BlobDatum compares its bytes as signed values.
+      writeBytes(datum.asByteArray(), true);
+      break;
+    default:
+      throw new UnsupportedOperationException("Unsupported sort key type: " + type);
+    }
+  }
+
+  private void writeShort(short val) {
+    ensureCapacity(2);
+    buffer[position++] = (byte) (val >>> 8);
+    buffer[position++] = (byte) val;
+  }
+
+  private void writeInt(int val) {
+    ensureCapacity(4);
+    buffer[position++] = (byte) (val >>> 24);
+    buffer[position++] = (byte) (val >>> 16);
+    buffer[position++] = (byte) (val >>> 8);
+    buffer[position++] = (byte) val;
+  }
+
+  private void writeLong(long val) {
+    writeInt((int) (val >>> 32));
+    writeInt((int) val);
+  }
+
+  private void writeBytes(byte [] bytes, boolean signed) {
+    // in the worst case, every byte is escaped.
+    ensureCapacity(bytes.length * 2 + 2);
+    for (byte b : bytes) {
+      byte encoded = signed ? (byte) (b ^ 0x80) : b;
+      buffer[position++] = encoded;
+      if (encoded == 0) {
+        buffer[position++] = (byte) 0xFF;
+      }
+    }
+    buffer[position++] = 0;
+    buffer[position++] = 0;
+  }
+
+  private void ensureCapacity(int size) {
+    if (position + size > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + size));
+    }
+  }
+
+  /**
+   * Compares two normalized keys.
+   */
+  public static int compare(byte [] key1, byte [] key2) {
+    return UnsafeComparer.INSTANCE.compare(key1, key2);
+  }
+}
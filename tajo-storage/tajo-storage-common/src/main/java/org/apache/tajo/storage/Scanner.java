@@ -72,7 +72,9 @@ public interface Scanner extends SchemaObject, Closeable {
   void setTarget(Column[] targets);
 
   /**
-   * It returns if the selection is executed in the underlying scanner layer.
+   * It returns if the selection is executed in the underlying scanner layer. A scanner may return tuples which do
+   * not satisfy a given condition, e.g., when it only skips blocks by their statistics. So, callers should evaluate
+   * the condition against returned tuples.
    *
    * @return true if this scanner can filter tuples against a given condition.
    */
@@ -0,0 +1,331 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.netty.buffer.ByteBuf;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.util.Deallocatable;
+import org.apache.tajo.util.UnsafeUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A buffer of fetched shuffle data, which is written by a fetcher and read by a scanner at the same time.
+ *
+ * Written bytes are kept in off-heap pages which are reserved from a {@link MemoryBudget}. If the budget is
+ * exhausted, the remaining bytes are spilled into the file of this buffer. A reader blocks until the bytes at
+ * its position are written, so a scanner can consume shuffle data while it is being fetched.
+ *
+ * A buffer is registered with its file path, and a scanner of the path reads this buffer instead of the file.
+ * The length of a buffer is known when a fetcher receives the response header, and a buffer is ready at that time.
+ */
+public class ShuffleStreamBuffer implements Deallocatable {
+  private static final Log LOG = LogFactory.getLog(ShuffleStreamBuffer.class);
+
+  private static final int PAGE_SIZE = 64 * 1024;
+  private static final ConcurrentMap<String, ShuffleStreamBuffer> registry = Maps.newConcurrentMap();
+
+  private final File file;
+  private final MemoryBudget budget;
+  private final List<ByteBuffer> pages = Lists.newArrayList();
+
+  private long length = -1;
+  private long memoryBytes;
+  private long writtenBytes;
+  private boolean finished;
+  private Throwable error;
+  private Runnable readyListener;
+
+  // spill
+  private RandomAccessFile spillFile;
+  private FileChannel spillChannel;
+
+  public ShuffleStreamBuffer(File file, MemoryBudget budget) {
+    this.file = file;
+    this.budget = budget;
+  }
+
+  /**
+   * Registers a buffer, so scanners of its file read the buffer.
+   */
+  public static void register(ShuffleStreamBuffer buffer) {
+    registry.put(buffer.file.getAbsolutePath(), buffer);
+  }
+
+  /**
+   * @return The buffer registered with a file, or null if there is no registered buffer
+   */
+  public static ShuffleStreamBuffer lookup(File file) {
+    return registry.get(file.getAbsolutePath());
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Sets a listener which is called once when this buffer becomes ready.
+   */
+  public synchronized void setReadyListener(Runnable listener) {
+    this.readyListener = listener;
+    if (isReady()) {
+      fireReady();
+    }
+  }
+
+  private void fireReady() {
+    if (readyListener != null) {
+      Runnable listener = readyListener;
+      readyListener = null;
+      listener.run();
+    }
+  }
+
+  /**
+   * @return True if the length is known or this buffer is finished.
+   */
+  public synchronized boolean isReady() {
+    return length >= 0 || finished;
+  }
+
+  /**
+   * Clears the failure of a previous fetch, so that the data can be fetched again.
+   * It is allowed only if nothing has been written.
+   */
+  public synchronized void reset() {
+    Preconditions.checkState(writtenBytes == 0 && !isReady(), "Shuffle stream " + file + " is already being read");
+    error = null;
+  }
+
+  /**
+   * Sets the total length of the data, which is given by the response header.
+   */
+  public synchronized void setLength(long length) {
+    this.length = length;
+    fireReady();
+    notifyAll();
+  }
+
+  /**
+   * @return The total length. It is valid only if this buffer is ready.
+   */
+  public synchronized long getLength() {
+    return length >= 0 ? length : writtenBytes;
+  }
+
+  public synchronized long getWrittenBytes() {
+    return writtenBytes;
+  }
+
+  /**
+   * @return The bytes kept in memory
+   */
+  public synchronized long getMemoryBytes() {
+    return memoryBytes;
+  }
+
+  public synchronized boolean isSpilled() {
+    return spillChannel != null;
+  }
+
+  public synchronized boolean isFailed() {
+    return error != null;
+  }
+
+  /**
+   * Appends all readable bytes of a buffer.
+   */
+  public void write(ByteBuf src) throws IOException {
+    while (src.isReadable()) {
+      synchronized (this) {
+        if (spillChannel != null) {
+          // only a writer moves the position of the spill channel, and readers use positional reads
+          writtenBytes += src.readBytes(spillChannel, src.readableBytes());
+        } else {
+          ByteBuffer page = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+          if (page == null || !page.hasRemaining()) {
+            if (budget.tryReserve(PAGE_SIZE)) {
+              page = ByteBuffer.allocateDirect(PAGE_SIZE);
+              pages.add(page);
+            } else {
+              spill();
+              continue;
+            }
+          }
+          int len = Math.min(page.remaining(), src.readableBytes());
+          int limit = page.position() + len;
+          ByteBuffer dst = page.duplicate();
+          dst.limit(limit);
+          src.readBytes(dst);
+          page.position(limit);
+          memoryBytes += len;
+          writtenBytes += len;
+        }
+        notifyAll();
+      }
+    }
+  }
+
+  private void spill() throws IOException {
+    LOG.info("Memory budget for shuffle streams is exhausted, " + file + " is spilled after " + memoryBytes
+        + " bytes");
+    spillFile = new RandomAccessFile(file, "rw");
+    spillFile.setLength(0);
+    spillChannel = spillFile.getChannel();
+  }
+
+  /**
+   * Marks the end of data. It fails if the written bytes are different from the length.
+   */
+  public synchronized void finish() {
+    if (length >= 0 && length != writtenBytes) {
+      fail(new IOException("Shuffle stream " + file + " expected " + length + " bytes, but received "
+          + writtenBytes + " bytes"));
+      return;
+    }
+    finished = true;
+    fireReady();
+    notifyAll();
+  }
+
+  public synchronized void fail(Throwable cause) {
+    if (error == null && !finished) {
+      error = cause;
+    }
+    notifyAll();
+  }
+
+  /**
+   * Reads bytes at a position into a buffer. It blocks until some bytes at the position are written.
+   *
+   * @return The number of read bytes, or -1 if there is no more data
+   */
+  public int read(long position, ByteBuffer dst) throws IOException {
+    long available;
+    long inMemory;
+    FileChannel spilled;
+    synchronized (this) {
+      while (position >= writtenBytes && !finished && error == null) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          throw new IOException("Interrupted while reading " + file, e);
+        }
+      }
+      if (error != null) {
+        throw new IOException("Fetching " + file + " failed", error);
+      }
+      if (position >= writtenBytes) {
+        return -1;
+      }
+      available = writtenBytes - position;
+      inMemory = memoryBytes;
+      spilled = spillChannel;
+    }
+
+    int len = (int) Math.min(dst.remaining(), available);
+    if (position < inMemory) {
+      // written pages are not modified, so they can be read without the lock
+      int pageIdx = (int) (position / PAGE_SIZE);
+      int offset = (int) (position % PAGE_SIZE);
+      ByteBuffer page;
+      synchronized (this) {
+        page = pages.get(pageIdx).duplicate();
+      }
+      len = (int) Math.min(len, Math.min(PAGE_SIZE - offset, inMemory - position));
+      page.limit(offset + len);
+      page.position(offset);
+      dst.put(page);
+      return len;
+    } else {
+      ByteBuffer slice = dst.duplicate();
+      slice.limit(slice.position() + len);
+      int read = spilled.read(slice, position - inMemory);
+      dst.position(slice.position());
+      return read;
+    }
+  }
+
+  /**
+   * Unregisters this buffer, and releases its memory. The spilled file is kept.
+   */
+  @Override
+  public synchronized void release() {
+    registry.remove(file.getAbsolutePath(), this);
+    for (ByteBuffer page : pages) {
+      UnsafeUtil.free(page);
+      budget.release(PAGE_SIZE);
+    }
+    pages.clear();
+    memoryBytes = 0;
+    IOUtils.cleanup(LOG, spillChannel, spillFile);
+    if (!finished && error == null) {
+      error = new IOException("Shuffle stream " + file + " is released");
+    }
+    notifyAll();
+  }
+
+  /**
+   * The memory shared by shuffle streams of a worker.
+   */
+  public static class MemoryBudget {
+    private final long capacity;
+    private final AtomicLong used = new AtomicLong();
+
+    public MemoryBudget(long capacity) {
+      this.capacity = capacity;
+    }
+
+    public boolean tryReserve(long bytes) {
+      while (true) {
+        long current = used.get();
+        if (current + bytes > capacity) {
+          return false;
+        }
+        if (used.compareAndSet(current, current + bytes)) {
+          return true;
+        }
+      }
+    }
+
+    public void release(long bytes) {
+      used.addAndGet(-bytes);
+    }
+
+    public long getCapacity() {
+      return capacity;
+    }
+
+    public long getUsed() {
+      return used.get();
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.exception.InvalidOperationException;
+import org.apache.tajo.plan.expr.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>StatisticsFilter</code> decides whether a block of rows can be skipped for a search condition by the
+ * statistics of the block, i.e., min/max values and the number of nulls of columns.
+ *
+ * Only conjuncts which compare a column with a constant and IS [NOT] NULL predicates are used, and the others are
+ * ignored. So, a block which is not skipped still has to be filtered by the search condition.
+ */
+public class StatisticsFilter {
+  private final List<EvalNode> predicates = new ArrayList<EvalNode>();
+
+  public StatisticsFilter(EvalNode qual) {
+    if (qual == null) {
+      return;
+    }
+    for (EvalNode conjunct : AlgebraicUtil.toConjunctiveNormalFormArray(qual)) {
+      if (getColumnName(conjunct) != null) {
+        predicates.add(conjunct);
+      }
+    }
+  }
+
+  /**
+   * @return True if there is no predicate which can be checked against statistics
+   */
+  public boolean isEmpty() {
+    return predicates.isEmpty();
+  }
+
+  /**
+   * @param statsMap Column statistics of a block by simple column names. A column without statistics is unknown,
+   *                 and the number of nulls of given statistics must be exact.
+   * @param numRows The number of rows of the block
+   * @return True if no row in the block can satisfy the search condition
+   */
+  public boolean canSkip(Map<String, ColumnStats> statsMap, long numRows) {
+    for (EvalNode predicate : predicates) {
+      ColumnStats stats = statsMap.get(getColumnName(predicate));
+      if (stats != null && canSkip(predicate, stats, numRows)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean canSkip(EvalNode predicate, ColumnStats stats, long numRows) {
+    Long numNulls = stats.getNumNulls();
+    boolean allNulls = numNulls != null && numRows > 0 && numNulls == numRows;
+
+    if (predicate.getType() == EvalType.IS_NULL) {
+      if (((IsNullEval) predicate).isNot()) {
+        return allNulls;
+      } else {
+        return numNulls != null && numNulls == 0;
+      }
+    }
+
+    // a comparison with null is never true
+    if (allNulls) {
+      return true;
+    }
+    if (stats.minIsNotSet() || stats.maxIsNotSet()) {
+      return false;
+    }
+
+    BinaryEval binaryEval = (BinaryEval) predicate;
+    boolean constOnLeft = binaryEval.getLeftExpr().getType() == EvalType.CONST;
+    Datum value = ((ConstEval) (constOnLeft ? binaryEval.getLeftExpr() : binaryEval.getRightExpr())).getValue();
+    if (value.isNull()) {
+      return false;
+    }
+
+    int minCompared, maxCompared;
+    try {
+      minCompared = stats.getMinValue().compareTo(value);
+      maxCompared = stats.getMaxValue().compareTo(value);
+    } catch (InvalidOperationException e) {
+      return false;
+    }
+
+    switch (constOnLeft ? flip(predicate.getType()) : predicate.getType()) {
+    case EQUAL:
+      return minCompared > 0 || maxCompared < 0;
+    case NOT_EQUAL:
+      return minCompared == 0 && maxCompared == 0;
+    case LTH:
+      return minCompared >= 0;
+    case LEQ:
+      return minCompared > 0;
+    case GTH:
+      return maxCompared <= 0;
+    case GEQ:
+      return maxCompared < 0;
+    default:
+      return false;
+    }
+  }
+
+  private static EvalType flip(EvalType type) {
+    switch (type) {
+    case LTH:
+      return EvalType.GTH;
+    case LEQ:
+      return EvalType.GEQ;
+    case GTH:
+      return EvalType.LTH;
+    case GEQ:
+      return EvalType.LEQ;
+    default:
+      return type;
+    }
+  }
+
+  /**
+   * @return The simple name of the column of a predicate which can be checked against statistics, or null
+   */
+  private static String getColumnName(EvalNode predicate) {
+    switch (predicate.getType()) {
+    case IS_NULL: {
+      EvalNode child = ((IsNullEval) predicate).getChild();
+      return child.getType() == EvalType.FIELD ? ((FieldEval) child).getColumnRef().getSimpleName() : null;
+    }
+    case EQUAL:
+    case NOT_EQUAL:
+    case LTH:
+    case LEQ:
+    case GTH:
+    case GEQ: {
+      EvalNode left = ((BinaryEval) predicate).getLeftExpr();
+      EvalNode right = ((BinaryEval) predicate).getRightExpr();
+      if (left.getType() == EvalType.FIELD && right.getType() == EvalType.CONST) {
+        return ((FieldEval) left).getColumnRef().getSimpleName();
+      } else if (left.getType() == EvalType.CONST && right.getType() == EvalType.FIELD) {
+        return ((FieldEval) right).getColumnRef().getSimpleName();
+      }
+      return null;
+    }
+    default:
+      return null;
+    }
+  }
+}
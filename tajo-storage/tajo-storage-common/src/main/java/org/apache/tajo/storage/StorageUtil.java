@@ -18,10 +18,12 @@
 
 package org.apache.tajo.storage;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.tajo.catalog.Column;
+import org.apache.tajo.exception.UnsupportedException;
 import sun.nio.ch.DirectBuffer;
 
 import java.io.DataInput;
@@ -148,6 +150,29 @@ public class StorageUtil extends StorageConstants {
     }
   }
 
+  /**
+   * ORC handlers are registered only if Tajo is built with -Porc, and they need hive-exec in the classpath.
+   * This check lets an ORC table fail when it is created or mapped, instead of in the tasks reading it.
+   *
+   * @param conf The system property
+   * @throws UnsupportedException if the ORC handlers are not registered or cannot be loaded
+   */
+  public static void checkOrcAvailable(Configuration conf) {
+    String scannerClass = conf.get(ORC_SCANNER_HANDLER_KEY);
+    if (scannerClass == null || conf.get(ORC_APPENDER_HANDLER_KEY) == null) {
+      throw new UnsupportedException("ORC is not supported: Tajo is built without -Porc");
+    }
+
+    try {
+      conf.getClassByName(scannerClass);
+      conf.getClassByName(ORC_HIVE_CLASS);
+    } catch (ClassNotFoundException e) {
+      throw new UnsupportedException("ORC is not supported: " + e.getMessage() + " is not in the classpath", e);
+    } catch (NoClassDefFoundError e) {
+      throw new UnsupportedException("ORC is not supported: hive-exec is not in the classpath", e);
+    }
+  }
+
   public static void closeBuffer(ByteBuffer buffer) {
     if (buffer != null) {
       if (buffer.isDirect()) {
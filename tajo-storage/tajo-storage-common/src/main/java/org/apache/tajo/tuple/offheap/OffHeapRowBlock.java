@@ -106,11 +106,15 @@ public class OffHeapRowBlock extends OffHeapMemory implements Deallocatable {
    */
   public void ensureSize(int size) {
     if (remain() - size < 0) {
-      if (!limitSpec.canIncrease(memorySize)) {
-        throw new RuntimeException("Cannot increase RowBlock anymore.");
-      }
+      // a large field may need more than one increase
+      int newBlockSize = memorySize;
+      do {
+        if (!limitSpec.canIncrease(newBlockSize)) {
+          throw new RuntimeException("Cannot increase RowBlock anymore.");
+        }
+        newBlockSize = limitSpec.increasedSize(newBlockSize);
+      } while (newBlockSize - memorySize + remain() - size < 0);
 
-      int newBlockSize = limitSpec.increasedSize(memorySize);
       resize(newBlockSize);
       LOG.info("Increase DirectRowBlock to " + FileUtil.humanReadableByteCount(newBlockSize, false));
     }
@@ -166,6 +170,17 @@ public class OffHeapRowBlock extends OffHeapMemory implements Deallocatable {
     }
   }
 
+  /**
+   * Points a tuple to the row which starts at a given position of this block.
+   * The tuple becomes invalid if this block is resized or released.
+   *
+   * @param rowPos The start position of a row, which was given by {@link #position()} before writing the row
+   * @param tuple The tuple to point the row
+   */
+  public void readRow(int rowPos, ZeroCopyTuple tuple) {
+    tuple.set(buffer, rowPos, UNSAFE.getInt(address + rowPos), dataTypes);
+  }
+
   public RowWriter getWriter() {
     return builder;
   }
@@ -89,7 +89,7 @@ public class UnSafeTupleBytesComparator {
 
     // The epilogue to cover the last (minLength % 8) elements.
     for (int i = minWords * Longs.BYTES; i < minLength; i++) {
-      int result = UNSAFE.getByte(ptr1++) - UNSAFE.getByte(ptr2++);
+      int result = (UNSAFE.getByte(ptr1++) & 0xFF) - (UNSAFE.getByte(ptr2++) & 0xFF);
       if (result != 0) {
         return result;
       }
@@ -193,6 +193,19 @@ public class TestLazyTuple {
     assertNotSame(t1.hashCode(), t4.hashCode());
   }
 
+  @Test
+  public void testHashCodeOfUndecodedValues() {
+    LazyTuple t1 = new LazyTuple(schema, textRow, -1, nullbytes, serde);
+    LazyTuple t2 = new LazyTuple(schema, textRow, -1, nullbytes, serde);
+    t2.get(4);
+
+    Tuple t3 = new VTuple(t1.getValues());
+    assertEquals(t2, t1);
+    assertEquals(t3, t1);
+    assertEquals(t3.hashCode(), t1.hashCode());
+    assertEquals(t2.hashCode(), new LazyTuple(schema, textRow, -1, nullbytes, serde).hashCode());
+  }
+
   @Test
   public void testPutTuple() {
     int colNum = schema.size();
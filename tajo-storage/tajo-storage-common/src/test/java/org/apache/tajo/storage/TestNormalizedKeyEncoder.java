@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.SortSpec;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TestNormalizedKeyEncoder {
+  private static final Random rnd = new Random(-1);
+
+  private static Schema createSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("col_bool", Type.BOOLEAN);
+    schema.addColumn("col_int2", Type.INT2);
+    schema.addColumn("col_int4", Type.INT4);
+    schema.addColumn("col_int8", Type.INT8);
+    schema.addColumn("col_float4", Type.FLOAT4);
+    schema.addColumn("col_float8", Type.FLOAT8);
+    schema.addColumn("col_text", Type.TEXT);
+    schema.addColumn("col_blob", Type.BLOB);
+    schema.addColumn("col_date", Type.DATE);
+    schema.addColumn("col_timestamp", Type.TIMESTAMP);
+    return schema;
+  }
+
+  private static Tuple createRandomTuple() {
+    Datum [] datums = new Datum[] {
+        DatumFactory.createBool(rnd.nextBoolean()),
+        DatumFactory.createInt2((short) (rnd.nextInt(20) - 10)),
+        DatumFactory.createInt4(rnd.nextInt(20) - 10),
+        DatumFactory.createInt8(rnd.nextBoolean() ? rnd.nextLong() : rnd.nextInt(5) - 2),
+        DatumFactory.createFloat4(rnd.nextBoolean() ? -0.0f : (rnd.nextInt(10) - 5) / 2.0f),
+        DatumFactory.createFloat8(rnd.nextBoolean() ? 0.0d : rnd.nextGaussian()),
+        // short strings sharing prefixes, including zero bytes
+        DatumFactory.createText(randomBytes()),
+        DatumFactory.createBlob(randomBytes()),
+        DatumFactory.createDate(2000 + rnd.nextInt(3), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28)),
+        DatumFactory.createTimestmpDatumWithUnixTime(rnd.nextInt(100))
+    };
+    for (int i = 0; i < datums.length; i++) {
+      if (rnd.nextInt(10) == 0) {
+        datums[i] = NullDatum.get();
+      }
+    }
+    return new VTuple(datums);
+  }
+
+  private static byte [] randomBytes() {
+    byte [] bytes = new byte[rnd.nextInt(4)];
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = (byte) (rnd.nextInt(4) - 2);
+    }
+    return bytes;
+  }
+
+  private static int signum(int val) {
+    return val < 0 ? -1 : (val > 0 ? 1 : 0);
+  }
+
+  @Test
+  public final void testSameOrderAsComparator() {
+    Schema schema = createSchema();
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    for (int i = 0; i < 300; i++) {
+      tuples.add(createRandomTuple());
+    }
+
+    for (int keyIdx = 0; keyIdx < schema.size(); keyIdx++) {
+      for (int option = 0; option < 4; option++) {
+        // a key of each type followed by a text key
+        SortSpec [] sortSpecs = new SortSpec[] {
+            new SortSpec(schema.getColumn(keyIdx), option / 2 == 0, option % 2 == 0),
+            new SortSpec(schema.getColumn("col_text"), option % 2 == 0, option / 2 == 0)
+        };
+        BaseTupleComparator comparator = new BaseTupleComparator(schema, sortSpecs);
+        NormalizedKeyEncoder encoder = new NormalizedKeyEncoder(schema, sortSpecs);
+
+        for (int i = 0; i < tuples.size(); i++) {
+          byte [] key1 = encoder.encode(tuples.get(i));
+          for (int j = 0; j < tuples.size(); j++) {
+            byte [] key2 = encoder.encode(tuples.get(j));
+            assertEquals(sortSpecs[0] + ", " + tuples.get(i) + ", " + tuples.get(j),
+                signum(comparator.compare(tuples.get(i), tuples.get(j))),
+                signum(NormalizedKeyEncoder.compare(key1, key2)));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public final void testIsEncodable() {
+    Schema schema = createSchema();
+    schema.addColumn("col_proto", Type.PROTOBUF);
+
+    assertTrue(NormalizedKeyEncoder.isEncodable(new SortSpec[] {new SortSpec(schema.getColumn("col_text"))}));
+    assertFalse(NormalizedKeyEncoder.isEncodable(new SortSpec[] {new SortSpec(schema.getColumn("col_proto"))}));
+    assertFalse(NormalizedKeyEncoder.isEncodable(new SortSpec[] {}));
+  }
+}
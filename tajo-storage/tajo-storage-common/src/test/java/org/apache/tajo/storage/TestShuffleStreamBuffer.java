@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import io.netty.buffer.Unpooled;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class TestShuffleStreamBuffer {
+  private static final Random rnd = new Random(-1);
+
+  private static File createFile(String name) throws IOException {
+    File dir = new File(CommonTestingUtil.getTestDir().toUri());
+    return new File(dir, name);
+  }
+
+  private static byte [] randomBytes(int len) {
+    byte [] bytes = new byte[len];
+    rnd.nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte [] readAll(ShuffleStreamBuffer stream, int len) throws IOException {
+    byte [] read = new byte[len];
+    ByteBuffer dst = ByteBuffer.allocate(1000); // not aligned with pages
+    long position = 0;
+    int n;
+    while ((n = stream.read(position, dst)) != -1) {
+      dst.flip();
+      dst.get(read, (int) position, n);
+      dst.clear();
+      position += n;
+    }
+    assertEquals(len, position);
+    return read;
+  }
+
+  private void testReadWhileWriting(long budgetBytes, boolean expectSpill) throws Exception {
+    final byte [] data = randomBytes(1024 * 1024);
+    ShuffleStreamBuffer.MemoryBudget budget = new ShuffleStreamBuffer.MemoryBudget(budgetBytes);
+    final ShuffleStreamBuffer stream = new ShuffleStreamBuffer(createFile("stream"), budget);
+    ShuffleStreamBuffer.register(stream);
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      assertSame(stream, ShuffleStreamBuffer.lookup(stream.getFile()));
+      assertFalse(stream.isReady());
+      stream.setLength(data.length);
+      assertTrue(stream.isReady());
+
+      Future<byte []> future = executor.submit(new Callable<byte []>() {
+        @Override
+        public byte [] call() throws Exception {
+          return readAll(stream, data.length);
+        }
+      });
+
+      int offset = 0;
+      while (offset < data.length) {
+        int len = Math.min(data.length - offset, rnd.nextInt(10000) + 1);
+        stream.write(Unpooled.wrappedBuffer(data, offset, len));
+        offset += len;
+      }
+      stream.finish();
+
+      assertArrayEquals(data, future.get());
+      assertEquals(expectSpill, stream.isSpilled());
+      assertTrue(budget.getUsed() <= budgetBytes);
+    } finally {
+      stream.release();
+      executor.shutdown();
+    }
+    assertNull(ShuffleStreamBuffer.lookup(stream.getFile()));
+    assertEquals(0, budget.getUsed());
+  }
+
+  @Test
+  public void testReadWhileWriting() throws Exception {
+    testReadWhileWriting(4 * 1024 * 1024, false);
+  }
+
+  @Test
+  public void testSpill() throws Exception {
+    testReadWhileWriting(256 * 1024, true);
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    ShuffleStreamBuffer stream = new ShuffleStreamBuffer(createFile("failed"),
+        new ShuffleStreamBuffer.MemoryBudget(1024 * 1024));
+    try {
+      stream.setLength(200);
+      stream.write(Unpooled.wrappedBuffer(randomBytes(100)));
+      // the received bytes are less than the content length
+      stream.finish();
+      assertTrue(stream.isFailed());
+
+      try {
+        stream.read(0, ByteBuffer.allocate(100));
+        fail("A read on a failed stream must throw an exception");
+      } catch (IOException e) {
+        // expected
+      }
+    } finally {
+      stream.release();
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.plan.expr.*;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestStatisticsFilter {
+  private static final Column ID = new Column("default.t1.id", Type.INT8);
+  private static final Column NAME = new Column("default.t1.name", Type.TEXT);
+
+  private static Map<String, ColumnStats> newStats(long min, long max, long idNulls, long nameNulls) {
+    Map<String, ColumnStats> statsMap = new HashMap<String, ColumnStats>();
+    ColumnStats idStats = new ColumnStats(ID);
+    idStats.setMinValue(DatumFactory.createInt8(min));
+    idStats.setMaxValue(DatumFactory.createInt8(max));
+    idStats.setNumNulls(idNulls);
+    statsMap.put("id", idStats);
+
+    ColumnStats nameStats = new ColumnStats(NAME);
+    nameStats.setNumNulls(nameNulls);
+    statsMap.put("name", nameStats);
+    return statsMap;
+  }
+
+  private static EvalNode compare(EvalType type, long value) {
+    return new BinaryEval(type, new FieldEval(ID), new ConstEval(DatumFactory.createInt4((int) value)));
+  }
+
+  @Test
+  public void testComparisons() {
+    Map<String, ColumnStats> stats = newStats(10, 20, 0, 0);
+
+    assertTrue(new StatisticsFilter(compare(EvalType.EQUAL, 5)).canSkip(stats, 100));
+    assertFalse(new StatisticsFilter(compare(EvalType.EQUAL, 15)).canSkip(stats, 100));
+    assertTrue(new StatisticsFilter(compare(EvalType.LTH, 10)).canSkip(stats, 100));
+    assertFalse(new StatisticsFilter(compare(EvalType.LEQ, 10)).canSkip(stats, 100));
+    assertTrue(new StatisticsFilter(compare(EvalType.GTH, 20)).canSkip(stats, 100));
+    assertFalse(new StatisticsFilter(compare(EvalType.GEQ, 20)).canSkip(stats, 100));
+    assertFalse(new StatisticsFilter(compare(EvalType.NOT_EQUAL, 10)).canSkip(stats, 100));
+    assertTrue(new StatisticsFilter(compare(EvalType.NOT_EQUAL, 10)).canSkip(newStats(10, 10, 0, 0), 100));
+
+    // 10 > id
+    EvalNode flipped = new BinaryEval(EvalType.GTH, new ConstEval(DatumFactory.createInt4(10)), new FieldEval(ID));
+    assertTrue(new StatisticsFilter(flipped).canSkip(stats, 100));
+  }
+
+  @Test
+  public void testConjunctsAndNulls() {
+    Map<String, ColumnStats> stats = newStats(10, 20, 0, 100);
+
+    // any conjunct which cannot be satisfied makes a block skipped
+    EvalNode qual = new BinaryEval(EvalType.AND, compare(EvalType.GEQ, 15), compare(EvalType.GTH, 30));
+    assertTrue(new StatisticsFilter(qual).canSkip(stats, 100));
+
+    // a disjunction is not used
+    qual = new BinaryEval(EvalType.OR, compare(EvalType.EQUAL, 5), compare(EvalType.EQUAL, 30));
+    StatisticsFilter filter = new StatisticsFilter(qual);
+    assertTrue(filter.isEmpty());
+    assertFalse(filter.canSkip(stats, 100));
+
+    assertTrue(new StatisticsFilter(new IsNullEval(false, new FieldEval(ID))).canSkip(stats, 100));
+    assertTrue(new StatisticsFilter(new IsNullEval(true, new FieldEval(NAME))).canSkip(stats, 100));
+    assertFalse(new StatisticsFilter(new IsNullEval(false, new FieldEval(NAME))).canSkip(stats, 100));
+
+    // all values are null
+    EvalNode nameEquals = new BinaryEval(EvalType.EQUAL, new FieldEval(NAME),
+        new ConstEval(DatumFactory.createText("tajo")));
+    assertTrue(new StatisticsFilter(nameEquals).canSkip(stats, 100));
+    assertFalse(new StatisticsFilter(nameEquals).canSkip(newStats(10, 20, 0, 50), 100));
+
+    // a column without statistics is unknown
+    assertFalse(new StatisticsFilter(compare(EvalType.EQUAL, 5)).canSkip(new HashMap<String, ColumnStats>(), 100));
+  }
+}
@@ -536,10 +536,6 @@ public class CSVFile {
       return false;
     }
 
-    @Override
-    public void setSearchCondition(Object expr) {
-    }
-
     @Override
     public void seek(long offset) throws IOException {
       if(isCompress()) throw new UnsupportedException();
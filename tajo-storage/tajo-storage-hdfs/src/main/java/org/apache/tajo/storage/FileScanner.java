@@ -29,6 +29,7 @@ import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.catalog.statistics.ColumnStats;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.plan.expr.EvalNode;
 import org.apache.tajo.storage.fragment.FileFragment;
 import org.apache.tajo.storage.fragment.Fragment;
 
@@ -46,6 +47,9 @@ public abstract class FileScanner implements Scanner {
 
   protected Column [] targets;
 
+  /** a search condition given before init(), which selectable scanners use to skip blocks */
+  protected EvalNode qual;
+
   protected float progress;
 
   protected TableStats tableStats;
@@ -93,6 +97,7 @@ public abstract class FileScanner implements Scanner {
     if (inited) {
       throw new IllegalStateException("Should be called before init()");
     }
+    this.qual = (EvalNode) expr;
   }
 
   public static FileSystem getFileSystem(TajoConf tajoConf, Path path) throws IOException {
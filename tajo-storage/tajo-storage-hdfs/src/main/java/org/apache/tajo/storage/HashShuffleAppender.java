@@ -25,6 +25,7 @@ import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.util.Pair;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -59,11 +60,27 @@ public class HashShuffleAppender implements Appender {
 
   private ExecutionBlockId ebId;
 
+  // if it is given, the checksum of each page is appended to the checksum file of the data file
+  private File checksumDataFile;
+
   public HashShuffleAppender(ExecutionBlockId ebId, int partId, int pageSize, FileAppender appender) {
+    this(ebId, partId, pageSize, appender, null);
+  }
+
+  /**
+   * @param checksumDataFile The data file whose page checksums are kept, or null. Checksums are computed only if
+   *                         the appender is a {@link RawFile.RawFileAppender}.
+   */
+  public HashShuffleAppender(ExecutionBlockId ebId, int partId, int pageSize, FileAppender appender,
+                             File checksumDataFile) {
     this.ebId = ebId;
     this.partId = partId;
     this.appender = appender;
     this.pageSize = pageSize;
+    if (checksumDataFile != null && appender instanceof RawFile.RawFileAppender) {
+      this.checksumDataFile = checksumDataFile;
+      ((RawFile.RawFileAppender) appender).enableChecksum();
+    }
   }
 
   @Override
@@ -86,14 +103,15 @@ public class HashShuffleAppender implements Appender {
       if (closed.get()) {
         return 0;
       }
-      long currentPos = appender.getOffset();
+      long currentPos = getUncompressedBytes();
 
       for (Tuple eachTuple: tuples) {
         appender.addTuple(eachTuple);
       }
-      long posAfterWritten = appender.getOffset();
 
-      int writtenBytes = (int)(posAfterWritten - currentPos);
+      int writtenBytes = (int)(getUncompressedBytes() - currentPos);
+      // if rows are compressed, it is the compressed size of written blocks and buffered rows.
+      long posAfterWritten = getFilePosition();
 
       int nextRowNum = rowNumInPage + tuples.size();
       List<Pair<Long, Pair<Integer, Integer>>> taskIndexes = taskTupleIndexes.get(taskId);
@@ -106,7 +124,9 @@ public class HashShuffleAppender implements Appender {
       rowNumInPage = nextRowNum;
 
       if (posAfterWritten - currentPage.getFirst() > pageSize) {
-        nextPage(posAfterWritten);
+        // a page should end at the boundary of compressed blocks
+        appender.flush();
+        nextPage(getFilePosition());
         rowNumInPage = 0;
       }
 
@@ -118,14 +138,39 @@ public class HashShuffleAppender implements Appender {
   public long getOffset() throws IOException {
     if (closed.get()) {
       return offset;
+    } else {
+      return getFilePosition();
+    }
+  }
+
+  /**
+   * @return The length of the file. If rows are compressed, rows not flushed yet are included as uncompressed.
+   */
+  private long getFilePosition() throws IOException {
+    if (appender instanceof RawFile.RawFileAppender) {
+      return appender.getEstimatedOutputSize();
     } else {
       return appender.getOffset();
     }
   }
 
-  private void nextPage(long pos) {
+  private long getUncompressedBytes() throws IOException {
+    if (appender instanceof RawFile.RawFileAppender) {
+      return ((RawFile.RawFileAppender) appender).getUncompressedBytes();
+    } else {
+      return appender.getOffset();
+    }
+  }
+
+  private void nextPage(long pos) throws IOException {
     currentPage.setSecond((int) (pos - currentPage.getFirst()));
     pages.add(currentPage);
+    if (checksumDataFile != null) {
+      RawFile.RawFileAppender rawAppender = (RawFile.RawFileAppender) appender;
+      ShufflePageChecksums.append(checksumDataFile, currentPage.getFirst(), currentPage.getSecond(),
+          rawAppender.getChecksum());
+      rawAppender.resetChecksum();
+    }
     currentPage = new Pair(pos, 0);
   }
 
@@ -156,7 +201,7 @@ public class HashShuffleAppender implements Appender {
         return;
       }
       appender.flush();
-      offset = appender.getOffset();
+      offset = getFilePosition();
       if (offset > currentPage.getFirst()) {
         nextPage(offset);
       }
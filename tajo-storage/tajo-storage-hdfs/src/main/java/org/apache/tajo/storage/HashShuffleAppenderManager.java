@@ -32,23 +32,34 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.conf.TajoConf.ConfVars;
 import org.apache.tajo.util.Pair;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 
 public class HashShuffleAppenderManager {
   private static final Log LOG = LogFactory.getLog(HashShuffleAppenderManager.class);
 
+  public static final String HASH_SHUFFLE_DIR = "hash-shuffle";
+  public static final String PUSHED_HASH_SHUFFLE_DIR = "hash-shuffle-push";
+
   private Map<ExecutionBlockId, Map<Integer, PartitionAppenderMeta>> appenderMap =
       new ConcurrentHashMap<ExecutionBlockId, Map<Integer, PartitionAppenderMeta>>();
+  // partition files which consolidate pages pushed by workers
+  private Map<ExecutionBlockId, Map<Integer, Path>> pushedFileMap =
+      new ConcurrentHashMap<ExecutionBlockId, Map<Integer, Path>>();
   private TajoConf systemConf;
   private FileSystem defaultFS;
   private FileSystem localFS;
   private LocalDirAllocator lDirAllocator;
-  private int pageSize;
+  private boolean checksumEnabled;
 
   public HashShuffleAppenderManager(TajoConf systemConf) throws IOException {
     this.systemConf = systemConf;
@@ -59,7 +70,7 @@ public class HashShuffleAppenderManager {
     // initialize DFS and LocalFileSystems
     defaultFS = TajoConf.getTajoRootDir(systemConf).getFileSystem(systemConf);
     localFS = FileSystem.getLocal(systemConf);
-    pageSize = systemConf.getIntVar(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME) * 1024 * 1024;
+    checksumEnabled = systemConf.getBoolVar(ConfVars.SHUFFLE_PAGE_CHECKSUM_ENABLED);
   }
 
   public HashShuffleAppender getAppender(TajoConf tajoConf, ExecutionBlockId ebId, int partId,
@@ -74,7 +85,7 @@ public class HashShuffleAppenderManager {
 
       PartitionAppenderMeta partitionAppenderMeta = partitionAppenderMap.get(partId);
       if (partitionAppenderMeta == null) {
-        Path dataFile = getDataFile(ebId, partId);
+        Path dataFile = getDataFile(ebId, partId, HASH_SHUFFLE_DIR);
         FileSystem fs = dataFile.getFileSystem(systemConf);
         if (fs.exists(dataFile)) {
           FileStatus status = fs.getFileStatus(dataFile);
@@ -89,10 +100,13 @@ public class HashShuffleAppenderManager {
         appender.enableStats();
         appender.init();
 
+        // the page volume is read for each appender, so that it can be changed without restarting the worker
+        int pageSize = systemConf.getIntVar(ConfVars.SHUFFLE_HASH_APPENDER_PAGE_VOLUME) * 1024 * 1024;
         partitionAppenderMeta = new PartitionAppenderMeta();
         partitionAppenderMeta.partId = partId;
         partitionAppenderMeta.dataFile = dataFile;
-        partitionAppenderMeta.appender = new HashShuffleAppender(ebId, partId, pageSize, appender);
+        partitionAppenderMeta.appender = new HashShuffleAppender(ebId, partId, pageSize, appender,
+            checksumEnabled ? new File(dataFile.toUri()) : null);
         partitionAppenderMeta.appender.init();
         partitionAppenderMap.put(partId, partitionAppenderMeta);
 
@@ -109,10 +123,10 @@ public class HashShuffleAppenderManager {
     return partId % tajoConf.getIntVar(TajoConf.ConfVars.HASH_SHUFFLE_PARENT_DIRS);
   }
 
-  private Path getDataFile(ExecutionBlockId ebId, int partId) throws IOException {
+  private Path getDataFile(ExecutionBlockId ebId, int partId, String shuffleDir) throws IOException {
     try {
       // the base dir for an output dir
-      String executionBlockBaseDir = ebId.getQueryId().toString() + "/output" + "/" + ebId.getId() + "/hash-shuffle";
+      String executionBlockBaseDir = ebId.getQueryId().toString() + "/output" + "/" + ebId.getId() + "/" + shuffleDir;
       Path baseDirPath = localFS.makeQualified(lDirAllocator.getLocalPathForWrite(executionBlockBaseDir, systemConf));
       //LOG.info(ebId + "'s basedir is created (" + baseDirPath + ")");
 
@@ -144,6 +158,7 @@ public class HashShuffleAppenderManager {
             new HashShuffleIntermediate(eachMeta.partId, eachMeta.appender.getOffset(),
                 eachMeta.appender.getPages(),
                 eachMeta.appender.getMergedTupleIndexes());
+        intermediate.setDataFile(eachMeta.dataFile);
         intermediateEntries.add(intermediate);
       } catch (IOException e) {
         LOG.error(e.getMessage(), e);
@@ -156,6 +171,100 @@ public class HashShuffleAppenderManager {
     return intermediateEntries;
   }
 
+  /**
+   * Appends pages pushed by a worker to the consolidated file of a partition. The pages are appended as a whole,
+   * so pages pushed concurrently by several workers never interleave.
+   *
+   * @param pages Buffers holding one or more contiguous pages
+   * @return The offset of the first page in the consolidated file
+   */
+  public long appendPushedPages(ExecutionBlockId ebId, int partId, List<ByteBuffer> pages) throws IOException {
+    Path dataFile = getPushedDataFile(ebId, partId);
+    ByteBuffer [] buffers = pages.toArray(new ByteBuffer[pages.size()]);
+
+    synchronized (dataFile) {
+      FileOutputStream out = new FileOutputStream(new File(dataFile.toUri()), true);
+      try {
+        FileChannel channel = out.getChannel();
+        long offset = channel.size();
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+          remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+          remaining -= channel.write(buffers);
+        }
+        return offset;
+      } finally {
+        out.close();
+      }
+    }
+  }
+
+  /**
+   * Appends pages of a local file to the consolidated file of a partition, when a worker owns the partition
+   * it pushes. The pages are transferred between the files without being copied on the heap.
+   *
+   * @param src The file holding the pages
+   * @param position The position of the first page in the source file
+   * @param length The length of contiguous pages
+   * @return The offset of the first page in the consolidated file
+   */
+  public long appendPushedPages(ExecutionBlockId ebId, int partId, FileChannel src, long position, long length)
+      throws IOException {
+    Path dataFile = getPushedDataFile(ebId, partId);
+
+    synchronized (dataFile) {
+      FileOutputStream out = new FileOutputStream(new File(dataFile.toUri()), true);
+      try {
+        FileChannel channel = out.getChannel();
+        long offset = channel.size();
+        long transferred = 0;
+        while (transferred < length) {
+          long n = src.transferTo(position + transferred, length - transferred, channel);
+          if (n <= 0) {
+            throw new IOException("Pages of the partition " + partId + " end at " + (position + transferred)
+                + ", but " + (length - transferred) + " bytes remain");
+          }
+          transferred += n;
+        }
+        return offset;
+      } finally {
+        out.close();
+      }
+    }
+  }
+
+  private Path getPushedDataFile(ExecutionBlockId ebId, int partId) throws IOException {
+    synchronized (pushedFileMap) {
+      Map<Integer, Path> partitionFileMap = pushedFileMap.get(ebId);
+      if (partitionFileMap == null) {
+        partitionFileMap = new ConcurrentHashMap<Integer, Path>();
+        pushedFileMap.put(ebId, partitionFileMap);
+      }
+
+      Path dataFile = partitionFileMap.get(partId);
+      if (dataFile == null) {
+        dataFile = getDataFile(ebId, partId, PUSHED_HASH_SHUFFLE_DIR);
+        if (!localFS.exists(dataFile.getParent())) {
+          localFS.mkdirs(dataFile.getParent());
+        }
+        partitionFileMap.put(partId, dataFile);
+
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Create pushed hash shuffle file(partId=" + partId + "): " + dataFile);
+        }
+      }
+      return dataFile;
+    }
+  }
+
+  public void cleanupPushedPartitions(ExecutionBlockId ebId) {
+    synchronized (pushedFileMap) {
+      pushedFileMap.remove(ebId);
+    }
+  }
+
   public void finalizeTask(TaskAttemptId taskId) {
     synchronized (appenderMap) {
       Map<Integer, PartitionAppenderMeta> partitionAppenderMap =
@@ -181,6 +290,8 @@ public class HashShuffleAppenderManager {
     //[<page start offset, length>]
     private List<Pair<Long, Integer>> pages = new ArrayList<Pair<Long, Integer>>();
 
+    private Path dataFile;
+
     public HashShuffleIntermediate(int partId, long volume,
                                    List<Pair<Long, Integer>> pages,
                                    Collection<Pair<Long, Pair<Integer, Integer>>> failureTskTupleIndexes) {
@@ -205,6 +316,14 @@ public class HashShuffleAppenderManager {
     public List<Pair<Long, Integer>> getPages() {
       return pages;
     }
+
+    public Path getDataFile() {
+      return dataFile;
+    }
+
+    public void setDataFile(Path dataFile) {
+      this.dataFile = dataFile;
+    }
   }
 
   static class PartitionAppenderMeta {
@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <code>RangeShuffleFileManager</code> consolidates range shuffle outputs of all tasks of an execution block
+ * running on a worker. Each task writes its sorted output and index as before, and then the output is appended
+ * to a data file shared by the tasks. The segment file of a task keeps the position of its output in the shared
+ * data file, and offsets in the index are relative to the segment.
+ */
+public class RangeShuffleFileManager {
+  private static final Log LOG = LogFactory.getLog(RangeShuffleFileManager.class);
+
+  public static final String RANGE_SHUFFLE_DIR = "range-shuffle";
+  public static final String DATA_FILE_NAME = "output";
+  public static final String SEGMENT_FILE_NAME = "segment";
+
+  private final Map<ExecutionBlockId, Path> dataFileMap = new ConcurrentHashMap<ExecutionBlockId, Path>();
+  private final TajoConf systemConf;
+  private final FileSystem localFS;
+  private final LocalDirAllocator lDirAllocator;
+
+  public RangeShuffleFileManager(TajoConf systemConf) throws IOException {
+    this.systemConf = systemConf;
+    this.lDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    this.localFS = FileSystem.getLocal(systemConf);
+  }
+
+  /**
+   * Appends the output of a task to the shared data file of the execution block, and then removes the output.
+   * The segment file is written into the output directory of the task.
+   */
+  public void consolidate(ExecutionBlockId ebId, Path outDir) throws IOException {
+    File output = new File(new Path(outDir, DATA_FILE_NAME).toUri().getPath());
+    Path dataFile = getDataFile(ebId);
+
+    long base;
+    long length = output.length();
+    synchronized (dataFile) {
+      FileInputStream in = new FileInputStream(output);
+      FileOutputStream out = new FileOutputStream(new File(dataFile.toUri().getPath()), true);
+      try {
+        FileChannel src = in.getChannel();
+        FileChannel dst = out.getChannel();
+        base = dst.size();
+        long pos = 0;
+        try {
+          while (pos < length) {
+            long transferred = src.transferTo(pos, length - pos, dst);
+            // a file channel transfers nothing only if the output is shorter than expected
+            if (transferred <= 0) {
+              throw new EOFException("Unexpected end of range shuffle output " + output + " at " + pos
+                  + " of " + length);
+            }
+            pos += transferred;
+          }
+        } catch (IOException e) {
+          // other tasks may append later, so a partial output must not remain in the shared file
+          dst.truncate(base);
+          throw e;
+        }
+      } finally {
+        IOUtils.cleanup(LOG, in, out);
+      }
+    }
+
+    File segmentFile = new File(new Path(outDir, SEGMENT_FILE_NAME).toUri().getPath());
+    DataOutputStream segmentOut = new DataOutputStream(new FileOutputStream(segmentFile));
+    try {
+      segmentOut.writeLong(base);
+      segmentOut.writeLong(length);
+    } finally {
+      segmentOut.close();
+    }
+
+    if (!output.delete()) {
+      LOG.warn("Can't delete the consolidated range shuffle output: " + output);
+    }
+  }
+
+  private Path getDataFile(ExecutionBlockId ebId) throws IOException {
+    synchronized (dataFileMap) {
+      Path dataFile = dataFileMap.get(ebId);
+      if (dataFile == null) {
+        String dataFilePath = getDataFilePath(ebId.getQueryId().toString(), String.valueOf(ebId.getId()));
+        dataFile = localFS.makeQualified(lDirAllocator.getLocalPathForWrite(dataFilePath, systemConf));
+        if (!localFS.exists(dataFile.getParent())) {
+          localFS.mkdirs(dataFile.getParent());
+        }
+        dataFileMap.put(ebId, dataFile);
+      }
+      return dataFile;
+    }
+  }
+
+  public void cleanup(ExecutionBlockId ebId) {
+    synchronized (dataFileMap) {
+      dataFileMap.remove(ebId);
+    }
+  }
+
+  /**
+   * @return The path of a shared data file relative to local temporal directories
+   */
+  public static String getDataFilePath(String queryId, String sid) {
+    return queryId + "/output/" + sid + "/" + RANGE_SHUFFLE_DIR + "/" + DATA_FILE_NAME;
+  }
+
+  /**
+   * @return <base offset, length> of a task output in the shared data file, or null if the output is not
+   * consolidated
+   */
+  public static long [] readSegment(Path outDir) throws IOException {
+    File segmentFile = new File(new Path(outDir, SEGMENT_FILE_NAME).toUri().getPath());
+    if (!segmentFile.exists()) {
+      return null;
+    }
+
+    DataInputStream in = new DataInputStream(new FileInputStream(segmentFile));
+    try {
+      return new long[] {in.readLong(), in.readLong()};
+    } finally {
+      in.close();
+    }
+  }
+}
@@ -24,7 +24,15 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.io.compress.CompressionCodecFactory;
+import org.apache.hadoop.io.compress.CompressionInputStream;
+import org.apache.hadoop.io.compress.CompressionOutputStream;
+import org.apache.hadoop.io.compress.Compressor;
+import org.apache.hadoop.io.compress.Decompressor;
 import org.apache.tajo.TaskAttemptId;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
@@ -33,25 +41,130 @@ import org.apache.tajo.common.TajoDataTypes.DataType;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.datum.NullDatum;
 import org.apache.tajo.datum.ProtobufDatumFactory;
+import org.apache.tajo.storage.compress.CodecPool;
 import org.apache.tajo.storage.fragment.Fragment;
 import org.apache.tajo.unit.StorageUnit;
 import org.apache.tajo.util.BitArray;
+import org.apache.tajo.util.UnsafeUtil;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.CRC32;
 
+/**
+ * RawFile stores rows in a binary row format without any sync marker.
+ *
+ * If a table meta has {@link StorageConstants#COMPRESSION_CODEC}, rows are written as a sequence of compressed
+ * blocks, each of which has only whole rows and starts with a header of (BLOCK_MAGIC, uncompressed length, stored
+ * length). A block whose stored length is equal to the uncompressed length is not compressed. The offset of a row
+ * in a compressed file is a virtual offset, which consists of the file offset of its block in the upper 40 bits
+ * and its offset in the uncompressed block in the lower 24 bits.
+ *
+ * A part of a compressed file which starts or ends in the middle of blocks is sent with a range frame of
+ * (RANGE_MAGIC, bytes to be skipped in the first block, bytes to be read in the last block, length of blocks),
+ * so that it is read without decompressing blocks in a sender.
+ *
+ * If a table meta of an uncompressed file has {@link StorageConstants#ZONE_MAP_ENABLED}, a {@link ZoneMap} is
+ * written as a footer, and a scanner skips the zones which cannot satisfy its search condition.
+ */
 public class RawFile {
   private static final Log LOG = LogFactory.getLog(RawFile.class);
   public static final String READ_BUFFER_SIZE = "tajo.storage.raw.io.read-buffer.bytes";
   public static final String WRITE_BUFFER_SIZE = "tajo.storage.raw.io.write-buffer.bytes";
   public static final int DEFAULT_BUFFER_SIZE = 128 * StorageUnit.KB;
+  public static final String MMAP_ENABLED = "tajo.storage.raw.io.mmap.enabled";
+  public static final boolean DEFAULT_MMAP_ENABLED = true;
+  public static final String MMAP_WINDOW_SIZE = "tajo.storage.raw.io.mmap.window.bytes";
+  public static final int DEFAULT_MMAP_WINDOW_SIZE = 64 * StorageUnit.MB;
+
+  // Both magic numbers are negative, so they are distinguished from the record size of an uncompressed file.
+  public static final int BLOCK_MAGIC = 0xB10C4A57;
+  public static final int RANGE_MAGIC = 0xB10C4A58;
+  public static final int BLOCK_HEADER_SIZE = 12;
+  public static final int RANGE_FRAME_SIZE = 20;
+
+  private static final int IN_BLOCK_OFFSET_BITS = 24;
+  private static final long IN_BLOCK_OFFSET_MASK = (1L << IN_BLOCK_OFFSET_BITS) - 1;
+  public static final int MAX_BLOCK_SIZE = (int) IN_BLOCK_OFFSET_MASK;
+
+  public static long toVirtualOffset(long blockOffset, int inBlockOffset) {
+    return (blockOffset << IN_BLOCK_OFFSET_BITS) | inBlockOffset;
+  }
+
+  public static long getBlockOffset(long virtualOffset) {
+    return virtualOffset >>> IN_BLOCK_OFFSET_BITS;
+  }
+
+  public static int getInBlockOffset(long virtualOffset) {
+    return (int) (virtualOffset & IN_BLOCK_OFFSET_MASK);
+  }
+
+  /**
+   * @return True if the file is written with compressed blocks
+   */
+  public static boolean isBlockCompressed(FileChannel channel) throws IOException {
+    if (channel.size() < BLOCK_HEADER_SIZE) {
+      return false;
+    }
+    ByteBuffer magic = ByteBuffer.allocate(4);
+    readFully(channel, magic, 0);
+    return magic.getInt(0) == BLOCK_MAGIC;
+  }
+
+  /**
+   * @return The length of the compressed block, including its header, which starts at the given file offset
+   */
+  public static long getBlockLength(FileChannel channel, long blockOffset) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+    readFully(channel, header, blockOffset);
+    if (header.getInt(0) != BLOCK_MAGIC) {
+      throw new IOException("No compressed block at " + blockOffset);
+    }
+    return BLOCK_HEADER_SIZE + header.getInt(8);
+  }
+
+  /**
+   * Create a range frame which is followed by compressed blocks.
+   *
+   * @param skip The bytes to be skipped in the first uncompressed block
+   * @param take The bytes to be read in the last uncompressed block, or -1 if the last block is read entirely
+   * @param length The total length of compressed blocks following the frame
+   */
+  public static byte[] createRangeFrame(int skip, int take, long length) {
+    ByteBuffer frame = ByteBuffer.allocate(RANGE_FRAME_SIZE);
+    frame.putInt(RANGE_MAGIC).putInt(skip).putInt(take).putLong(length);
+    return frame.array();
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer dst, long position) throws IOException {
+    while (dst.hasRemaining()) {
+      int read = channel.read(dst, position);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of file at " + position);
+      }
+      position += read;
+    }
+  }
+
+  public static CompressionCodec getCodec(Configuration conf, String codecName) throws IOException {
+    CompressionCodec codec = new CompressionCodecFactory(conf).getCodecByName(codecName);
+    if (codec == null) {
+      throw new IOException("Unknown compression codec: " + codecName);
+    }
+    return codec;
+  }
 
   public static class RawFileScanner extends FileScanner implements SeekableScanner {
     private FileChannel channel;
+    /** If fetched data is streamed, it is read instead of a file */
+    private ShuffleStreamBuffer stream;
+    private long streamPosition;
     private DataType[] columnTypes;
 
     private ByteBuffer buffer;
@@ -70,6 +183,32 @@ public class RawFile {
     private long filePosition;
     private boolean forceFillBuffer;
 
+    // for a memory-mapped file, the buffer is a window of the mapping instead of a copy of the file
+    private boolean mmap;
+    private long fileSize;
+    private int mmapWindowSize;
+
+    // for compressed blocks
+    private CompressionCodec codec;
+    private Decompressor decompressor;
+    private DataInputBuffer compressedIn;
+    private CompressionInputStream inFilter;
+    private ByteBuffer blockHeader;
+    private byte [] compressedBlock;
+    private byte [] block;
+    private int blockPos;
+    private int blockLimit;
+    // the bytes to be skipped in the next block
+    private int blockSkip;
+    // the bytes to be read in the last block of a range, and the file offset where the range ends
+    private int rangeTake = -1;
+    private long rangeEnd = -1;
+
+    // the zones to be skipped in the order of offsets, which is null if the file does not have a zone map
+    private List<ZoneMap.Zone> skippableZones;
+    private int nextZone;
+    private int numSkippedBlocks;
+
     public RawFileScanner(Configuration conf, Schema schema, TableMeta meta, Fragment fragment) throws IOException {
       super(conf, schema, meta, fragment);
     }
@@ -85,18 +224,30 @@ public class RawFile {
       } catch (IllegalArgumentException iae) {
         throw new IOException(iae);
       }
-      fis = new FileInputStream(file);
-      channel = fis.getChannel();
+      stream = ShuffleStreamBuffer.lookup(file);
+      if (stream == null) {
+        fis = new FileInputStream(file);
+        channel = fis.getChannel();
+      }
       filePosition = startOffset = fragment.getStartKey();
       endOffset = fragment.getStartKey() + fragment.getLength();
 
       if (LOG.isDebugEnabled()) {
-        LOG.debug("RawFileScanner open:" + fragment + "," + channel.position() + ", file size :" + channel.size()
-            + ", fragment length :" + fragment.getLength());
+        LOG.debug("RawFileScanner open:" + fragment + "," + channelPosition() + ", file size :"
+            + (stream == null ? channel.size() : stream.getLength()) + ", fragment length :" + fragment.getLength());
       }
 
-      buf = BufferPool.directBuffer(conf.getInt(READ_BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
-      buffer = buf.nioBuffer(0, buf.capacity());
+      // An uncompressed local file is memory-mapped, so rows are decoded directly from the page cache.
+      mmap = stream == null && !meta.containsOption(StorageConstants.COMPRESSION_CODEC)
+          && conf.getBoolean(MMAP_ENABLED, DEFAULT_MMAP_ENABLED);
+      if (mmap) {
+        fileSize = channel.size();
+        mmapWindowSize = conf.getInt(MMAP_WINDOW_SIZE, DEFAULT_MMAP_WINDOW_SIZE);
+        buffer = ByteBuffer.allocate(0);
+      } else {
+        buf = BufferPool.directBuffer(conf.getInt(READ_BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
+        buffer = buf.nioBuffer(0, buf.capacity());
+      }
 
       columnTypes = new DataType[schema.size()];
       for (int i = 0; i < schema.size(); i++) {
@@ -107,9 +258,31 @@ public class RawFile {
       nullFlags = new BitArray(schema.size());
       headerSize = RECORD_SIZE + 2 + nullFlags.bytesLength(); // The middle 2 bytes is for NullFlagSize
 
+      if (meta.containsOption(StorageConstants.COMPRESSION_CODEC)) {
+        codec = getCodec(conf, meta.getOption(StorageConstants.COMPRESSION_CODEC));
+        decompressor = CodecPool.getDecompressor(codec);
+        if (decompressor == null) {
+          throw new IOException("RawFile requires a decompressor of " + codec.getClass().getSimpleName());
+        }
+        compressedIn = new DataInputBuffer();
+        inFilter = codec.createInputStream(compressedIn, decompressor);
+        blockHeader = ByteBuffer.allocate(RANGE_FRAME_SIZE);
+        compressedBlock = new byte[0];
+        block = new byte[0];
+      }
+
+      if (stream == null && codec == null && ZoneMap.isEnabled(meta)) {
+        ZoneMap zoneMap = ZoneMap.read(channel);
+        if (zoneMap != null) {
+          endOffset = Math.min(endOffset, zoneMap.getDataEnd());
+          skippableZones = zoneMap.getSkippableZones(new StatisticsFilter(qual));
+        }
+      }
+      nextZone = 0;
+
       // initial set position
       if (fragment.getStartKey() > 0) {
-        channel.position(fragment.getStartKey());
+        setChannelPosition(fragment.getStartKey());
       }
 
       forceFillBuffer = true;
@@ -118,13 +291,27 @@ public class RawFile {
 
     @Override
     public long getNextOffset() throws IOException {
+      if (codec != null) {
+        throw new IOException("The offset of a next row is unknown in compressed blocks");
+      }
       return filePosition - (forceFillBuffer ? 0 : buffer.remaining());
     }
 
     @Override
     public void seek(long offset) throws IOException {
       eos = false;
-      filePosition = channel.position();
+      if (codec != null) {
+        // a virtual offset is given
+        setChannelPosition(getBlockOffset(offset));
+        resetBlock();
+        blockSkip = getInBlockOffset(offset);
+        buffer.clear();
+        forceFillBuffer = true;
+        fillBuffer();
+        return;
+      }
+
+      filePosition = channelPosition();
 
       // do not fill the buffer if the offset is already included in the buffer.
       if(!forceFillBuffer && filePosition > offset && offset > filePosition - buffer.limit()){
@@ -134,7 +321,7 @@ public class RawFile {
           throw new IndexOutOfBoundsException(String.format("range(%d, %d), offset: %d",
               startOffset, startOffset + fragment.getLength(), offset));
         }
-        channel.position(offset);
+        setChannelPosition(offset);
         filePosition = offset;
         buffer.clear();
         forceFillBuffer = true;
@@ -143,9 +330,13 @@ public class RawFile {
     }
 
     private boolean fillBuffer() throws IOException {
+      if (mmap) {
+        return mapBuffer();
+      }
+
       if(!forceFillBuffer) buffer.compact();
 
-      int bytesRead = channel.read(buffer);
+      int bytesRead = readChannel(buffer);
       forceFillBuffer = false;
       if (bytesRead == -1) {
         eos = true;
@@ -158,6 +349,34 @@ public class RawFile {
       }
     }
 
+    /**
+     * Map a next window of the file, which starts at the current row. Unlike {@link #fillBuffer()}, no bytes are
+     * copied, and the previous window is unmapped.
+     */
+    private boolean mapBuffer() throws IOException {
+      long position = forceFillBuffer ? filePosition : filePosition - buffer.remaining();
+      if (position >= fileSize || (!forceFillBuffer && filePosition >= fileSize)) {
+        eos = true;
+        return false;
+      }
+
+      long length = Math.min(mmapWindowSize, fileSize - position);
+      unmapBuffer();
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+      forceFillBuffer = false;
+      totalReadBytes += position + length - Math.max(position, filePosition);
+      filePosition = position + length;
+      // keep the channel position consistent with a buffered read for seek() and reset()
+      channel.position(filePosition);
+      return true;
+    }
+
+    private void unmapBuffer() {
+      if (buffer != null && buffer.isDirect()) {
+        UnsafeUtil.free(buffer);
+      }
+    }
+
     /**
      * Decode a ZigZag-encoded 32-bit value.  ZigZag encodes signed integers
      * into values that can be efficiently encoded with varint.  (Otherwise,
@@ -240,10 +459,43 @@ public class RawFile {
       throw new IOException("Invalid Variable int64");
     }
 
+    /**
+     * Skip the zones which cannot have rows satisfying the search condition.
+     *
+     * @return False if no more row is left in this fragment
+     */
+    private boolean skipZones() throws IOException {
+      long offset = getNextOffset();
+      while (offset < endOffset && nextZone < skippableZones.size()) {
+        ZoneMap.Zone zone = skippableZones.get(nextZone);
+        if (offset < zone.getStart()) {
+          break;
+        }
+        nextZone++;
+        if (offset < zone.getEnd()) {
+          numSkippedBlocks++;
+          offset = zone.getEnd();
+          if (offset < endOffset) {
+            seek(offset);
+          }
+        }
+      }
+
+      if (offset >= endOffset) {
+        eos = true;
+        return false;
+      }
+      return true;
+    }
+
     @Override
     public Tuple next() throws IOException {
       if(eos) return null;
 
+      if (skippableZones != null && !skipZones()) {
+        return null;
+      }
+
       if (forceFillBuffer || buffer.remaining() < headerSize) {
         if (!fillBuffer()) {
           return null;
@@ -375,13 +627,20 @@ public class RawFile {
 
       recordCount++;
 
-      if(filePosition - buffer.remaining() >= endOffset){
+      // the end of compressed blocks is found when no more block is read.
+      if(codec == null && filePosition - buffer.remaining() >= endOffset){
         eos = true;
       }
       return new VTuple(tuple);
     }
 
     private void reSizeBuffer(int writableBytes){
+      if (mmap) {
+        // a next window is large enough for the row
+        mmapWindowSize = Math.max(mmapWindowSize, writableBytes);
+        return;
+      }
+
       if (buffer.capacity() - buffer.remaining()  <  writableBytes) {
         buf.setIndex(buffer.position(), buffer.limit());
         buf.markReaderIndex();
@@ -398,12 +657,140 @@ public class RawFile {
       buffer.clear();
       forceFillBuffer = true;
       filePosition = fragment.getStartKey();
-      channel.position(filePosition);
+      setChannelPosition(filePosition);
+      if (codec != null) {
+        resetBlock();
+      }
+      nextZone = 0;
       eos = false;
     }
 
+    private void resetBlock() {
+      blockPos = blockLimit = 0;
+      blockSkip = 0;
+      rangeTake = -1;
+      rangeEnd = -1;
+    }
+
+    private long channelPosition() throws IOException {
+      return stream == null ? channel.position() : streamPosition;
+    }
+
+    private void setChannelPosition(long position) throws IOException {
+      if (stream == null) {
+        channel.position(position);
+      } else {
+        streamPosition = position;
+      }
+    }
+
+    private int readChannel(ByteBuffer dst) throws IOException {
+      if (codec == null) {
+        return readPhysical(dst);
+      }
+
+      // fill as many rows as possible, because a row may be split across blocks
+      int read = 0;
+      while (dst.hasRemaining()) {
+        if (blockPos == blockLimit && !readBlock()) {
+          break;
+        }
+        int len = Math.min(dst.remaining(), blockLimit - blockPos);
+        dst.put(block, blockPos, len);
+        blockPos += len;
+        read += len;
+      }
+      return read > 0 || !dst.hasRemaining() ? read : -1;
+    }
+
+    private int readPhysical(ByteBuffer dst) throws IOException {
+      if (stream == null) {
+        return channel.read(dst);
+      }
+      int read = stream.read(streamPosition, dst);
+      if (read > 0) {
+        streamPosition += read;
+      }
+      return read;
+    }
+
+    private void readPhysicalFully(ByteBuffer dst) throws IOException {
+      while (dst.hasRemaining()) {
+        if (readPhysical(dst) < 0) {
+          throw new EOFException("Unexpected end of compressed blocks: " + fragment);
+        }
+      }
+    }
+
+    /**
+     * Read and decompress a next block. Range frames before the block are also consumed.
+     *
+     * @return False if there is no more block in this fragment
+     */
+    private boolean readBlock() throws IOException {
+      while (true) {
+        if (channelPosition() >= endOffset) {
+          return false;
+        }
+        blockHeader.clear();
+        blockHeader.limit(4);
+        readPhysicalFully(blockHeader);
+        int magic = blockHeader.getInt(0);
+
+        if (magic == RANGE_MAGIC) {
+          blockHeader.limit(RANGE_FRAME_SIZE);
+          readPhysicalFully(blockHeader);
+          blockSkip = blockHeader.getInt(4);
+          rangeTake = blockHeader.getInt(8);
+          rangeEnd = channelPosition() + blockHeader.getLong(12);
+          continue;
+        } else if (magic != BLOCK_MAGIC) {
+          throw new IOException("Invalid compressed block at " + (channelPosition() - 4) + ": " + fragment);
+        }
+
+        blockHeader.limit(BLOCK_HEADER_SIZE);
+        readPhysicalFully(blockHeader);
+        int rawLength = blockHeader.getInt(4);
+        int storedLength = blockHeader.getInt(8);
+        if (block.length < rawLength) {
+          block = new byte[rawLength];
+        }
+
+        if (storedLength == rawLength) {
+          readPhysicalFully(ByteBuffer.wrap(block, 0, rawLength));
+        } else {
+          if (compressedBlock.length < storedLength) {
+            compressedBlock = new byte[storedLength];
+          }
+          readPhysicalFully(ByteBuffer.wrap(compressedBlock, 0, storedLength));
+          compressedIn.reset(compressedBlock, storedLength);
+          inFilter.resetState();
+          IOUtils.readFully(inFilter, block, 0, rawLength);
+        }
+
+        blockPos = blockSkip;
+        blockLimit = rawLength;
+        blockSkip = 0;
+        if (rangeEnd >= 0 && channelPosition() >= rangeEnd) {
+          if (rangeTake >= 0) {
+            blockLimit = rangeTake;
+          }
+          rangeTake = -1;
+          rangeEnd = -1;
+        }
+        if (blockPos < blockLimit) {
+          return true;
+        }
+      }
+    }
+
     @Override
     public void close() throws IOException {
+      if (mmap) {
+        unmapBuffer();
+        buffer = null;
+      }
+
       if(buf != null){
         buffer.clear();
         buffer = null;
@@ -412,6 +799,11 @@ public class RawFile {
         buf = null;
       }
 
+      if (decompressor != null) {
+        CodecPool.returnDecompressor(decompressor);
+        decompressor = null;
+      }
+
       IOUtils.cleanup(LOG, channel, fis);
     }
 
@@ -420,9 +812,12 @@ public class RawFile {
       return false;
     }
 
+    /**
+     * Zones of an uncompressed file are skipped if the file has a zone map.
+     */
     @Override
     public boolean isSelectable() {
-      return false;
+      return true;
     }
 
     @Override
@@ -434,6 +829,7 @@ public class RawFile {
     public TableStats getInputStats() {
       if(tableStats != null){
         tableStats.setNumRows(recordCount);
+        tableStats.setNumSkippedBlocks(numSkippedBlocks);
         tableStats.setReadBytes(totalReadBytes); // actual read bytes (scan + rescan * n)
         tableStats.setNumBytes(fragment.getLength());
       }
@@ -446,6 +842,14 @@ public class RawFile {
         return 1.0f;
       }
 
+      if (codec != null && endOffset > startOffset) {
+        try {
+          return Math.min(1.0f, (float) (channelPosition() - startOffset) / (endOffset - startOffset));
+        } catch (IOException e) {
+          return 0.0f;
+        }
+      }
+
       if (filePosition - startOffset == 0) {
         return 0.0f;
       } else {
@@ -466,7 +870,24 @@ public class RawFile {
     private static final int RECORD_SIZE = 4;
     private long pos;
 
+    // for compressed blocks
+    private CompressionCodec codec;
+    private Compressor compressor;
+    private DataOutputBuffer compressedOut;
+    private CompressionOutputStream outFilter;
+    private byte [] block;
+    private ByteBuffer blockHeader;
+    private int blockSize;
+    // the uncompressed bytes written into blocks, and the file offset of a next block
+    private long flushedPos;
+    private long filePos;
+
+    // a running checksum of written bytes, which is computed only if it is enabled
+    private CRC32 checksum;
+    private byte [] checksumBuffer;
+
     private TableStatistics stats;
+    private ZoneMap.Writer zoneMapWriter;
 
     public RawFileAppender(Configuration conf, TaskAttemptId taskAttemptId,
                            Schema schema, TableMeta meta, Path workDir) throws IOException {
@@ -497,6 +918,26 @@ public class RawFile {
       buf = BufferPool.directBuffer(conf.getInt(WRITE_BUFFER_SIZE, DEFAULT_BUFFER_SIZE));
       buffer = buf.nioBuffer(0, buf.capacity());
 
+      if (meta.containsOption(StorageConstants.COMPRESSION_CODEC)) {
+        codec = getCodec(conf, meta.getOption(StorageConstants.COMPRESSION_CODEC));
+        compressor = CodecPool.getCompressor(codec);
+        if (compressor == null) {
+          // e.g., GzipCodec without native libraries
+          throw new IOException("RawFile requires a compressor of " + codec.getClass().getSimpleName());
+        }
+        compressedOut = new DataOutputBuffer();
+        outFilter = codec.createOutputStream(compressedOut, compressor);
+        block = new byte[buffer.capacity()];
+        blockHeader = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        // a row must start at an offset which can be represented in a virtual offset
+        blockSize = Math.min(buffer.capacity(), MAX_BLOCK_SIZE);
+        flushedPos = filePos = 0;
+      } else if (ZoneMap.isEnabled(meta)) {
+        long zoneSize = Long.parseLong(
+            meta.getOption(StorageConstants.ZONE_MAP_ZONE_SIZE, StorageConstants.ZONE_MAP_DEFAULT_ZONE_SIZE));
+        zoneMapWriter = new ZoneMap.Writer(schema, zoneSize, 0);
+      }
+
       // comput the number of bytes, representing the null flags
 
       nullFlags = new BitArray(schema.size());
@@ -509,17 +950,122 @@ public class RawFile {
       super.init();
     }
 
+    /**
+     * @return The offset of a next row. It is a virtual offset if rows are compressed.
+     */
     @Override
     public long getOffset() throws IOException {
+      if (codec != null) {
+        return toVirtualOffset(filePos, (int) (pos - flushedPos));
+      }
+      return pos;
+    }
+
+    @Override
+    public long getEstimatedOutputSize() throws IOException {
+      if (codec != null) {
+        return filePos + (pos - flushedPos);
+      }
+      return pos;
+    }
+
+    /**
+     * @return The bytes of rows written so far before compression
+     */
+    public long getUncompressedBytes() {
       return pos;
     }
 
     private void flushBuffer() throws IOException {
       buffer.flip();
-      channel.write(buffer);
+      writeBlock(buffer);
       buffer.clear();
     }
 
+    /**
+     * Enables a running CRC32 checksum of bytes written into the file.
+     */
+    public void enableChecksum() {
+      checksum = new CRC32();
+    }
+
+    /**
+     * @return The checksum of bytes written since the last reset. Buffered rows are not included until flushed.
+     */
+    public long getChecksum() {
+      return checksum.getValue();
+    }
+
+    public void resetChecksum() {
+      checksum.reset();
+    }
+
+    private void updateChecksum(ByteBuffer src) {
+      if (checksum == null) {
+        return;
+      }
+      if (src.hasArray()) {
+        checksum.update(src.array(), src.arrayOffset() + src.position(), src.remaining());
+        return;
+      }
+
+      if (checksumBuffer == null) {
+        checksumBuffer = new byte[8 * StorageUnit.KB];
+      }
+      ByteBuffer duplicated = src.duplicate();
+      while (duplicated.hasRemaining()) {
+        int len = Math.min(checksumBuffer.length, duplicated.remaining());
+        duplicated.get(checksumBuffer, 0, len);
+        checksum.update(checksumBuffer, 0, len);
+      }
+    }
+
+    private void writeBlock(ByteBuffer src) throws IOException {
+      if (codec == null) {
+        updateChecksum(src);
+        channel.write(src);
+        return;
+      }
+
+      int rawLength = src.remaining();
+      if (rawLength == 0) {
+        return;
+      }
+      if (block.length < rawLength) {
+        block = new byte[rawLength];
+      }
+      src.get(block, 0, rawLength);
+
+      compressedOut.reset();
+      outFilter.resetState();
+      outFilter.write(block, 0, rawLength);
+      outFilter.finish();
+
+      // a block which is not reduced by compression is stored as it is
+      ByteBuffer payload;
+      if (compressedOut.getLength() < rawLength) {
+        payload = ByteBuffer.wrap(compressedOut.getData(), 0, compressedOut.getLength());
+      } else {
+        payload = ByteBuffer.wrap(block, 0, rawLength);
+      }
+      int storedLength = payload.remaining();
+
+      blockHeader.clear();
+      blockHeader.putInt(BLOCK_MAGIC).putInt(rawLength).putInt(storedLength);
+      blockHeader.flip();
+      updateChecksum(blockHeader);
+      updateChecksum(payload);
+      while (blockHeader.hasRemaining()) {
+        channel.write(blockHeader);
+      }
+      while (payload.hasRemaining()) {
+        channel.write(payload);
+      }
+
+      flushedPos += rawLength;
+      filePos += BLOCK_HEADER_SIZE + storedLength;
+    }
+
     private boolean flushBufferAndReplace(int recordOffset, int sizeToBeWritten)
         throws IOException {
 
@@ -530,7 +1076,7 @@ public class RawFile {
         int limit = buffer.position();
         buffer.limit(recordOffset);
         buffer.flip();
-        channel.write(buffer);
+        writeBlock(buffer);
         buffer.position(recordOffset);
         buffer.limit(limit);
         buffer.compact();
@@ -737,6 +1283,14 @@ public class RawFile {
       pos += bufferPos - recordOffset;
       buffer.position(bufferPos);
 
+      if (codec != null && pos - flushedPos >= blockSize) {
+        flushBuffer();
+      }
+
+      if (zoneMapWriter != null) {
+        zoneMapWriter.addRow(t, pos);
+      }
+
       if (enabledStats) {
         stats.incrementRow();
       }
@@ -752,11 +1306,20 @@ public class RawFile {
     @Override
     public void close() throws IOException {
       flush();
+      if (zoneMapWriter != null) {
+        writeBlock(ByteBuffer.wrap(zoneMapWriter.finish(pos)));
+      }
       if (enabledStats) {
-        stats.setNumBytes(getOffset());
+        stats.setNumBytes(pos);
       }
       if (LOG.isDebugEnabled()) {
-        LOG.debug("RawFileAppender written: " + getOffset() + " bytes, path: " + path);
+        LOG.debug("RawFileAppender written: " + pos + " bytes"
+            + (codec != null ? " (" + filePos + " bytes compressed)" : "") + ", path: " + path);
+      }
+
+      if (compressor != null) {
+        CodecPool.returnCompressor(compressor);
+        compressor = null;
       }
 
       if(buf != null){
@@ -774,7 +1337,11 @@ public class RawFile {
     public TableStats getStats() {
       if (enabledStats) {
         stats.setNumBytes(pos);
-        return stats.getTableStat();
+        TableStats tableStats = stats.getTableStat();
+        if (codec != null) {
+          tableStats.setCompressedBytes(filePos);
+        }
+        return tableStats;
       } else {
         return null;
       }
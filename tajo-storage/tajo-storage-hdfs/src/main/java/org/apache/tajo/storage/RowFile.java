@@ -44,7 +44,16 @@ import java.nio.ByteBuffer;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
+/**
+ * RowFile stores rows in a binary row format with sync markers, so that a file is split at sync markers.
+ *
+ * If a table meta has {@link StorageConstants#ZONE_MAP_ENABLED}, a sync marker is written at the end of each zone,
+ * and a {@link ZoneMap} is written as a footer. A scanner jumps over the zones which cannot satisfy its search
+ * condition.
+ */
 public class RowFile {
   public static final Log LOG = LogFactory.getLog(RowFile.class);
 
@@ -68,6 +77,13 @@ public class RowFile {
     private BitArray nullFlags;
     private long bufferStartPos;
 
+    // the offset where the footer starts, which is Long.MAX_VALUE if the file does not have a zone map
+    private long dataEnd;
+    // the zones to be skipped in the order of offsets
+    private List<ZoneMap.Zone> skippableZones;
+    private int nextZone;
+    private int numSkippedBlocks;
+
     public RowFileScanner(Configuration conf, final Schema schema, final TableMeta meta, final Fragment fragment)
         throws IOException {
       super(conf, schema, meta, fragment);
@@ -89,16 +105,20 @@ public class RowFile {
       buffer.flip();
 
       readHeader();
+      readZoneMap();
 
       // find the correct position from the start
-      if (this.start > in.getPos()) {
+      if (this.start >= dataEnd) {
+        // this fragment has only the footer
+        in.seek(dataEnd);
+      } else if (this.start > in.getPos()) {
         long realStart = start > SYNC_SIZE ? (start-SYNC_SIZE) : 0;
         in.seek(realStart);
       }
       bufferStartPos = in.getPos();
       fillBuffer();
 
-      if (start != 0) {
+      if (start != 0 && start < dataEnd) {
         // TODO: improve
         boolean syncFound = false;
         while (!syncFound) {
@@ -125,6 +145,50 @@ public class RowFile {
       StorageUtil.readFully(in, this.sync, 0, SYNC_HASH_SIZE);
     }
 
+    private void readZoneMap() throws IOException {
+      ZoneMap zoneMap = null;
+      if (ZoneMap.isEnabled(meta)) {
+        zoneMap = ZoneMap.read(in, fs.getFileStatus(fragment.getPath()).getLen());
+      }
+
+      if (zoneMap != null) {
+        dataEnd = zoneMap.getDataEnd();
+        skippableZones = zoneMap.getSkippableZones(new StatisticsFilter(qual));
+      } else {
+        dataEnd = Long.MAX_VALUE;
+        skippableZones = Collections.emptyList();
+      }
+      nextZone = 0;
+    }
+
+    /**
+     * Move to the end of a zone which includes the current position and cannot have rows satisfying the search
+     * condition. The end of a zone is always a sync marker.
+     *
+     * @return True if a zone is skipped
+     */
+    private boolean skipZone() throws IOException {
+      long pos = bufferStartPos + buffer.position();
+      while (nextZone < skippableZones.size() && skippableZones.get(nextZone).getEnd() <= pos) {
+        nextZone++;
+      }
+      if (nextZone == skippableZones.size() || pos < skippableZones.get(nextZone).getStart()) {
+        return false;
+      }
+
+      long zoneEnd = skippableZones.get(nextZone++).getEnd();
+      numSkippedBlocks++;
+      if (zoneEnd <= bufferStartPos + buffer.limit()) {
+        buffer.position((int) (zoneEnd - bufferStartPos));
+      } else {
+        in.seek(zoneEnd);
+        bufferStartPos = zoneEnd;
+        buffer.clear();
+        buffer.flip();
+      }
+      return true;
+    }
+
     /**
      * Find the sync from the front of the buffer
      *
@@ -158,20 +222,26 @@ public class RowFile {
 
     @Override
     public Tuple next() throws IOException {
-      while (buffer.remaining() < SYNC_SIZE) {
-        if (fillBuffer() < 0) {
-          return null;
+      do {
+        while (buffer.remaining() < SYNC_SIZE) {
+          if (fillBuffer() < 0) {
+            return null;
+          }
         }
-      }
 
-      buffer.mark();
-      if (!checkSync()) {
-        buffer.reset();
-      } else {
-        if (bufferStartPos + buffer.position() > end) {
+        buffer.mark();
+        if (!checkSync()) {
+          buffer.reset();
+        } else {
+          if (bufferStartPos + buffer.position() > end) {
+            return null;
+          }
+        }
+
+        if (bufferStartPos + buffer.position() >= dataEnd) {
           return null;
         }
-      }
+      } while (skipZone());
 
       while (buffer.remaining() < tupleHeaderSize) {
         if (fillBuffer() < 0) {
@@ -293,15 +363,27 @@ public class RowFile {
       return false;
     }
 
+    /**
+     * Zones are skipped if the file has a zone map.
+     */
     @Override
     public boolean isSelectable() {
-      return false;
+      return true;
     }
 
     @Override
     public boolean isSplittable(){
       return true;
     }
+
+    @Override
+    public TableStats getInputStats() {
+      TableStats stats = super.getInputStats();
+      if (stats != null) {
+        stats.setNumSkippedBlocks(numSkippedBlocks);
+      }
+      return stats;
+    }
   }
 
   public static class RowFileAppender extends FileAppender {
@@ -314,6 +396,7 @@ public class RowFile {
     private BitArray nullFlags;
     // statistics
     private TableStatistics stats;
+    private ZoneMap.Writer zoneMapWriter;
 
     public RowFileAppender(Configuration conf, final TaskAttemptId taskAttemptId,
                            final Schema schema, final TableMeta meta, final Path workDir)
@@ -350,6 +433,12 @@ public class RowFile {
 
       writeHeader();
 
+      if (ZoneMap.isEnabled(meta)) {
+        long zoneSize = Long.parseLong(
+            meta.getOption(StorageConstants.ZONE_MAP_ZONE_SIZE, StorageConstants.ZONE_MAP_DEFAULT_ZONE_SIZE));
+        zoneMapWriter = new ZoneMap.Writer(schema, zoneSize, out.getPos());
+      }
+
       buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
 
       nullFlags = new BitArray(schema.size());
@@ -445,6 +534,11 @@ public class RowFile {
       out.writeShort(dataLen);
       out.write(bytes, 0, dataLen);
 
+      // a zone ends with a sync marker, so that a scanner resumes at the end of a skipped zone
+      if (zoneMapWriter != null && zoneMapWriter.addRow(t, out.getPos())) {
+        sync();
+      }
+
       // Statistical section
       if (enabledStats) {
         stats.incrementRow();
@@ -467,7 +561,11 @@ public class RowFile {
         if (enabledStats) {
           stats.setNumBytes(out.getPos());
         }
+        byte [] footer = zoneMapWriter != null ? zoneMapWriter.finish(out.getPos()) : null;
         sync();
+        if (footer != null) {
+          out.write(footer);
+        }
         out.flush();
         IOUtils.cleanup(LOG, out);
       }
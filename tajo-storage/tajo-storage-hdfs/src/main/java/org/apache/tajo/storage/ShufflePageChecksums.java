@@ -0,0 +1,251 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.hadoop.fs.ChecksumException;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * <code>ShufflePageChecksums</code> keeps CRC32 checksums of the pages of a hash shuffle file. The checksums of a
+ * data file are appended to a checksum file beside it as (page offset, page length, checksum).
+ *
+ * A pull server sends the checksums of the pages of a response in {@link #HTTP_HEADER}, and a fetcher verifies
+ * received data page by page with a {@link Verifier}. Only the verified pages are kept when a fetch is resumed.
+ */
+public class ShufflePageChecksums {
+  public static final String CHECKSUM_FILE_SUFFIX = ".crc";
+  public static final String HTTP_HEADER = "X-Tajo-Page-Checksums";
+  // a response header is bounded by the max header size of a fetcher
+  public static final int MAX_HEADER_PAGES = 256;
+
+  private static final int ENTRY_SIZE = 8 + 4 + 8;
+
+  public static File getChecksumFile(File dataFile) {
+    return new File(dataFile.getPath() + CHECKSUM_FILE_SUFFIX);
+  }
+
+  public static void append(File dataFile, long offset, int length, long checksum) throws IOException {
+    DataOutputStream out = new DataOutputStream(new FileOutputStream(getChecksumFile(dataFile), true));
+    try {
+      out.writeLong(offset);
+      out.writeInt(length);
+      out.writeLong(checksum);
+    } finally {
+      out.close();
+    }
+  }
+
+  /**
+   * @return [<page offset, page length, checksum>] sorted by offsets, or an empty list if there is no checksum
+   */
+  public static List<long[]> read(File dataFile) throws IOException {
+    List<long[]> pages = new ArrayList<long[]>();
+    File checksumFile = getChecksumFile(dataFile);
+    if (!checksumFile.exists()) {
+      return pages;
+    }
+
+    DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(checksumFile)));
+    try {
+      long entries = checksumFile.length() / ENTRY_SIZE;
+      for (long i = 0; i < entries; i++) {
+        pages.add(new long[] {in.readLong(), in.readInt(), in.readLong()});
+      }
+    } finally {
+      in.close();
+    }
+    return pages;
+  }
+
+  /**
+   * @return The header value of "length:checksum" of pages covering the given range exactly, or null if the range
+   * is not covered by whole pages
+   */
+  public static String getHeaderValue(File dataFile, long offset, long length) throws IOException {
+    return new Pages(dataFile).getHeaderValue(offset, length);
+  }
+
+  /**
+   * The checksums of the pages of a data file, which a pull server keeps for each file. Only the entries appended
+   * to the checksum file since the last read are read, and only when the requested range is not covered yet.
+   */
+  public static class Pages {
+    private final File checksumFile;
+    private long [] offsets = new long[0];
+    private int [] lengths = new int[0];
+    private long [] checksums = new long[0];
+    private int size;
+
+    public Pages(File dataFile) {
+      this.checksumFile = getChecksumFile(dataFile);
+    }
+
+    private void readAppended() throws IOException {
+      // zero if the checksum file does not exist
+      int entries = (int) (checksumFile.length() / ENTRY_SIZE);
+      if (entries < size) {
+        // the checksum file has been written again
+        size = 0;
+      }
+      if (entries == size) {
+        return;
+      }
+
+      if (entries > offsets.length) {
+        offsets = Arrays.copyOf(offsets, entries);
+        lengths = Arrays.copyOf(lengths, entries);
+        checksums = Arrays.copyOf(checksums, entries);
+      }
+
+      FileInputStream fis = new FileInputStream(checksumFile);
+      try {
+        fis.getChannel().position((long) size * ENTRY_SIZE);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(fis));
+        for (; size < entries; size++) {
+          offsets[size] = in.readLong();
+          lengths[size] = in.readInt();
+          checksums[size] = in.readLong();
+        }
+      } finally {
+        fis.close();
+      }
+    }
+
+    /**
+     * @see ShufflePageChecksums#getHeaderValue(File, long, long)
+     */
+    public synchronized String getHeaderValue(long offset, long length) throws IOException {
+      if (size == 0 || offsets[size - 1] + lengths[size - 1] < offset + length) {
+        readAppended();
+      }
+
+      int page = Arrays.binarySearch(offsets, 0, size, offset);
+      if (page < 0) {
+        return null;
+      }
+
+      StringBuilder sb = new StringBuilder();
+      long pos = offset;
+      for (int pageNum = 1; page < size; page++, pageNum++) {
+        if (offsets[page] != pos || pos + lengths[page] > offset + length || pageNum > MAX_HEADER_PAGES) {
+          return null;
+        }
+        if (sb.length() > 0) {
+          sb.append(",");
+        }
+        sb.append(lengths[page]).append(":").append(Long.toHexString(checksums[page]));
+        pos += lengths[page];
+        if (pos == offset + length) {
+          return sb.toString();
+        }
+      }
+      return null;
+    }
+  }
+
+  public static Verifier parseHeaderValue(String value) {
+    String [] pages = value.split(",");
+    long [] lengths = new long[pages.length];
+    long [] checksums = new long[pages.length];
+    for (int i = 0; i < pages.length; i++) {
+      int sep = pages[i].indexOf(':');
+      lengths[i] = Long.parseLong(pages[i].substring(0, sep));
+      checksums[i] = Long.parseLong(pages[i].substring(sep + 1), 16);
+    }
+    return new Verifier(lengths, checksums);
+  }
+
+  /**
+   * Verifies a sequence of pages. A partially received page can be discarded by {@link #rewind()}, and then
+   * the data are received again from {@link #getVerifiedBytes()}.
+   */
+  public static class Verifier {
+    private final long [] lengths;
+    private final long [] checksums;
+    private final CRC32 crc = new CRC32();
+    private int page;
+    private long pageRemaining;
+    private long verifiedBytes;
+
+    public Verifier(long [] lengths, long [] checksums) {
+      this.lengths = lengths;
+      this.checksums = checksums;
+      this.pageRemaining = lengths.length > 0 ? lengths[0] : 0;
+    }
+
+    public void update(byte [] b, int off, int len) throws ChecksumException {
+      while (len > 0) {
+        if (page == lengths.length) {
+          throw new ChecksumException("Received more bytes than checksummed pages", verifiedBytes);
+        }
+
+        int n = (int) Math.min(len, pageRemaining);
+        crc.update(b, off, n);
+        off += n;
+        len -= n;
+        pageRemaining -= n;
+
+        if (pageRemaining == 0) {
+          if (crc.getValue() != checksums[page]) {
+            throw new ChecksumException("Checksum mismatch in page " + page, verifiedBytes);
+          }
+          verifiedBytes += lengths[page];
+          page++;
+          pageRemaining = page < lengths.length ? lengths[page] : 0;
+          crc.reset();
+        }
+      }
+    }
+
+    /**
+     * Skips pages which have been verified before, e.g., by a failed fetch.
+     *
+     * @return False if the given bytes do not end at a page boundary
+     */
+    public boolean skip(long bytes) {
+      while (page < lengths.length && verifiedBytes + lengths[page] <= bytes) {
+        verifiedBytes += lengths[page];
+        page++;
+      }
+      pageRemaining = page < lengths.length ? lengths[page] : 0;
+      return verifiedBytes == bytes;
+    }
+
+    /**
+     * Discards the bytes of a partially received page.
+     */
+    public void rewind() {
+      crc.reset();
+      pageRemaining = page < lengths.length ? lengths[page] : 0;
+    }
+
+    public long getVerifiedBytes() {
+      return verifiedBytes;
+    }
+
+    public boolean isCompleted() {
+      return page == lengths.length;
+    }
+  }
+}
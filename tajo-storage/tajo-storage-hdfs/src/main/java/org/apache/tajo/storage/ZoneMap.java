@@ -0,0 +1,277 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.TableStatsProto;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * A zone map keeps the min/max values and the number of nulls of columns for each zone, i.e., a contiguous range of
+ * rows in a file, so that scanners skip zones which cannot satisfy a search condition.
+ *
+ * A zone map is written as a footer of a file, which consists of serialized zones, the length of them and
+ * {@link #MAGIC}. So, the offsets of rows are not changed by a zone map.
+ */
+public class ZoneMap {
+  public static final int MAGIC = 0x5A4F4E45;
+  public static final int TRAILER_SIZE = 8;
+
+  private final List<Zone> zones;
+  private final long dataEnd;
+
+  private ZoneMap(List<Zone> zones, long dataEnd) {
+    this.zones = zones;
+    this.dataEnd = dataEnd;
+  }
+
+  /**
+   * @return True if a table meta enables zone maps
+   */
+  public static boolean isEnabled(TableMeta meta) {
+    return Boolean.parseBoolean(meta.getOption(StorageConstants.ZONE_MAP_ENABLED, "false"));
+  }
+
+  public static class Zone {
+    private final long start;
+    private final long end;
+    private final TableStats stats;
+
+    public Zone(long start, long end, TableStats stats) {
+      this.start = start;
+      this.end = end;
+      this.stats = stats;
+    }
+
+    /**
+     * @return The offset of the first row
+     */
+    public long getStart() {
+      return start;
+    }
+
+    /**
+     * @return The offset next to the last row
+     */
+    public long getEnd() {
+      return end;
+    }
+
+    public TableStats getStats() {
+      return stats;
+    }
+  }
+
+  public List<Zone> getZones() {
+    return zones;
+  }
+
+  /**
+   * @return The offset where the footer starts
+   */
+  public long getDataEnd() {
+    return dataEnd;
+  }
+
+  /**
+   * @return The zones, in the order of offsets, which cannot have rows satisfying the search condition of a filter
+   */
+  public List<Zone> getSkippableZones(StatisticsFilter filter) {
+    List<Zone> skippable = new ArrayList<Zone>();
+    if (filter.isEmpty()) {
+      return skippable;
+    }
+
+    for (Zone zone : zones) {
+      Map<String, ColumnStats> statsMap = new HashMap<String, ColumnStats>();
+      for (ColumnStats columnStats : zone.getStats().getColumnStats()) {
+        statsMap.put(columnStats.getColumn().getSimpleName(), columnStats);
+      }
+      if (filter.canSkip(statsMap, zone.getStats().getNumRows())) {
+        skippable.add(zone);
+      }
+    }
+    return skippable;
+  }
+
+  /**
+   * Reads the zone map of a local file.
+   *
+   * @return A zone map, or null if the file does not have a zone map
+   */
+  public static ZoneMap read(FileChannel channel) throws IOException {
+    long length = channel.size();
+    if (length < TRAILER_SIZE) {
+      return null;
+    }
+
+    ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+    readFully(channel, trailer, length - TRAILER_SIZE);
+    long payloadStart = getPayloadStart(trailer, length);
+    if (payloadStart < 0) {
+      return null;
+    }
+
+    ByteBuffer payload = ByteBuffer.allocate((int) (length - TRAILER_SIZE - payloadStart));
+    readFully(channel, payload, payloadStart);
+    return parse(payload.array(), payloadStart);
+  }
+
+  /**
+   * Reads the zone map of a file.
+   *
+   * @param length The length of the file
+   * @return A zone map, or null if the file does not have a zone map
+   */
+  public static ZoneMap read(FSDataInputStream in, long length) throws IOException {
+    if (length < TRAILER_SIZE) {
+      return null;
+    }
+
+    byte [] trailer = new byte[TRAILER_SIZE];
+    in.readFully(length - TRAILER_SIZE, trailer);
+    long payloadStart = getPayloadStart(ByteBuffer.wrap(trailer), length);
+    if (payloadStart < 0) {
+      return null;
+    }
+
+    byte [] payload = new byte[(int) (length - TRAILER_SIZE - payloadStart)];
+    in.readFully(payloadStart, payload);
+    return parse(payload, payloadStart);
+  }
+
+  /**
+   * @return The offset of serialized zones, or -1 if a trailer is not found
+   */
+  private static long getPayloadStart(ByteBuffer trailer, long length) {
+    int payloadLength = trailer.getInt(0);
+    if (trailer.getInt(4) != MAGIC || payloadLength < 4 || payloadLength > length - TRAILER_SIZE) {
+      return -1;
+    }
+    return length - TRAILER_SIZE - payloadLength;
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer dst, long position) throws IOException {
+    while (dst.hasRemaining()) {
+      int read = channel.read(dst, position);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of file at " + position);
+      }
+      position += read;
+    }
+  }
+
+  private static ZoneMap parse(byte [] payload, long dataEnd) throws IOException {
+    DataInputBuffer in = new DataInputBuffer();
+    in.reset(payload, payload.length);
+
+    int numZones = in.readInt();
+    List<Zone> zones = new ArrayList<Zone>(numZones);
+    for (int i = 0; i < numZones; i++) {
+      long start = in.readLong();
+      long end = in.readLong();
+      byte [] stats = new byte[in.readInt()];
+      in.readFully(stats);
+      zones.add(new Zone(start, end, new TableStats(TableStatsProto.parseFrom(stats))));
+    }
+    return new ZoneMap(zones, dataEnd);
+  }
+
+  /**
+   * Collects the statistics of zones while rows are written, and creates a footer.
+   */
+  public static class Writer {
+    private final Schema schema;
+    private final long zoneSize;
+    private final List<Zone> zones = new ArrayList<Zone>();
+    private TableStatistics current;
+    private long start;
+
+    /**
+     * @param zoneSize The bytes of rows in a zone
+     * @param start The offset of the first row
+     */
+    public Writer(Schema schema, long zoneSize, long start) {
+      this.schema = schema;
+      this.zoneSize = zoneSize;
+      this.start = start;
+      this.current = new TableStatistics(schema);
+    }
+
+    /**
+     * Adds a row which is written before the given offset.
+     *
+     * @return True if the current zone is closed at the offset
+     */
+    public boolean addRow(Tuple tuple, long end) {
+      for (int i = 0; i < schema.size(); i++) {
+        current.analyzeField(i, tuple.get(i));
+      }
+      current.incrementRow();
+
+      if (end - start >= zoneSize) {
+        closeZone(end);
+        return true;
+      }
+      return false;
+    }
+
+    private void closeZone(long end) {
+      if (current.getNumRows() > 0) {
+        zones.add(new Zone(start, end, current.getTableStat()));
+        current = new TableStatistics(schema);
+      }
+      start = end;
+    }
+
+    /**
+     * Closes the current zone at the given offset.
+     *
+     * @return The footer to be written at the end of a file
+     */
+    public byte [] finish(long end) throws IOException {
+      closeZone(end);
+
+      DataOutputBuffer out = new DataOutputBuffer();
+      out.writeInt(zones.size());
+      for (Zone zone : zones) {
+        out.writeLong(zone.getStart());
+        out.writeLong(zone.getEnd());
+        byte [] stats = zone.getStats().getProto().toByteArray();
+        out.writeInt(stats.length);
+        out.write(stats);
+      }
+      int payloadLength = out.getLength();
+      out.writeInt(payloadLength);
+      out.writeInt(MAGIC);
+      return Arrays.copyOf(out.getData(), out.getLength());
+    }
+  }
+}
@@ -21,7 +21,9 @@ package org.apache.tajo.storage.parquet;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
 import org.apache.tajo.storage.FileScanner;
+import org.apache.tajo.storage.StatisticsFilter;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.fragment.Fragment;
 
@@ -55,7 +57,7 @@ public class ParquetScanner extends FileScanner {
     if (targets == null) {
       targets = schema.toArray();
     }
-    reader = new TajoParquetReader(fragment.getPath(), schema, new Schema(targets));
+    reader = new TajoParquetReader(fragment.getPath(), schema, new Schema(targets), new StatisticsFilter(qual));
     super.init();
   }
 
@@ -98,13 +100,22 @@ public class ParquetScanner extends FileScanner {
   }
 
   /**
-   * Returns whether this scanner is selectable.
+   * Returns whether this scanner is selectable. Row groups which cannot satisfy a search condition are skipped by
+   * their statistics, but the remaining rows are not filtered.
    *
-   * @return false
+   * @return true
    */
   @Override
   public boolean isSelectable() {
-    return false;
+    return true;
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    if (reader != null) {
+      tableStats.setNumSkippedBlocks(reader.getNumSkippedBlocks());
+    }
+    return tableStats;
   }
 
   /**
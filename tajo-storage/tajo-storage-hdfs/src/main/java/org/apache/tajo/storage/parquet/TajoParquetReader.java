@@ -19,12 +19,24 @@
 package org.apache.tajo.storage.parquet;
 
 import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.Column;
 import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.StatisticsFilter;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.thirdparty.parquet.ParquetReader;
+import parquet.column.statistics.*;
 import parquet.filter.UnboundRecordFilter;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ColumnChunkMetaData;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Tajo implementation of {@link ParquetReader} to read Tajo records from a
@@ -32,6 +44,10 @@ import java.io.IOException;
  * directly.
  */
 public class TajoParquetReader extends ParquetReader<Tuple> {
+  private Schema readSchema;
+  private StatisticsFilter statisticsFilter;
+  private int numSkippedBlocks;
+
   /**
    * Creates a new TajoParquetReader.
    *
@@ -82,4 +98,131 @@ public class TajoParquetReader extends ParquetReader<Tuple> {
     super(file, new TajoReadSupport(readSchema, requestedSchema),
           recordFilter);
   }
+
+  /**
+   * Creates a new TajoParquetReader which skips row groups by their statistics.
+   *
+   * @param file The file to read from.
+   * @param readSchema Tajo schema of the table.
+   * @param requestedSchema Tajo schema of the projection.
+   * @param statisticsFilter Filter of row groups.
+   */
+  public TajoParquetReader(Path file, Schema readSchema,
+                           Schema requestedSchema,
+                           StatisticsFilter statisticsFilter)
+      throws IOException {
+    super(file, new TajoReadSupport(readSchema, requestedSchema));
+    this.readSchema = readSchema;
+    this.statisticsFilter = statisticsFilter;
+  }
+
+  @Override
+  protected List<BlockMetaData> filterBlocks(List<BlockMetaData> blocks) {
+    if (statisticsFilter == null || statisticsFilter.isEmpty()) {
+      return blocks;
+    }
+
+    List<BlockMetaData> selected = new ArrayList<BlockMetaData>();
+    for (BlockMetaData block : blocks) {
+      if (statisticsFilter.canSkip(getColumnStats(block), block.getRowCount())) {
+        numSkippedBlocks++;
+      } else {
+        selected.add(block);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * @return The number of row groups skipped by their statistics
+   */
+  public int getNumSkippedBlocks() {
+    return numSkippedBlocks;
+  }
+
+  /**
+   * Converts the column chunk statistics of a row group into Tajo column statistics. The min and max values of
+   * binary columns are not used because they are not reliable in files written by old Parquet writers.
+   */
+  private Map<String, ColumnStats> getColumnStats(BlockMetaData block) {
+    Map<String, ColumnStats> statsMap = new HashMap<String, ColumnStats>();
+    for (ColumnChunkMetaData chunk : block.getColumns()) {
+      String [] path = chunk.getPath().toArray();
+      Statistics statistics = chunk.getStatistics();
+      if (path.length != 1 || !readSchema.containsByName(path[0]) || statistics == null) {
+        continue;
+      }
+
+      Column column = readSchema.getColumn(path[0]);
+      ColumnStats stats = new ColumnStats(column);
+      if (statistics.isEmpty()) {
+        // the statistics of a chunk only having nulls are empty. Otherwise, they are just unknown.
+        if (block.getRowCount() == 0 || statistics.getNumNulls() != block.getRowCount()) {
+          continue;
+        }
+      } else {
+        Datum [] minMax = toDatums(column, statistics);
+        if (minMax != null) {
+          stats.setMinValue(minMax[0]);
+          stats.setMaxValue(minMax[1]);
+        }
+      }
+      stats.setNumNulls(statistics.getNumNulls());
+      statsMap.put(path[0], stats);
+    }
+    return statsMap;
+  }
+
+  /**
+   * @return <min, max>, or null if they cannot be used
+   */
+  private static Datum [] toDatums(Column column, Statistics statistics) {
+    switch (column.getDataType().getType()) {
+      case BOOLEAN:
+        if (statistics instanceof BooleanStatistics) {
+          BooleanStatistics stats = (BooleanStatistics) statistics;
+          return new Datum[] {DatumFactory.createBool(stats.getMin()), DatumFactory.createBool(stats.getMax())};
+        }
+        return null;
+      case INT2:
+        if (statistics instanceof IntStatistics) {
+          IntStatistics stats = (IntStatistics) statistics;
+          return new Datum[] {
+              DatumFactory.createInt2((short) stats.getMin()), DatumFactory.createInt2((short) stats.getMax())};
+        }
+        return null;
+      case INT4:
+        if (statistics instanceof IntStatistics) {
+          IntStatistics stats = (IntStatistics) statistics;
+          return new Datum[] {DatumFactory.createInt4(stats.getMin()), DatumFactory.createInt4(stats.getMax())};
+        }
+        return null;
+      case INT8:
+        if (statistics instanceof LongStatistics) {
+          LongStatistics stats = (LongStatistics) statistics;
+          return new Datum[] {DatumFactory.createInt8(stats.getMin()), DatumFactory.createInt8(stats.getMax())};
+        }
+        return null;
+      case FLOAT4:
+        if (statistics instanceof FloatStatistics) {
+          FloatStatistics stats = (FloatStatistics) statistics;
+          if (Float.isNaN(stats.getMin()) || Float.isNaN(stats.getMax())) {
+            return null;
+          }
+          return new Datum[] {DatumFactory.createFloat4(stats.getMin()), DatumFactory.createFloat4(stats.getMax())};
+        }
+        return null;
+      case FLOAT8:
+        if (statistics instanceof DoubleStatistics) {
+          DoubleStatistics stats = (DoubleStatistics) statistics;
+          if (Double.isNaN(stats.getMin()) || Double.isNaN(stats.getMax())) {
+            return null;
+          }
+          return new Datum[] {DatumFactory.createFloat8(stats.getMin()), DatumFactory.createFloat8(stats.getMax())};
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
 }
@@ -27,6 +27,7 @@ import org.apache.tajo.common.TajoDataTypes.DataType;
 import org.apache.tajo.datum.*;
 import org.apache.tajo.storage.Tuple;
 import org.apache.tajo.storage.VTuple;
+import parquet.column.Dictionary;
 import parquet.io.api.Binary;
 import parquet.io.api.Converter;
 import parquet.io.api.GroupConverter;
@@ -330,6 +331,7 @@ public class TajoRecordConverter extends GroupConverter {
 
   static final class FieldTextConverter extends PrimitiveConverter {
     private final ParentValueContainer parent;
+    private TextDictionary dictionary;
 
     public FieldTextConverter(ParentValueContainer parent) {
       this.parent = parent;
@@ -339,6 +341,29 @@ public class TajoRecordConverter extends GroupConverter {
     final public void addBinary(Binary value) {
       parent.add(DatumFactory.createText(value.getBytes()));
     }
+
+    /**
+     * A dictionary-encoded column chunk gives a dictionary before its values. The entries are converted once,
+     * and each value is added as the shared entry of its dictionary id.
+     */
+    @Override
+    public boolean hasDictionarySupport() {
+      return true;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      byte [][] values = new byte[dictionary.getMaxId() + 1][];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = dictionary.decodeToBinary(i).getBytes();
+      }
+      this.dictionary = new TextDictionary(values);
+    }
+
+    @Override
+    public void addValueFromDictionary(int dictionaryId) {
+      parent.add(dictionary.get(dictionaryId));
+    }
   }
 
   static final class FieldBlobConverter extends PrimitiveConverter {
@@ -37,7 +37,8 @@ public class ByteBufLineReader implements Closeable {
   private ByteBuf buffer;
   private final ByteBufInputChannel channel;
   private final AtomicInteger lineReadBytes = new AtomicInteger();
-  private final LineSplitProcessor processor = new LineSplitProcessor();
+  // true if the last found line terminator is CR, which may be followed by LF
+  private boolean prevCharCR = false;
 
   public ByteBufLineReader(ByteBufInputChannel channel) {
     this(channel, BufferPool.directBuffer(DEFAULT_BUFFER));
@@ -137,7 +138,7 @@ public class ByteBufLineReader implements Closeable {
           return null;
         } else {
           //skip first newLine
-          if (processor.isPrevCharCR() && buffer.getByte(buffer.readerIndex()) == LineSplitProcessor.LF) {
+          if (prevCharCR && buffer.getByte(buffer.readerIndex()) == LineSplitProcessor.LF) {
             buffer.skipBytes(1);
             if(eof && !buffer.isReadable()) {
               reads.set(1);
@@ -152,7 +153,13 @@ public class ByteBufLineReader implements Closeable {
         readable = buffer.readableBytes();
       }
 
-      int endIndex = buffer.forEachByte(buffer.readerIndex(), readable, processor);
+      // line terminators are found 8 bytes at a time
+      int endIndex = DelimiterSearch.indexOfLineTerminator(buffer, buffer.readerIndex(), readable);
+      if (endIndex >= 0) {
+        prevCharCR = buffer.getByte(endIndex) == LineSplitProcessor.CR;
+      } else if (readable > 0) {
+        prevCharCR = false;
+      }
       if (endIndex < 0) {
         //does not appeared terminating newline
         buffer.readerIndex(buffer.writerIndex()); // set to end buffer
@@ -165,7 +172,7 @@ public class ByteBufLineReader implements Closeable {
         readBytes += (buffer.readerIndex() - startIndex); //past newline + text line
 
         //appeared terminating CRLF
-        if (processor.isPrevCharCR() && buffer.isReadable()
+        if (prevCharCR && buffer.isReadable()
             && buffer.getByte(buffer.readerIndex()) == LineSplitProcessor.LF) {
           buffer.skipBytes(1);
           readBytes++;
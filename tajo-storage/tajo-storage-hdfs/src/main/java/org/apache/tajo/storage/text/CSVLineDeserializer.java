@@ -20,19 +20,32 @@ package org.apache.tajo.storage.text;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufProcessor;
+import io.netty.buffer.Unpooled;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.TextDatum;
 import org.apache.tajo.storage.FieldSerializerDeserializer;
+import org.apache.tajo.storage.LazyTuple;
+import org.apache.tajo.storage.StorageConstants;
 import org.apache.tajo.storage.Tuple;
 
 import java.io.IOException;
 
 public class CSVLineDeserializer extends TextLineDeserializer {
+  private static final int LINE_CHUNK_SIZE = 16 * 1024;
+
+  // a multi-byte delimiter is found by a processor, and a single-byte delimiter is found 8 bytes at a time
   private ByteBufProcessor processor;
+  private byte delimiter;
   private FieldSerializerDeserializer fieldSerDer;
   private ByteBuf nullChars;
+  // lazy tuples may be used after this deserializer is released, so they have null characters on the heap
+  private ByteBuf heapNullChars;
   private int delimiterCompensation;
+  private boolean lazy;
+  // lines of lazy tuples are copied into a chunk, which is replaced by a new one when it is full
+  private ByteBuf lineChunk;
 
   public CSVLineDeserializer(Schema schema, TableMeta meta, int[] targetColumnIndexes) {
     super(schema, meta, targetColumnIndexes);
@@ -42,7 +55,8 @@ public class CSVLineDeserializer extends TextLineDeserializer {
   public void init() {
     byte[] delimiter = CSVLineSerDe.getFieldDelimiter(meta);
     if (delimiter.length == 1) {
-      this.processor = new FieldSplitProcessor(delimiter[0]);
+      this.delimiter = delimiter[0];
+      this.processor = null;
     } else {
       this.processor = new MultiBytesFieldSplitProcessor(delimiter);
     }
@@ -52,16 +66,49 @@ public class CSVLineDeserializer extends TextLineDeserializer {
       nullChars.release();
     }
     nullChars = TextLineSerDe.getNullChars(meta);
+    heapNullChars = Unpooled.wrappedBuffer(TextLineSerDe.getNullCharsAsBytes(meta));
 
     fieldSerDer = new TextFieldSerializerDeserializer(meta);
+
+    // If parsing errors are tolerated, fields are deserialized eagerly so that errors are counted by the scanner.
+    lazy = Integer.parseInt(meta.getOption(StorageConstants.TEXT_ERROR_TOLERANCE_MAXNUM,
+        StorageConstants.DEFAULT_TEXT_ERROR_TOLERANCE_MAXNUM)) == 0;
+    lineChunk = null;
+  }
+
+  /**
+   * Creates a {@link LazyTuple} on a copy of the line, so that fields are converted into datums only when they are
+   * accessed, e.g., fields following one rejected by a filter are never converted. Lines are copied into a shared
+   * chunk instead of a buffer per line. A chunk is released by GC when no tuple refers to it.
+   *
+   * If parsing errors are tolerated, it creates a tuple of the default type.
+   */
+  @Override
+  public Tuple createTuple(final ByteBuf lineBuf) {
+    if (!lazy) {
+      return super.createTuple(lineBuf);
+    }
+
+    int length = lineBuf.readableBytes();
+    if (lineChunk == null || lineChunk.writableBytes() < length) {
+      lineChunk = Unpooled.buffer(Math.max(LINE_CHUNK_SIZE, length));
+    }
+    int start = lineChunk.writerIndex();
+    lineChunk.writeBytes(lineBuf, lineBuf.readerIndex(), length);
+    return new LazyTuple(schema, lineChunk.slice(start, length), heapNullChars, fieldSerDer);
   }
 
+  /**
+   * It fills a tuple with the projected fields of a line. If the tuple is a {@link LazyTuple}, only the ranges of
+   * fields are recorded. Otherwise, a field which cannot be deserialized causes a {@link TextLineParsingError}.
+   */
   public void deserialize(final ByteBuf lineBuf, Tuple output) throws IOException, TextLineParsingError {
     int[] projection = targetColumnIndexes;
     if (lineBuf == null || targetColumnIndexes == null || targetColumnIndexes.length == 0) {
       return;
     }
 
+    final boolean lazyOutput = output instanceof LazyTuple;
     final int rowLength = lineBuf.readableBytes();
     int start = 0, fieldLength = 0, end = 0;
 
@@ -70,7 +117,11 @@ public class CSVLineDeserializer extends TextLineDeserializer {
     int currentIndex = 0;
 
     while (end != -1) {
-      end = lineBuf.forEachByte(start, rowLength - start, processor);
+      if (processor == null) {
+        end = DelimiterSearch.indexOf(lineBuf, start, rowLength - start, delimiter);
+      } else {
+        end = lineBuf.forEachByte(start, rowLength - start, processor);
+      }
 
       if (end < 0) {
         fieldLength = rowLength - start;
@@ -79,9 +130,18 @@ public class CSVLineDeserializer extends TextLineDeserializer {
       }
 
       if (projection.length > currentTarget && currentIndex == projection[currentTarget]) {
-        lineBuf.setIndex(start, start + fieldLength);
-        Datum datum = fieldSerDer.deserialize(lineBuf, schema.getColumn(currentIndex), currentIndex, nullChars);
-        output.put(currentIndex, datum);
+        if (lazyOutput) {
+          ((LazyTuple) output).setField(currentIndex, start, fieldLength);
+        } else {
+          lineBuf.setIndex(start, start + fieldLength);
+          Datum datum;
+          try {
+            datum = fieldSerDer.deserialize(lineBuf, schema.getColumn(currentIndex), currentIndex, nullChars);
+          } catch (RuntimeException e) {
+            throw new TextLineParsingError(lineBuf.toString(0, rowLength, TextDatum.DEFAULT_CHARSET), e);
+          }
+          output.put(currentIndex, datum);
+        }
         currentTarget++;
       }
 
@@ -100,5 +160,6 @@ public class CSVLineDeserializer extends TextLineDeserializer {
       nullChars.release();
       nullChars = null;
     }
+    lineChunk = null;
   }
 }
@@ -362,7 +362,7 @@ public class DelimitedTextFile {
 
     @Override
     public Tuple next() throws IOException {
-      VTuple tuple;
+      Tuple tuple;
 
       if (!reader.isReadable()) {
         return null;
@@ -387,7 +387,7 @@ public class DelimitedTextFile {
             return EmptyTuple.get();
           }
 
-          tuple = new VTuple(schema.size());
+          tuple = deserializer.createTuple(buf);
 
           try {
             deserializer.deserialize(buf, tuple);
@@ -460,10 +460,6 @@ public class DelimitedTextFile {
       return false;
     }
 
-    @Override
-    public void setSearchCondition(Object expr) {
-    }
-
     @Override
     public boolean isSplittable() {
       return splittable;
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.text;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Finds delimiters in a ByteBuf a word at a time (SWAR, SIMD within a register). Each step reads 8 bytes as a long
+ * and tests all of them against a delimiter with a few arithmetic operations, instead of calling a
+ * {@link io.netty.buffer.ByteBufProcessor} for each byte.
+ *
+ * Like {@link ByteBuf#forEachByte(int, int, io.netty.buffer.ByteBufProcessor)}, the methods return the absolute
+ * index of the first delimiter in a given range, or -1 if it is not found.
+ */
+public final class DelimiterSearch {
+  private static final long ONES = 0x0101010101010101L;
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+  private static final long CR_PATTERN = broadcast(LineSplitProcessor.CR);
+  private static final long LF_PATTERN = broadcast(LineSplitProcessor.LF);
+
+  private DelimiterSearch() {
+  }
+
+  /**
+   * @return A word which has the given byte in all of its 8 bytes
+   */
+  private static long broadcast(byte b) {
+    return (b & 0xFFL) * ONES;
+  }
+
+  /**
+   * @return A word whose highest bit of each byte is set only if the byte is zero. Unlike the well-known
+   *         (x - 0x01..) & ~x & 0x80.. form, no borrow is propagated between bytes, so every bit is exact.
+   */
+  private static long zeroBytes(long word) {
+    return ~(((word & LOW_BITS) + LOW_BITS) | word | LOW_BITS);
+  }
+
+  /**
+   * The first byte in a big-endian word is the most significant one.
+   */
+  private static int firstByte(long zeroBytes) {
+    return Long.numberOfLeadingZeros(zeroBytes) >>> 3;
+  }
+
+  /**
+   * Finds a single-byte delimiter in [index, index + length) of a buffer.
+   */
+  public static int indexOf(ByteBuf buf, int index, int length, byte delimiter) {
+    final long pattern = broadcast(delimiter);
+    final int end = index + length;
+    int i = index;
+    for (; i + 8 <= end; i += 8) {
+      long found = zeroBytes(buf.getLong(i) ^ pattern);
+      if (found != 0) {
+        return i + firstByte(found);
+      }
+    }
+    for (; i < end; i++) {
+      if (buf.getByte(i) == delimiter) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the first CR or LF in [index, index + length) of a buffer.
+   */
+  public static int indexOfLineTerminator(ByteBuf buf, int index, int length) {
+    final int end = index + length;
+    int i = index;
+    for (; i + 8 <= end; i += 8) {
+      long word = buf.getLong(i);
+      long found = zeroBytes(word ^ LF_PATTERN) | zeroBytes(word ^ CR_PATTERN);
+      if (found != 0) {
+        return i + firstByte(found);
+      }
+    }
+    for (; i < end; i++) {
+      byte b = buf.getByte(i);
+      if (b == LineSplitProcessor.LF || b == LineSplitProcessor.CR) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
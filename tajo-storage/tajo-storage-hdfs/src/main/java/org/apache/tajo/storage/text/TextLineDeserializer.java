@@ -22,6 +22,7 @@ import io.netty.buffer.ByteBuf;
 import org.apache.tajo.catalog.Schema;
 import org.apache.tajo.catalog.TableMeta;
 import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
 
 import java.io.IOException;
 
@@ -44,6 +45,17 @@ public abstract class TextLineDeserializer {
    */
   public abstract void init();
 
+  /**
+   * Creates a tuple to be filled by {@link #deserialize(io.netty.buffer.ByteBuf, org.apache.tajo.storage.Tuple)}.
+   * The line buffer is reused for a next line, so a tuple which refers to the line must keep its own copy.
+   *
+   * @param buf Read line
+   * @return A new tuple
+   */
+  public Tuple createTuple(final ByteBuf buf) {
+    return new VTuple(schema.size());
+  }
+
   /**
    * It fills a tuple with a read fields in a given line.
    *
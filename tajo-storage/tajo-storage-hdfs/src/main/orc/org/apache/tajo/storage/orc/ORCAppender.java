@@ -0,0 +1,233 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.orc;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.orc.CompressionKind;
+import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.Writer;
+import org.apache.hadoop.hive.serde2.io.DateWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.TimestampDatum;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.storage.FileAppender;
+import org.apache.tajo.storage.StorageConstants;
+import org.apache.tajo.storage.TableStatistics;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.util.datetime.DateTimeConstants;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * FileAppender for writing to ORC files.
+ */
+public class ORCAppender extends FileAppender {
+  private Writer writer;
+  private long stripeSize;
+  private CompressionKind compressionKind;
+  private int bufferSize;
+  private int rowIndexStride;
+  private TableStatistics stats;
+  private Object [] row;
+
+  /**
+   * Creates a new ORCAppender.
+   *
+   * @param conf Configuration properties.
+   * @param schema The table schema.
+   * @param meta The table metadata.
+   * @param workDir The path of the ORC file to write to.
+   */
+  public ORCAppender(Configuration conf, TaskAttemptId taskAttemptId, Schema schema, TableMeta meta,
+                     Path workDir) throws IOException {
+    super(conf, taskAttemptId, schema, meta, workDir);
+    this.stripeSize = Long.parseLong(
+        meta.getOption(StorageConstants.ORC_STRIPE_SIZE, StorageConstants.ORC_DEFAULT_STRIPE_SIZE));
+    this.compressionKind = CompressionKind.valueOf(
+        meta.getOption(StorageConstants.ORC_COMPRESSION, StorageConstants.ORC_DEFAULT_COMPRESSION).toUpperCase());
+    this.bufferSize = Integer.parseInt(meta.getOption(StorageConstants.ORC_COMPRESSION_BUFFER_SIZE,
+        StorageConstants.ORC_DEFAULT_COMPRESSION_BUFFER_SIZE));
+    this.rowIndexStride = Integer.parseInt(
+        meta.getOption(StorageConstants.ORC_ROW_INDEX_STRIDE, StorageConstants.ORC_DEFAULT_ROW_INDEX_STRIDE));
+  }
+
+  /**
+   * Initializes the Appender. This method creates a new ORC writer
+   * and initializes the table statistics if enabled.
+   */
+  @Override
+  public void init() throws IOException {
+    List<String> fieldNames = new ArrayList<String>();
+    List<ObjectInspector> fieldInspectors = new ArrayList<ObjectInspector>();
+    for (Column column : schema.getColumns()) {
+      fieldNames.add(column.getSimpleName());
+      fieldInspectors.add(getObjectInspector(column));
+    }
+    ObjectInspector inspector = ObjectInspectorFactory.getStandardStructObjectInspector(fieldNames, fieldInspectors);
+
+    writer = OrcFile.createWriter(path.getFileSystem(conf), path, conf, inspector,
+        stripeSize, compressionKind, bufferSize, rowIndexStride);
+    row = new Object[schema.size()];
+
+    if (enabledStats) {
+      this.stats = new TableStatistics(schema);
+    }
+    super.init();
+  }
+
+  private static ObjectInspector getObjectInspector(Column column) {
+    switch (column.getDataType().getType()) {
+      case BOOLEAN:
+        return PrimitiveObjectInspectorFactory.javaBooleanObjectInspector;
+      case BIT:
+        return PrimitiveObjectInspectorFactory.javaByteObjectInspector;
+      case INT2:
+        return PrimitiveObjectInspectorFactory.javaShortObjectInspector;
+      case INT4:
+        return PrimitiveObjectInspectorFactory.javaIntObjectInspector;
+      case INT8:
+        return PrimitiveObjectInspectorFactory.javaLongObjectInspector;
+      case FLOAT4:
+        return PrimitiveObjectInspectorFactory.javaFloatObjectInspector;
+      case FLOAT8:
+        return PrimitiveObjectInspectorFactory.javaDoubleObjectInspector;
+      case CHAR:
+      case TEXT:
+        return PrimitiveObjectInspectorFactory.javaStringObjectInspector;
+      case BLOB:
+        return PrimitiveObjectInspectorFactory.javaByteArrayObjectInspector;
+      case DATE:
+        return PrimitiveObjectInspectorFactory.writableDateObjectInspector;
+      case TIMESTAMP:
+        return PrimitiveObjectInspectorFactory.javaTimestampObjectInspector;
+      default:
+        throw new UnsupportedException("ORC does not support " + column.getDataType().getType().name());
+    }
+  }
+
+  /**
+   * Gets the current offset. Tracking offsets is currently not implemented, so
+   * this method always returns 0.
+   *
+   * @return 0
+   */
+  @Override
+  public long getOffset() throws IOException {
+    return 0;
+  }
+
+  /**
+   * Write a Tuple to the ORC file.
+   *
+   * @param tuple The Tuple to write.
+   */
+  @Override
+  public void addTuple(Tuple tuple) throws IOException {
+    for (int i = 0; i < schema.size(); ++i) {
+      Datum datum = tuple.get(i);
+      if (enabledStats) {
+        stats.analyzeField(i, datum);
+      }
+      row[i] = toObject(schema.getColumn(i), datum);
+    }
+    // the writer only reads the fields, so the row array can be reused.
+    writer.addRow(Arrays.asList(row));
+    if (enabledStats) {
+      stats.incrementRow();
+    }
+  }
+
+  private static Object toObject(Column column, Datum datum) {
+    if (datum == null || datum.isNull()) {
+      return null;
+    }
+
+    switch (column.getDataType().getType()) {
+      case BOOLEAN:
+        return datum.asBool();
+      case BIT:
+        return datum.asByte();
+      case INT2:
+        return datum.asInt2();
+      case INT4:
+        return datum.asInt4();
+      case INT8:
+        return datum.asInt8();
+      case FLOAT4:
+        return datum.asFloat4();
+      case FLOAT8:
+        return datum.asFloat8();
+      case CHAR:
+      case TEXT:
+        return datum.asChars();
+      case BLOB:
+        return datum.asByteArray();
+      case DATE:
+        return new DateWritable(datum.asInt4() - DateTimeConstants.UNIX_EPOCH_JDATE);
+      case TIMESTAMP:
+        return new Timestamp(((TimestampDatum) datum).getJavaTimestamp());
+      default:
+        throw new UnsupportedException("ORC does not support " + column.getDataType().getType().name());
+    }
+  }
+
+  /**
+   * The ORC writer buffers a whole stripe in memory, so this is a no-op.
+   */
+  @Override
+  public void flush() throws IOException {
+  }
+
+  /**
+   * Closes the Appender.
+   */
+  @Override
+  public void close() throws IOException {
+    if (writer != null) {
+      writer.close();
+    }
+  }
+
+  /**
+   * If table statistics is enabled, retrieve the table statistics.
+   *
+   * @return Table statistics if enabled or null otherwise.
+   */
+  @Override
+  public TableStats getStats() {
+    if (enabledStats) {
+      return stats.getTableStat();
+    } else {
+      return null;
+    }
+  }
+}
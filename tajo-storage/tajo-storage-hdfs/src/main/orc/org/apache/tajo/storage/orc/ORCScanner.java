@@ -0,0 +1,486 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.orc;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.io.orc.*;
+import org.apache.hadoop.hive.ql.io.sarg.SearchArgument;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.statistics.ColumnStats;
+import org.apache.tajo.catalog.statistics.TableStats;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.exception.UnsupportedException;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.FileScanner;
+import org.apache.tajo.storage.StatisticsFilter;
+import org.apache.tajo.storage.Tuple;
+import org.apache.tajo.storage.VTuple;
+import org.apache.tajo.storage.fragment.Fragment;
+import org.apache.tajo.util.datetime.DateTimeConstants;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * FileScanner for reading ORC files.
+ *
+ * Rows are read in batches of column vectors, and only the columns of targets are read. Stripes which cannot
+ * satisfy a search condition are skipped by their statistics, and row groups within a stripe are skipped by
+ * the row index of the stripe.
+ */
+public class ORCScanner extends FileScanner {
+  private Reader reader;
+  private RecordReader recordReader;
+  private VectorizedRowBatch batch;
+  private int rowInBatch;
+
+  /** the indexes of target columns in the schema */
+  private int [] targetIds;
+  /** the field positions of target columns in the file, or -1 if a column does not exist in the file */
+  private int [] fieldIds;
+  /** the types of target columns */
+  private Type [] targetTypes;
+  /** the columns of the file to be read, indexed by ORC type ids */
+  private boolean [] include;
+  /** the names of the columns of the file to be read, indexed by ORC type ids */
+  private String [] columnNames;
+  private SearchArgument searchArgument;
+
+  private List<StripeInformation> stripes;
+  private int currentStripe;
+  private int numSkippedBlocks;
+
+  public ORCScanner(Configuration conf, final Schema schema, final TableMeta meta, final Fragment fragment) {
+    super(conf, schema, meta, fragment);
+  }
+
+  @Override
+  public void init() throws IOException {
+    if (targets == null) {
+      targets = schema.toArray();
+    }
+
+    Path path = fragment.getPath();
+    reader = OrcFile.createReader(path.getFileSystem(conf), path);
+
+    List<OrcProto.Type> types = reader.getTypes();
+    OrcProto.Type root = types.get(0);
+    Map<String, Integer> fieldPositions = new HashMap<String, Integer>();
+    for (int i = 0; i < root.getFieldNamesCount(); i++) {
+      fieldPositions.put(root.getFieldNames(i).toLowerCase(), i);
+    }
+
+    targetIds = new int[targets.length];
+    fieldIds = new int[targets.length];
+    targetTypes = new Type[targets.length];
+    include = new boolean[types.size()];
+    columnNames = new String[types.size()];
+    include[0] = true;
+
+    Map<String, Column> readColumns = new HashMap<String, Column>();
+    for (int i = 0; i < targets.length; i++) {
+      targetIds[i] = schema.getColumnId(targets[i].getQualifiedName());
+      targetTypes[i] = targets[i].getDataType().getType();
+
+      Integer position = fieldPositions.get(targets[i].getSimpleName().toLowerCase());
+      // files written by Hive may have internal field names like _col0, so such fields are matched by positions.
+      if (position == null && targetIds[i] < root.getFieldNamesCount()
+          && root.getFieldNames(targetIds[i]).startsWith("_col")) {
+        position = targetIds[i];
+      }
+      fieldIds[i] = position == null ? -1 : position;
+
+      if (fieldIds[i] >= 0) {
+        int typeId = root.getSubtypes(fieldIds[i]);
+        include[typeId] = true;
+        columnNames[typeId] = targets[i].getSimpleName();
+        readColumns.put(targets[i].getSimpleName(), targets[i]);
+      }
+    }
+
+    stripes = filterStripes(readColumns, root);
+    searchArgument = buildSearchArgument(readColumns);
+    currentStripe = 0;
+
+    super.init();
+  }
+
+  /**
+   * @return The stripes which start in this fragment and may have rows satisfying the search condition
+   */
+  private List<StripeInformation> filterStripes(Map<String, Column> readColumns, OrcProto.Type root)
+      throws IOException {
+    long start = fragment.getStartKey();
+    long end = start + fragment.getLength();
+    StatisticsFilter filter = new StatisticsFilter(qual);
+
+    List<StripeStatistics> stripeStatistics = null;
+    if (!filter.isEmpty()) {
+      stripeStatistics = reader.getMetadata().getStripeStatistics();
+    }
+
+    List<StripeInformation> selected = new ArrayList<StripeInformation>();
+    int stripeIdx = 0;
+    for (StripeInformation stripe : reader.getStripes()) {
+      int idx = stripeIdx++;
+      if (stripe.getOffset() < start || stripe.getOffset() >= end) {
+        continue;
+      }
+      if (stripeStatistics != null && idx < stripeStatistics.size() && filter.canSkip(
+          getColumnStats(readColumns, root, stripeStatistics.get(idx), stripe.getNumberOfRows()),
+          stripe.getNumberOfRows())) {
+        numSkippedBlocks++;
+      } else {
+        selected.add(stripe);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Converts the column statistics of a stripe into Tajo column statistics.
+   */
+  private Map<String, ColumnStats> getColumnStats(Map<String, Column> readColumns, OrcProto.Type root,
+                                                  StripeStatistics stripeStatistics, long numRows) {
+    ColumnStatistics [] statistics = stripeStatistics.getColumnStatistics();
+    Map<String, ColumnStats> statsMap = new HashMap<String, ColumnStats>();
+    for (int i = 0; i < root.getSubtypesCount(); i++) {
+      int typeId = root.getSubtypes(i);
+      if (typeId >= statistics.length || columnNames[typeId] == null) {
+        continue;
+      }
+
+      Column column = readColumns.get(columnNames[typeId]);
+      ColumnStatistics columnStatistics = statistics[typeId];
+      ColumnStats stats = new ColumnStats(column);
+      // the number of values of ORC statistics does not count nulls.
+      stats.setNumNulls(numRows - columnStatistics.getNumberOfValues());
+      if (columnStatistics.getNumberOfValues() > 0) {
+        Datum [] minMax = toDatums(column, columnStatistics);
+        if (minMax != null) {
+          stats.setMinValue(minMax[0]);
+          stats.setMaxValue(minMax[1]);
+        }
+      }
+      statsMap.put(column.getSimpleName(), stats);
+    }
+    return statsMap;
+  }
+
+  /**
+   * @return <min, max>, or null if they cannot be used
+   */
+  private static Datum [] toDatums(Column column, ColumnStatistics statistics) {
+    switch (column.getDataType().getType()) {
+      case INT2:
+      case INT4:
+      case INT8:
+        if (statistics instanceof IntegerColumnStatistics) {
+          IntegerColumnStatistics stats = (IntegerColumnStatistics) statistics;
+          return new Datum[] {DatumFactory.createInt8(stats.getMinimum()), DatumFactory.createInt8(stats.getMaximum())};
+        }
+        return null;
+      case FLOAT8:
+        if (statistics instanceof DoubleColumnStatistics) {
+          DoubleColumnStatistics stats = (DoubleColumnStatistics) statistics;
+          if (Double.isNaN(stats.getMinimum()) || Double.isNaN(stats.getMaximum())) {
+            return null;
+          }
+          return new Datum[] {
+              DatumFactory.createFloat8(stats.getMinimum()), DatumFactory.createFloat8(stats.getMaximum())};
+        }
+        return null;
+      case TEXT:
+        if (statistics instanceof StringColumnStatistics) {
+          StringColumnStatistics stats = (StringColumnStatistics) statistics;
+          if (stats.getMinimum() == null || stats.getMaximum() == null) {
+            return null;
+          }
+          return new Datum[] {DatumFactory.createText(stats.getMinimum()), DatumFactory.createText(stats.getMaximum())};
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Builds a search argument with which ORC skips row groups by the row index. Only comparisons between a column
+   * and a constant are used.
+   *
+   * @return A search argument, or null if there is no usable predicate
+   */
+  private SearchArgument buildSearchArgument(Map<String, Column> readColumns) {
+    if (qual == null) {
+      return null;
+    }
+
+    SearchArgument.Builder builder = SearchArgument.FACTORY.newBuilder().startAnd();
+    int numPredicates = 0;
+    for (EvalNode conjunct : AlgebraicUtil.toConjunctiveNormalFormArray(qual)) {
+      if (!(conjunct instanceof BinaryEval)) {
+        continue;
+      }
+      BinaryEval binaryEval = (BinaryEval) conjunct;
+      EvalNode left = binaryEval.getLeftExpr();
+      EvalNode right = binaryEval.getRightExpr();
+      boolean constOnLeft = left.getType() == EvalType.CONST && right.getType() == EvalType.FIELD;
+      if (!constOnLeft && !(left.getType() == EvalType.FIELD && right.getType() == EvalType.CONST)) {
+        continue;
+      }
+
+      Column column = readColumns.get(((FieldEval) (constOnLeft ? right : left)).getColumnRef().getSimpleName());
+      Object literal = column == null ? null : toLiteral(column, ((ConstEval) (constOnLeft ? left : right)).getValue());
+      if (literal == null) {
+        continue;
+      }
+
+      String name = column.getSimpleName();
+      switch (constOnLeft ? flip(conjunct.getType()) : conjunct.getType()) {
+        case EQUAL:
+          builder.equals(name, literal);
+          break;
+        case NOT_EQUAL:
+          builder.startNot().equals(name, literal).end();
+          break;
+        case LTH:
+          builder.lessThan(name, literal);
+          break;
+        case LEQ:
+          builder.lessThanEquals(name, literal);
+          break;
+        case GTH:
+          builder.startNot().lessThanEquals(name, literal).end();
+          break;
+        case GEQ:
+          builder.startNot().lessThan(name, literal).end();
+          break;
+        default:
+          continue;
+      }
+      numPredicates++;
+    }
+    return numPredicates == 0 ? null : builder.end().build();
+  }
+
+  /**
+   * @return A literal of a search argument, or null if the column cannot be compared with the value by ORC
+   */
+  private static Object toLiteral(Column column, Datum value) {
+    if (value.isNull()) {
+      return null;
+    }
+    switch (column.getDataType().getType()) {
+      case INT2:
+      case INT4:
+      case INT8:
+        switch (value.type()) {
+          case INT2:
+          case INT4:
+          case INT8:
+            return value.asInt8();
+          default:
+            return null;
+        }
+      case FLOAT8:
+        switch (value.type()) {
+          case INT2:
+          case INT4:
+          case INT8:
+          case FLOAT4:
+          case FLOAT8:
+            return value.asFloat8();
+          default:
+            return null;
+        }
+      case TEXT:
+        return value.type() == Type.TEXT ? value.asChars() : null;
+      default:
+        return null;
+    }
+  }
+
+  private static EvalType flip(EvalType type) {
+    switch (type) {
+      case LTH:
+        return EvalType.GTH;
+      case LEQ:
+        return EvalType.GEQ;
+      case GTH:
+        return EvalType.LTH;
+      case GEQ:
+        return EvalType.LEQ;
+      default:
+        return type;
+    }
+  }
+
+  @Override
+  public Tuple next() throws IOException {
+    while (batch == null || rowInBatch >= batch.size) {
+      if (!nextBatch()) {
+        return null;
+      }
+    }
+
+    Tuple tuple = new VTuple(columnNum);
+    for (int i = 0; i < targetIds.length; i++) {
+      tuple.put(targetIds[i], getDatum(i));
+    }
+    rowInBatch++;
+    return tuple;
+  }
+
+  private boolean nextBatch() throws IOException {
+    while (recordReader == null || !recordReader.hasNext()) {
+      if (recordReader != null) {
+        recordReader.close();
+        recordReader = null;
+      }
+      if (currentStripe >= stripes.size()) {
+        progress = 1.0f;
+        return false;
+      }
+
+      StripeInformation stripe = stripes.get(currentStripe++);
+      recordReader = reader.rows(stripe.getOffset(), stripe.getLength(), include, searchArgument, columnNames);
+      progress = (float) (currentStripe - 1) / stripes.size();
+    }
+
+    batch = recordReader.nextBatch(batch);
+    rowInBatch = 0;
+    return true;
+  }
+
+  private Datum getDatum(int targetIdx) {
+    if (fieldIds[targetIdx] < 0) {
+      return NullDatum.get();
+    }
+
+    ColumnVector vector = batch.cols[fieldIds[targetIdx]];
+    int row = vector.isRepeating ? 0 : rowInBatch;
+    if (!vector.noNulls && vector.isNull[row]) {
+      return NullDatum.get();
+    }
+
+    switch (targetTypes[targetIdx]) {
+      case BOOLEAN:
+        return DatumFactory.createBool(((LongColumnVector) vector).vector[row] != 0);
+      case BIT:
+        return DatumFactory.createBit((byte) ((LongColumnVector) vector).vector[row]);
+      case INT2:
+        return DatumFactory.createInt2((short) ((LongColumnVector) vector).vector[row]);
+      case INT4:
+        return DatumFactory.createInt4((int) ((LongColumnVector) vector).vector[row]);
+      case INT8:
+        return DatumFactory.createInt8(((LongColumnVector) vector).vector[row]);
+      case FLOAT4:
+        return DatumFactory.createFloat4((float) ((DoubleColumnVector) vector).vector[row]);
+      case FLOAT8:
+        return DatumFactory.createFloat8(((DoubleColumnVector) vector).vector[row]);
+      case CHAR:
+        return DatumFactory.createChar(getBytes((BytesColumnVector) vector, row));
+      case TEXT:
+        return DatumFactory.createText(getBytes((BytesColumnVector) vector, row));
+      case BLOB:
+        return DatumFactory.createBlob(getBytes((BytesColumnVector) vector, row));
+      case DATE:
+        // ORC dates are the days since the unix epoch
+        return DatumFactory.createDate(
+            (int) (((LongColumnVector) vector).vector[row] + DateTimeConstants.UNIX_EPOCH_JDATE));
+      case TIMESTAMP: {
+        // ORC timestamps are the nanoseconds since the unix epoch
+        long nanos = ((LongColumnVector) vector).vector[row];
+        long millis = nanos / 1000000;
+        if (nanos % 1000000 < 0) {
+          millis--;
+        }
+        return DatumFactory.createTimestmpDatumWithJavaMillis(millis);
+      }
+      default:
+        throw new UnsupportedException("ORC does not support " + targetTypes[targetIdx].name());
+    }
+  }
+
+  /**
+   * The bytes of a vector may be shared by all rows of a batch and reused by the next batch, so they are copied.
+   */
+  private static byte [] getBytes(BytesColumnVector vector, int row) {
+    return Arrays.copyOfRange(vector.vector[row], vector.start[row], vector.start[row] + vector.length[row]);
+  }
+
+  @Override
+  public void reset() throws IOException {
+    if (recordReader != null) {
+      recordReader.close();
+      recordReader = null;
+    }
+    batch = null;
+    rowInBatch = 0;
+    currentStripe = 0;
+    progress = 0.0f;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (recordReader != null) {
+      recordReader.close();
+      recordReader = null;
+    }
+    progress = 1.0f;
+  }
+
+  @Override
+  public boolean isProjectable() {
+    return true;
+  }
+
+  /**
+   * Returns whether this scanner is selectable. Stripes and row groups which cannot satisfy a search condition are
+   * skipped by their statistics, but the remaining rows are not filtered.
+   *
+   * @return true
+   */
+  @Override
+  public boolean isSelectable() {
+    return true;
+  }
+
+  @Override
+  public TableStats getInputStats() {
+    tableStats.setNumSkippedBlocks(numSkippedBlocks);
+    return tableStats;
+  }
+
+  @Override
+  public boolean isSplittable() {
+    return true;
+  }
+}
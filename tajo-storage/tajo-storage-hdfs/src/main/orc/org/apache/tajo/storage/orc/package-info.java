@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * <p>
+ * Provides read and write support for ORC files. Tajo types are
+ * written as the following ORC types:
+ * </p>
+ *
+ * <table>
+ *   <tr>
+ *     <th>ORC type</th>
+ *     <th>Tajo type</th>
+ *   </tr>
+ *   <tr>
+ *     <td>BOOLEAN</td>
+ *     <td>BOOLEAN</td>
+ *   </tr>
+ *   <tr>
+ *     <td>BYTE</td>
+ *     <td>BIT</td>
+ *   </tr>
+ *   <tr>
+ *     <td>SHORT</td>
+ *     <td>INT2</td>
+ *   </tr>
+ *   <tr>
+ *     <td>INT</td>
+ *     <td>INT4</td>
+ *   </tr>
+ *   <tr>
+ *     <td>LONG</td>
+ *     <td>INT8</td>
+ *   </tr>
+ *   <tr>
+ *     <td>FLOAT</td>
+ *     <td>FLOAT4</td>
+ *   </tr>
+ *   <tr>
+ *     <td>DOUBLE</td>
+ *     <td>FLOAT8</td>
+ *   </tr>
+ *   <tr>
+ *     <td>STRING</td>
+ *     <td>CHAR, TEXT</td>
+ *   </tr>
+ *   <tr>
+ *     <td>BINARY</td>
+ *     <td>BLOB</td>
+ *   </tr>
+ *   <tr>
+ *     <td>DATE</td>
+ *     <td>DATE</td>
+ *   </tr>
+ *   <tr>
+ *     <td>TIMESTAMP</td>
+ *     <td>TIMESTAMP</td>
+ *   </tr>
+ * </table>
+ *
+ * <p>
+ * Other Tajo types and ORC complex types are not currently supported.
+ * Stripes are skipped by their column statistics, and row groups are
+ * skipped by the row index of ORC when a search condition is given.
+ * </p>
+ *
+ * <p>
+ * ORC files are read and written through hive-exec, which is not shipped
+ * with Tajo. This package is built only with the <code>orc</code> Maven
+ * profile, and hive-exec must be added to the classpath of Tajo.
+ * </p>
+ */
+
+package org.apache.tajo.storage.orc;
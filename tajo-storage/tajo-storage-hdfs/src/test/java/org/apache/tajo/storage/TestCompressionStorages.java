@@ -72,7 +72,8 @@ public class TestCompressionStorages {
         {StoreType.CSV},
         {StoreType.RCFILE},
         {StoreType.SEQUENCEFILE},
-        {StoreType.TEXTFILE}
+        {StoreType.TEXTFILE},
+        {StoreType.RAW}
     });
   }
 
@@ -87,7 +88,7 @@ public class TestCompressionStorages {
       if( ZlibFactory.isNativeZlibLoaded(conf)) {
         storageCompressionTest(storeType, GzipCodec.class);
       }
-    } else if (storeType == StoreType.SEQUENCEFILE) {
+    } else if (storeType == StoreType.SEQUENCEFILE || storeType == StoreType.RAW) {
       if( ZlibFactory.isNativeZlibLoaded(conf)) {
         storageCompressionTest(storeType, GzipCodec.class);
       }
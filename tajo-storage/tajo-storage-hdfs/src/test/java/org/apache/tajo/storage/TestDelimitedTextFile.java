@@ -20,6 +20,7 @@ package org.apache.tajo.storage;
 
 import com.google.common.base.Preconditions;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
@@ -32,12 +33,15 @@ import org.apache.tajo.conf.TajoConf;
 import org.apache.tajo.datum.Datum;
 import org.apache.tajo.datum.DatumFactory;
 import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
 import org.apache.tajo.util.FileUtil;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -177,4 +181,114 @@ public class TestDelimitedTextFile {
       scanner.close();
     }
   }
+
+  @Test
+  public void testLazyDeserialization() throws IOException {
+    TajoConf conf = new TajoConf();
+    TableMeta meta = CatalogUtil.newTableMeta(CatalogProtos.StoreType.TEXTFILE);
+    Path tablePath = new Path(CommonTestingUtil.getTestDir("target/test-data/TestDelimitedTextFile"), "lazy.txt");
+    FileStorageManager sm = (FileStorageManager) StorageManager.getFileStorageManager(conf);
+
+    Appender appender = sm.getAppender(meta, schema, tablePath);
+    appender.init();
+    int tupleNum = 100;
+    for (int i = 0; i < tupleNum; i++) {
+      VTuple tuple = new VTuple(baseTuple);
+      tuple.put(3, DatumFactory.createInt4(i));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+
+    Schema target = new Schema();
+    target.addColumn(schema.getColumn("col4"));
+    target.addColumn(schema.getColumn("col8"));
+    FileFragment fragment = new FileFragment("table", tablePath, 0, tablePath.getFileSystem(conf)
+        .getFileStatus(tablePath).getLen());
+    Scanner scanner = sm.getScanner(meta, schema, fragment, target);
+    scanner.init();
+
+    // tuples must be valid after the line buffer is reused for next lines
+    List<Tuple> tuples = new ArrayList<Tuple>();
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      assertTrue(tuple instanceof LazyTuple);
+      tuples.add(tuple);
+    }
+    scanner.close();
+
+    assertEquals(tupleNum, tuples.size());
+    for (int i = 0; i < tupleNum; i++) {
+      tuple = tuples.get(i);
+      assertEquals(i, tuple.getInt4(3));
+      assertEquals(baseTuple.get(7), tuple.get(7));
+      assertFalse(tuple.contains(0));
+      assertNull(tuple.get(0));
+    }
+  }
+
+  private Path writeMalformedLines(TajoConf conf, String fileName) throws IOException {
+    Path tablePath = new Path(CommonTestingUtil.getTestDir("target/test-data/TestDelimitedTextFile"), fileName);
+    FSDataOutputStream out = tablePath.getFileSystem(conf).create(tablePath);
+    // the second line has a malformed integer
+    out.write("1|a\nx|b\n3|c\n".getBytes());
+    out.close();
+    return tablePath;
+  }
+
+  @Test
+  public void testLazyFieldError() throws IOException {
+    TajoConf conf = new TajoConf();
+    TableMeta meta = CatalogUtil.newTableMeta(CatalogProtos.StoreType.TEXTFILE);
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    Path tablePath = writeMalformedLines(conf, "lazyError.txt");
+
+    FileFragment fragment = new FileFragment("table", tablePath, 0, tablePath.getFileSystem(conf)
+        .getFileStatus(tablePath).getLen());
+    Scanner scanner = StorageManager.getFileStorageManager(conf).getScanner(meta, schema, fragment);
+    scanner.init();
+
+    try {
+      assertEquals(1, scanner.next().getInt4(0));
+      Tuple tuple = scanner.next();
+      // a malformed field is not converted into NULL
+      assertEquals("b", tuple.getText(1));
+      try {
+        tuple.get(0);
+        fail();
+      } catch (NumberFormatException e) {
+      }
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testFieldErrorTolerance() throws IOException {
+    TajoConf conf = new TajoConf();
+    TableMeta meta = CatalogUtil.newTableMeta(CatalogProtos.StoreType.TEXTFILE);
+    meta.putOption(StorageUtil.TEXT_ERROR_TOLERANCE_MAXNUM, "1");
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    Path tablePath = writeMalformedLines(conf, "fieldErrorTolerance.txt");
+
+    FileFragment fragment = new FileFragment("table", tablePath, 0, tablePath.getFileSystem(conf)
+        .getFileStatus(tablePath).getLen());
+    Scanner scanner = StorageManager.getFileStorageManager(conf).getScanner(meta, schema, fragment);
+    scanner.init();
+
+    // the malformed line is counted as an error and skipped
+    List<Integer> ids = new ArrayList<Integer>();
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      assertFalse(tuple instanceof LazyTuple);
+      ids.add(tuple.getInt4(0));
+    }
+    scanner.close();
+    assertEquals(2, ids.size());
+    assertEquals(1, ids.get(0).intValue());
+    assertEquals(3, ids.get(1).intValue());
+  }
 }
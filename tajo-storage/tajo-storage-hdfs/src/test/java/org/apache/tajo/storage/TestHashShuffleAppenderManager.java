@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class TestHashShuffleAppenderManager {
+  private static final String TEST_PATH = "target/test-data/TestHashShuffleAppenderManager";
+
+  private TajoConf conf;
+  private Path testDir;
+  private HashShuffleAppenderManager manager;
+  private ExecutionBlockId ebId;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    conf.setVar(ConfVars.WORKER_TEMPORAL_DIR, new Path(testDir, "tmp").toUri().getPath());
+    manager = new HashShuffleAppenderManager(conf);
+    ebId = QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1), 1);
+  }
+
+  private File getPushedFile(int partId) {
+    int partParentId = HashShuffleAppenderManager.getPartParentId(partId, conf);
+    return new File(conf.getVar(ConfVars.WORKER_TEMPORAL_DIR), ebId.getQueryId() + "/output/" + ebId.getId() + "/"
+        + HashShuffleAppenderManager.PUSHED_HASH_SHUFFLE_DIR + "/" + partParentId + "/" + partId);
+  }
+
+  private static byte[] createPage(int length, int value) {
+    byte [] page = new byte[length];
+    Arrays.fill(page, (byte) value);
+    return page;
+  }
+
+  @Test
+  public void testAppendPushedPages() throws IOException {
+    byte [][] pages = new byte[][] {createPage(1000, 1), createPage(300, 2), createPage(700, 3)};
+
+    // a batch of pages is appended at the end of the consolidated file
+    assertEquals(0, manager.appendPushedPages(ebId, 0,
+        Lists.newArrayList(ByteBuffer.wrap(pages[0]), ByteBuffer.wrap(pages[1]))));
+
+    // pages of a local file are transferred from the given position
+    File localFile = new File(testDir.toUri().getPath(), "local");
+    FileOutputStream out = new FileOutputStream(localFile);
+    out.write(createPage(50, 9));
+    out.write(pages[2]);
+    out.close();
+    FileInputStream in = new FileInputStream(localFile);
+    try {
+      assertEquals(pages[0].length + pages[1].length,
+          manager.appendPushedPages(ebId, 0, in.getChannel(), 50, pages[2].length));
+    } finally {
+      in.close();
+    }
+
+    // pages beyond the end of a local file are not transferred
+    in = new FileInputStream(localFile);
+    try {
+      manager.appendPushedPages(ebId, 0, in.getChannel(), 50, pages[2].length + 1);
+      fail("Pages beyond the end of a file must not be transferred");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("remain"));
+    } finally {
+      in.close();
+    }
+
+    // each partition has its own consolidated file
+    assertEquals(0, manager.appendPushedPages(ebId, 1, Lists.newArrayList(ByteBuffer.wrap(pages[1]))));
+
+    byte [] consolidated = Files.toByteArray(getPushedFile(0));
+    assertTrue(consolidated.length >= pages[0].length + pages[1].length + pages[2].length);
+    int offset = 0;
+    for (byte [] page : pages) {
+      assertArrayEquals(page, Arrays.copyOfRange(consolidated, offset, offset + page.length));
+      offset += page.length;
+    }
+    assertArrayEquals(pages[1], Files.toByteArray(getPushedFile(1)));
+  }
+
+  @Test
+  public void testAppendPushedPagesConcurrently() throws Exception {
+    final int batchNum = 20;
+    final int pageLength = 4096;
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<long[]>> futures = new ArrayList<Future<long[]>>();
+    try {
+      for (int i = 0; i < 4; i++) {
+        final int value = i + 1;
+        futures.add(executor.submit(new Callable<long[]>() {
+          @Override
+          public long[] call() throws Exception {
+            long [] offsets = new long[batchNum];
+            for (int j = 0; j < batchNum; j++) {
+              offsets[j] = manager.appendPushedPages(ebId, 0, Lists.newArrayList(
+                  ByteBuffer.wrap(createPage(pageLength, value)), ByteBuffer.wrap(createPage(pageLength, value))));
+            }
+            return offsets;
+          }
+        }));
+      }
+
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+      // batches of workers never interleave
+      byte [] consolidated = Files.toByteArray(getPushedFile(0));
+      assertEquals(futures.size() * batchNum * pageLength * 2, consolidated.length);
+      for (int i = 0; i < futures.size(); i++) {
+        for (long offset : futures.get(i).get()) {
+          assertArrayEquals(createPage(pageLength * 2, i + 1),
+              Arrays.copyOfRange(consolidated, (int) offset, (int) offset + pageLength * 2));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.LocalDirAllocator;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.conf.TajoConf.ConfVars;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+public class TestRangeShuffleFileManager {
+  private static String TEST_PATH = "target/test-data/TestRangeShuffleFileManager";
+
+  @Test
+  public void testConsolidate() throws IOException {
+    TajoConf conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    FileSystem localFS = FileSystem.getLocal(conf);
+    conf.setVar(ConfVars.WORKER_TEMPORAL_DIR, new File(testDir.toUri().getPath(), "tmp").getAbsolutePath());
+
+    QueryId queryId = QueryIdFactory.newQueryId(System.currentTimeMillis(), 1);
+    ExecutionBlockId ebId = QueryIdFactory.newExecutionBlockId(queryId);
+    RangeShuffleFileManager manager = new RangeShuffleFileManager(conf);
+
+    byte [][] outputs = {"first task output".getBytes(), "second".getBytes()};
+    Path [] outDirs = new Path[outputs.length];
+    for (int i = 0; i < outputs.length; i++) {
+      outDirs[i] = localFS.makeQualified(new Path(testDir, "task_" + i + "/output"));
+      localFS.mkdirs(outDirs[i]);
+      FileOutputStream out = new FileOutputStream(new File(outDirs[i].toUri().getPath(), "output"));
+      out.write(outputs[i]);
+      out.close();
+
+      manager.consolidate(ebId, outDirs[i]);
+      assertFalse(new File(outDirs[i].toUri().getPath(), "output").exists());
+    }
+
+    LocalDirAllocator lDirAllocator = new LocalDirAllocator(ConfVars.WORKER_TEMPORAL_DIR.varname);
+    Path dataFile = lDirAllocator.getLocalPathToRead(
+        RangeShuffleFileManager.getDataFilePath(queryId.toString(), String.valueOf(ebId.getId())), conf);
+    RandomAccessFile raf = new RandomAccessFile(dataFile.toUri().getPath(), "r");
+    try {
+      assertEquals(outputs[0].length + outputs[1].length, raf.length());
+      for (int i = 0; i < outputs.length; i++) {
+        long [] segment = RangeShuffleFileManager.readSegment(outDirs[i]);
+        assertNotNull(segment);
+        assertEquals(outputs[i].length, segment[1]);
+
+        byte [] read = new byte[(int) segment[1]];
+        raf.seek(segment[0]);
+        raf.readFully(read);
+        assertArrayEquals(outputs[i], read);
+      }
+    } finally {
+      raf.close();
+    }
+
+    assertNull(RangeShuffleFileManager.readSegment(new Path(testDir, "not_consolidated")));
+    manager.cleanup(ebId);
+  }
+}
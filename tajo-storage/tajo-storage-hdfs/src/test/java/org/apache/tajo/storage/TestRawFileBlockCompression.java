@@ -0,0 +1,184 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.compress.DefaultCodec;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.Pair;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestRawFileBlockCompression {
+  private static final String TEST_PATH = "target/test-data/TestRawFileBlockCompression";
+  private static final int TUPLE_NUM = 1000;
+
+  private TajoConf conf;
+  private Path testDir;
+  private Schema schema;
+  private TableMeta meta;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new TajoConf();
+    // small blocks, so that rows are spread over many blocks
+    conf.setInt(RawFile.WRITE_BUFFER_SIZE, 1024);
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+
+    meta = CatalogUtil.newTableMeta(StoreType.RAW);
+    meta.putOption(StorageConstants.COMPRESSION_CODEC, DefaultCodec.class.getName());
+  }
+
+  private static Tuple createTuple(int id) {
+    VTuple tuple = new VTuple(2);
+    tuple.put(0, DatumFactory.createInt4(id));
+    tuple.put(1, DatumFactory.createText("name_" + id));
+    return tuple;
+  }
+
+  @Test
+  public void testSeekWithVirtualOffsets() throws IOException {
+    Path tablePath = new Path(testDir, "testSeekWithVirtualOffsets.raw");
+    RawFile.RawFileAppender appender = new RawFile.RawFileAppender(conf, null, schema, meta, tablePath);
+    appender.init();
+    long [] offsets = new long[TUPLE_NUM];
+    for (int i = 0; i < TUPLE_NUM; i++) {
+      offsets[i] = appender.getOffset();
+      appender.addTuple(createTuple(i));
+    }
+    appender.close();
+
+    // rows start in the middle of blocks after the first block
+    File file = new File(tablePath.toUri().getPath());
+    assertEquals(0, RawFile.getBlockOffset(offsets[0]));
+    assertTrue(RawFile.getBlockOffset(offsets[TUPLE_NUM - 1]) > 0);
+    assertTrue(RawFile.getBlockOffset(offsets[TUPLE_NUM - 1]) < file.length());
+    assertTrue(RawFile.getInBlockOffset(offsets[TUPLE_NUM - 1]) > 0);
+
+    FileFragment fragment = new FileFragment("table", tablePath, 0, file.length());
+    RawFile.RawFileScanner scanner = new RawFile.RawFileScanner(conf, schema, meta, fragment);
+    scanner.init();
+    try {
+      // forward and backward seeks, including the first and the last rows
+      for (int id : new int[] {500, 37, TUPLE_NUM - 1, 0, 640, 639}) {
+        scanner.seek(offsets[id]);
+        Tuple tuple = scanner.next();
+        assertNotNull(tuple);
+        assertEquals(id, tuple.getInt4(0));
+        assertEquals("name_" + id, tuple.getText(1));
+
+        // rows following the sought row are read in order
+        if (id < TUPLE_NUM - 1) {
+          assertEquals(id + 1, scanner.next().getInt4(0));
+        } else {
+          assertNull(scanner.next());
+        }
+      }
+    } finally {
+      scanner.close();
+    }
+  }
+
+  @Test
+  public void testHashShuffleAppenderBlockAlignment() throws IOException {
+    File dataFile = new File(testDir.toUri().getPath(), "testHashShuffleAppenderBlockAlignment");
+    RawFile.RawFileAppender appender =
+        new RawFile.RawFileAppender(conf, null, schema, meta, new Path(dataFile.getAbsolutePath()));
+    appender.init();
+
+    ExecutionBlockId ebId =
+        QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+    TaskAttemptId taskId = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId), 0);
+    HashShuffleAppender shuffleAppender = new HashShuffleAppender(ebId, 0, 2048, appender);
+    shuffleAppender.init();
+
+    for (int i = 0; i < TUPLE_NUM / 10; i++) {
+      List<Tuple> tuples = Lists.newArrayList();
+      for (int j = 0; j < 10; j++) {
+        tuples.add(createTuple(i * 10 + j));
+      }
+      shuffleAppender.addTuples(taskId, tuples);
+    }
+    shuffleAppender.close();
+
+    List<Pair<Long, Integer>> pages = shuffleAppender.getPages();
+    assertTrue(pages.size() > 1);
+
+    // pages are contiguous, and each of them consists of whole blocks
+    RandomAccessFile raf = new RandomAccessFile(dataFile, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      long expectedStart = 0;
+      for (Pair<Long, Integer> page : pages) {
+        long start = page.getFirst();
+        long end = start + page.getSecond();
+        assertEquals(expectedStart, start);
+
+        long blockOffset = start;
+        while (blockOffset < end) {
+          blockOffset += RawFile.getBlockLength(channel, blockOffset);
+        }
+        assertEquals(end, blockOffset);
+        expectedStart = end;
+      }
+      assertEquals(dataFile.length(), expectedStart);
+    } finally {
+      raf.close();
+    }
+
+    // each page is read independently, as the pull server sends it as a plain file region
+    int nextId = 0;
+    for (Pair<Long, Integer> page : pages) {
+      FileFragment fragment = new FileFragment("table", new Path(dataFile.getAbsolutePath()),
+          page.getFirst(), page.getSecond());
+      RawFile.RawFileScanner scanner = new RawFile.RawFileScanner(conf, schema, meta, fragment);
+      scanner.init();
+      Tuple tuple;
+      while ((tuple = scanner.next()) != null) {
+        assertEquals(nextId++, tuple.getInt4(0));
+      }
+      scanner.close();
+    }
+    assertEquals(TUPLE_NUM, nextId);
+  }
+}
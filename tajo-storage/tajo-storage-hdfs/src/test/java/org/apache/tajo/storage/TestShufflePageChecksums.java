@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.fs.ChecksumException;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.ExecutionBlockId;
+import org.apache.tajo.QueryIdFactory;
+import org.apache.tajo.TaskAttemptId;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.apache.tajo.util.Pair;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class TestShufflePageChecksums {
+  private static String TEST_PATH = "target/test-data/TestShufflePageChecksums";
+
+  @Test
+  public void testHashShuffleAppenderChecksums() throws IOException {
+    TajoConf conf = new TajoConf();
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    File dataFile = new File(testDir.toUri().getPath(), "0");
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.RAW);
+
+    RawFile.RawFileAppender appender =
+        new RawFile.RawFileAppender(conf, null, schema, meta, new Path(dataFile.getAbsolutePath()));
+    appender.enableStats();
+    appender.init();
+
+    ExecutionBlockId ebId =
+        QueryIdFactory.newExecutionBlockId(QueryIdFactory.newQueryId(System.currentTimeMillis(), 1));
+    TaskAttemptId taskId = QueryIdFactory.newTaskAttemptId(QueryIdFactory.newTaskId(ebId), 0);
+    HashShuffleAppender shuffleAppender = new HashShuffleAppender(ebId, 0, 1024, appender, dataFile);
+    shuffleAppender.init();
+
+    for (int i = 0; i < 100; i++) {
+      List<Tuple> tuples = Lists.newArrayList();
+      for (int j = 0; j < 10; j++) {
+        VTuple tuple = new VTuple(2);
+        tuple.put(0, DatumFactory.createInt4(i * 10 + j));
+        tuple.put(1, DatumFactory.createText("name_" + i + "_" + j));
+        tuples.add(tuple);
+      }
+      shuffleAppender.addTuples(taskId, tuples);
+    }
+    shuffleAppender.close();
+
+    List<Pair<Long, Integer>> pages = shuffleAppender.getPages();
+    List<long[]> checksums = ShufflePageChecksums.read(dataFile);
+    assertTrue(pages.size() > 1);
+    assertEquals(pages.size(), checksums.size());
+
+    RandomAccessFile raf = new RandomAccessFile(dataFile, "r");
+    try {
+      for (int i = 0; i < pages.size(); i++) {
+        byte [] page = new byte[pages.get(i).getSecond()];
+        raf.seek(pages.get(i).getFirst());
+        raf.readFully(page);
+        CRC32 crc = new CRC32();
+        crc.update(page, 0, page.length);
+
+        assertEquals(pages.get(i).getFirst().longValue(), checksums.get(i)[0]);
+        assertEquals(page.length, checksums.get(i)[1]);
+        assertEquals(crc.getValue(), checksums.get(i)[2]);
+      }
+    } finally {
+      raf.close();
+    }
+
+    // the header value is given only for a range of whole pages
+    long secondPage = pages.get(1).getFirst();
+    assertNotNull(ShufflePageChecksums.getHeaderValue(dataFile, 0, dataFile.length()));
+    assertNotNull(ShufflePageChecksums.getHeaderValue(dataFile, secondPage, dataFile.length() - secondPage));
+    assertNull(ShufflePageChecksums.getHeaderValue(dataFile, 1, dataFile.length() - 1));
+    assertNull(ShufflePageChecksums.getHeaderValue(dataFile, 0, secondPage + 1));
+  }
+
+  @Test
+  public void testPagesReadAppendedChecksums() throws IOException {
+    Path testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    File dataFile = new File(testDir.toUri().getPath(), "1");
+    ShufflePageChecksums.Pages pages = new ShufflePageChecksums.Pages(dataFile);
+    assertNull(pages.getHeaderValue(0, 100));
+
+    ShufflePageChecksums.append(dataFile, 0, 100, 0xa);
+    ShufflePageChecksums.append(dataFile, 100, 50, 0xb);
+    assertEquals("100:a,50:b", pages.getHeaderValue(0, 150));
+    assertEquals("50:b", pages.getHeaderValue(100, 50));
+    assertNull(pages.getHeaderValue(50, 100));
+
+    // pages appended by a producer are read when they are requested
+    ShufflePageChecksums.append(dataFile, 150, 70, 0xc);
+    assertEquals("50:b,70:c", pages.getHeaderValue(100, 120));
+    assertEquals(pages.getHeaderValue(0, 220), ShufflePageChecksums.getHeaderValue(dataFile, 0, 220));
+
+    // the checksum file is not read again for the pages read before
+    assertTrue(ShufflePageChecksums.getChecksumFile(dataFile).delete());
+    assertEquals("100:a,50:b,70:c", pages.getHeaderValue(0, 220));
+    assertNull(ShufflePageChecksums.getHeaderValue(dataFile, 0, 220));
+  }
+
+  @Test
+  public void testVerifier() throws IOException {
+    byte [] first = "first page".getBytes();
+    byte [] second = "second page".getBytes();
+    CRC32 crc = new CRC32();
+    crc.update(first, 0, first.length);
+    long firstChecksum = crc.getValue();
+    crc.reset();
+    crc.update(second, 0, second.length);
+    long secondChecksum = crc.getValue();
+
+    String header = first.length + ":" + Long.toHexString(firstChecksum) + ","
+        + second.length + ":" + Long.toHexString(secondChecksum);
+
+    ShufflePageChecksums.Verifier verifier = ShufflePageChecksums.parseHeaderValue(header);
+    verifier.update(first, 0, 4);
+    verifier.update(first, 4, first.length - 4);
+    assertEquals(first.length, verifier.getVerifiedBytes());
+    assertFalse(verifier.isCompleted());
+
+    // a corrupted page is detected, and it is received again after rewinding
+    byte [] corrupted = second.clone();
+    corrupted[0] = 'S';
+    try {
+      verifier.update(corrupted, 0, corrupted.length);
+      fail("A corrupted page must be detected");
+    } catch (ChecksumException e) {
+      assertEquals(first.length, e.getPos());
+    }
+    verifier.rewind();
+    verifier.update(second, 0, second.length);
+    assertEquals(first.length + second.length, verifier.getVerifiedBytes());
+    assertTrue(verifier.isCompleted());
+
+    try {
+      verifier.update(second, 0, 1);
+      fail("Bytes more than pages must be detected");
+    } catch (ChecksumException e) {
+    }
+  }
+}
@@ -22,12 +22,14 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufProcessor;
 import io.netty.buffer.Unpooled;
 import io.netty.util.CharsetUtil;
+import org.apache.tajo.storage.text.DelimiterSearch;
 import org.apache.tajo.storage.text.FieldSplitProcessor;
 import org.apache.tajo.storage.text.LineSplitProcessor;
 import org.apache.tajo.storage.text.MultiBytesFieldSplitProcessor;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Random;
 
 import static io.netty.util.ReferenceCountUtil.releaseLater;
 import static org.junit.Assert.assertEquals;
@@ -101,4 +103,48 @@ public class TestSplitProcessor {
     // find LF
     assertEquals(5, buf.forEachByte(5, len - 5, processor)); //line length is zero
   }
+
+  @Test
+  public void testDelimiterSearch() throws IOException {
+    String data = "abc||de|fghijklmnopq|r";
+    final ByteBuf buf = releaseLater(Unpooled.directBuffer(data.length()));
+    buf.writeBytes(data.getBytes(CharsetUtil.ISO_8859_1));
+
+    final int len = buf.readableBytes();
+    assertEquals(3, DelimiterSearch.indexOf(buf, 0, len, (byte) '|'));
+    assertEquals(4, DelimiterSearch.indexOf(buf, 4, len - 4, (byte) '|'));
+    assertEquals(7, DelimiterSearch.indexOf(buf, 5, len - 5, (byte) '|'));
+    // found in the second word
+    assertEquals(20, DelimiterSearch.indexOf(buf, 8, len - 8, (byte) '|'));
+    // out of the range
+    assertEquals(-1, DelimiterSearch.indexOf(buf, 8, 12, (byte) '|'));
+    assertEquals(-1, DelimiterSearch.indexOf(buf, 21, len - 21, (byte) '|'));
+
+    // a byte which differs from a delimiter only in the highest bit
+    buf.setByte(1, '|' | 0x80);
+    assertEquals(3, DelimiterSearch.indexOf(buf, 0, len, (byte) '|'));
+    assertEquals(1, DelimiterSearch.indexOf(buf, 0, len, (byte) ('|' | 0x80)));
+  }
+
+  @Test
+  public void testDelimiterSearchWithProcessors() throws Exception {
+    Random random = new Random(1);
+    byte [] candidates = new byte[] {'|', '\r', '\n', 'a', (byte) 0xfc, (byte) 0x8a, 0x00};
+    final ByteBuf buf = releaseLater(Unpooled.directBuffer(64));
+
+    for (int i = 0; i < 10000; i++) {
+      buf.clear();
+      int len = random.nextInt(64);
+      for (int j = 0; j < len; j++) {
+        // delimiters are sparse, so that a word does not have a delimiter in many cases
+        buf.writeByte(random.nextInt(8) == 0 ? candidates[random.nextInt(3)] : candidates[3 + random.nextInt(4)]);
+      }
+      int start = random.nextInt(len + 1);
+
+      assertEquals(buf.forEachByte(start, len - start, new FieldSplitProcessor((byte) '|')),
+          DelimiterSearch.indexOf(buf, start, len - start, (byte) '|'));
+      assertEquals(buf.forEachByte(start, len - start, new LineSplitProcessor()),
+          DelimiterSearch.indexOfLineTerminator(buf, start, len - start));
+    }
+  }
 }
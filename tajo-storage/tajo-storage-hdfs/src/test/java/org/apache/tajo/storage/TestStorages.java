@@ -890,6 +890,60 @@ public class TestStorages {
     }
   }
 
+  @Test
+  public void testRawFileMemoryMappedWindows() throws IOException {
+    if (storeType != StoreType.RAW) {
+      return;
+    }
+
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("comment", Type.TEXT);
+
+    TableMeta meta = CatalogUtil.newTableMeta(storeType);
+    Path tablePath = new Path(testDir, "MemoryMapped.data");
+    FileStorageManager sm = (FileStorageManager)StorageManager.getFileStorageManager(conf);
+    FileAppender appender = (FileAppender) sm.getAppender(meta, schema, tablePath);
+    appender.init();
+
+    int tupleNum = 1000;
+    long seekOffset = 0;
+    for (int i = 0; i < tupleNum; i++) {
+      if (i == tupleNum / 2) {
+        seekOffset = appender.getOffset();
+      }
+      VTuple vTuple = new VTuple(2);
+      vTuple.put(0, DatumFactory.createInt4(i));
+      // every 100th row is larger than a mapped window
+      vTuple.put(1, DatumFactory.createText(i % 100 == 0 ? new String(new char[300]).replace('\0', 'x') : "c" + i));
+      appender.addTuple(vTuple);
+    }
+    appender.close();
+
+    TajoConf mmapConf = new TajoConf(conf);
+    mmapConf.setBoolean(RawFile.MMAP_ENABLED, true);
+    mmapConf.setInt(RawFile.MMAP_WINDOW_SIZE, 128);
+    FileStatus status = fs.getFileStatus(tablePath);
+    FileFragment fragment = new FileFragment("table", tablePath, 0, status.getLen());
+
+    RawFile.RawFileScanner scanner = new RawFile.RawFileScanner(mmapConf, schema, meta, fragment);
+    scanner.init();
+    Tuple tuple;
+    int tupleCnt = 0;
+    while ((tuple = scanner.next()) != null) {
+      assertEquals(tupleCnt, tuple.getInt4(0));
+      assertEquals(tupleCnt % 100 == 0 ? 300 : ("c" + tupleCnt).length(), tuple.getText(1).length());
+      tupleCnt++;
+    }
+    assertEquals(tupleNum, tupleCnt);
+
+    scanner.seek(seekOffset);
+    assertEquals(tupleNum / 2, scanner.next().getInt4(0));
+    scanner.reset();
+    assertEquals(0, scanner.next().getInt4(0));
+    scanner.close();
+  }
+
   @Test
   public void testMaxValue() throws IOException {
 
@@ -0,0 +1,198 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.*;
+
+@RunWith(Parameterized.class)
+public class TestZoneMap {
+  private static final String TEST_PATH = "target/test-data/TestZoneMap";
+  private static final int TUPLE_NUM = 10000;
+
+  private final StoreType storeType;
+  private TajoConf conf;
+  private Path testDir;
+  private FileSystem fs;
+  private FileStorageManager sm;
+  private Schema schema;
+
+  public TestZoneMap(StoreType storeType) {
+    this.storeType = storeType;
+  }
+
+  @Parameterized.Parameters
+  public static Collection<Object[]> generateParameters() {
+    return Arrays.asList(new Object[][] {
+        {StoreType.RAW},
+        {StoreType.ROWFILE},
+    });
+  }
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    fs = testDir.getFileSystem(conf);
+    sm = (FileStorageManager) StorageManager.getFileStorageManager(conf);
+
+    schema = new Schema();
+    schema.addColumn("id", Type.INT4);
+    schema.addColumn("name", Type.TEXT);
+  }
+
+  private TableMeta newMeta() {
+    TableMeta meta = CatalogUtil.newTableMeta(storeType);
+    meta.putOption(StorageConstants.ZONE_MAP_ENABLED, "true");
+    meta.putOption(StorageConstants.ZONE_MAP_ZONE_SIZE, "4096");
+    return meta;
+  }
+
+  private Path writeIds(TableMeta meta, String name) throws IOException {
+    Path tablePath = new Path(testDir, name);
+    Appender appender = sm.getAppender(meta, schema, tablePath);
+    appender.init();
+    for (int i = 0; i < TUPLE_NUM; i++) {
+      VTuple tuple = new VTuple(2);
+      tuple.put(0, DatumFactory.createInt4(i));
+      // names are null in the first half, so that a zone has only null names
+      tuple.put(1, i < TUPLE_NUM / 2 ? NullDatum.get() : DatumFactory.createText("name" + i));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+    return tablePath;
+  }
+
+  private int[] scan(TableMeta meta, FileFragment fragment, EvalNode qual, int [] counts) throws IOException {
+    Scanner scanner = sm.getScanner(meta, schema, fragment, schema);
+    assertTrue(scanner.isSelectable());
+    if (qual != null) {
+      scanner.setSearchCondition(qual);
+      qual.bind(schema);
+    }
+    scanner.init();
+
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      counts[0]++;
+      if (qual == null || qual.eval(tuple).isTrue()) {
+        counts[1]++;
+      }
+    }
+    scanner.close();
+    counts[2] += scanner.getInputStats().getNumSkippedBlocks();
+    return counts;
+  }
+
+  private int[] scan(TableMeta meta, Path tablePath, EvalNode qual) throws IOException {
+    FileFragment fragment = new FileFragment("table", tablePath, 0, fs.getFileStatus(tablePath).getLen());
+    return scan(meta, fragment, qual, new int[3]);
+  }
+
+  @Test
+  public void testSkipZones() throws IOException {
+    TableMeta meta = newMeta();
+    Path tablePath = writeIds(meta, "testSkipZones.data");
+
+    // all rows are read without a search condition
+    int [] counts = scan(meta, tablePath, null);
+    assertEquals(TUPLE_NUM, counts[0]);
+    assertEquals(0, counts[2]);
+
+    Column id = schema.getColumn("id");
+    EvalNode qual = new BinaryEval(EvalType.GEQ, new FieldEval(id), new ConstEval(DatumFactory.createInt4(9000)));
+    counts = scan(meta, tablePath, qual);
+    assertEquals(1000, counts[1]);
+    assertTrue(counts[0] < TUPLE_NUM);
+    assertTrue(counts[2] > 0);
+
+    qual = new BinaryEval(EvalType.LTH, new FieldEval(id), new ConstEval(DatumFactory.createInt4(100)));
+    counts = scan(meta, tablePath, qual);
+    assertEquals(100, counts[1]);
+    assertTrue(counts[0] < TUPLE_NUM);
+
+    // zones without null names are skipped
+    qual = new IsNullEval(false, new FieldEval(schema.getColumn("name")));
+    counts = scan(meta, tablePath, qual);
+    assertEquals(TUPLE_NUM / 2, counts[1]);
+    assertTrue(counts[0] < TUPLE_NUM);
+  }
+
+  @Test
+  public void testWithoutZoneMap() throws IOException {
+    TableMeta meta = CatalogUtil.newTableMeta(storeType);
+    meta.putOption(StorageConstants.ZONE_MAP_ENABLED, "false");
+    Path tablePath = writeIds(meta, "testWithoutZoneMap.data");
+
+    Column id = schema.getColumn("id");
+    EvalNode qual = new BinaryEval(EvalType.GEQ, new FieldEval(id), new ConstEval(DatumFactory.createInt4(9000)));
+    int [] counts = scan(meta, tablePath, qual);
+    assertEquals(TUPLE_NUM, counts[0]);
+    assertEquals(1000, counts[1]);
+    assertEquals(0, counts[2]);
+  }
+
+  @Test
+  public void testSplits() throws IOException {
+    if (storeType != StoreType.ROWFILE) {
+      return;
+    }
+
+    TableMeta meta = newMeta();
+    Path tablePath = writeIds(meta, "testSplits.data");
+    long fileLen = fs.getFileStatus(tablePath).getLen();
+
+    Column id = schema.getColumn("id");
+    EvalNode qual = new BinaryEval(EvalType.GEQ, new FieldEval(id), new ConstEval(DatumFactory.createInt4(5000)));
+    // the last split has only a part of the footer
+    long [] splits = new long[] {0, fileLen / 3, fileLen / 2, fileLen - 10, fileLen};
+    int [] all = new int[3];
+    int [] filtered = new int[3];
+    for (int i = 0; i < splits.length - 1; i++) {
+      FileFragment fragment = new FileFragment("table", tablePath, splits[i], splits[i + 1] - splits[i]);
+      scan(meta, fragment, null, all);
+      scan(meta, fragment, qual, filtered);
+    }
+    assertEquals(TUPLE_NUM, all[0]);
+    assertEquals(5000, filtered[1]);
+    assertTrue(filtered[2] > 0);
+  }
+}
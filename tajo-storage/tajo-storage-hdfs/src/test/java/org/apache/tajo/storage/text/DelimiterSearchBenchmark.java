@@ -0,0 +1,165 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.text;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link DelimiterSearch} with the byte-at-a-time processors, on a direct buffer of delimited lines as
+ * {@link ByteBufLineReader} reads. Narrow rows have a few short fields, and wide rows have many long fields.
+ *
+ * It is not a unit test, and is run by its main method with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class DelimiterSearchBenchmark {
+  private static final int DATA_SIZE = 16 * 1024 * 1024;
+  private static final byte DELIMITER = '|';
+
+  @Param({"narrow", "wide"})
+  public String rowType;
+
+  private ByteBuf data;
+
+  @Setup
+  public void setUp() {
+    int fieldNum = rowType.equals("narrow") ? 4 : 64;
+    int maxFieldLength = rowType.equals("narrow") ? 8 : 24;
+
+    Random random = new Random(1);
+    data = Unpooled.directBuffer(DATA_SIZE);
+    while (data.writableBytes() > fieldNum * (maxFieldLength + 1)) {
+      for (int i = 0; i < fieldNum; i++) {
+        if (i > 0) {
+          data.writeByte(DELIMITER);
+        }
+        int length = 1 + random.nextInt(maxFieldLength);
+        for (int j = 0; j < length; j++) {
+          data.writeByte('a' + random.nextInt(26));
+        }
+      }
+      data.writeByte(LineSplitProcessor.LF);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    data.release();
+  }
+
+  @Benchmark
+  public int splitLinesByProcessor() {
+    LineSplitProcessor processor = new LineSplitProcessor();
+    int lines = 0;
+    int index = 0;
+    int end = data.writerIndex();
+    while (index < end) {
+      int found = data.forEachByte(index, end - index, processor);
+      if (found < 0) {
+        break;
+      }
+      lines++;
+      index = found + 1;
+    }
+    return lines;
+  }
+
+  @Benchmark
+  public int splitLinesBySWAR() {
+    int lines = 0;
+    int index = 0;
+    int end = data.writerIndex();
+    while (index < end) {
+      int found = DelimiterSearch.indexOfLineTerminator(data, index, end - index);
+      if (found < 0) {
+        break;
+      }
+      lines++;
+      index = found + 1;
+    }
+    return lines;
+  }
+
+  /**
+   * Splits each line into fields, as {@link CSVLineDeserializer} does after a line is read.
+   */
+  @Benchmark
+  public int splitFieldsByProcessor() {
+    LineSplitProcessor lineProcessor = new LineSplitProcessor();
+    FieldSplitProcessor fieldProcessor = new FieldSplitProcessor(DELIMITER);
+    int fields = 0;
+    int index = 0;
+    int end = data.writerIndex();
+    while (index < end) {
+      int lineEnd = data.forEachByte(index, end - index, lineProcessor);
+      if (lineEnd < 0) {
+        break;
+      }
+      int found;
+      while ((found = data.forEachByte(index, lineEnd - index, fieldProcessor)) >= 0) {
+        fields++;
+        index = found + 1;
+      }
+      fields++;
+      index = lineEnd + 1;
+    }
+    return fields;
+  }
+
+  @Benchmark
+  public int splitFieldsBySWAR() {
+    int fields = 0;
+    int index = 0;
+    int end = data.writerIndex();
+    while (index < end) {
+      int lineEnd = DelimiterSearch.indexOfLineTerminator(data, index, end - index);
+      if (lineEnd < 0) {
+        break;
+      }
+      int found;
+      while ((found = DelimiterSearch.indexOf(data, index, lineEnd - index, DELIMITER)) >= 0) {
+        fields++;
+        index = found + 1;
+      }
+      fields++;
+      index = lineEnd + 1;
+    }
+    return fields;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(DelimiterSearchBenchmark.class.getSimpleName())
+        .build();
+    new Runner(options).run();
+  }
+}
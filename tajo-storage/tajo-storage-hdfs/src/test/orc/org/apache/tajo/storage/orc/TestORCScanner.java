@@ -0,0 +1,221 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.tajo.storage.orc;
+
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.tajo.catalog.CatalogUtil;
+import org.apache.tajo.catalog.Column;
+import org.apache.tajo.catalog.Schema;
+import org.apache.tajo.catalog.TableMeta;
+import org.apache.tajo.catalog.proto.CatalogProtos.StoreType;
+import org.apache.tajo.common.TajoDataTypes.Type;
+import org.apache.tajo.conf.TajoConf;
+import org.apache.tajo.datum.Datum;
+import org.apache.tajo.datum.DatumFactory;
+import org.apache.tajo.datum.NullDatum;
+import org.apache.tajo.plan.expr.*;
+import org.apache.tajo.storage.*;
+import org.apache.tajo.storage.fragment.FileFragment;
+import org.apache.tajo.util.CommonTestingUtil;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TestORCScanner {
+  private static final String TEST_PATH = "target/test-data/TestORCScanner";
+  private TajoConf conf;
+  private Path testDir;
+  private FileSystem fs;
+  private FileStorageManager sm;
+
+  @Before
+  public void setUp() throws IOException {
+    conf = new TajoConf();
+    testDir = CommonTestingUtil.getTestDir(TEST_PATH);
+    fs = testDir.getFileSystem(conf);
+    sm = (FileStorageManager) StorageManager.getFileStorageManager(conf);
+  }
+
+  private Schema newIdSchema() {
+    Schema schema = new Schema();
+    schema.addColumn("id", Type.INT8);
+    schema.addColumn("name", Type.TEXT);
+    return schema;
+  }
+
+  private Path writeIds(Schema schema, TableMeta meta, String name, int tupleNum) throws IOException {
+    Path tablePath = new Path(testDir, name);
+    Appender appender = sm.getAppender(meta, schema, tablePath);
+    appender.enableStats();
+    appender.init();
+    for (int i = 0; i < tupleNum; i++) {
+      VTuple tuple = new VTuple(2);
+      tuple.put(0, DatumFactory.createInt8(i));
+      tuple.put(1, DatumFactory.createText("name" + i));
+      appender.addTuple(tuple);
+    }
+    appender.close();
+    assertEquals(tupleNum, appender.getStats().getNumRows().longValue());
+    return tablePath;
+  }
+
+  private Scanner newScanner(TableMeta meta, Schema schema, Path tablePath, Schema target, EvalNode qual)
+      throws IOException {
+    FileFragment fragment = new FileFragment("table", tablePath, 0, fs.getFileStatus(tablePath).getLen());
+    Scanner scanner = sm.getScanner(meta, schema, fragment, target);
+    assertTrue(scanner.isSelectable());
+    if (qual != null) {
+      scanner.setSearchCondition(qual);
+    }
+    scanner.init();
+    return scanner;
+  }
+
+  @Test
+  public void testVariousTypes() throws IOException {
+    Schema schema = new Schema();
+    schema.addColumn("col1", Type.BOOLEAN);
+    schema.addColumn("col2", Type.BIT);
+    schema.addColumn("col3", Type.CHAR, 7);
+    schema.addColumn("col4", Type.INT2);
+    schema.addColumn("col5", Type.INT4);
+    schema.addColumn("col6", Type.INT8);
+    schema.addColumn("col7", Type.FLOAT4);
+    schema.addColumn("col8", Type.FLOAT8);
+    schema.addColumn("col9", Type.TEXT);
+    schema.addColumn("col10", Type.BLOB);
+    schema.addColumn("col11", Type.DATE);
+    schema.addColumn("col12", Type.TIMESTAMP);
+
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.ORC);
+    Path tablePath = new Path(testDir, "testVariousTypes.orc");
+    Appender appender = sm.getAppender(meta, schema, tablePath);
+    appender.init();
+
+    VTuple tuple = new VTuple(12);
+    tuple.put(new Datum[] {
+        DatumFactory.createBool(true),
+        DatumFactory.createBit((byte) 0x99),
+        DatumFactory.createChar("hyunsik"),
+        DatumFactory.createInt2((short) 17),
+        DatumFactory.createInt4(59),
+        DatumFactory.createInt8(23l),
+        DatumFactory.createFloat4(77.9f),
+        DatumFactory.createFloat8(271.9f),
+        DatumFactory.createText("hyunsik"),
+        DatumFactory.createBlob("hyunsik".getBytes()),
+        DatumFactory.createDate(2015, 3, 14),
+        DatumFactory.createTimestmpDatumWithJavaMillis(1426291200123l)
+    });
+    appender.addTuple(tuple);
+
+    VTuple nullTuple = new VTuple(12);
+    for (int i = 0; i < 12; i++) {
+      nullTuple.put(i, NullDatum.get());
+    }
+    appender.addTuple(nullTuple);
+    appender.close();
+
+    Scanner scanner = newScanner(meta, schema, tablePath, schema, null);
+    Tuple retrieved = scanner.next();
+    for (int i = 0; i < tuple.size(); i++) {
+      assertEquals(tuple.get(i), retrieved.get(i));
+    }
+    retrieved = scanner.next();
+    for (int i = 0; i < tuple.size(); i++) {
+      assertTrue(retrieved.get(i).isNull());
+    }
+    assertNull(scanner.next());
+    scanner.close();
+  }
+
+  @Test
+  public void testProjection() throws IOException {
+    Schema schema = newIdSchema();
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.ORC);
+    Path tablePath = writeIds(schema, meta, "testProjection.orc", 1000);
+
+    Schema target = new Schema();
+    target.addColumn("name", Type.TEXT);
+    Scanner scanner = newScanner(meta, schema, tablePath, target, null);
+    int tupleCnt = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      assertNull(tuple.get(0));
+      assertEquals("name" + tupleCnt, tuple.get(1).asChars());
+      tupleCnt++;
+    }
+    scanner.close();
+    assertEquals(1000, tupleCnt);
+  }
+
+  @Test
+  public void testStripeSkipping() throws IOException {
+    Schema schema = newIdSchema();
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.ORC);
+    // a stripe is flushed whenever the writer checks its memory
+    meta.putOption(StorageConstants.ORC_STRIPE_SIZE, "1024");
+    Path tablePath = writeIds(schema, meta, "testStripeSkipping.orc", 20000);
+
+    Column id = schema.getColumn("id");
+    EvalNode qual = new BinaryEval(EvalType.GEQ, new FieldEval(id), new ConstEval(DatumFactory.createInt8(15000)));
+    Scanner scanner = newScanner(meta, schema, tablePath, schema, qual);
+    int tupleCnt = 0;
+    int matched = 0;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      tupleCnt++;
+      if (tuple.get(0).asInt8() >= 15000) {
+        matched++;
+      }
+    }
+    scanner.close();
+
+    assertEquals(5000, matched);
+    assertTrue(tupleCnt < 20000);
+    assertTrue(scanner.getInputStats().getNumSkippedBlocks() > 0);
+  }
+
+  @Test
+  public void testRowGroupSkipping() throws IOException {
+    Schema schema = newIdSchema();
+    TableMeta meta = CatalogUtil.newTableMeta(StoreType.ORC);
+    meta.putOption(StorageConstants.ORC_ROW_INDEX_STRIDE, "1000");
+    Path tablePath = writeIds(schema, meta, "testRowGroupSkipping.orc", 20000);
+
+    Column id = schema.getColumn("id");
+    EvalNode qual = new BinaryEval(EvalType.EQUAL, new FieldEval(id), new ConstEval(DatumFactory.createInt8(1500)));
+    Scanner scanner = newScanner(meta, schema, tablePath, schema, qual);
+    int tupleCnt = 0;
+    boolean found = false;
+    Tuple tuple;
+    while ((tuple = scanner.next()) != null) {
+      tupleCnt++;
+      found |= tuple.get(0).asInt8() == 1500;
+    }
+    scanner.close();
+
+    assertTrue(found);
+    assertTrue(tupleCnt < 20000);
+  }
+}